@@ -0,0 +1,182 @@
+package com.logic.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.logic.components.LComponent;
+import com.logic.components.Switch;
+import com.logic.engine.LogicRequest;
+import com.logic.engine.LogicWorker;
+import com.logic.engine.NetlistEngine;
+import com.logic.engine.SettleResult;
+import com.logic.main.GatewayFile;
+import com.logic.util.CompUtils;
+
+/**
+ * Measures the common operations of the simulator on circuits built by CircuitGenerator: a full settle through the LogicWorker, the
+ * propagation of a single switch, duplicating the circuit, and saving and loading it as a .gtw file. The circuit and its size are chosen
+ * with the circuit and size parameters, and the flatten parameter decides whether Custom components are flattened into the netlist.
+ * Every random choice uses a fixed seed and every run forks twice, so results can be compared between commits to catch regressions. Run
+ * from the repository root so that component images can be loaded. The forks are given a large stack because a .gtw file is written by
+ * following wires from component to component, which recurses once for every gate on the longest path through the circuit.
+ * @author toddstennes
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xss64m")
+public class CircuitBenchmark {
+
+	/**
+	 * The circuit to build (see CircuitGenerator.generate(...))
+	 */
+	@Param({"adder", "multiplier", "counter", "inverters", "xor", "customs"})
+	public String circuit;
+
+	/**
+	 * The size of the circuit (see CircuitGenerator.generate(...))
+	 */
+	@Param({"8"})
+	public int size;
+
+	/**
+	 * True to flatten Custom components into the netlist
+	 */
+	@Param({"true", "false"})
+	public boolean flatten;
+
+	/**
+	 * The circuit being measured
+	 */
+	private GeneratedCircuit generated;
+
+	/**
+	 * The engine that runs the circuit
+	 */
+	private NetlistEngine engine;
+
+	/**
+	 * The worker that runs full settles
+	 */
+	private LogicWorker worker;
+
+	/**
+	 * The circuit saved as a .gtw file
+	 */
+	private byte[] saved;
+
+	/**
+	 * Used to choose which switch to toggle
+	 */
+	private Random random;
+
+	/**
+	 * Builds the circuit, settles it once, and saves it so that it can be loaded
+	 * @throws IOException If the circuit cannot be saved
+	 */
+	@Setup
+	public void setup() throws IOException {
+		generated = CircuitGenerator.generate(circuit, size);
+		engine = generated.attach();
+		engine.setFlatten(flatten);
+		engine.settleAll();
+		worker = engine.getWorker();
+		worker.setCoalesceWindow(0);
+		saved = save(generated.getLComps());
+		random = new Random(42);
+	}
+
+	/**
+	 * Toggles every input and settles the entire circuit through the LogicWorker, waiting for the worker to finish
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	@Benchmark
+	public void fullSettle() throws InterruptedException {
+		ArrayList<Switch> inputs = generated.getInputs();
+		for(int i = 0; i < inputs.size(); i++) inputs.get(i).setState(!inputs.get(i).getState());
+		worker.submit(new LogicRequest());
+		worker.awaitIdle();
+	}
+
+	/**
+	 * Toggles one random input and propagates the change through the circuit
+	 * @return The result of the logic process
+	 */
+	@Benchmark
+	public SettleResult propagateSwitch() {
+		ArrayList<Switch> inputs = generated.getInputs();
+		Switch sw = inputs.get(random.nextInt(inputs.size()));
+		sw.setState(!sw.getState());
+		return engine.propagate(sw);
+	}
+
+	/**
+	 * Duplicates every component of the circuit, as copying and pasting the whole circuit does
+	 * @return The duplicated components
+	 */
+	@Benchmark
+	public ArrayList<LComponent> duplicate() {
+		return CompUtils.duplicate(generated.getLComps());
+	}
+
+	/**
+	 * Saves the circuit as a .gtw file in memory
+	 * @return The saved file
+	 * @throws IOException If the circuit cannot be saved
+	 */
+	@Benchmark
+	public byte[] saveFile() throws IOException {
+		return save(generated.getLComps());
+	}
+
+	/**
+	 * Loads the circuit from a .gtw file in memory
+	 * @return The loaded file
+	 * @throws IOException If the file cannot be read
+	 * @throws ClassNotFoundException If the file contains a class that does not exist
+	 */
+	@Benchmark
+	public GatewayFile loadFile() throws IOException, ClassNotFoundException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(saved));
+		try {
+			return (GatewayFile) in.readObject();
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes components to a .gtw file in memory in the same way that FileManager saves a file
+	 * @param lcomps The components
+	 * @return The bytes of the file
+	 * @throws IOException If the components cannot be written
+	 */
+	private static byte[] save(ArrayList<LComponent> lcomps) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(new GatewayFile(lcomps));
+		out.close();
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,323 @@
+package com.logic.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.logic.components.BasicGate;
+import com.logic.components.CompType;
+import com.logic.components.Constant;
+import com.logic.components.Custom;
+import com.logic.components.LComponent;
+import com.logic.components.Light;
+import com.logic.components.SingleInputGate;
+import com.logic.components.Switch;
+import com.logic.engine.LogicFunctions;
+import com.logic.main.LogicSimApp;
+import com.logic.ui.CompRotator;
+import com.logic.ui.IconLoader;
+
+/**
+ * Builds circuits of a given size out of gates for benchmarking the simulation engine. Every circuit is returned fully settled, and its
+ * inputs and outputs are ordered so that they can be read as numbers. Components are not positioned, since the engine does not use their
+ * positions.
+ * @author toddstennes
+ *
+ */
+public class CircuitGenerator {
+
+	/**
+	 * Loads the images and logic functions that components need. The images are loaded from res/, so benchmarks must be run from the
+	 * repository root
+	 */
+	public static void init() {
+		if(LogicSimApp.iconLoader == null) LogicSimApp.iconLoader = new IconLoader();
+		if(LogicFunctions.func2s.isEmpty()) LogicFunctions.setFunctions();
+	}
+
+	/**
+	 * Builds one of the circuits by name, so that benchmarks can choose the circuit with a parameter
+	 * @param name One of adder, multiplier, counter, inverters, xor, or customs
+	 * @param size The number of bits for an adder, multiplier, or counter, the number of gates for inverters, the number of inputs for xor,
+	 * or the depth of the hierarchy for customs
+	 * @return The circuit
+	 */
+	public static GeneratedCircuit generate(String name, int size) {
+		init();
+		if(name.equals("adder")) return rippleAdder(size);
+		else if(name.equals("multiplier")) return arrayMultiplier(size);
+		else if(name.equals("counter")) return counterChain(size);
+		else if(name.equals("inverters")) return inverterChain(size);
+		else if(name.equals("xor")) return xorTree(size);
+		else if(name.equals("customs")) return nestedCustoms(size, 4);
+		else throw new IllegalArgumentException("Unknown circuit \"" + name + "\"");
+	}
+
+	/**
+	 * Builds an adder that adds two numbers and a carry in with a chain of full adders. The inputs are a, then b, then the carry in, and
+	 * the outputs are the sum followed by the carry out
+	 * @param bits The number of bits in each number
+	 * @return The circuit
+	 */
+	public static GeneratedCircuit rippleAdder(int bits) {
+		GeneratedCircuit circuit = new GeneratedCircuit();
+		Switch[] a = new Switch[bits], b = new Switch[bits];
+		for(int i = 0; i < bits; i++) a[i] = circuit.addInput();
+		for(int i = 0; i < bits; i++) b[i] = circuit.addInput();
+		LComponent carry = circuit.addInput();
+		for(int i = 0; i < bits; i++) {
+			LComponent[] sumAndCarry = fullAdder(circuit, a[i], b[i], carry);
+			circuit.addOutput(sumAndCarry[0]);
+			carry = sumAndCarry[1];
+		}
+		circuit.addOutput(carry);
+		circuit.settle();
+		return circuit;
+	}
+
+	/**
+	 * Builds an array multiplier that multiplies two numbers by adding up rows of partial products with ripple adders. The inputs are a,
+	 * then b, and the outputs are the 2 * bits bit product
+	 * @param bits The number of bits in each number
+	 * @return The circuit
+	 */
+	public static GeneratedCircuit arrayMultiplier(int bits) {
+		GeneratedCircuit circuit = new GeneratedCircuit();
+		Switch[] a = new Switch[bits], b = new Switch[bits];
+		for(int i = 0; i < bits; i++) a[i] = circuit.addInput();
+		for(int i = 0; i < bits; i++) b[i] = circuit.addInput();
+		LComponent zero = circuit.add(new Constant(0, 0, CompType.ZERO));
+
+		LComponent[] row = partialProducts(circuit, a, b[0]);
+		LComponent rowCarry = zero;
+		ArrayList<LComponent> product = new ArrayList<LComponent>();
+		for(int j = 1; j < bits; j++) {
+			product.add(row[0]);
+			LComponent[] partial = partialProducts(circuit, a, b[j]);
+			LComponent[] sum = new LComponent[bits];
+			LComponent carry = zero;
+			for(int i = 0; i < bits; i++) {
+				LComponent shifted = i + 1 < bits ? row[i + 1] : rowCarry;
+				LComponent[] sumAndCarry = fullAdder(circuit, shifted, partial[i], carry);
+				sum[i] = sumAndCarry[0];
+				carry = sumAndCarry[1];
+			}
+			row = sum;
+			rowCarry = carry;
+		}
+		for(int i = 0; i < bits; i++) product.add(row[i]);
+		product.add(rowCarry);
+		for(int i = 0; i < product.size(); i++) circuit.addOutput(product.get(i));
+		circuit.settle();
+		return circuit;
+	}
+
+	/**
+	 * Builds a synchronous binary counter out of master-slave D flip-flops, where each flip-flop is made of two gated D latches built
+	 * from AND and OR gates. The only input is the clock, and the counter counts up once every time the clock goes high. The outputs are
+	 * the bits of the count
+	 * @param bits The number of bits in the counter
+	 * @return The circuit
+	 */
+	public static GeneratedCircuit counterChain(int bits) {
+		GeneratedCircuit circuit = new GeneratedCircuit();
+		Switch clock = circuit.addInput();
+		SingleInputGate clockInverted = circuit.add(new SingleInputGate(0, 0, CompType.NOT));
+		GeneratedCircuit.connect(clock, 0, clockInverted, 0);
+		LComponent carry = circuit.add(new Constant(0, 0, CompType.ONE));
+		for(int i = 0; i < bits; i++) {
+			BasicGate next = circuit.add(new BasicGate(0, 0, CompType.XOR));
+			LComponent master = latch(circuit, next, clockInverted);
+			LComponent q = latch(circuit, master, clock);
+			GeneratedCircuit.connect(q, 0, next, 0);
+			GeneratedCircuit.connect(carry, 0, next, 1);
+			BasicGate nextCarry = circuit.add(new BasicGate(0, 0, CompType.AND));
+			GeneratedCircuit.connect(carry, 0, nextCarry, 0);
+			GeneratedCircuit.connect(q, 0, nextCarry, 1);
+			carry = nextCarry;
+			circuit.addOutput(q);
+		}
+		circuit.settle();
+		return circuit;
+	}
+
+	/**
+	 * Builds a chain of NOT gates between one switch and one light
+	 * @param length The number of NOT gates
+	 * @return The circuit
+	 */
+	public static GeneratedCircuit inverterChain(int length) {
+		GeneratedCircuit circuit = new GeneratedCircuit();
+		LComponent previous = circuit.addInput();
+		for(int i = 0; i < length; i++) {
+			SingleInputGate not = circuit.add(new SingleInputGate(0, 0, CompType.NOT));
+			GeneratedCircuit.connect(previous, 0, not, 0);
+			previous = not;
+		}
+		circuit.addOutput(previous);
+		circuit.settle();
+		return circuit;
+	}
+
+	/**
+	 * Builds a balanced tree of two-input XOR gates that computes the parity of its inputs
+	 * @param width The number of inputs
+	 * @return The circuit
+	 */
+	public static GeneratedCircuit xorTree(int width) {
+		GeneratedCircuit circuit = new GeneratedCircuit();
+		ArrayList<LComponent> level = new ArrayList<LComponent>();
+		for(int i = 0; i < width; i++) level.add(circuit.addInput());
+		while(level.size() > 1) {
+			ArrayList<LComponent> next = new ArrayList<LComponent>();
+			for(int i = 0; i + 1 < level.size(); i += 2) {
+				BasicGate xor = circuit.add(new BasicGate(0, 0, CompType.XOR));
+				GeneratedCircuit.connect(level.get(i), 0, xor, 0);
+				GeneratedCircuit.connect(level.get(i + 1), 0, xor, 1);
+				next.add(xor);
+			}
+			if(level.size() % 2 == 1) next.add(level.get(level.size() - 1));
+			level = next;
+		}
+		circuit.addOutput(level.get(0));
+		circuit.settle();
+		return circuit;
+	}
+
+	/**
+	 * Builds a hierarchy of Custom components. A depth 0 component is a full adder made of gates, and a component of depth d contains two
+	 * components of depth d - 1, where the second adds the sum and carry of the first to the carry in. Every level has three inputs and
+	 * two outputs, and the component at the top contains 2^depth full adders
+	 * @param depth The depth of the hierarchy
+	 * @param copies The number of copies of the top component, which are chained together through their carries
+	 * @return The circuit, with inputs a, b, and carry in for each copy and outputs sum and carry out for each copy
+	 */
+	public static GeneratedCircuit nestedCustoms(int depth, int copies) {
+		GeneratedCircuit circuit = new GeneratedCircuit();
+		Custom top = nestedCustom(depth);
+		LComponent carry = null;
+		for(int c = 0; c < copies; c++) {
+			Custom copy = c == 0 ? top : (Custom) top.makeCopy();
+			circuit.add(copy);
+			GeneratedCircuit.connect(circuit.addInput(), 0, copy, 0);
+			GeneratedCircuit.connect(circuit.addInput(), 0, copy, 1);
+			if(carry == null) GeneratedCircuit.connect(circuit.addInput(), 0, copy, 2);
+			else GeneratedCircuit.connect(carry, 1, copy, 2);
+			circuit.addOutput(copy);
+			carry = copy;
+		}
+		Light carryOut = circuit.add(new Light(0, 0));
+		GeneratedCircuit.connect(carry, 1, carryOut, 0);
+		circuit.getOutputs().add(carryOut);
+		circuit.settle();
+		return circuit;
+	}
+
+	/**
+	 * Builds one Custom component for nestedCustoms(...)
+	 * @param depth The depth of the component
+	 * @return The Custom component
+	 */
+	private static Custom nestedCustom(int depth) {
+		GeneratedCircuit inner = new GeneratedCircuit();
+		Switch a = inner.addInput(), b = inner.addInput(), carryIn = inner.addInput();
+		LComponent sum, carryOut;
+		if(depth == 0) {
+			LComponent[] sumAndCarry = fullAdder(inner, a, b, carryIn);
+			sum = sumAndCarry[0];
+			carryOut = sumAndCarry[1];
+			inner.addOutput(sum);
+			Light carryLight = inner.add(new Light(0, 0));
+			GeneratedCircuit.connect(carryOut, 0, carryLight, 0);
+			inner.getOutputs().add(carryLight);
+		}
+		else {
+			Custom first = inner.add(nestedCustom(depth - 1));
+			Custom second = inner.add(nestedCustom(depth - 1));
+			GeneratedCircuit.connect(a, 0, first, 0);
+			GeneratedCircuit.connect(b, 0, first, 1);
+			GeneratedCircuit.connect(carryIn, 0, first, 2);
+			GeneratedCircuit.connect(first, 0, second, 0);
+			GeneratedCircuit.connect(first, 1, second, 1);
+			GeneratedCircuit.connect(carryIn, 0, second, 2);
+			inner.addOutput(second);
+			Light carryLight = inner.add(new Light(0, 0));
+			GeneratedCircuit.connect(second, 1, carryLight, 0);
+			inner.getOutputs().add(carryLight);
+		}
+		inner.settle();
+		HashMap<Integer, LComponent[]> content = new HashMap<Integer, LComponent[]>();
+		content.put(CompRotator.LEFT, inner.getInputs().toArray(new LComponent[0]));
+		content.put(CompRotator.RIGHT, inner.getOutputs().toArray(new LComponent[0]));
+		content.put(CompRotator.UP, new LComponent[0]);
+		content.put(CompRotator.DOWN, new LComponent[0]);
+		return new Custom(0, 0, "Level " + depth, content, inner.getLComps());
+	}
+
+	/**
+	 * Adds a full adder made of two XOR gates, two AND gates, and an OR gate
+	 * @param circuit The circuit to add the gates to
+	 * @param a The component that drives the first input
+	 * @param b The component that drives the second input
+	 * @param carryIn The component that drives the carry in
+	 * @return The gate that outputs the sum and the gate that outputs the carry out
+	 */
+	private static LComponent[] fullAdder(GeneratedCircuit circuit, LComponent a, LComponent b, LComponent carryIn) {
+		BasicGate halfSum = circuit.add(new BasicGate(0, 0, CompType.XOR));
+		BasicGate sum = circuit.add(new BasicGate(0, 0, CompType.XOR));
+		BasicGate halfCarry = circuit.add(new BasicGate(0, 0, CompType.AND));
+		BasicGate carryThrough = circuit.add(new BasicGate(0, 0, CompType.AND));
+		BasicGate carryOut = circuit.add(new BasicGate(0, 0, CompType.OR));
+		GeneratedCircuit.connect(a, 0, halfSum, 0);
+		GeneratedCircuit.connect(b, 0, halfSum, 1);
+		GeneratedCircuit.connect(halfSum, 0, sum, 0);
+		GeneratedCircuit.connect(carryIn, 0, sum, 1);
+		GeneratedCircuit.connect(a, 0, halfCarry, 0);
+		GeneratedCircuit.connect(b, 0, halfCarry, 1);
+		GeneratedCircuit.connect(halfSum, 0, carryThrough, 0);
+		GeneratedCircuit.connect(carryIn, 0, carryThrough, 1);
+		GeneratedCircuit.connect(halfCarry, 0, carryOut, 0);
+		GeneratedCircuit.connect(carryThrough, 0, carryOut, 1);
+		return new LComponent[] {sum, carryOut};
+	}
+
+	/**
+	 * Adds an AND gate for every bit of a, each of which is also driven by b
+	 * @param circuit The circuit to add the gates to
+	 * @param a The bits of a
+	 * @param b One bit of b
+	 * @return The AND gates, in the same order as a
+	 */
+	private static LComponent[] partialProducts(GeneratedCircuit circuit, Switch[] a, Switch b) {
+		LComponent[] products = new LComponent[a.length];
+		for(int i = 0; i < a.length; i++) {
+			BasicGate and = circuit.add(new BasicGate(0, 0, CompType.AND));
+			GeneratedCircuit.connect(a[i], 0, and, 0);
+			GeneratedCircuit.connect(b, 0, and, 1);
+			products[i] = and;
+		}
+		return products;
+	}
+
+	/**
+	 * Adds a gated D latch that is transparent while enable is high and holds its value while enable is low. The latch is built as a
+	 * multiplexer that feeds back into itself, which always settles in a zero-delay simulation
+	 * @param circuit The circuit to add the gates to
+	 * @param d The component that drives the data input
+	 * @param enable The component that drives the enable input
+	 * @return The gate that outputs the stored value
+	 */
+	private static LComponent latch(GeneratedCircuit circuit, LComponent d, LComponent enable) {
+		SingleInputGate hold = circuit.add(new SingleInputGate(0, 0, CompType.NOT));
+		BasicGate load = circuit.add(new BasicGate(0, 0, CompType.AND));
+		BasicGate keep = circuit.add(new BasicGate(0, 0, CompType.AND));
+		BasicGate q = circuit.add(new BasicGate(0, 0, CompType.OR));
+		GeneratedCircuit.connect(enable, 0, hold, 0);
+		GeneratedCircuit.connect(d, 0, load, 0);
+		GeneratedCircuit.connect(enable, 0, load, 1);
+		GeneratedCircuit.connect(q, 0, keep, 0);
+		GeneratedCircuit.connect(hold, 0, keep, 1);
+		GeneratedCircuit.connect(load, 0, q, 0);
+		GeneratedCircuit.connect(keep, 0, q, 1);
+		return q;
+	}
+}
@@ -0,0 +1,126 @@
+package com.logic.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.logic.components.CompType;
+import com.logic.engine.GateKernels;
+import com.logic.engine.LogicFunctions;
+
+/**
+ * Compares the boxed LogicFunctions path that BasicGate.update() used to take with the primitive GateKernels. Each invocation evaluates
+ * the same set of random input patterns for a gate of the given type and number of inputs.
+ * @author toddstennes
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GateKernelBenchmark {
+
+	/**
+	 * The number of input patterns evaluated by each invocation
+	 */
+	private static final int NUM_PATTERNS = 1024;
+
+	/**
+	 * The type of gate to evaluate
+	 */
+	@Param({"AND", "NOR", "XOR"})
+	public String gate;
+
+	/**
+	 * The number of inputs of the gate
+	 */
+	@Param({"2", "10"})
+	public int numInputs;
+
+	/**
+	 * The type of the gate and the index of its function in LogicFunctions.func2s, as BasicGate used to store them
+	 */
+	private CompType type;
+	private int function;
+	private boolean inverted;
+
+	/**
+	 * The input patterns, both unpacked (as IOManager.getInput() returns them) and packed (as IOManager.getInputBits() returns them)
+	 */
+	private boolean[][] inputs;
+	private int[] bits;
+
+	/**
+	 * Loads the logic functions and generates the input patterns
+	 */
+	@Setup
+	public void setup() {
+		if(LogicFunctions.func2s.isEmpty()) LogicFunctions.setFunctions();
+		type = CompType.valueOf(gate);
+		if(type == CompType.AND || type == CompType.NAND) function = 0;
+		else if(type == CompType.OR || type == CompType.NOR) function = 1;
+		else function = 2;
+		inverted = type == CompType.NAND || type == CompType.NOR || type == CompType.XNOR;
+
+		Random random = new Random(42);
+		inputs = new boolean[NUM_PATTERNS][numInputs];
+		bits = new int[NUM_PATTERNS];
+		for(int p = 0; p < NUM_PATTERNS; p++) {
+			for(int i = 0; i < numInputs; i++) {
+				inputs[p][i] = random.nextBoolean();
+				if(inputs[p][i]) bits[p] |= 1 << i;
+			}
+		}
+	}
+
+	/**
+	 * The old BasicGate.update() loop, which looks up and applies a boxed BiFunction once per input
+	 * @param bh The Blackhole
+	 */
+	@Benchmark
+	public void boxedFunctions(Blackhole bh) {
+		for(int p = 0; p < NUM_PATTERNS; p++) {
+			boolean[] in = inputs[p];
+			boolean output = in[0];
+			for(int i = 1; i < numInputs; i++) output = LogicFunctions.func2s.get(function).apply(output, in[i]);
+			bh.consume(inverted != output);
+		}
+	}
+
+	/**
+	 * Packs the unpacked inputs into an int and evaluates them with GateKernels, which is what BasicGate.update() does now
+	 * @param bh The Blackhole
+	 */
+	@Benchmark
+	public void kernelsWithPacking(Blackhole bh) {
+		for(int p = 0; p < NUM_PATTERNS; p++) {
+			boolean[] in = inputs[p];
+			int packed = 0;
+			for(int i = 0; i < numInputs; i++) if(in[i]) packed |= 1 << i;
+			bh.consume(GateKernels.evaluate(type, packed, numInputs));
+		}
+	}
+
+	/**
+	 * Evaluates inputs that are already packed with GateKernels
+	 * @param bh The Blackhole
+	 */
+	@Benchmark
+	public void kernels(Blackhole bh) {
+		for(int p = 0; p < NUM_PATTERNS; p++) bh.consume(GateKernels.evaluate(type, bits[p], numInputs));
+	}
+}
@@ -0,0 +1,153 @@
+package com.logic.benchmarks;
+
+import java.util.ArrayList;
+
+import com.logic.components.Connection;
+import com.logic.components.LComponent;
+import com.logic.components.Light;
+import com.logic.components.Switch;
+import com.logic.components.Wire;
+import com.logic.engine.LogicEngine;
+import com.logic.engine.NetlistEngine;
+
+/**
+ * A circuit built by CircuitGenerator. It holds the components of the circuit along with its input switches and output lights, in order
+ * from the least significant bit to the most significant bit
+ * @author toddstennes
+ *
+ */
+public class GeneratedCircuit {
+
+	/**
+	 * Every component at the top level of the circuit
+	 */
+	private ArrayList<LComponent> lcomps;
+
+	/**
+	 * The switches that drive the circuit
+	 */
+	private ArrayList<Switch> inputs;
+
+	/**
+	 * The lights that show the results of the circuit
+	 */
+	private ArrayList<Light> outputs;
+
+	/**
+	 * Constructs a new, empty GeneratedCircuit
+	 */
+	public GeneratedCircuit() {
+		lcomps = new ArrayList<LComponent>();
+		inputs = new ArrayList<Switch>();
+		outputs = new ArrayList<Light>();
+	}
+
+	/**
+	 * Adds a component to the circuit
+	 * @param lcomp The component
+	 * @return The same component
+	 */
+	public <T extends LComponent> T add(T lcomp) {
+		lcomps.add(lcomp);
+		return lcomp;
+	}
+
+	/**
+	 * Adds a new input switch to the circuit
+	 * @return The switch
+	 */
+	public Switch addInput() {
+		Switch sw = add(new Switch(0, 0));
+		sw.setName("in" + inputs.size());
+		inputs.add(sw);
+		return sw;
+	}
+
+	/**
+	 * Adds a new output light to the circuit and connects it to output 0 of the given component
+	 * @param source The component that drives the light
+	 * @return The light
+	 */
+	public Light addOutput(LComponent source) {
+		Light light = add(new Light(0, 0));
+		light.setName("out" + outputs.size());
+		connect(source, 0, light, 0);
+		outputs.add(light);
+		return light;
+	}
+
+	/**
+	 * Connects an output of one component to an input of another with a new wire
+	 * @param source The component to connect from
+	 * @param output The index of the output connection of the source
+	 * @param dest The component to connect to
+	 * @param input The index of the input connection of the destination
+	 */
+	public static void connect(LComponent source, int output, LComponent dest, int input) {
+		Wire wire = new Wire();
+		source.getIO().connectionAt(output, Connection.OUTPUT).addWire(wire);
+		dest.getIO().connectionAt(input, Connection.INPUT).addWire(wire);
+	}
+
+	/**
+	 * Brings every component to a consistent state with a LogicEngine, which is what a circuit looks like once it has been built in the
+	 * editor
+	 */
+	public void settle() {
+		new LogicEngine(new ArrayList<LComponent>(lcomps)).doLogic();
+	}
+
+	/**
+	 * Creates a NetlistEngine for this circuit and gives it to every component, as CircuitPanel.addLComp(...) does
+	 * @return The NetlistEngine
+	 */
+	public NetlistEngine attach() {
+		NetlistEngine engine = new NetlistEngine(lcomps);
+		for(int i = 0; i < lcomps.size(); i++) lcomps.get(i).setNetlistEngine(engine);
+		return engine;
+	}
+
+	/**
+	 * Sets the input switches to the bits of the given value, without updating the circuit
+	 * @param value The value, where bit i is given to input i
+	 */
+	public void setInputs(long value) {
+		for(int i = 0; i < inputs.size(); i++) inputs.get(i).setState(((value >>> i) & 1) == 1);
+	}
+
+	/**
+	 * Reads the output lights as a number
+	 * @return The value of the outputs, where bit i is the state of output i
+	 */
+	public long readOutputs() {
+		long value = 0;
+		for(int i = 0; i < outputs.size() && i < 64; i++) {
+			if(outputs.get(i).getIO().getInput(0)) value |= 1L << i;
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the components at the top level of the circuit
+	 * @return The components
+	 */
+	public ArrayList<LComponent> getLComps() {
+		return lcomps;
+	}
+
+	/**
+	 * Returns the input switches
+	 * @return The switches, from the least significant bit to the most significant
+	 */
+	public ArrayList<Switch> getInputs() {
+		return inputs;
+	}
+
+	/**
+	 * Returns the output lights
+	 * @return The lights, from the least significant bit to the most significant
+	 */
+	public ArrayList<Light> getOutputs() {
+		return outputs;
+	}
+}
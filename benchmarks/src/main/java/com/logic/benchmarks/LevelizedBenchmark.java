@@ -0,0 +1,150 @@
+package com.logic.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.logic.components.BasicGate;
+import com.logic.components.CompType;
+import com.logic.components.Connection;
+import com.logic.components.LComponent;
+import com.logic.components.Switch;
+import com.logic.components.Wire;
+import com.logic.engine.LogicEngine;
+import com.logic.engine.NetlistEngine;
+import com.logic.engine.SettleResult;
+import com.logic.main.LogicSimApp;
+import com.logic.ui.IconLoader;
+
+/**
+ * Measures how the levelized NetlistEngine scales with the number of threads on a wide datapath. The circuit is a grid of two-input
+ * gates where each gate reads the gate above it and the gate above and to the right, so every level has width independent gates. Each
+ * invocation toggles a random set of switches and settles the circuit. A threads value of 0 runs the iterative scheme for comparison.
+ * Run with -p threads=1,2,4,...,N to get scaling numbers for the machine.
+ * @author toddstennes
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelizedBenchmark {
+
+	/**
+	 * The number of switches toggled by each invocation
+	 */
+	private static final int NUM_TOGGLES = 256;
+
+	/**
+	 * The number of threads used to compute each level, or 0 for the iterative scheme
+	 */
+	@Param({"0", "1", "2", "4", "8", "16"})
+	public int threads;
+
+	/**
+	 * The number of gates in each level
+	 */
+	@Param({"4096", "16384"})
+	public int width;
+
+	/**
+	 * The number of levels of gates
+	 */
+	@Param({"16"})
+	public int depth;
+
+	/**
+	 * The engine being measured
+	 */
+	private NetlistEngine engine;
+
+	/**
+	 * The switches at the top of the grid
+	 */
+	private Switch[] switches;
+
+	/**
+	 * The switches toggled by the current invocation
+	 */
+	private ArrayList<LComponent> toggled;
+
+	/**
+	 * Used to choose which switches to toggle
+	 */
+	private Random random;
+
+	/**
+	 * Builds the grid and settles it once
+	 */
+	@Setup
+	public void setup() {
+		if(LogicSimApp.iconLoader == null) LogicSimApp.iconLoader = new IconLoader();
+		ArrayList<LComponent> lcomps = new ArrayList<LComponent>();
+		switches = new Switch[width];
+		LComponent[] previous = new LComponent[width];
+		for(int i = 0; i < width; i++) {
+			switches[i] = new Switch(0, 0);
+			lcomps.add(switches[i]);
+			previous[i] = switches[i];
+		}
+		for(int d = 0; d < depth; d++) {
+			LComponent[] current = new LComponent[width];
+			for(int i = 0; i < width; i++) {
+				BasicGate gate = new BasicGate(0, 0, d % 2 == 0 ? CompType.XOR : CompType.NAND);
+				connect(previous[i], gate, 0);
+				connect(previous[(i + 1) % width], gate, 1);
+				lcomps.add(gate);
+				current[i] = gate;
+			}
+			previous = current;
+		}
+		new LogicEngine(new ArrayList<LComponent>(lcomps)).doLogic();
+		engine = new NetlistEngine(lcomps);
+		engine.setLevelized(threads > 0);
+		engine.setParallelism(Math.max(1, threads));
+		engine.settleAll();
+		toggled = new ArrayList<LComponent>();
+		random = new Random(42);
+	}
+
+	/**
+	 * Connects the output of one component to an input of another with a new wire
+	 * @param source The component to connect from
+	 * @param dest The component to connect to
+	 * @param input The index of the input of the destination component
+	 */
+	private static void connect(LComponent source, LComponent dest, int input) {
+		Wire wire = new Wire();
+		source.getIO().connectionAt(0, Connection.OUTPUT).addWire(wire);
+		dest.getIO().connectionAt(input, Connection.INPUT).addWire(wire);
+	}
+
+	/**
+	 * Toggles NUM_TOGGLES random switches and settles the circuit
+	 * @return The result of the logic process
+	 */
+	@Benchmark
+	public SettleResult settle() {
+		toggled.clear();
+		for(int i = 0; i < NUM_TOGGLES; i++) {
+			Switch sw = switches[random.nextInt(width)];
+			sw.setState(!sw.getState());
+			toggled.add(sw);
+		}
+		return engine.run(toggled, false);
+	}
+}
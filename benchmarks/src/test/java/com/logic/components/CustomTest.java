@@ -0,0 +1,67 @@
+package com.logic.components;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+import com.logic.benchmarks.GeneratedCircuit;
+import com.logic.engine.LogicEngine;
+
+/**
+ * Tests that the outputs a Custom component looks up in its truth table match the outputs of its inner components when a plain
+ * LogicEngine runs them, for every combination of the inputs of a chain of copies that share one definition
+ * @author toddstennes
+ *
+ */
+public class CustomTest {
+
+	/**
+	 * The number of copies of the Custom component in the chain
+	 */
+	private static final int COPIES = 3;
+
+	/**
+	 * Loads the images and logic functions that components need
+	 */
+	@Before
+	public void init() {
+		CircuitGenerator.init();
+	}
+
+	/**
+	 * Every copy uses the truth table, and after its inner components are refreshed by a LogicEngine, its output nodes agree with the
+	 * outputs it looked up. A copy whose inputs did not change is not updated, so its outputs are still the ones it looked up before
+	 */
+	@Test
+	public void truthTableMatchesInnerComponents() {
+		GeneratedCircuit circuit = CircuitGenerator.nestedCustoms(0, COPIES);
+		ArrayList<Custom> customs = new ArrayList<Custom>();
+		for(LComponent lcomp : circuit.getLComps()) {
+			if(lcomp instanceof Custom) customs.add((Custom) lcomp);
+		}
+		assertEquals(COPIES, customs.size());
+		ArrayList<LComponent> inputs = new ArrayList<LComponent>(circuit.getInputs());
+		boolean[] usedTable = new boolean[customs.size()];
+		for(long value = 0; value < 1L << inputs.size(); value++) {
+			circuit.setInputs(value);
+			new LogicEngine(inputs).doLogic();
+			for(int c = 0; c < customs.size(); c++) {
+				Custom custom = customs.get(c);
+				if(custom.isInnerStale()) usedTable[c] = true;
+				IOManager io = custom.getIO();
+				boolean[] looked = new boolean[io.getNumOutputs()];
+				for(int i = 0; i < looked.length; i++) looked[i] = io.connectionAt(i, Connection.OUTPUT).getWire(0).getSignal();
+				custom.refreshInner();
+				for(int i = 0; i < looked.length; i++) {
+					assertEquals("inputs " + value + ", copy " + c + ", output " + i, custom.getOutputNode(i).getState(), looked[i]);
+				}
+			}
+		}
+		for(int c = 0; c < customs.size(); c++) assertTrue(usedTable[c]);
+	}
+}
@@ -0,0 +1,141 @@
+package com.logic.components;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+import com.logic.benchmarks.GeneratedCircuit;
+import com.logic.engine.LogicEngine;
+import com.logic.engine.NetlistEngine;
+
+/**
+ * Tests that flip-flops on the same clock sample their inputs before any of them changes its outputs, so a chain of D flip-flops shifts
+ * by one place per rising edge in every engine
+ * @author toddstennes
+ *
+ */
+public class FlipFlopTest {
+
+	/**
+	 * The circuit being tested, which is a shift register of three D flip-flops
+	 */
+	private GeneratedCircuit circuit;
+
+	/**
+	 * The switches that drive the D input of the first flip-flop and the clock of every flip-flop
+	 */
+	private Switch data, clock;
+
+	/**
+	 * The flip-flops, from the first to the last
+	 */
+	private FlipFlop[] stages;
+
+	/**
+	 * Builds the shift register and settles it with every flip-flop cleared
+	 */
+	@Before
+	public void build() {
+		CircuitGenerator.init();
+		circuit = new GeneratedCircuit();
+		data = circuit.addInput();
+		clock = circuit.addInput();
+		stages = new FlipFlop[3];
+		for(int i = 0; i < stages.length; i++) {
+			stages[i] = circuit.add(new FlipFlop(0, 0, CompType.D_FLIPFLOP));
+			GeneratedCircuit.connect(i == 0 ? data : stages[i - 1], 0, stages[i], 0);
+			GeneratedCircuit.connect(clock, 0, stages[i], 1);
+			circuit.addOutput(stages[i]);
+		}
+		circuit.settle();
+	}
+
+	/**
+	 * The LogicEngine shifts one place per edge
+	 */
+	@Test
+	public void shiftsWithLogicEngine() {
+		data.setState(true);
+		new LogicEngine(single(data)).doLogic();
+		pulse(() -> new LogicEngine(single(clock)).doLogic());
+		assertEquals(0b001, circuit.readOutputs());
+		pulse(() -> new LogicEngine(single(clock)).doLogic());
+		assertEquals(0b011, circuit.readOutputs());
+		data.setState(false);
+		new LogicEngine(single(data)).doLogic();
+		pulse(() -> new LogicEngine(single(clock)).doLogic());
+		assertEquals(0b110, circuit.readOutputs());
+	}
+
+	/**
+	 * The NetlistEngine shifts one place per edge with zero delay
+	 */
+	@Test
+	public void shiftsWithNetlistEngine() {
+		checkNetlistEngine(circuit.attach());
+	}
+
+	/**
+	 * The NetlistEngine shifts one place per edge when it evaluates one level at a time
+	 */
+	@Test
+	public void shiftsWhenLevelized() {
+		NetlistEngine engine = circuit.attach();
+		engine.setLevelized(true);
+		checkNetlistEngine(engine);
+	}
+
+	/**
+	 * The NetlistEngine shifts one place per edge with gate delays
+	 */
+	@Test
+	public void shiftsWithGateDelays() {
+		NetlistEngine engine = circuit.attach();
+		engine.setGateDelays(true);
+		checkNetlistEngine(engine);
+	}
+
+	/**
+	 * Clocks the shift register three times on the given engine and checks the flip-flops after every edge
+	 * @param engine The engine attached to the circuit
+	 */
+	private void checkNetlistEngine(NetlistEngine engine) {
+		engine.settleAll();
+		data.setState(true);
+		engine.propagate(data);
+		pulse(() -> engine.propagate(clock));
+		assertEquals(0b001, circuit.readOutputs());
+		pulse(() -> engine.propagate(clock));
+		assertEquals(0b011, circuit.readOutputs());
+		data.setState(false);
+		engine.propagate(data);
+		pulse(() -> engine.propagate(clock));
+		assertEquals(0b110, circuit.readOutputs());
+	}
+
+	/**
+	 * Raises and then lowers the clock, running the given logic process after each change
+	 * @param process The logic process
+	 */
+	private void pulse(Runnable process) {
+		clock.setState(true);
+		process.run();
+		clock.setState(false);
+		process.run();
+	}
+
+	/**
+	 * Returns a list holding only the given component
+	 * @param lcomp The component
+	 * @return The list
+	 */
+	private static ArrayList<LComponent> single(LComponent lcomp) {
+		ArrayList<LComponent> list = new ArrayList<LComponent>();
+		list.add(lcomp);
+		return list;
+	}
+}
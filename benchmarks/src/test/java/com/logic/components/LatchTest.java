@@ -0,0 +1,138 @@
+package com.logic.components;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+import com.logic.benchmarks.GeneratedCircuit;
+import com.logic.engine.LogicEngine;
+import com.logic.engine.NetlistEngine;
+
+/**
+ * Tests that latches are level-sensitive, so a chain of D latches on the same enable passes its data straight through while the enable
+ * is high and holds it while the enable is low, and that an SR latch with no enable wired is always open, in every engine
+ * @author toddstennes
+ *
+ */
+public class LatchTest {
+
+	/**
+	 * The circuit being tested, which is two D latches in a chain followed by an SR latch set by the data and reset by the enable
+	 */
+	private GeneratedCircuit circuit;
+
+	/**
+	 * The switches that drive the D input of the first latch and the enable of both D latches
+	 */
+	private Switch data, enable;
+
+	/**
+	 * Builds the latches and settles them with every latch cleared
+	 */
+	@Before
+	public void build() {
+		CircuitGenerator.init();
+		circuit = new GeneratedCircuit();
+		data = circuit.addInput();
+		enable = circuit.addInput();
+		Latch first = circuit.add(new Latch(0, 0, CompType.D_LATCH));
+		Latch second = circuit.add(new Latch(0, 0, CompType.D_LATCH));
+		GeneratedCircuit.connect(data, 0, first, 0);
+		GeneratedCircuit.connect(first, 0, second, 0);
+		GeneratedCircuit.connect(enable, 0, first, 1);
+		GeneratedCircuit.connect(enable, 0, second, 1);
+		Latch sr = circuit.add(new Latch(0, 0, CompType.SR_LATCH));
+		GeneratedCircuit.connect(data, 0, sr, 0);
+		GeneratedCircuit.connect(enable, 0, sr, 1);
+		circuit.addOutput(first);
+		circuit.addOutput(second);
+		circuit.addOutput(sr);
+		circuit.settle();
+	}
+
+	/**
+	 * The LogicEngine passes data through open latches
+	 */
+	@Test
+	public void followsWithLogicEngine() {
+		check(lcomp -> new LogicEngine(single(lcomp)).doLogic());
+	}
+
+	/**
+	 * The NetlistEngine passes data through open latches with zero delay
+	 */
+	@Test
+	public void followsWithNetlistEngine() {
+		NetlistEngine engine = circuit.attach();
+		engine.settleAll();
+		check(lcomp -> engine.propagate(lcomp));
+	}
+
+	/**
+	 * The NetlistEngine passes data through open latches when it evaluates one level at a time
+	 */
+	@Test
+	public void followsWhenLevelized() {
+		NetlistEngine engine = circuit.attach();
+		engine.setLevelized(true);
+		engine.settleAll();
+		check(lcomp -> engine.propagate(lcomp));
+	}
+
+	/**
+	 * The NetlistEngine passes data through open latches with gate delays
+	 */
+	@Test
+	public void followsWithGateDelays() {
+		NetlistEngine engine = circuit.attach();
+		engine.setGateDelays(true);
+		engine.settleAll();
+		check(lcomp -> engine.propagate(lcomp));
+	}
+
+	/**
+	 * Changes the data and the enable and checks the latches after every change. The outputs are the first D latch, the second D latch,
+	 * and the SR latch, from the least significant bit. The SR latch keeps its state while both the data and the enable are high
+	 * @param process Runs a logic process that starts with the given switch
+	 */
+	private void check(Consumer<LComponent> process) {
+		set(data, true, process);
+		assertEquals(0b100, circuit.readOutputs());
+		set(enable, true, process);
+		assertEquals(0b111, circuit.readOutputs());
+		set(data, false, process);
+		assertEquals(0b000, circuit.readOutputs());
+		set(enable, false, process);
+		set(data, true, process);
+		assertEquals(0b100, circuit.readOutputs());
+		set(enable, true, process);
+		assertEquals(0b111, circuit.readOutputs());
+	}
+
+	/**
+	 * Sets a switch and runs a logic process from it
+	 * @param input The switch
+	 * @param state The new state
+	 * @param process Runs a logic process that starts with the given switch
+	 */
+	private static void set(Switch input, boolean state, Consumer<LComponent> process) {
+		input.setState(state);
+		process.accept(input);
+	}
+
+	/**
+	 * Returns a list holding only the given component
+	 * @param lcomp The component
+	 * @return The list
+	 */
+	private static ArrayList<LComponent> single(LComponent lcomp) {
+		ArrayList<LComponent> list = new ArrayList<LComponent>();
+		list.add(lcomp);
+		return list;
+	}
+}
@@ -0,0 +1,84 @@
+package com.logic.components;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+
+/**
+ * Tests that the contents of a Ram are saved with the circuit
+ * @author toddstennes
+ *
+ */
+public class RamTest {
+
+	/**
+	 * Loads the images and logic functions that components need
+	 */
+	@Before
+	public void init() {
+		CircuitGenerator.init();
+	}
+
+	/**
+	 * Words written before saving are read back after loading, in every page of a memory larger than one page
+	 */
+	@Test
+	public void savesContents() throws IOException, ClassNotFoundException {
+		Ram ram = new Ram(0, 0, 16, 16);
+		ram.write(0, 0x1234);
+		ram.write(0x8000, 0xBEEF);
+		ram.write(0xFFFF, 0x0001);
+		Ram loaded = (Ram) load(save(ram));
+		assertEquals(0x1234, loaded.read(0));
+		assertEquals(0xBEEF, loaded.read(0x8000));
+		assertEquals(0x0001, loaded.read(0xFFFF));
+		assertEquals(0, loaded.read(1));
+	}
+
+	/**
+	 * Pages that are all zeros are left out, so a large memory that was barely used stays small in the file
+	 */
+	@Test
+	public void leavesOutEmptyPages() throws IOException {
+		Ram ram = new Ram(0, 0, 20, 8);
+		ram.write(5, 0x7F);
+		assertTrue(save(ram).length < 2 * Ram.PAGE_SIZE + save(new Ram(0, 0, 20, 8)).length);
+	}
+
+	/**
+	 * Serializes an object the way FileManager saves a circuit
+	 * @param object The object
+	 * @return The bytes
+	 */
+	private static byte[] save(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(bytes);
+		oos.writeObject(object);
+		oos.close();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Deserializes an object saved by save(...)
+	 * @param bytes The bytes
+	 * @return The object
+	 */
+	private static Object load(byte[] bytes) throws IOException, ClassNotFoundException {
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+		try {
+			return ois.readObject();
+		} finally {
+			ois.close();
+		}
+	}
+}
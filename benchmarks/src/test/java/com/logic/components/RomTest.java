@@ -0,0 +1,139 @@
+package com.logic.components;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+
+/**
+ * Tests the parser for text images in a Rom, which reads plain hexadecimal words and Intel HEX records
+ * @author toddstennes
+ *
+ */
+public class RomTest {
+
+	/**
+	 * The image files written by the test, which are deleted after it
+	 */
+	private ArrayList<Path> files;
+
+	/**
+	 * Loads the images and logic functions that components need
+	 */
+	@Before
+	public void init() {
+		CircuitGenerator.init();
+		files = new ArrayList<Path>();
+	}
+
+	/**
+	 * Deletes the image files
+	 * @throws IOException If a file cannot be deleted
+	 */
+	@After
+	public void deleteFiles() throws IOException {
+		for(int i = 0; i < files.size(); i++) Files.deleteIfExists(files.get(i));
+	}
+
+	/**
+	 * Plain words fill the memory in order, with repeated words, comments, blank lines, and the "v2.0 raw" header handled, and bits
+	 * above the data width dropped
+	 */
+	@Test
+	public void readsPlainWords() throws IOException {
+		Rom rom = new Rom(0, 0, 4, 16);
+		rom.load(write(".mem", "v2.0 raw", "1234 3*00ff # three words", "", "# a comment line", "abcd 12345"));
+		assertEquals(0x1234, rom.read(0));
+		assertEquals(0x00FF, rom.read(1));
+		assertEquals(0x00FF, rom.read(3));
+		assertEquals(0xABCD, rom.read(4));
+		assertEquals(0x2345, rom.read(5));
+		assertEquals(0, rom.read(6));
+	}
+
+	/**
+	 * Words that do not fit in the memory are ignored instead of wrapping around to address 0
+	 */
+	@Test
+	public void ignoresWordsPastTheEnd() throws IOException {
+		Rom rom = new Rom(0, 0, 2, 8);
+		rom.load(write(".txt", "1 2 3 4 5 6"));
+		assertEquals(1, rom.read(0));
+		assertEquals(4, rom.read(3));
+	}
+
+	/**
+	 * Data records are written at their offset plus the base address from an extended segment address record, and nothing after the end
+	 * of file record is read
+	 */
+	@Test
+	public void readsIntelHexRecords() throws IOException {
+		Rom rom = new Rom(0, 0, 10, 8);
+		rom.load(write(".hex", ":040010001122334442", ":020000020010EC", ":02000400AABB95", ":00000001FF", "not a record"));
+		assertEquals(0x11, rom.read(0x10));
+		assertEquals(0x44, rom.read(0x13));
+		assertEquals(0xAA, rom.read(0x104));
+		assertEquals(0xBB, rom.read(0x105));
+		assertEquals(0, rom.read(0x4));
+	}
+
+	/**
+	 * The bytes of an Intel HEX image are put together into little endian words
+	 */
+	@Test
+	public void readsIntelHexBytesAsLittleEndianWords() throws IOException {
+		Rom rom = new Rom(0, 0, 4, 16);
+		rom.load(write(".ihex", ":040010001122334442", ":00000001FF"));
+		assertEquals(0x2211, rom.read(8));
+		assertEquals(0x4433, rom.read(9));
+	}
+
+	/**
+	 * A record whose checksum does not match is rejected
+	 */
+	@Test(expected = IOException.class)
+	public void rejectsWrongChecksum() throws IOException {
+		new Rom(0, 0, 10, 8).load(write(".hex", ":040010001122334443"));
+	}
+
+	/**
+	 * A record whose byte count does not match its length is rejected
+	 */
+	@Test(expected = IOException.class)
+	public void rejectsWrongByteCount() throws IOException {
+		new Rom(0, 0, 10, 8).load(write(".hex", ":0500100011223344"));
+	}
+
+	/**
+	 * A token that is not a hexadecimal word is rejected
+	 */
+	@Test(expected = IOException.class)
+	public void rejectsInvalidWord() throws IOException {
+		new Rom(0, 0, 4, 8).load(write(".txt", "12 zz"));
+	}
+
+	/**
+	 * Writes lines to a new temporary image file
+	 * @param suffix The extension of the file, which decides how it is read
+	 * @param lines The lines of the file
+	 * @return The path of the file
+	 * @throws IOException If the file cannot be written
+	 */
+	private Path write(String suffix, String... lines) throws IOException {
+		Path path = Files.createTempFile("rom", suffix);
+		files.add(path);
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < lines.length; i++) sb.append(lines[i]).append('\n');
+		Files.write(path, sb.toString().getBytes(StandardCharsets.US_ASCII));
+		return path;
+	}
+}
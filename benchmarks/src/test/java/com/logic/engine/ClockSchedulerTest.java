@@ -0,0 +1,159 @@
+package com.logic.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+import com.logic.benchmarks.GeneratedCircuit;
+import com.logic.components.Clock;
+import com.logic.components.Counter;
+import com.logic.components.LComponent;
+
+/**
+ * Tests the order in which a ClockScheduler fires clock edges, and that sequential components see every edge whether the scheduler is
+ * stepped in turbo mode or catching up on a late timer, and that edges are dropped while the circuit cannot keep up
+ * @author toddstennes
+ *
+ */
+public class ClockSchedulerTest {
+
+	/**
+	 * The clock of the circuit being tested, which drives the CLK input of a counter
+	 */
+	private Clock clock;
+
+	/**
+	 * The counter of the circuit
+	 */
+	private Counter counter;
+
+	/**
+	 * The engine attached to the circuit
+	 */
+	private NetlistEngine engine;
+
+	/**
+	 * Builds the circuit and settles it
+	 */
+	@Before
+	public void build() {
+		CircuitGenerator.init();
+		clock = new Clock(0, 0);
+		clock.setDelay(1);
+		counter = new Counter(0, 0, 16);
+		GeneratedCircuit.connect(clock, 0, counter, 2);
+		ArrayList<LComponent> lcomps = new ArrayList<LComponent>();
+		lcomps.add(clock);
+		lcomps.add(counter);
+		engine = new NetlistEngine(lcomps);
+		for(int i = 0; i < lcomps.size(); i++) lcomps.get(i).setNetlistEngine(engine);
+		engine.settleAll();
+	}
+
+	/**
+	 * Each step jumps to the next edge of any clock, and clocks with an edge at the same instant are toggled together in one step
+	 */
+	@Test
+	public void stepsThroughEdgesInTimeOrder() {
+		ClockScheduler scheduler = new ClockScheduler(engine);
+		scheduler.setTurbo(true);
+		Clock fast = new Clock(0, 0);
+		fast.setDelay(2);
+		Clock slow = new Clock(0, 0);
+		slow.setDelay(3);
+		scheduler.add(slow);
+		scheduler.add(fast);
+		long time = scheduler.getVirtualTime();
+		boolean fastOn = false, slowOn = false;
+		long edges = 0;
+		for(int step = 1; step <= 12; step++) {
+			do time++; while(time % 2 != 0 && time % 3 != 0);
+			if(time % 2 == 0) {
+				fastOn = !fastOn;
+				edges++;
+			}
+			if(time % 3 == 0) {
+				slowOn = !slowOn;
+				edges++;
+			}
+			scheduler.step();
+			assertEquals(time, scheduler.getVirtualTime());
+			assertEquals(fastOn, fast.isOn());
+			assertEquals(slowOn, slow.isOn());
+			assertEquals(step, scheduler.getNumSteps());
+			assertEquals(edges, scheduler.getNumEdges());
+		}
+	}
+
+	/**
+	 * Stepping in turbo mode settles the circuit after every edge, so the counter counts every rising edge of its clock
+	 */
+	@Test
+	public void countsEveryEdgeInTurbo() {
+		ClockScheduler scheduler = new ClockScheduler(engine);
+		scheduler.setTurbo(true);
+		scheduler.add(clock);
+		assertEquals(20, scheduler.runCycles(10));
+		assertEquals(10, counter.getState());
+	}
+
+	/**
+	 * A step releases the lock of the scheduler before it waits for the engine, so clocks can be added while the circuit is settling
+	 */
+	@Test(timeout = 10000)
+	public void addsClocksDuringStep() throws InterruptedException {
+		ClockScheduler scheduler = new ClockScheduler(engine);
+		scheduler.setTurbo(true);
+		scheduler.add(clock);
+		Thread stepper = new Thread(() -> scheduler.step());
+		synchronized(engine) {
+			stepper.start();
+			while(stepper.getState() != Thread.State.BLOCKED) Thread.sleep(1);
+			Clock other = new Clock(0, 0);
+			scheduler.add(other);
+			assertEquals(2, scheduler.getNumClocks());
+		}
+		stepper.join();
+		assertEquals(1, scheduler.getNumSteps());
+	}
+
+	/**
+	 * When many edges are due at once, each instant is toggled and settled by the LogicWorker before the next, so none of the edges are
+	 * lost to the counter
+	 */
+	@Test
+	public void countsEveryEdgeWhenCatchingUp() throws InterruptedException {
+		ClockScheduler scheduler = new ClockScheduler(engine);
+		scheduler.add(clock);
+		scheduler.advanceTo(scheduler.getNextEdge() + 499);
+		scheduler.remove(clock);
+		engine.getWorker().awaitIdle();
+		assertTrue(scheduler.getNumEdges() >= 500);
+		assertEquals(scheduler.getNumEdges(), scheduler.getNumSteps());
+		assertEquals((scheduler.getNumEdges() + (clock.isOn() ? 1 : 0)) / 2, counter.getState());
+	}
+
+	/**
+	 * While the instants sent by one call are still waiting for the LogicWorker, the edges that come due are dropped instead of queued.
+	 * The lock of the engine is held so the worker cannot handle the first call's instants before the second call
+	 */
+	@Test
+	public void dropsEdgesWhileBehind() throws InterruptedException {
+		ClockScheduler scheduler = new ClockScheduler(engine);
+		scheduler.add(clock);
+		synchronized(engine) {
+			scheduler.advanceTo(scheduler.getNextEdge() + 9);
+			scheduler.advanceTo(scheduler.getNextEdge() + 99);
+		}
+		scheduler.remove(clock);
+		engine.getWorker().awaitIdle();
+		assertEquals(10, scheduler.getNumEdges());
+		assertEquals(100, engine.getStats().getClockEdgesDropped());
+		assertEquals(0, engine.getWorker().getQueueDepth());
+	}
+}
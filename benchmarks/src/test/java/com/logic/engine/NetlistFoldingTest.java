@@ -0,0 +1,132 @@
+package com.logic.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+import com.logic.benchmarks.GeneratedCircuit;
+import com.logic.components.BasicGate;
+import com.logic.components.CompType;
+import com.logic.components.Constant;
+import com.logic.components.LComponent;
+import com.logic.components.SingleInputGate;
+import com.logic.components.Switch;
+
+/**
+ * Tests that gates whose outputs are decided by constants are folded into constants when a netlist is compiled, and that folding does
+ * not change what the circuit outputs
+ * @author toddstennes
+ *
+ */
+public class NetlistFoldingTest {
+
+	/**
+	 * The circuit being tested, which has one input and the outputs AND(0, in), NOT of that, NOT again, OR(in, 1 from the first NOT), and
+	 * AND(1, in)
+	 */
+	private GeneratedCircuit circuit;
+
+	/**
+	 * The input of the circuit
+	 */
+	private Switch input;
+
+	/**
+	 * The gates of the circuit, in the order of the outputs
+	 */
+	private LComponent and0, not1, not2, or1, and1;
+
+	/**
+	 * Builds the circuit
+	 */
+	@Before
+	public void build() {
+		CircuitGenerator.init();
+		circuit = new GeneratedCircuit();
+		input = circuit.addInput();
+		Constant zero = circuit.add(new Constant(0, 0, CompType.ZERO));
+		Constant one = circuit.add(new Constant(0, 0, CompType.ONE));
+		and0 = circuit.add(new BasicGate(0, 0, CompType.AND));
+		not1 = circuit.add(new SingleInputGate(0, 0, CompType.NOT));
+		not2 = circuit.add(new SingleInputGate(0, 0, CompType.NOT));
+		or1 = circuit.add(new BasicGate(0, 0, CompType.OR));
+		and1 = circuit.add(new BasicGate(0, 0, CompType.AND));
+		GeneratedCircuit.connect(zero, 0, and0, 0);
+		GeneratedCircuit.connect(input, 0, and0, 1);
+		GeneratedCircuit.connect(and0, 0, not1, 0);
+		GeneratedCircuit.connect(not1, 0, not2, 0);
+		GeneratedCircuit.connect(input, 0, or1, 0);
+		GeneratedCircuit.connect(not1, 0, or1, 1);
+		GeneratedCircuit.connect(one, 0, and1, 0);
+		GeneratedCircuit.connect(input, 0, and1, 1);
+		circuit.addOutput(and0);
+		circuit.addOutput(not1);
+		circuit.addOutput(not2);
+		circuit.addOutput(or1);
+		circuit.addOutput(and1);
+	}
+
+	/**
+	 * A gate with a controlling constant input is folded, the gates after it are folded in turn, and a gate whose output still depends
+	 * on the input is not folded
+	 */
+	@Test
+	public void foldsGatesDecidedByConstants() {
+		Netlist netlist = circuit.attach().compile();
+		assertEquals(4, netlist.getNumFolded());
+		assertTrue(netlist.isConstant(netlist.indexOf(and0)));
+		assertTrue(netlist.isConstant(netlist.indexOf(not1)));
+		assertTrue(netlist.isConstant(netlist.indexOf(not2)));
+		assertTrue(netlist.isConstant(netlist.indexOf(or1)));
+		assertFalse(netlist.isConstant(netlist.indexOf(and1)));
+		assertFalse(netlist.isSource(netlist.indexOf(and0)));
+	}
+
+	/**
+	 * The folded gates output the signals they would have had without folding, and only the gate that was not folded follows the input
+	 */
+	@Test
+	public void foldedGatesKeepTheirOutputs() {
+		checkOutputs(circuit.attach());
+	}
+
+	/**
+	 * Folding gives the same outputs with gate delays enabled, where constants are scheduled like any other change
+	 */
+	@Test
+	public void foldedGatesKeepTheirOutputsWithGateDelays() {
+		NetlistEngine engine = circuit.attach();
+		engine.setGateDelays(true);
+		checkOutputs(engine);
+	}
+
+	/**
+	 * Folding gives the same outputs when the netlist is evaluated level by level
+	 */
+	@Test
+	public void foldedGatesKeepTheirOutputsWhenLevelized() {
+		NetlistEngine engine = circuit.attach();
+		engine.setLevelized(true);
+		checkOutputs(engine);
+	}
+
+	/**
+	 * Settles the circuit and toggles its input, checking the outputs each time
+	 * @param engine The engine attached to the circuit
+	 */
+	private void checkOutputs(NetlistEngine engine) {
+		engine.settleAll();
+		assertEquals(0b01010, circuit.readOutputs());
+		input.setState(true);
+		engine.propagate(input);
+		assertEquals(0b11010, circuit.readOutputs());
+		input.setState(false);
+		engine.propagate(input);
+		assertEquals(0b01010, circuit.readOutputs());
+		assertEquals(4, engine.getFoldedGates());
+	}
+}
@@ -0,0 +1,174 @@
+package com.logic.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+import com.logic.benchmarks.GeneratedCircuit;
+import com.logic.components.CompType;
+import com.logic.components.LComponent;
+import com.logic.components.SingleInputGate;
+import com.logic.components.Switch;
+
+/**
+ * Tests that a logic process is only stopped when it is oscillating, so a ring of inverters is stopped and reported while a chain of
+ * inverters that is deeper than the iteration budget settles with the right output in every engine
+ * @author toddstennes
+ *
+ */
+public class OscillationTest {
+
+	/**
+	 * The number of inverters in the deep chain, which is more than the default iteration budget
+	 */
+	private static final int DEPTH = LogicEngine.DEFAULT_MAX_ITERATIONS + 2001;
+
+	/**
+	 * Loads the images and logic functions that components need
+	 */
+	@Before
+	public void init() {
+		CircuitGenerator.init();
+	}
+
+	/**
+	 * The LogicEngine stops a ring of inverters and reports every inverter in it
+	 */
+	@Test
+	public void stopsRingWithLogicEngine() {
+		GeneratedCircuit circuit = new GeneratedCircuit();
+		ArrayList<LComponent> ring = buildRing(circuit);
+		SettleResult result = new LogicEngine(ring).doLogic();
+		checkStopped(result, ring);
+	}
+
+	/**
+	 * The NetlistEngine stops a ring of inverters with zero delay
+	 */
+	@Test
+	public void stopsRingWithNetlistEngine() {
+		GeneratedCircuit circuit = new GeneratedCircuit();
+		ArrayList<LComponent> ring = buildRing(circuit);
+		checkStopped(circuit.attach().run(ring, false), ring);
+	}
+
+	/**
+	 * The NetlistEngine stops a ring of inverters when it evaluates one level at a time
+	 */
+	@Test
+	public void stopsRingWhenLevelized() {
+		GeneratedCircuit circuit = new GeneratedCircuit();
+		ArrayList<LComponent> ring = buildRing(circuit);
+		NetlistEngine engine = circuit.attach();
+		engine.setLevelized(true);
+		checkStopped(engine.run(ring, false), ring);
+	}
+
+	/**
+	 * The NetlistEngine stops a ring of inverters with gate delays
+	 */
+	@Test
+	public void stopsRingWithGateDelays() {
+		GeneratedCircuit circuit = new GeneratedCircuit();
+		ArrayList<LComponent> ring = buildRing(circuit);
+		NetlistEngine engine = circuit.attach();
+		engine.setGateDelays(true);
+		checkStopped(engine.run(ring, false), ring);
+	}
+
+	/**
+	 * The LogicEngine settles a chain that is deeper than its budget
+	 */
+	@Test
+	public void settlesDeepChainWithLogicEngine() {
+		GeneratedCircuit circuit = CircuitGenerator.inverterChain(DEPTH);
+		Switch input = circuit.getInputs().get(0);
+		input.setState(true);
+		ArrayList<LComponent> start = new ArrayList<LComponent>();
+		start.add(input);
+		checkSettled(new LogicEngine(start).doLogic(), circuit);
+	}
+
+	/**
+	 * The NetlistEngine settles a chain that is deeper than its budget with zero delay
+	 */
+	@Test
+	public void settlesDeepChainWithNetlistEngine() {
+		GeneratedCircuit circuit = CircuitGenerator.inverterChain(DEPTH);
+		checkDeepChain(circuit, circuit.attach());
+	}
+
+	/**
+	 * The NetlistEngine settles a chain that is deeper than its budget when it evaluates one level at a time
+	 */
+	@Test
+	public void settlesDeepChainWhenLevelized() {
+		GeneratedCircuit circuit = CircuitGenerator.inverterChain(DEPTH);
+		NetlistEngine engine = circuit.attach();
+		engine.setLevelized(true);
+		checkDeepChain(circuit, engine);
+	}
+
+	/**
+	 * The NetlistEngine settles a chain that is deeper than its budget with gate delays
+	 */
+	@Test
+	public void settlesDeepChainWithGateDelays() {
+		GeneratedCircuit circuit = CircuitGenerator.inverterChain(DEPTH);
+		NetlistEngine engine = circuit.attach();
+		engine.setGateDelays(true);
+		checkDeepChain(circuit, engine);
+	}
+
+	/**
+	 * Builds a ring of three inverters with a light on one of them. Every inverter has to be started, since starting only one of them
+	 * leaves the others in a stale state that looks settled
+	 * @param circuit The circuit to build the ring in
+	 * @return The inverters
+	 */
+	private static ArrayList<LComponent> buildRing(GeneratedCircuit circuit) {
+		ArrayList<LComponent> ring = new ArrayList<LComponent>();
+		for(int i = 0; i < 3; i++) ring.add(circuit.add(new SingleInputGate(0, 0, CompType.NOT)));
+		for(int i = 0; i < 3; i++) GeneratedCircuit.connect(ring.get(i), 0, ring.get((i + 1) % 3), 0);
+		circuit.addOutput(ring.get(0));
+		return ring;
+	}
+
+	/**
+	 * Checks that a process was stopped and that every inverter of the ring was reported as oscillating
+	 * @param result The result of the process
+	 * @param ring The inverters of the ring
+	 */
+	private static void checkStopped(SettleResult result, ArrayList<LComponent> ring) {
+		assertFalse(result.isSettled());
+		for(int i = 0; i < ring.size(); i++) assertTrue(result.getOscillatingComps().contains(ring.get(i)));
+	}
+
+	/**
+	 * Raises the input of the deep chain on the given engine and checks the result
+	 * @param circuit The chain
+	 * @param engine The engine attached to the chain
+	 */
+	private static void checkDeepChain(GeneratedCircuit circuit, NetlistEngine engine) {
+		Switch input = circuit.getInputs().get(0);
+		input.setState(true);
+		checkSettled(engine.propagate(input), circuit);
+	}
+
+	/**
+	 * Checks that a process on the deep chain settled with the inverse of the raised input at the end, since the chain has an odd length
+	 * @param result The result of the process
+	 * @param circuit The chain
+	 */
+	private static void checkSettled(SettleResult result, GeneratedCircuit circuit) {
+		assertTrue(result.isSettled());
+		assertTrue(result.getOscillatingComps().isEmpty());
+		assertEquals(0, circuit.readOutputs());
+	}
+}
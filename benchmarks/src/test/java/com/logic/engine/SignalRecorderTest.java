@@ -0,0 +1,157 @@
+package com.logic.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+import com.logic.benchmarks.GeneratedCircuit;
+import com.logic.components.CompType;
+import com.logic.components.LComponent;
+import com.logic.components.SingleInputGate;
+import com.logic.components.Switch;
+
+/**
+ * Tests that a SignalRecorder keeps recording the selected components after the engine compiles a new netlist, and that streaming a
+ * recording splits the memory cap between its two buffers
+ * @author toddstennes
+ *
+ */
+public class SignalRecorderTest {
+
+	/**
+	 * The circuit being tested, which is a switch driving a NOT gate
+	 */
+	private GeneratedCircuit circuit;
+
+	/**
+	 * The input of the circuit
+	 */
+	private Switch input;
+
+	/**
+	 * The NOT gate, which is the only component being recorded
+	 */
+	private LComponent not;
+
+	/**
+	 * The engine attached to the circuit
+	 */
+	private NetlistEngine engine;
+
+	/**
+	 * The recorder attached to the engine
+	 */
+	private SignalRecorder recorder;
+
+	/**
+	 * Builds the circuit and starts recording the NOT gate
+	 */
+	@Before
+	public void build() {
+		CircuitGenerator.init();
+		circuit = new GeneratedCircuit();
+		input = circuit.addInput();
+		not = circuit.add(new SingleInputGate(0, 0, CompType.NOT));
+		GeneratedCircuit.connect(input, 0, not, 0);
+		circuit.addOutput(not);
+		circuit.settle();
+		engine = circuit.attach();
+		engine.settleAll();
+		recorder = new SignalRecorder(engine.compile(), SignalRecorder.DEFAULT_MEMORY_CAP);
+		ArrayList<LComponent> selection = new ArrayList<LComponent>();
+		selection.add(not);
+		recorder.select(selection);
+		engine.setRecorder(recorder);
+	}
+
+	/**
+	 * Only the net of the selected component is recorded
+	 */
+	@Test
+	public void recordsSelectedNets() {
+		toggle();
+		assertEquals(1, recorder.getSize());
+		assertEquals(netOf(not), recorder.getNet(0));
+		assertEquals(false, recorder.getValue(0));
+	}
+
+	/**
+	 * A recompile attaches the recorder to the new netlist and keeps the selection
+	 */
+	@Test
+	public void followsRecompile() {
+		toggle();
+		engine.invalidate();
+		toggle();
+		assertSame(engine.compile(), recorder.getNetlist());
+		assertEquals(1, recorder.getSize());
+		assertEquals(netOf(not), recorder.getNet(0));
+		assertEquals(true, recorder.getValue(0));
+	}
+
+	/**
+	 * While streaming, each of the two buffers gets half of the cap. Once the stream is stopped, the file has every change and the buffer
+	 * gets the whole cap back
+	 */
+	@Test
+	public void streamsWithHalfTheCap() throws IOException {
+		int capacity = recorder.getCapacity();
+		toggle();
+		File file = File.createTempFile("recording", ".vcd");
+		try {
+			recorder.startStream(file.getPath(), "1ns");
+			assertEquals(capacity / 2, recorder.getCapacity());
+			toggle();
+			toggle();
+			recorder.stopStream();
+			assertEquals(capacity, recorder.getCapacity());
+			String vcd = new String(Files.readAllBytes(file.toPath()), "UTF-8");
+			assertEquals(3, countChanges(vcd));
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Counts the value changes in the body of a VCD file, which are the lines after the first timestamp that do not start a new timestamp
+	 * @param vcd The contents of the file
+	 * @return The number of changes
+	 */
+	private static int countChanges(String vcd) {
+		String[] lines = vcd.split("\n");
+		int count = 0;
+		boolean body = false;
+		for(int i = 0; i < lines.length; i++) {
+			String line = lines[i].trim();
+			if(line.startsWith("#")) body = true;
+			else if(body && line.length() > 0 && !line.startsWith("$")) count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Flips the input and runs a logic process from it
+	 */
+	private void toggle() {
+		input.setState(!input.getState());
+		engine.propagate(input);
+	}
+
+	/**
+	 * Returns the net driven by a component in the current netlist
+	 * @param lcomp The component
+	 * @return The index of the net
+	 */
+	private int netOf(LComponent lcomp) {
+		Netlist netlist = engine.compile();
+		return netlist.outNets[netlist.outStart[netlist.indexOf(lcomp)]];
+	}
+}
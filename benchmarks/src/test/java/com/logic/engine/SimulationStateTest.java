@@ -0,0 +1,108 @@
+package com.logic.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+import com.logic.benchmarks.GeneratedCircuit;
+import com.logic.components.LComponent;
+import com.logic.components.Switch;
+
+/**
+ * Tests that restoring a SimulationState and stepping back through a RewindBuffer put a counter made of latches back into a state that
+ * a plain LogicEngine reaches by clocking a second copy of the counter, and that both keep counting the same way from there
+ * @author toddstennes
+ *
+ */
+public class SimulationStateTest {
+
+	/**
+	 * The number of bits in the counters
+	 */
+	private static final int BITS = 4;
+
+	/**
+	 * The counter run by the NetlistEngine, and the counter run by plain LogicEngines as the reference
+	 */
+	private GeneratedCircuit circuit, reference;
+
+	/**
+	 * The engine attached to circuit
+	 */
+	private NetlistEngine engine;
+
+	/**
+	 * Builds both counters and settles the one on the NetlistEngine
+	 */
+	@Before
+	public void build() {
+		CircuitGenerator.init();
+		circuit = CircuitGenerator.counterChain(BITS);
+		engine = circuit.attach();
+		engine.settleAll();
+		reference = CircuitGenerator.counterChain(BITS);
+	}
+
+	/**
+	 * A saved state is restored after the counter has moved on, and the counter then counts from the saved count
+	 */
+	@Test
+	public void restoresSavedState() {
+		for(int i = 0; i < 10; i++) toggle();
+		SimulationState state = new SimulationState(engine.compile());
+		assertTrue(engine.saveState(state));
+		for(int i = 0; i < 12; i++) toggle();
+		assertTrue(engine.restoreState(state));
+		for(int i = 0; i < 10; i++) toggleReference();
+		checkLockstep();
+	}
+
+	/**
+	 * Stepping back undoes the last logic processes one at a time, and the counter then counts from the count it stepped back to
+	 */
+	@Test
+	public void stepsBack() {
+		engine.setRewindDepth(RewindBuffer.DEFAULT_DEPTH);
+		for(int i = 0; i < 9; i++) toggle();
+		for(int i = 0; i < 4; i++) assertTrue(engine.stepBack());
+		for(int i = 0; i < 5; i++) toggleReference();
+		checkLockstep();
+	}
+
+	/**
+	 * Checks that both counters match, then clocks them together for two full counts and checks that they match after every toggle
+	 */
+	private void checkLockstep() {
+		assertEquals(reference.readOutputs(), circuit.readOutputs());
+		for(int i = 0; i < 4 << BITS; i++) {
+			toggle();
+			toggleReference();
+			assertEquals(reference.readOutputs(), circuit.readOutputs());
+		}
+	}
+
+	/**
+	 * Flips the clock of the counter on the NetlistEngine and runs a logic process from it
+	 */
+	private void toggle() {
+		Switch clock = circuit.getInputs().get(0);
+		clock.setState(!clock.getState());
+		engine.propagate(clock);
+	}
+
+	/**
+	 * Flips the clock of the reference counter and runs a plain LogicEngine from it
+	 */
+	private void toggleReference() {
+		Switch clock = reference.getInputs().get(0);
+		clock.setState(!clock.getState());
+		ArrayList<LComponent> start = new ArrayList<LComponent>();
+		start.add(clock);
+		new LogicEngine(start).doLogic();
+	}
+}
@@ -0,0 +1,78 @@
+package com.logic.engine;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+import com.logic.benchmarks.GeneratedCircuit;
+import com.logic.components.Connection;
+import com.logic.components.Light;
+import com.logic.components.Switch;
+import com.logic.components.Wire;
+
+/**
+ * Tests that the SourceIndex and the netlist agree on which components are sources, including a component whose input has a wire that
+ * has not been connected to an output yet. The component is a Light, since a gate with an open input would be folded into a constant
+ * @author toddstennes
+ *
+ */
+public class SourceIndexTest {
+
+	/**
+	 * The circuit being tested, which is a switch and a light
+	 */
+	private GeneratedCircuit circuit;
+
+	/**
+	 * The switch, which is not connected to the light until a test connects it
+	 */
+	private Switch input;
+
+	/**
+	 * The light
+	 */
+	private Light light;
+
+	/**
+	 * The wire on the input of the light, which starts out with no source
+	 */
+	private Wire wire;
+
+	/**
+	 * Builds the circuit with a wire that has only been connected to the input of the light, as it is while the wire is being drawn
+	 */
+	@Before
+	public void build() {
+		CircuitGenerator.init();
+		circuit = new GeneratedCircuit();
+		input = circuit.addInput();
+		light = circuit.addOutput(input);
+		light.getIO().connectionAt(0, Connection.INPUT).getWire().delete();
+		wire = new Wire();
+		light.getIO().connectionAt(0, Connection.INPUT).addWire(wire);
+	}
+
+	/**
+	 * An input whose wire has no source is open, so the light is a source to both
+	 */
+	@Test
+	public void wireWithoutSourceIsOpen() {
+		Netlist netlist = circuit.attach().compile();
+		assertTrue(SourceIndex.isSource(light));
+		assertTrue(netlist.isSource(netlist.indexOf(light)));
+	}
+
+	/**
+	 * Once the wire is connected to an output, the light is a source to neither
+	 */
+	@Test
+	public void completedWireIsNotOpen() {
+		input.getIO().connectionAt(0, Connection.OUTPUT).addWire(wire);
+		Netlist netlist = circuit.attach().compile();
+		assertFalse(SourceIndex.isSource(light));
+		assertFalse(netlist.isSource(netlist.indexOf(light)));
+	}
+}
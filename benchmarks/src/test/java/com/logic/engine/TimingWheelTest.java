@@ -0,0 +1,90 @@
+package com.logic.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the ordering of events in the TimingWheel, including events that are too far in the future for the wheel and have to wait in
+ * its overflow list
+ * @author toddstennes
+ *
+ */
+public class TimingWheelTest {
+
+	/**
+	 * Events for the same time are popped in the order they were scheduled, and advance() skips straight to the next time with events
+	 */
+	@Test
+	public void popsEventsInTimeOrder() {
+		TimingWheel wheel = new TimingWheel(16);
+		wheel.schedule(5, 50);
+		wheel.schedule(2, 20);
+		wheel.schedule(5, 51);
+		wheel.schedule(2, 21);
+		assertFalse(wheel.hasCurrent());
+		assertEquals(2, wheel.advance());
+		assertEquals(20, wheel.pop());
+		assertEquals(21, wheel.pop());
+		assertFalse(wheel.hasCurrent());
+		assertEquals(5, wheel.advance());
+		assertEquals(50, wheel.pop());
+		assertEquals(51, wheel.pop());
+		assertTrue(wheel.isEmpty());
+	}
+
+	/**
+	 * Events further away than the number of slots are kept in the overflow list and come out at the right time, after the events in
+	 * the wheel that come before them
+	 */
+	@Test
+	public void movesOverflowEventsIntoTheWheel() {
+		TimingWheel wheel = new TimingWheel(8);
+		wheel.schedule(1000, 3);
+		wheel.schedule(20, 2);
+		wheel.schedule(3, 1);
+		assertEquals(3, wheel.advance());
+		assertEquals(1, wheel.pop());
+		assertEquals(20, wheel.advance());
+		assertEquals(2, wheel.pop());
+		assertFalse(wheel.isEmpty());
+		assertEquals(1000, wheel.advance());
+		assertEquals(3, wheel.pop());
+		assertTrue(wheel.isEmpty());
+	}
+
+	/**
+	 * An event scheduled for the current time while the current slot is being read is popped after the events already in the slot, and
+	 * an event in the past is moved up to the current time
+	 */
+	@Test
+	public void schedulesLateEventsAtTheCurrentTime() {
+		TimingWheel wheel = new TimingWheel(8);
+		wheel.schedule(4, 1);
+		wheel.advance();
+		wheel.schedule(4, 2);
+		wheel.schedule(0, 3);
+		assertEquals(1, wheel.pop());
+		assertEquals(2, wheel.pop());
+		assertEquals(3, wheel.pop());
+		assertEquals(4, wheel.getTime());
+	}
+
+	/**
+	 * Clearing the wheel drops every event, including overflow events, without moving the time backward
+	 */
+	@Test
+	public void clearKeepsTheTime() {
+		TimingWheel wheel = new TimingWheel(8);
+		wheel.schedule(6, 1);
+		wheel.schedule(500, 2);
+		wheel.advance();
+		wheel.clear();
+		assertTrue(wheel.isEmpty());
+		assertFalse(wheel.hasCurrent());
+		assertEquals(6, wheel.getTime());
+		assertEquals(6, wheel.advance());
+	}
+}
@@ -0,0 +1,80 @@
+package com.logic.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logic.benchmarks.CircuitGenerator;
+import com.logic.benchmarks.GeneratedCircuit;
+import com.logic.components.LComponent;
+import com.logic.components.Light;
+
+/**
+ * Tests that every lane of a VectorEngine matches what a plain LogicEngine gives for the same combination of inputs, for every
+ * combination of the inputs of a few generated circuits
+ * @author toddstennes
+ *
+ */
+public class VectorEngineTest {
+
+	/**
+	 * Loads the images and logic functions that components need
+	 */
+	@Before
+	public void init() {
+		CircuitGenerator.init();
+	}
+
+	/**
+	 * A ripple adder, whose carries run through every level of the circuit
+	 */
+	@Test
+	public void matchesAdder() {
+		check(CircuitGenerator.rippleAdder(3));
+	}
+
+	/**
+	 * An array multiplier, which also has a constant input
+	 */
+	@Test
+	public void matchesMultiplier() {
+		check(CircuitGenerator.arrayMultiplier(3));
+	}
+
+	/**
+	 * A tree of XOR gates with an odd number of inputs
+	 */
+	@Test
+	public void matchesXorTree() {
+		check(CircuitGenerator.xorTree(7));
+	}
+
+	/**
+	 * Runs every combination of the inputs of a circuit through a VectorEngine, 64 at a time, and compares each lane with the outputs of
+	 * the circuit after a plain LogicEngine settles it with the same inputs
+	 * @param circuit The circuit
+	 */
+	private static void check(GeneratedCircuit circuit) {
+		VectorEngine vector = new VectorEngine(circuit.getLComps());
+		ArrayList<LComponent> inputs = new ArrayList<LComponent>(circuit.getInputs());
+		ArrayList<Light> outputs = circuit.getOutputs();
+		long combinations = 1L << inputs.size();
+		for(long first = 0; first < combinations; first += VectorEngine.LANES) {
+			vector.setCombinations(inputs, first);
+			assertTrue(vector.run());
+			for(int lane = 0; lane < VectorEngine.LANES && first + lane < combinations; lane++) {
+				circuit.setInputs(first + lane);
+				new LogicEngine(inputs).doLogic();
+				long lanes = 0;
+				for(int i = 0; i < outputs.size(); i++) {
+					if(((vector.getLanes(outputs.get(i)) >>> lane) & 1) == 1) lanes |= 1L << i;
+				}
+				assertEquals("inputs " + (first + lane), circuit.readOutputs(), lanes);
+			}
+		}
+	}
+}
@@ -2,8 +2,8 @@ package com.logic.components;
 
 import java.awt.*;
 
+import com.logic.engine.GateKernels;
 import com.logic.engine.LogicEngine;
-import com.logic.engine.LogicFunctions;
 import com.logic.ui.CircuitPanel;
 import com.logic.ui.CompDrawer;
 import com.logic.ui.CompRotator;
@@ -23,16 +23,6 @@ public class BasicGate extends LComponent {
 	 */
 	public static final int MIN_INPUTS = 2, MAX_INPUTS = 10, DEFAULT_INPUTS = 2;
 
-	/**
-	 * The index of the Function that will be used to evaluate the output of this gate
-	 */
-	private int function;
-
-	/**
-	 * Shows if the gate is a "not" variant of the normal gate
-	 */
-	private boolean inverted;
-
 	/**
 	 * Constructs a new BasicGate with the default number of inputs
 	 * @param x The x position of the new gate
@@ -52,36 +42,8 @@ public class BasicGate extends LComponent {
 	 */
 	public BasicGate(int x, int y, int numInputs, CompType type) {
 		super(x, y, type);
-		if(type == CompType.AND) {
-			drawer.setImages(new int[]{1});
-			inverted = false;
-			function = 0;
-		}
-		else if(type == CompType.NAND) {
-			drawer.setImages(new int[]{1});
-			inverted = true;
-			function = 0;
-		}
-		else if(type == CompType.OR) {
-			drawer.setImages(new int[]{2});
-			inverted = false;
-			function = 1;
-		}
-		else if(type == CompType.NOR) {
-			drawer.setImages(new int[]{2});
-			inverted = true;
-			function = 1;
-		}
-		else if(type == CompType.XOR) {
-			drawer.setImages(new int[]{2});
-			inverted = false;
-			function = 2;
-		}
-		else if(type == CompType.XNOR) {
-			drawer.setImages(new int[]{2});
-			inverted = true;
-			function = 2;
-		}
+		if(type == CompType.AND || type == CompType.NAND) drawer.setImages(new int[]{1});
+		else drawer.setImages(new int[]{2});
 		drawer.setActiveImageIndex(0);
 
 		if(numInputs > MAX_INPUTS) numInputs = MAX_INPUTS;
@@ -103,12 +65,7 @@ public class BasicGate extends LComponent {
 
 	@Override
 	public void update(LogicEngine engine) {
-		int inputs = io.getNumInputs();
-		boolean output = io.getInput(0);
-		for(int i = 1; i < inputs; i++){
-			output = LogicFunctions.func2s.get(function).apply(output, io.getInput(i));
-		}
-		io.setOutput(0, inverted != output, engine);
+		io.setOutput(0, GateKernels.evaluate(type, io.getInputBits(), io.getNumInputs()), engine);
 	}
 
 	/**
@@ -0,0 +1,190 @@
+package com.logic.components;
+
+import java.awt.*;
+
+import com.logic.ui.CircuitPanel;
+import com.logic.ui.CompRotator;
+import com.logic.util.ConnectionLayout;
+
+/**
+ * The superclass for components that convert between a bus and the single bits that make it up (splitters and mergers). These components
+ * are drawn as a narrow bar, with the bus connection in the middle of one side and a connection for each bit on the other side, starting
+ * with bit 0 at the top. Inputs are always on the left and outputs are always on the right
+ * @author toddstennes
+ *
+ */
+public abstract class BusComponent extends LComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The maximum, minimum, and default number of bits in the bus
+	 */
+	public static final int MIN_WIDTH = 2, MAX_WIDTH = 64, DEFAULT_WIDTH = 8;
+
+	/**
+	 * The width of the bar in pixels
+	 */
+	public static final int BAR_WIDTH = 30;
+
+	/**
+	 * The distance in pixels between the connections for two bits
+	 */
+	public static final int BIT_SPACING = 30;
+
+	/**
+	 * The distance in pixels from the bar to each connection
+	 */
+	private static final int CONNECTION_LENGTH = 25;
+
+	/**
+	 * The number of bits in the bus
+	 */
+	protected int width;
+
+	/**
+	 * The type of the bus connection (Connection.INPUT or Connection.OUTPUT). The bit connections have the other type
+	 */
+	private int busType;
+
+	/**
+	 * Constructs a new BusComponent
+	 * @param x The x position
+	 * @param y The y position
+	 * @param type The type of component
+	 * @param busType The type of the bus connection (Connection.INPUT for a splitter, Connection.OUTPUT for a merger)
+	 * @param width The number of bits in the bus, will be rounded to max / min if out of bounds
+	 */
+	public BusComponent(int x, int y, CompType type, int busType, int width) {
+		super(x, y, type);
+		if(width > MAX_WIDTH) width = MAX_WIDTH;
+		else if(width < MIN_WIDTH) width = MIN_WIDTH;
+		this.width = width;
+		this.busType = busType;
+		Point busPoint = calcBusPosition();
+		io.addConnection(busPoint.x, busPoint.y, busType, getBusSide(), width);
+		Point[] bitPoints = calcBitPositions();
+		for(int i = 0; i < width; i++) io.addConnection(bitPoints[i].x, bitPoints[i].y, getBitType(), getBitSide());
+	}
+
+	/**
+	 * Renders this component as a bar of the appropriate size and uses drawer.drawConnections to display connections
+	 */
+	@Override
+	public void render(Graphics g, CircuitPanel cp) {
+		drawer.drawConnections(g);
+		Rectangle bounds = getBounds();
+		Graphics2D g2d = (Graphics2D) g;
+		g2d.setColor(Color.WHITE);
+		g2d.fill(bounds);
+		g2d.setColor(Color.BLACK);
+		g2d.setStroke(new BasicStroke(4));
+		g2d.draw(bounds);
+		g2d.setColor(Color.BLUE);
+		g2d.setStroke(new BasicStroke(2));
+		if(selected) g2d.drawRect(bounds.x - 1, bounds.y - 1, bounds.width + 2, bounds.height + 2);
+	}
+
+	/**
+	 * Sets the number of bits in the bus. The wires on the bus connection are deleted, since they no longer have the same width as the
+	 * connection. Unlike the constructor, the method will do nothing and exit if the width is out of bounds
+	 * @param width The number of bits
+	 */
+	public void setWidth(int width) {
+		if(width < MIN_WIDTH || width > MAX_WIDTH || width == this.width) return;
+		int bitType = getBitType();
+		if(width > this.width) {
+			for(int i = 0; i < width - this.width; i++) io.addConnection(0, 0, bitType, getBitSide());
+		}
+		else {
+			for(int i = 0; i < this.width - width; i++) {
+				int last = bitType == Connection.INPUT ? io.getNumInputs() - 1 : io.getNumOutputs() - 1;
+				io.removeConnection(io.connectionAt(last, bitType));
+			}
+		}
+		this.width = width;
+		io.connectionAt(0, busType).setWidth(width);
+		io.setConnectionLayout(new ConnectionLayout(new Point[] {calcBusPosition()}, getBusSide(), busType));
+		io.setConnectionLayout(new ConnectionLayout(calcBitPositions(), getBitSide(), bitType));
+	}
+
+	/**
+	 * Returns the number of bits in the bus
+	 * @return The width of the bus
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the type of the connections for the single bits
+	 * @return Connection.OUTPUT if the bus is an input, or Connection.INPUT if the bus is an output
+	 */
+	private int getBitType() {
+		return busType == Connection.INPUT ? Connection.OUTPUT : Connection.INPUT;
+	}
+
+	/**
+	 * Returns the side of the bar that the bus connection is on
+	 * @return CompRotator.LEFT if the bus is an input, or CompRotator.RIGHT if the bus is an output
+	 */
+	private int getBusSide() {
+		return busType == Connection.INPUT ? CompRotator.LEFT : CompRotator.RIGHT;
+	}
+
+	/**
+	 * Returns the side of the bar that the bit connections are on
+	 * @return CompRotator.RIGHT if the bus is an input, or CompRotator.LEFT if the bus is an output
+	 */
+	private int getBitSide() {
+		return busType == Connection.INPUT ? CompRotator.RIGHT : CompRotator.LEFT;
+	}
+
+	/**
+	 * Calculates the position of the bus connection, which is centered on its side of the bar
+	 * @return The position of the bus connection
+	 */
+	private Point calcBusPosition() {
+		int busX = busType == Connection.INPUT ? -CONNECTION_LENGTH : BAR_WIDTH + CONNECTION_LENGTH;
+		return new Point(busX, getHeight() / 2);
+	}
+
+	/**
+	 * Calculates the positions of the bit connections so that they are equally spaced along their side of the bar
+	 * @return An array of points showing the bit positions, starting with bit 0
+	 */
+	private Point[] calcBitPositions() {
+		int bitX = busType == Connection.INPUT ? BAR_WIDTH + CONNECTION_LENGTH : -CONNECTION_LENGTH;
+		Point[] positions = new Point[width];
+		for(int i = 0; i < width; i++) positions[i] = new Point(bitX, BIT_SPACING / 2 + 10 + i * BIT_SPACING);
+		return positions;
+	}
+
+	/**
+	 * Returns the height of the bar, which grows with the number of bits
+	 * @return The height in pixels
+	 */
+	private int getHeight() {
+		return width * BIT_SPACING + 20;
+	}
+
+	/**
+	 * Returns a bounding box for this component based on the number of bits, which determines the height of the bar
+	 * @return A bounding box for the component
+	 */
+	@Override
+	public Rectangle getBounds() {
+		int rotation = rotator.getRotation();
+		if(rotation == CompRotator.UP || rotation == CompRotator.DOWN) return new Rectangle(x, y, getHeight(), BAR_WIDTH);
+		else return new Rectangle(x, y, BAR_WIDTH, getHeight());
+	}
+
+	/**
+	 * Returns a bounding box for this component when it is facing in a rightward direction
+	 * @return A bounding box for the component
+	 */
+	@Override
+	public Rectangle getBoundsRight() {
+		return new Rectangle(x, y, BAR_WIDTH, getHeight());
+	}
+}
@@ -1,17 +1,15 @@
 package com.logic.components;
 
 import java.awt.Graphics;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-
-import javax.swing.Timer;
 
+import com.logic.engine.ClockScheduler;
 import com.logic.engine.LogicEngine;
 import com.logic.ui.CircuitPanel;
 import com.logic.ui.CompRotator;
 
 /**
- * This class represents the clock component, which that toggles its output at a specified interval through the use of swing timers
+ * This class represents the clock component, which toggles its output at a specified interval. Clocks do not have timers of their own;
+ * every clock in a circuit is run by the circuit's ClockScheduler
  * @author toddstennes
  *
  */
@@ -30,14 +28,20 @@ public class Clock extends SComponent {
 	private int delay;
 	
 	/**
-	 * The state of the clock. When on is true, the component outputs a high signal, and when on is false it outputs a low signal
+	 * The state of the clock. When on is true, the component outputs a high signal, and when on is false it outputs a low signal. This is
+	 * toggled by the thread running logic and read by the event dispatch thread when the clock is painted, so it is volatile
+	 */
+	private volatile boolean on = false;
+	
+	/**
+	 * The scheduler that runs this clock, or null if the clock has not been started
 	 */
-	private boolean on = false;
+	private transient ClockScheduler scheduler;
 	
 	/**
-	 * The swing timer instance used to operate the clock
+	 * The virtual time of the next edge of this clock, which is set by the scheduler
 	 */
-	private Timer timer;
+	private transient long nextEdge;
 	
 	/**
 	 * Constructs a new Clock
@@ -79,33 +83,50 @@ public class Clock extends SComponent {
 	}
 	
 	/**
-	 * Creates and starts the timer in this clock. If the clock already has a timer, the reference to this timer is overwritten. The 
-	 * CircuitPanel parameter is necessary for repainting when the state of the clock changes.
-	 * @param cp The CircuitPanel that should be repainted when this Clock changes state 
+	 * Starts running this clock on the ClockScheduler of the given CircuitPanel. If the clock is already running, it is restarted
+	 * @param cp The CircuitPanel that contains this Clock
 	 */
 	@Override
 	public void start(CircuitPanel cp) {
-		if(timer != null) timer.stop();
-		timer = new Timer(delay, new ActionListener() {
-			@Override
-			public void actionPerformed(ActionEvent e) {
-				on = !on;
-				innerChange();
-				cp.repaint();
-			}
-		});
-		timer.start();
+		if(scheduler != null) scheduler.remove(this);
+		scheduler = cp.getClockScheduler();
+		scheduler.add(this);
 	}
 	
 	/**
-	 * Stops the timer in this clock
+	 * Stops running this clock
 	 */
 	public void stop() {
-		timer.stop();
+		if(scheduler != null) scheduler.remove(this);
+		scheduler = null;
+	}
+	
+	/**
+	 * Toggles the state of the clock without starting logic, which is what the scheduler does at every edge before it updates the circuit.
+	 * This is also used to tick clocks without a scheduler (for example, when running a circuit without a window)
+	 */
+	public void toggle() {
+		on = !on;
+	}
+	
+	/**
+	 * Returns the state of the clock
+	 * @return True if the clock is currently outputting a high signal
+	 */
+	public boolean isOn() {
+		return on;
 	}
 	
 	/**
-	 * Returns the current delay value on this clock's timer (measured in milliseconds)
+	 * Sets the state of the clock without starting logic, which is used when a saved state of the circuit is restored
+	 * @param on True if the clock should output a high signal
+	 */
+	public void setOn(boolean on) {
+		this.on = on;
+	}
+	
+	/**
+	 * Returns the current delay value of this clock (measured in milliseconds)
 	 * @return The current delay value
 	 */
 	public int getDelay() {
@@ -113,11 +134,27 @@ public class Clock extends SComponent {
 	}
 	
 	/**
-	 * Sets the delay value on this clock's timer (measured in milliseconds)
+	 * Sets the delay value of this clock (measured in milliseconds). The new delay is used starting with the next edge
 	 * @param delay The new delay value
 	 */
 	public void setDelay(int delay) {
 		this.delay = delay;
-		if(timer != null) timer.setDelay(delay);
+	}
+	
+	/**
+	 * Returns the virtual time of the next edge of this clock
+	 * @return The time in milliseconds (see ClockScheduler.getTime())
+	 */
+	public long getNextEdge() {
+		return nextEdge;
+	}
+	
+	/**
+	 * Sets the virtual time of the next edge of this clock. This should only be called by the ClockScheduler, and never while the clock is
+	 * in the scheduler's queue
+	 * @param nextEdge The time in milliseconds
+	 */
+	public void setNextEdge(long nextEdge) {
+		this.nextEdge = nextEdge;
 	}
 }
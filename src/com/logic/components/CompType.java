@@ -1,27 +1,61 @@
 package com.logic.components;
 
 /**
- * An enumeration of all of the types of components in Gateway
+ * An enumeration of all of the types of components in Gateway, along with the default propagation delay of each type (the number of
+ * time units it takes for a change in a component's inputs to reach its outputs when gate delays are enabled)
  * @author toddstennes
  *
  */
 public enum CompType {
 
-	AND(),
-	OR(),
-	NOT(),
-	NAND(),
-	NOR(),
-	XOR(),
-	XNOR(),
-	BUFFER(),
-	SWITCH(),
-	LIGHT(),
-	CLOCK(),
-	BUTTON(),
-	ZERO(),
-	ONE(),
-	DISPLAY(),
-	CUSTOM();
+	AND(1),
+	OR(1),
+	NOT(1),
+	NAND(1),
+	NOR(1),
+	XOR(1),
+	XNOR(1),
+	BUFFER(1),
+	SWITCH(0),
+	LIGHT(0),
+	CLOCK(0),
+	BUTTON(0),
+	ZERO(0),
+	ONE(0),
+	DISPLAY(0),
+	SPLITTER(0),
+	MERGER(0),
+	SR_FLIPFLOP(1),
+	D_FLIPFLOP(1),
+	JK_FLIPFLOP(1),
+	T_FLIPFLOP(1),
+	SR_LATCH(1),
+	D_LATCH(1),
+	REGISTER(1),
+	COUNTER(1),
+	RAM(1),
+	ROM(1),
+	CUSTOM(1);
+	
+	/**
+	 * The default propagation delay of this type of component
+	 */
+	private final int defaultPropagationDelay;
+	
+	/**
+	 * Constructs a new CompType
+	 * @param defaultPropagationDelay The default propagation delay
+	 */
+	private CompType(int defaultPropagationDelay) {
+		this.defaultPropagationDelay = defaultPropagationDelay;
+	}
+	
+	/**
+	 * Returns the default propagation delay of this type of component
+	 * @return The default delay
+	 */
+	public int getDefaultPropagationDelay() {
+		return defaultPropagationDelay;
+	}
 	
 }
@@ -4,6 +4,7 @@ import java.awt.*;
 import java.io.Serializable;
 import java.util.ArrayList;
 
+import com.logic.engine.NetlistEngine;
 import com.logic.ui.CompDrawer;
 import com.logic.ui.CompRotator;
 import com.logic.util.Deletable;
@@ -84,6 +85,12 @@ public class Connection implements Deletable, Serializable {
 	 * so use getTrueDirection() method to get the absolute direction with component rotation taken into account.
 	 */
 	private int direction;
+	
+	/**
+	 * The number of bits carried by the wires of this connection, or 0 for a single bit connection (connections saved before buses
+	 * existed are read with a width of 0)
+	 */
+	private int width;
 
 	/**
 	 * Constructs a new Connection
@@ -107,9 +114,14 @@ public class Connection implements Deletable, Serializable {
 	 * Adds the given wire to this connection so that its signal can either be used as an input value or set as an output value
 	 * @param wire The wire to add
 	 * @return True if the wire was successfully added, false if it was rejected (this happens if a second wire is added to an input that
-	 * already has a wire)
+	 * already has a wire, or if the other end of the wire is a connection with a different width)
 	 */
 	public boolean addWire(Wire wire) {
+		Connection other = type == OUTPUT ? wire.getDestConnection() : wire.getSourceConnection();
+		if(other != null && other.getWidth() != getWidth()) {
+			wire.delete();
+			return false;
+		}
 		if(type == OUTPUT) {
 			initWire(wire);
 			return true;
@@ -132,6 +144,7 @@ public class Connection implements Deletable, Serializable {
 	 */
 	public void removeWire(Wire wire) {
 		wires.remove(wire);
+		if(type == INPUT) updateSource();
 	}
 	
 	/**
@@ -142,7 +155,18 @@ public class Connection implements Deletable, Serializable {
 	private void initWire(Wire wire) {
 		wires.add(wire);
 		wire.fillConnection(this);
-		if(type == OUTPUT) if(wires.size() > 1) wire.setSignal(wires.get(0).getSignal());
+		if(type == OUTPUT) if(wires.size() > 1) wire.setValue(wires.get(0).getValue());
+		if(type == INPUT) updateSource();
+		else if(wire.getDestConnection() != null) wire.getDestConnection().updateSource();
+	}
+
+	/**
+	 * Tells the source index of the circuit that this input has been connected or disconnected, or that the wire on it has been connected
+	 * to an output, since that can change whether its component is a source
+	 */
+	private void updateSource() {
+		NetlistEngine netlistEngine = lcomp.getNetlistEngine();
+		if(netlistEngine != null) netlistEngine.getSourceIndex().update(lcomp);
 	}
 	
 	/**
@@ -204,6 +228,16 @@ public class Connection implements Deletable, Serializable {
 		return wires.get(0);
 	}
 	
+	/**
+	 * Tells whether this input is open, which is when it has no wire or its wire is not connected to an output yet. An open input always
+	 * reads as low. This is the one test used both for finding the sources of a circuit (see SourceIndex.isSource) and for compiling the
+	 * input into a netlist (see Netlist.findDriver), so the two always agree
+	 * @return True if the input has no wire with a source
+	 */
+	public boolean isOpen() {
+		return wires.size() == 0 || wires.get(0).getSourceConnection() == null;
+	}
+	
 	/**
 	 * Returns the number of wires this connection has
 	 * @return The number of wires on this connection
@@ -307,6 +341,25 @@ public class Connection implements Deletable, Serializable {
 		return CompRotator.fixRotation(direction + lcomp.getRotator().getRotation());
 	}
 	
+	/**
+	 * Returns the number of bits carried by the wires of this connection
+	 * @return The width of the connection, which is 1 for a single bit connection
+	 */
+	public int getWidth() {
+		return Math.max(1, width);
+	}
+	
+	/**
+	 * Sets the number of bits carried by the wires of this connection. Wires can only join connections with the same width, so any wires
+	 * that are already attached are deleted if the width changes
+	 * @param width The new width, where 1 is a single bit connection
+	 */
+	public void setWidth(int width) {
+		if(width == getWidth()) return;
+		delete();
+		this.width = width;
+	}
+	
 	/**
 	 * Sets the direction that the connection is facing
 	 * @param direction The direction of this connection
@@ -0,0 +1,93 @@
+package com.logic.components;
+
+import com.logic.engine.LogicEngine;
+
+/**
+ * A binary counter with a number of bits. On the rising edge of the clock, the count is cleared if CLR is high, or increased by one
+ * (wrapping around to 0) if EN is high or not connected. The count is shown on the Q bus, and CO is high while every bit of the count
+ * is high, so counters can be chained by connecting CO to the EN of the next counter
+ * @author toddstennes
+ *
+ */
+public class Counter extends SequentialComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The number of bits in the count
+	 */
+	private int width;
+
+	/**
+	 * Constructs a new Counter with the default number of bits
+	 * @param x The x position
+	 * @param y The y position
+	 */
+	public Counter(int x, int y) {
+		this(x, y, DEFAULT_WIDTH);
+	}
+
+	/**
+	 * Constructs a new Counter
+	 * @param x The x position
+	 * @param y The y position
+	 * @param width The number of bits, will be rounded to max / min if out of bounds
+	 */
+	public Counter(int x, int y, int width) {
+		super(x, y, CompType.COUNTER, new String[] {"EN", "CLR", "CLK"}, new String[] {"Q", "CO"});
+		if(width > MAX_WIDTH) width = MAX_WIDTH;
+		else if(width < MIN_WIDTH) width = MIN_WIDTH;
+		this.width = width;
+		io.connectionAt(0, Connection.OUTPUT).setWidth(width);
+	}
+
+	@Override
+	protected long nextState() {
+		if(io.getInput(1)) return 0;
+		if(!isEnabled(0)) return state;
+		return (state + 1) & maskOf(width);
+	}
+
+	@Override
+	protected void updateOutputs(LogicEngine engine) {
+		if(width == 1) io.setOutput(0, state != 0, engine);
+		else io.setOutputValue(0, state, engine);
+		io.setOutput(1, state == maskOf(width), engine);
+	}
+
+	@Override
+	protected String getLabel() {
+		return width + "-bit count";
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public boolean isResizable() {
+		return true;
+	}
+
+	/**
+	 * Sets the number of bits in the count. The wires on the Q bus are deleted, since they no longer have the same width as the connection.
+	 * Unlike the constructor, the method will do nothing and exit if the width is out of bounds
+	 * @param width The number of bits
+	 */
+	@Override
+	public void setWidth(int width) {
+		if(width < MIN_WIDTH || width > MAX_WIDTH || width == this.width) return;
+		this.width = width;
+		io.connectionAt(0, Connection.OUTPUT).setWidth(width);
+		state &= maskOf(width);
+	}
+
+	@Override
+	public LComponent makeCopy() {
+		Counter result = new Counter(x, y, width);
+		result.getRotator().setRotation(rotator.getRotation());
+		result.setName(getName());
+		return result;
+	}
+}
@@ -2,11 +2,13 @@ package com.logic.components;
 
 import java.awt.*;
 import java.awt.geom.AffineTransform;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 
 import com.logic.engine.LogicEngine;
 import com.logic.engine.LogicWorker;
+import com.logic.engine.SettleResult;
 import com.logic.ui.CircuitPanel;
 import com.logic.ui.CompDrawer;
 import com.logic.ui.CompRotator;
@@ -14,10 +16,13 @@ import com.logic.util.CompUtils;
 import com.logic.util.CustomHelper;
 import com.logic.util.CustomInput;
 import com.logic.util.CustomOutput;
+import com.logic.util.CycleFinder;
 import com.logic.util.GraphicsUtils;
 
 /**
- * An LComponent that combines multiple other components into one (ex: a full adder)
+ * An LComponent that combines multiple other components into one (ex: a full adder). The inner circuit of a custom component is fixed once
+ * the component is created (the CustomViewer only displays it), so every copy of a custom component has the same definition and shares
+ * its truth table
  * @author toddstennes
  *
  */
@@ -61,6 +66,23 @@ public class Custom extends SComponent {
 	 */
 	private String label;
 	
+	/**
+	 * The definition that this component shares with every copy of it. It is saved with the component so that copies that are saved in
+	 * the same file still share one definition once they are loaded. This is null for components saved before definitions were shared, in
+	 * which case a new one is created the first time it is needed
+	 */
+	private Definition definition;
+	
+	/**
+	 * Tells whether the inner components have fallen behind the inputs because the truth table was used instead of the nested LogicEngine
+	 */
+	private transient boolean innerStale;
+	
+	/**
+	 * The largest number of inputs that a component can have and still be given a truth table (the table has 2^inputs entries)
+	 */
+	public static final int MAX_TABLE_INPUTS = 8;
+	
 	/**
 	 * @param x The x position
 	 * @param y The y position
@@ -126,10 +148,22 @@ public class Custom extends SComponent {
 	
 	/**
 	 * Updates this component by running a nested LogicEngine on this component's switches and clocks, and then setting the outputs to match 
-	 * the output lights.
+	 * the output lights. If the component is purely combinational, the outputs are looked up in its truth table instead, which is built the
+	 * first time this method is called.
 	 */
 	@Override
 	public void update(LogicEngine engine) {
+		long[] truthTable = getTruthTable();
+		if(truthTable != null) {
+			int row = 0;
+			for(int i = 0; i < io.getNumInputs(); i++) {
+				if(io.getInput(i)) row |= 1 << i;
+			}
+			long outputBits = truthTable[row];
+			for(int i = 0; i < io.getNumOutputs(); i++) io.setOutput(i, (outputBits & (1L << i)) != 0, engine);
+			innerStale = true;
+			return;
+		}
 		ArrayList<LComponent> startingComps = new ArrayList<LComponent>();
 		for(int i = 0; i < io.getNumInputs(); i++) inputs.get(i).addIfNecessary(io.getInput(i), startingComps);
 		for(int i = 0; i < innerComps.size(); i++) {
@@ -142,6 +176,134 @@ public class Custom extends SComponent {
 		for(int i = 0; i < io.getNumOutputs(); i++) io.setOutput(i, outputs.get(i).getState(), engine);                             
 	}
 	
+	/**
+	 * Returns the truth table of this component's definition, building it from this component's inner components if no copy has built it
+	 * yet. Copies in different circuits can be updated on different threads, so the table is built while holding the lock of the
+	 * definition, and it is only built once
+	 * @return The truth table, or null if the component does not have one
+	 */
+	private long[] getTruthTable() {
+		Definition definition = getDefinition();
+		if(definition.tableChecked) return definition.truthTable;
+		synchronized(definition) {
+			if(!definition.tableChecked) {
+				definition.truthTable = buildTruthTable();
+				definition.tableChecked = true;
+			}
+			return definition.truthTable;
+		}
+	}
+
+	/**
+	 * Returns the definition of this component, creating it if the component was loaded from a file that was saved before definitions were
+	 * shared
+	 * @return The definition
+	 */
+	private synchronized Definition getDefinition() {
+		if(definition == null) definition = new Definition();
+		return definition;
+	}
+
+	/**
+	 * Builds the truth table for this component by running a nested LogicEngine on every combination of inputs. The inner components are
+	 * left in the state for the current inputs once the table is built
+	 * @return The truth table, or null if the component is not purely combinational or has more than MAX_TABLE_INPUTS inputs or more than
+	 * 64 outputs
+	 */
+	private long[] buildTruthTable() {
+		int numInputs = io.getNumInputs();
+		if(numInputs > MAX_TABLE_INPUTS || io.getNumOutputs() > 64 || !isCombinational()) return null;
+		long[] table = new long[1 << numInputs];
+		for(int row = 0; row < table.length; row++) {
+			for(int i = 0; i < numInputs; i++) inputs.get(i).setState((row & (1 << i)) != 0);
+			SettleResult result = new LogicEngine(new ArrayList<LComponent>(innerComps)).doLogic();
+			if(!result.isSettled()) return null;
+			for(int i = 0; i < io.getNumOutputs(); i++) {
+				if(outputs.get(i).getState()) table[row] |= 1L << i;
+			}
+		}
+		refreshInner();
+		return table;
+	}
+	
+	/**
+	 * Tells whether this component is purely combinational, meaning that its outputs only depend on its current inputs. This is true if 
+	 * the only inputs inside of the component are the Switches behind its input connections, every inner Custom component is also purely
+	 * combinational, there are no flip-flops, registers, or counters inside of it, and there are no loops between the inner components
+	 * @return True if the component is purely combinational
+	 */
+	public boolean isCombinational() {
+		HashMap<LComponent, Integer> index = new HashMap<LComponent, Integer>();
+		for(int i = 0; i < innerComps.size(); i++) {
+			LComponent lcomp = innerComps.get(i);
+			if(lcomp instanceof Custom) {
+				if(!((Custom) lcomp).isCombinational()) return false;
+			}
+			else if(lcomp instanceof SComponent || lcomp instanceof SequentialComponent) return false;
+			else if(lcomp instanceof IComponent && !isInputSwitch(lcomp)) return false;
+			index.put(lcomp, i);
+		}
+		int[][] successors = new int[innerComps.size()][];
+		for(int i = 0; i < innerComps.size(); i++) {
+			IOManager inner = innerComps.get(i).getIO();
+			ArrayList<Integer> dests = new ArrayList<Integer>();
+			for(int c = 0; c < inner.getNumOutputs(); c++) {
+				Connection connection = inner.connectionAt(c, Connection.OUTPUT);
+				for(int w = 0; w < connection.numWires(); w++) {
+					Connection dest = connection.getWire(w).getDestConnection();
+					if(dest != null && index.containsKey(dest.getLcomp())) dests.add(index.get(dest.getLcomp()));
+				}
+			}
+			successors[i] = new int[dests.size()];
+			for(int d = 0; d < dests.size(); d++) successors[i][d] = dests.get(d);
+		}
+		boolean[] cyclic = CycleFinder.findCycles(successors);
+		for(int i = 0; i < cyclic.length; i++) {
+			if(cyclic[i]) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Tells whether the given component is the Switch behind one of this component's input connections
+	 * @param lcomp The component
+	 * @return True if the component is an input Switch
+	 */
+	private boolean isInputSwitch(LComponent lcomp) {
+		for(int i = 0; i < io.getNumInputs(); i++) {
+			if(inputs.get(i).getSwitch() == lcomp) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Brings the inner components up to date with the inputs of this component if the truth table has been used since they were last
+	 * updated. This should be called before the inner components are displayed. It writes the signals of the inner wires, so outside of a
+	 * logic process it should be run on the circuit's LogicWorker (see LogicWorker.startTask)
+	 */
+	public void refreshInner() {
+		for(int i = 0; i < io.getNumInputs(); i++) inputs.get(i).setState(io.getInput(i));
+		new LogicEngine(new ArrayList<LComponent>(innerComps)).doLogic();
+		innerStale = false;
+	}
+	
+	/**
+	 * Tells whether the inner components have fallen behind the inputs of this component because the truth table was used
+	 * @return True if refreshInner() needs to be called before the inner components are displayed
+	 */
+	public boolean isInnerStale() {
+		return innerStale;
+	}
+	
+	/**
+	 * Makes this component share the definition of the component it was copied from, so that the truth table is only built once for
+	 * both of them
+	 * @param other The component that this component is a copy of
+	 */
+	public void shareDefinition(Custom other) {
+		definition = other.getDefinition();
+	}
+	
 	/**
 	 * Returns a bounding box for this component based on its connections, which determine the shape of a custom component
 	 * @return A bounding box for the component
@@ -250,6 +412,24 @@ public class Custom extends SComponent {
 		return innerComps;
 	}
 	
+	/**
+	 * Returns the CustomInput that manages the input connection at the given index
+	 * @param index The index of the input connection
+	 * @return The CustomInput
+	 */
+	public CustomInput getInputNode(int index) {
+		return inputs.get(index);
+	}
+	
+	/**
+	 * Returns the CustomOutput that manages the output connection at the given index
+	 * @param index The index of the output connection
+	 * @return The CustomOutput
+	 */
+	public CustomOutput getOutputNode(int index) {
+		return outputs.get(index);
+	}
+	
 	/**
 	 * Returns the components label
 	 * @return The label of this Custom component
@@ -257,4 +437,25 @@ public class Custom extends SComponent {
 	public String getLabel() {
 		return label;
 	}
+
+	/**
+	 * The part of a custom component that is the same for all of its copies. The truth table is not saved, since it is cheaper to build it
+	 * again than to store 2^inputs entries in the file
+	 */
+	private static class Definition implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The outputs of the component for every combination of its inputs, where entry i holds output o at bit o for the inputs given by 
+		 * the bits of i. This is null if the component is not purely combinational or has too many inputs or outputs for a table
+		 */
+		private transient volatile long[] truthTable;
+
+		/**
+		 * Tells whether the component has been checked for a truth table since the definition was created or loaded. This is written after
+		 * truthTable, so a thread that sees it set also sees the table
+		 */
+		private transient volatile boolean tableChecked;
+	}
 }
@@ -44,7 +44,8 @@ public class Display extends LComponent {
 
 	@Override
 	public void render(Graphics g, CircuitPanel cp) {
-		int val = calcValue(io.getInput(0), io.getInput(1), io.getInput(2), io.getInput(3));
+		int val = calcValue(CircuitPanel.getInput(cp, this, 0), CircuitPanel.getInput(cp, this, 1), 
+				CircuitPanel.getInput(cp, this, 2), CircuitPanel.getInput(cp, this, 3));
 		String str;
 		if(val < 10) str = Integer.toString(val);
 		else str = letters[val - 10];
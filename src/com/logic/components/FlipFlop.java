@@ -0,0 +1,81 @@
+package com.logic.components;
+
+import com.logic.engine.LogicEngine;
+
+/**
+ * The class that represents all built in flip-flops, which include SR, D, JK, and T flip-flops. Every flip-flop changes its state on the
+ * rising edge of its clock and has an output Q and an inverted output Q'
+ * @author toddstennes
+ *
+ */
+public class FlipFlop extends SequentialComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a new FlipFlop
+	 * @param x The x position
+	 * @param y The y position
+	 * @param type The type of flip-flop (valid values are CompType.SR_FLIPFLOP, CompType.D_FLIPFLOP, CompType.JK_FLIPFLOP, and
+	 * CompType.T_FLIPFLOP)
+	 */
+	public FlipFlop(int x, int y, CompType type) {
+		super(x, y, type, inputNamesFor(type), new String[] {"Q", "Q'"});
+	}
+
+	/**
+	 * Returns the names of the inputs of the given type of flip-flop
+	 * @param type The type of flip-flop
+	 * @return The names of the inputs, ending with the clock
+	 */
+	private static String[] inputNamesFor(CompType type) {
+		if(type == CompType.SR_FLIPFLOP) return new String[] {"S", "R", "CLK"};
+		else if(type == CompType.JK_FLIPFLOP) return new String[] {"J", "K", "CLK"};
+		else if(type == CompType.T_FLIPFLOP) return new String[] {"T", "CLK"};
+		return new String[] {"D", "CLK"};
+	}
+
+	/**
+	 * Computes the next state of the flip-flop. An SR flip-flop with both inputs high keeps its state
+	 */
+	@Override
+	protected long nextState() {
+		boolean q = state != 0;
+		if(type == CompType.SR_FLIPFLOP) {
+			if(io.getInput(0) && !io.getInput(1)) q = true;
+			else if(io.getInput(1) && !io.getInput(0)) q = false;
+		}
+		else if(type == CompType.JK_FLIPFLOP) {
+			if(io.getInput(0) && io.getInput(1)) q = !q;
+			else if(io.getInput(0)) q = true;
+			else if(io.getInput(1)) q = false;
+		}
+		else if(type == CompType.T_FLIPFLOP) {
+			if(io.getInput(0)) q = !q;
+		}
+		else q = io.getInput(0);
+		return q ? 1 : 0;
+	}
+
+	@Override
+	protected void updateOutputs(LogicEngine engine) {
+		io.setOutput(0, state != 0, engine);
+		io.setOutput(1, state == 0, engine);
+	}
+
+	@Override
+	protected String getLabel() {
+		if(type == CompType.SR_FLIPFLOP) return "SR";
+		else if(type == CompType.JK_FLIPFLOP) return "JK";
+		else if(type == CompType.T_FLIPFLOP) return "T";
+		return "D";
+	}
+
+	@Override
+	public LComponent makeCopy() {
+		FlipFlop result = new FlipFlop(x, y, type);
+		result.getRotator().setRotation(rotator.getRotation());
+		result.setName(getName());
+		return result;
+	}
+}
@@ -55,9 +55,10 @@ public abstract class IComponent extends LComponent implements MouseListener {
 	private Rectangle upClickBounds;
 	
 	/**
-	 * The on or off state of this IComponent, which should only be accessed through synchronized getter and setter methods
+	 * The on or off state of this IComponent. This is changed on the event dispatch thread and read by the thread running logic, so it is
+	 * volatile instead of being guarded by a lock
 	 */
-	private boolean state;
+	private volatile boolean state;
 	
 	/**
 	 * Constructs a new IComponent
@@ -153,7 +154,7 @@ public abstract class IComponent extends LComponent implements MouseListener {
 	 * Returns the state of this IComponent
 	 * @return The state
 	 */
-	public synchronized boolean getState() {
+	public boolean getState() {
 		return state;
 	}
 
@@ -161,7 +162,7 @@ public abstract class IComponent extends LComponent implements MouseListener {
 	 * Sets the state of this IComponent
 	 * @param state The new state
 	 */
-	public synchronized void setState(boolean state) {
+	public void setState(boolean state) {
 		this.state = state;
 	}
 
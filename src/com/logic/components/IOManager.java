@@ -51,6 +51,21 @@ public class IOManager implements Deletable, Serializable {
 		return false;
 	}
 	
+	/**
+	 * Returns the signals of all inputs packed into an int, where bit i is the signal of the input at index i. This is the format used by
+	 * the GateKernels. Only the first 32 inputs are included
+	 * @return The packed input signals
+	 */
+	public int getInputBits() {
+		int bits = 0;
+		int numInputs = Math.min(inputs.size(), 32);
+		for(int i = 0; i < numInputs; i++) {
+			Connection input = inputs.get(i);
+			if(input.numWires() > 0 && input.getWire(0).getSignal()) bits |= 1 << i;
+		}
+		return bits;
+	}
+	
 	/**
 	 * Sets the output of the connection at the given index to the specified boolean signal by changing the states of all connected wires
 	 * to the signal. If the state of the wires is the same as the new signal, this method does nothing. For this method to function properly,
@@ -72,6 +87,38 @@ public class IOManager implements Deletable, Serializable {
 		}
 	}
 	
+	/**
+	 * Returns the bits coming into the bus input at the specified index
+	 * @param index The index of the input to get
+	 * @return The bits of the specified input, or 1 or 0 if it is a single bit input
+	 */
+	public long getInputValue(int index) {
+		if(index < inputs.size()) {
+			Connection input = inputs.get(index);
+			if(input.numWires() > 0) return input.getWire(0).getValue();
+		}
+		return 0;
+	}
+	
+	/**
+	 * Sets the bits of the bus output at the given index in the same way that setOutput sets a single bit output. ONLY call this method
+	 * from a logic thread, not the EDT.
+	 * @param index The index of the connection
+	 * @param value The bits to set the connected wires to
+	 * @param engine The LogicEngine instance that was passed to the update method that called this method
+	 */
+	public void setOutputValue(int index, long value, LogicEngine engine) {
+		Connection c = outputs.get(index);
+		if(c.numWires() > 0 && c.getWire(0).getValue() != value) {
+			for(int i = 0; i < c.numWires(); i++) {
+				Wire w = c.getWire(i);
+				w.setValue(value);
+				Connection dest = w.getDestConnection();
+				if(dest != null) engine.mark(dest.getLcomp());
+			}
+		}
+	}
+	
 	/**
 	 * Adds a new Connection to this IOManager
 	 * @param x See Connection constructor
@@ -88,6 +135,21 @@ public class IOManager implements Deletable, Serializable {
 		return arr.size() - 1;
 	}
 	
+	/**
+	 * Adds a new bus Connection to this IOManager
+	 * @param x See Connection constructor
+	 * @param y See Connection constructor
+	 * @param type See Connection constructor
+	 * @param direction See Connection constructor
+	 * @param width The number of bits carried by the connection
+	 * @return The index that the connection was placed at in the input or output list
+	 */
+	public int addConnection(int x, int y, int type, int direction, int width) {
+		int index = addConnection(x, y, type, direction);
+		connectionAt(index, type).setWidth(width);
+		return index;
+	}
+	
 	/**
 	 * Removes the given Connection from this IOManager and deletes it (which will delete its wires)
 	 * @param c The Connection to remove
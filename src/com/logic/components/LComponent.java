@@ -5,6 +5,7 @@ import java.awt.image.BufferedImage;
 import java.io.Serializable;
 
 import com.logic.engine.LogicEngine;
+import com.logic.engine.NetlistEngine;
 import com.logic.ui.CompDrawer;
 import com.logic.ui.CompRotator;
 import com.logic.util.Deletable;
@@ -54,6 +55,28 @@ public abstract class LComponent extends CircuitElement implements Deletable, Se
 	 */
 	private String comments;
 	
+	/**
+	 * The propagation delay of this component, which is only used if hasPropagationDelay is true
+	 */
+	private int propagationDelay;
+	
+	/**
+	 * Tells whether the propagation delay has been set for this component. If it has not, the default delay of the component's type is used
+	 */
+	private boolean hasPropagationDelay;
+	
+	/**
+	 * The NetlistEngine of the circuit that this component has been added to, which is null if the component is not part of a circuit
+	 * (for example, if it is inside of a custom component or on the clipboard)
+	 */
+	private transient NetlistEngine netlistEngine;
+	
+	/**
+	 * The index that the last LogicEngine to see this component gave it. An engine only trusts this index after checking that the
+	 * component it gave the index to is this component (see LogicEngine.indexOf)
+	 */
+	private transient int engineIndex;
+	
 	/**
 	 * Constructs a new LComponent
 	 * @param x The x position
@@ -197,6 +220,64 @@ public abstract class LComponent extends CircuitElement implements Deletable, Se
 		this.comments = comments;
 	}
 	
+	/**
+	 * Returns the propagation delay of this component, which is used when gate delays are enabled
+	 * @return The delay that was set for this component, or the default delay of its type if none was set
+	 */
+	public int getPropagationDelay() {
+		if(hasPropagationDelay) return propagationDelay;
+		return type.getDefaultPropagationDelay();
+	}
+	
+	/**
+	 * Sets the propagation delay of this component
+	 * @param delay The delay, which must not be negative
+	 */
+	public void setPropagationDelay(int delay) {
+		propagationDelay = Math.max(0, delay);
+		hasPropagationDelay = true;
+	}
+	
+	/**
+	 * Tells whether the propagation delay has been set for this component
+	 * @return True if a delay was set, false if the default delay of the component's type is used
+	 */
+	public boolean hasPropagationDelay() {
+		return hasPropagationDelay;
+	}
+	
+	/**
+	 * Returns the NetlistEngine of the circuit that this component has been added to
+	 * @return The NetlistEngine, or null if this component has not been added to a circuit
+	 */
+	public NetlistEngine getNetlistEngine() {
+		return netlistEngine;
+	}
+	
+	/**
+	 * Sets the NetlistEngine of the circuit that this component has been added to. This is called by CircuitPanel.addLComp(...)
+	 * @param netlistEngine The NetlistEngine
+	 */
+	public void setNetlistEngine(NetlistEngine netlistEngine) {
+		this.netlistEngine = netlistEngine;
+	}
+	
+	/**
+	 * Returns the index that the last LogicEngine to see this component gave it
+	 * @return The index
+	 */
+	public int getEngineIndex() {
+		return engineIndex;
+	}
+	
+	/**
+	 * Sets the index that a LogicEngine uses to keep track of this component. This is only called by LogicEngine.indexOf
+	 * @param engineIndex The index
+	 */
+	public void setEngineIndex(int engineIndex) {
+		this.engineIndex = engineIndex;
+	}
+	
 	@Override
 	public void delete() {
 		io.delete();
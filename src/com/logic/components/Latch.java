@@ -0,0 +1,78 @@
+package com.logic.components;
+
+import com.logic.engine.LogicEngine;
+
+/**
+ * The class that represents all built in latches, which include gated SR and D latches. A latch is level-sensitive instead of
+ * edge-triggered: while its EN input is high (or not connected), its state follows its inputs on every update, and while EN is low it
+ * keeps its state. Every latch has an output Q and an inverted output Q'
+ * @author toddstennes
+ *
+ */
+public class Latch extends SequentialComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a new Latch
+	 * @param x The x position
+	 * @param y The y position
+	 * @param type The type of latch (valid values are CompType.SR_LATCH and CompType.D_LATCH)
+	 */
+	public Latch(int x, int y, CompType type) {
+		super(x, y, type, type == CompType.SR_LATCH ? new String[] {"S", "R", "EN"} : new String[] {"D", "EN"}, new String[] {"Q", "Q'"});
+	}
+
+	/**
+	 * Updates the latch. If EN is high, the state is computed from the inputs right away, so a change on D passes straight through to Q
+	 * while the latch is open
+	 */
+	@Override
+	public void update(LogicEngine engine) {
+		int enable = io.getNumInputs() - 1;
+		if(isEnabled(enable)) state = nextState();
+		setLastClock(io.getInput(enable));
+		updateOutputs(engine);
+	}
+
+	/**
+	 * Returns false, since a latch changes its outputs whenever its inputs change while it is enabled
+	 */
+	@Override
+	public boolean isEdgeTriggered() {
+		return false;
+	}
+
+	/**
+	 * Computes the state of the open latch. An SR latch with both inputs high keeps its state, like an SR flip-flop
+	 */
+	@Override
+	protected long nextState() {
+		boolean q = state != 0;
+		if(type == CompType.SR_LATCH) {
+			if(io.getInput(0) && !io.getInput(1)) q = true;
+			else if(io.getInput(1) && !io.getInput(0)) q = false;
+		}
+		else q = io.getInput(0);
+		return q ? 1 : 0;
+	}
+
+	@Override
+	protected void updateOutputs(LogicEngine engine) {
+		io.setOutput(0, state != 0, engine);
+		io.setOutput(1, state == 0, engine);
+	}
+
+	@Override
+	protected String getLabel() {
+		return type == CompType.SR_LATCH ? "SR latch" : "D latch";
+	}
+
+	@Override
+	public LComponent makeCopy() {
+		Latch result = new Latch(x, y, type);
+		result.getRotator().setRotation(rotator.getRotation());
+		result.setName(getName());
+		return result;
+	}
+}
@@ -31,7 +31,7 @@ public class Light extends LComponent {
 	
 	@Override
 	public void render(Graphics g, CircuitPanel cp) {
-		if(io.getInput(0)) drawer.setActiveImageIndex(1);
+		if(CircuitPanel.getInput(cp, this, 0)) drawer.setActiveImageIndex(1);
 		else drawer.setActiveImageIndex(0);
 		drawer.draw(g);
 	}
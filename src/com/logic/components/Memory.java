@@ -0,0 +1,59 @@
+package com.logic.components;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * An interface that specifies a component holding an array of words that can be read by address, which lets RAM and ROM share the
+ * properties panel and the MemoryViewer
+ * @author toddstennes
+ *
+ */
+public interface Memory {
+
+	/**
+	 * Returns the number of address bits
+	 * @return The width of the A bus
+	 */
+	public abstract int getAddressWidth();
+
+	/**
+	 * Sets the number of address bits. The method will do nothing and exit if the width is out of bounds
+	 * @param addressWidth The number of address bits
+	 */
+	public abstract void setAddressWidth(int addressWidth);
+
+	/**
+	 * Returns the number of data bits
+	 * @return The width of each word
+	 */
+	public abstract int getWidth();
+
+	/**
+	 * Returns the number of words in the memory
+	 * @return 2 to the power of the number of address bits
+	 */
+	public abstract int getNumWords();
+
+	/**
+	 * Returns the word stored at the given address
+	 * @param address The address, of which only the low address bits are used
+	 * @return The word
+	 */
+	public abstract long read(long address);
+
+	/**
+	 * Fills the memory from the given file
+	 * @param path The path of the file
+	 * @throws IOException If the file cannot be read
+	 */
+	public abstract void load(Path path) throws IOException;
+
+	/**
+	 * Writes the contents of the memory to the given file as raw bytes, in the same layout as a binary file read by load(...)
+	 * @param path The path of the file
+	 * @throws IOException If the file cannot be written
+	 */
+	public abstract void dump(Path path) throws IOException;
+
+}
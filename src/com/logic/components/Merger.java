@@ -0,0 +1,49 @@
+package com.logic.components;
+
+import com.logic.engine.LogicEngine;
+
+/**
+ * A component that merges single bits into a bus. Input i on the left becomes bit i of the bus, which comes out on the right
+ * @author toddstennes
+ *
+ */
+public class Merger extends BusComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a new Merger with the default number of bits
+	 * @param x The x position
+	 * @param y The y position
+	 */
+	public Merger(int x, int y) {
+		this(x, y, DEFAULT_WIDTH);
+	}
+
+	/**
+	 * Constructs a new Merger
+	 * @param x The x position
+	 * @param y The y position
+	 * @param width The number of bits in the bus, will be rounded to max / min if out of bounds
+	 */
+	public Merger(int x, int y, int width) {
+		super(x, y, CompType.MERGER, Connection.OUTPUT, width);
+	}
+
+	@Override
+	public void update(LogicEngine engine) {
+		long value = 0;
+		for(int i = 0; i < width; i++) {
+			if(io.getInput(i)) value |= 1L << i;
+		}
+		io.setOutputValue(0, value, engine);
+	}
+
+	@Override
+	public LComponent makeCopy() {
+		Merger result = new Merger(x, y, width);
+		result.getRotator().setRotation(rotator.getRotation());
+		result.setName(getName());
+		return result;
+	}
+}
@@ -0,0 +1,443 @@
+package com.logic.components;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.logic.engine.LogicEngine;
+import com.logic.util.NameConverter;
+
+/**
+ * A random access memory with a configurable number of address and data bits. The word at the address on the A bus is always shown on
+ * the Q bus, and on the rising edge of the clock the word on the D bus is written to that address if WE is high. The contents are kept
+ * outside of the Java heap in a direct ByteBuffer, where every word takes 1, 2, 4, or 8 bytes (whichever is the smallest that fits the
+ * data bits) and is stored in little endian order at its address times its number of bytes, so each read and write is a single buffer
+ * access. The buffer is only allocated the first time the memory is used. The contents are saved with the circuit one page at a time,
+ * leaving out pages that are all zeros, so a memory that has not been used adds almost nothing to the file. A memory in a file saved before
+ * contents were saved starts out cleared. A copy of the component (such as the copies kept for
+ * undo and redo, or a pasted copy) shares the buffer with the original until either of them is written, and the one being written then
+ * moves to a copy of the buffer of its own.
+ * <p>
+ * So that snapshots of the circuit can include the contents without copying the whole memory every time, the contents are saved in
+ * pages of PAGE_SIZE bytes. The last saved copy of each page is kept until the page is written, so a page that has not been written
+ * since it was last saved is shared by every snapshot that holds it, and restoring a snapshot only copies back the pages that differ
+ * @author toddstennes
+ *
+ */
+public class Ram extends SequentialComponent implements Memory {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The maximum, minimum, and default number of address bits
+	 */
+	public static final int MIN_ADDRESS_WIDTH = 1, MAX_ADDRESS_WIDTH = 24, DEFAULT_ADDRESS_WIDTH = 8;
+
+	/**
+	 * The number of bytes in each page of the contents that is saved in a snapshot
+	 */
+	public static final int PAGE_SIZE = 4096;
+
+	/**
+	 * The saved copy of a page of a memory that has never been used, which is all zeros
+	 */
+	private static final byte[] EMPTY_PAGE = new byte[PAGE_SIZE];
+
+	/**
+	 * The number of address bits
+	 */
+	private int addressWidth;
+
+	/**
+	 * The number of data bits
+	 */
+	private int dataWidth;
+
+	/**
+	 * The contents of the memory, which is null until the memory is first read or written
+	 */
+	private transient volatile ByteBuffer contents;
+
+	/**
+	 * The last saved copy of each page of the contents, where the entry for a page is null if the page has been written since it was last
+	 * saved. This is null until the contents are first saved
+	 */
+	private transient byte[][] savedPages;
+
+	/**
+	 * Tells whether the buffer may be shared with a copy of this component, in which case it is copied before it is written
+	 */
+	private transient volatile boolean shared;
+
+	/**
+	 * Constructs a new Ram with the default number of address and data bits
+	 * @param x The x position
+	 * @param y The y position
+	 */
+	public Ram(int x, int y) {
+		this(x, y, DEFAULT_ADDRESS_WIDTH, DEFAULT_WIDTH);
+	}
+
+	/**
+	 * Constructs a new Ram
+	 * @param x The x position
+	 * @param y The y position
+	 * @param addressWidth The number of address bits, will be rounded to max / min if out of bounds
+	 * @param dataWidth The number of data bits, will be rounded to max / min if out of bounds
+	 */
+	public Ram(int x, int y, int addressWidth, int dataWidth) {
+		super(x, y, CompType.RAM, new String[] {"A", "D", "WE", "CLK"}, new String[] {"Q"});
+		if(addressWidth > MAX_ADDRESS_WIDTH) addressWidth = MAX_ADDRESS_WIDTH;
+		else if(addressWidth < MIN_ADDRESS_WIDTH) addressWidth = MIN_ADDRESS_WIDTH;
+		if(dataWidth > MAX_WIDTH) dataWidth = MAX_WIDTH;
+		else if(dataWidth < MIN_WIDTH) dataWidth = MIN_WIDTH;
+		this.addressWidth = addressWidth;
+		this.dataWidth = dataWidth;
+		io.connectionAt(0, Connection.INPUT).setWidth(addressWidth);
+		io.connectionAt(1, Connection.INPUT).setWidth(dataWidth);
+		io.connectionAt(0, Connection.OUTPUT).setWidth(dataWidth);
+	}
+
+	/**
+	 * Writes the word on the D bus to the address on the A bus if WE is high
+	 * @return The word at the address after the write
+	 */
+	@Override
+	protected long nextState() {
+		long address = io.getInputValue(0);
+		if(io.getInput(2)) write(address, io.getInputValue(1));
+		return read(address);
+	}
+
+	/**
+	 * Shows the word at the address on the A bus on the Q bus
+	 */
+	@Override
+	protected void updateOutputs(LogicEngine engine) {
+		state = read(io.getInputValue(0));
+		if(dataWidth == 1) io.setOutput(0, state != 0, engine);
+		else io.setOutputValue(0, state, engine);
+	}
+
+	@Override
+	public long read(long address) {
+		ByteBuffer contents = getContents();
+		int bytes = getWordBytes();
+		int index = (int) (address & (getNumWords() - 1)) * bytes;
+		long word;
+		if(bytes == 1) word = contents.get(index);
+		else if(bytes == 2) word = contents.getShort(index);
+		else if(bytes == 4) word = contents.getInt(index);
+		else word = contents.getLong(index);
+		return word & maskOf(dataWidth);
+	}
+
+	/**
+	 * Stores a word at the given address
+	 * @param address The address, of which only the low address bits are used
+	 * @param word The word, of which only the low data bits are stored
+	 */
+	public void write(long address, long word) {
+		ByteBuffer contents = getWritableContents();
+		int bytes = getWordBytes();
+		int index = (int) (address & (getNumWords() - 1)) * bytes;
+		word &= maskOf(dataWidth);
+		if(bytes == 1) contents.put(index, (byte) word);
+		else if(bytes == 2) contents.putShort(index, (short) word);
+		else if(bytes == 4) contents.putInt(index, (int) word);
+		else contents.putLong(index, word);
+		byte[][] savedPages = this.savedPages;
+		if(savedPages != null) savedPages[index / PAGE_SIZE] = null;
+	}
+
+	/**
+	 * Returns a copy of a page of the contents that can be kept in a snapshot. The copy is only made if the page has been written since
+	 * it was last saved, and otherwise the previous copy is returned again. The returned array must never be changed
+	 * @param page The index of the page
+	 * @return The saved copy of the page
+	 */
+	public byte[] savePage(int page) {
+		ByteBuffer contents = this.contents;
+		if(contents == null) return EMPTY_PAGE;
+		if(savedPages == null) savedPages = new byte[getNumPages()][];
+		byte[] saved = savedPages[page];
+		if(saved == null) {
+			saved = new byte[getPageLength()];
+			ByteBuffer source = contents.duplicate();
+			source.position(page * PAGE_SIZE);
+			source.get(saved);
+			savedPages[page] = saved;
+		}
+		return saved;
+	}
+
+	/**
+	 * Puts a page of the contents back to a copy returned by savePage(...). Nothing is copied if the page has not changed since that copy
+	 * was made
+	 * @param page The index of the page
+	 * @param saved The saved copy of the page
+	 */
+	public void restorePage(int page, byte[] saved) {
+		if(saved == EMPTY_PAGE && contents == null) return;
+		if(savedPages == null) savedPages = new byte[getNumPages()][];
+		if(savedPages[page] == saved) return;
+		ByteBuffer target = getWritableContents().duplicate();
+		target.position(page * PAGE_SIZE);
+		target.put(saved, 0, getPageLength());
+		savedPages[page] = saved;
+	}
+
+	/**
+	 * Returns the number of pages that the contents are saved in
+	 * @return The number of pages
+	 */
+	public int getNumPages() {
+		return (getNumWords() * getWordBytes() + PAGE_SIZE - 1) / PAGE_SIZE;
+	}
+
+	/**
+	 * Returns the number of bytes in each page, which is only less than PAGE_SIZE for memories that fit in a single page
+	 * @return The length of a page
+	 */
+	private int getPageLength() {
+		return Math.min(PAGE_SIZE, getNumWords() * getWordBytes());
+	}
+
+	/**
+	 * Replaces the contents of the memory with the bytes of the given file, starting at address 0. The file is read straight into the
+	 * memory without being copied onto the heap. If the file is shorter than the memory, the rest of the memory is cleared, and if it is
+	 * longer, the extra bytes are ignored
+	 * @param path The path of the file
+	 * @throws IOException If the file cannot be read
+	 */
+	@Override
+	public void load(Path path) throws IOException {
+		ByteBuffer target = getWritableContents().duplicate();
+		target.clear();
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			while(target.hasRemaining() && channel.read(target) >= 0);
+		} finally {
+			channel.close();
+		}
+		while(target.hasRemaining()) target.put((byte) 0);
+		savedPages = null;
+	}
+
+	/**
+	 * Writes the contents of the memory to the given file in the same layout that load(...) reads, replacing the file if it exists
+	 * @param path The path of the file
+	 * @throws IOException If the file cannot be written
+	 */
+	@Override
+	public void dump(Path path) throws IOException {
+		ByteBuffer source = getContents().duplicate();
+		source.clear();
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while(source.hasRemaining()) channel.write(source);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Returns the contents of the memory, allocating them if this is the first time they are needed
+	 * @return The direct ByteBuffer holding the words
+	 */
+	private ByteBuffer getContents() {
+		if(contents == null) {
+			synchronized(this) {
+				if(contents == null) {
+					ByteBuffer buffer = ByteBuffer.allocateDirect(getNumWords() * getWordBytes());
+					contents = buffer.order(ByteOrder.LITTLE_ENDIAN);
+				}
+			}
+		}
+		return contents;
+	}
+
+	/**
+	 * Returns the contents of the memory so that they can be written, first moving them to a buffer of their own if they may be shared
+	 * with a copy of this component
+	 * @return The direct ByteBuffer holding the words
+	 */
+	private ByteBuffer getWritableContents() {
+		ByteBuffer contents = getContents();
+		if(shared) {
+			synchronized(this) {
+				if(shared) {
+					ByteBuffer source = this.contents.duplicate();
+					source.clear();
+					ByteBuffer buffer = ByteBuffer.allocateDirect(source.capacity());
+					buffer.put(source);
+					buffer.clear();
+					this.contents = buffer.order(ByteOrder.LITTLE_ENDIAN);
+					shared = false;
+				}
+				contents = this.contents;
+			}
+		}
+		return contents;
+	}
+
+	@Override
+	public int getNumWords() {
+		return 1 << addressWidth;
+	}
+
+	/**
+	 * Returns the number of bytes used to store each word
+	 * @return 1, 2, 4, or 8
+	 */
+	public int getWordBytes() {
+		return bytesOf(dataWidth);
+	}
+
+	@Override
+	protected String getLabel() {
+		return NameConverter.nameFromMemorySize(addressWidth, dataWidth) + " RAM";
+	}
+
+	/**
+	 * Returns the number of data bits
+	 * @return The width of each word
+	 */
+	@Override
+	public int getWidth() {
+		return dataWidth;
+	}
+
+	@Override
+	public boolean isResizable() {
+		return true;
+	}
+
+	/**
+	 * Sets the number of data bits. The wires on the D and Q buses are deleted, since they no longer have the same width as the
+	 * connections, and the contents are cleared. Unlike the constructor, the method will do nothing and exit if the width is out of bounds
+	 * @param width The number of data bits
+	 */
+	@Override
+	public void setWidth(int width) {
+		if(width < MIN_WIDTH || width > MAX_WIDTH || width == dataWidth) return;
+		dataWidth = width;
+		io.connectionAt(1, Connection.INPUT).setWidth(width);
+		io.connectionAt(0, Connection.OUTPUT).setWidth(width);
+		clear();
+	}
+
+	@Override
+	public int getAddressWidth() {
+		return addressWidth;
+	}
+
+	/**
+	 * Sets the number of address bits. The wires on the A bus are deleted, since they no longer have the same width as the connection,
+	 * and the contents are cleared. The method will do nothing and exit if the width is out of bounds
+	 * @param addressWidth The number of address bits
+	 */
+	@Override
+	public void setAddressWidth(int addressWidth) {
+		if(addressWidth < MIN_ADDRESS_WIDTH || addressWidth > MAX_ADDRESS_WIDTH || addressWidth == this.addressWidth) return;
+		this.addressWidth = addressWidth;
+		io.connectionAt(0, Connection.INPUT).setWidth(addressWidth);
+		clear();
+	}
+
+	/**
+	 * Clears the contents of the memory by releasing its buffer, so that a new one is allocated in the current size when it is needed
+	 */
+	private synchronized void clear() {
+		contents = null;
+		savedPages = null;
+		shared = false;
+		state = 0;
+	}
+
+	/**
+	 * Saves the component, followed by every page of the contents that is not all zeros. Each page is written as its index and its bytes,
+	 * and the pages end with an index of -1
+	 * @param out The stream to write to
+	 * @throws IOException If the stream cannot be written
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		ByteBuffer contents = this.contents;
+		if(contents != null) {
+			ByteBuffer source = contents.duplicate();
+			byte[] bytes = new byte[getPageLength()];
+			for(int page = 0; page < getNumPages(); page++) {
+				source.clear();
+				source.position(page * PAGE_SIZE);
+				source.get(bytes);
+				if(isEmpty(bytes)) continue;
+				out.writeInt(page);
+				out.write(bytes);
+			}
+		}
+		out.writeInt(-1);
+	}
+
+	/**
+	 * Loads the component and the pages of the contents written by writeObject(...). A component saved before contents were saved has no
+	 * pages after it, and starts out cleared
+	 * @param in The stream to read from
+	 * @throws IOException If the stream cannot be read
+	 * @throws ClassNotFoundException If the class of a field cannot be found
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int page;
+		try {
+			page = in.readInt();
+		} catch (EOFException e) {
+			return;
+		}
+		if(page < 0) return;
+		ByteBuffer target = getContents().duplicate();
+		byte[] bytes = new byte[getPageLength()];
+		while(page >= 0) {
+			if(page >= getNumPages()) throw new IOException("RAM page " + page + " is out of range");
+			in.readFully(bytes);
+			target.clear();
+			target.position(page * PAGE_SIZE);
+			target.put(bytes);
+			page = in.readInt();
+		}
+	}
+
+	/**
+	 * Tells whether a page holds only zeros
+	 * @param bytes The bytes of the page
+	 * @return True if every byte is 0
+	 */
+	private static boolean isEmpty(byte[] bytes) {
+		for(int i = 0; i < bytes.length; i++) {
+			if(bytes[i] != 0) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public LComponent makeCopy() {
+		Ram result = new Ram(x, y, addressWidth, dataWidth);
+		result.getRotator().setRotation(rotator.getRotation());
+		result.setName(getName());
+		synchronized(this) {
+			if(contents != null) {
+				shared = true;
+				result.contents = contents;
+				result.shared = true;
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,92 @@
+package com.logic.components;
+
+import com.logic.engine.LogicEngine;
+
+/**
+ * A register that stores a number of bits. On the rising edge of the clock, the bits on the D bus are stored if EN is high (or not
+ * connected), and the stored bits are always shown on the Q bus
+ * @author toddstennes
+ *
+ */
+public class Register extends SequentialComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The number of bits stored by the register
+	 */
+	private int width;
+
+	/**
+	 * Constructs a new Register with the default number of bits
+	 * @param x The x position
+	 * @param y The y position
+	 */
+	public Register(int x, int y) {
+		this(x, y, DEFAULT_WIDTH);
+	}
+
+	/**
+	 * Constructs a new Register
+	 * @param x The x position
+	 * @param y The y position
+	 * @param width The number of bits, will be rounded to max / min if out of bounds
+	 */
+	public Register(int x, int y, int width) {
+		super(x, y, CompType.REGISTER, new String[] {"D", "EN", "CLK"}, new String[] {"Q"});
+		if(width > MAX_WIDTH) width = MAX_WIDTH;
+		else if(width < MIN_WIDTH) width = MIN_WIDTH;
+		this.width = width;
+		io.connectionAt(0, Connection.INPUT).setWidth(width);
+		io.connectionAt(0, Connection.OUTPUT).setWidth(width);
+	}
+
+	@Override
+	protected long nextState() {
+		if(!isEnabled(1)) return state;
+		return io.getInputValue(0) & maskOf(width);
+	}
+
+	@Override
+	protected void updateOutputs(LogicEngine engine) {
+		if(width == 1) io.setOutput(0, state != 0, engine);
+		else io.setOutputValue(0, state, engine);
+	}
+
+	@Override
+	protected String getLabel() {
+		return width + "-bit reg";
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public boolean isResizable() {
+		return true;
+	}
+
+	/**
+	 * Sets the number of bits stored by the register. The wires on the D and Q buses are deleted, since they no longer have the same width
+	 * as the connections. Unlike the constructor, the method will do nothing and exit if the width is out of bounds
+	 * @param width The number of bits
+	 */
+	@Override
+	public void setWidth(int width) {
+		if(width < MIN_WIDTH || width > MAX_WIDTH || width == this.width) return;
+		this.width = width;
+		io.connectionAt(0, Connection.INPUT).setWidth(width);
+		io.connectionAt(0, Connection.OUTPUT).setWidth(width);
+		state &= maskOf(width);
+	}
+
+	@Override
+	public LComponent makeCopy() {
+		Register result = new Register(x, y, width);
+		result.getRotator().setRotation(rotator.getRotation());
+		result.setName(getName());
+		return result;
+	}
+}
@@ -0,0 +1,478 @@
+package com.logic.components;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.logic.engine.LogicEngine;
+import com.logic.util.NameConverter;
+
+/**
+ * A read only memory whose contents come from an image file. The word at the address on the A bus is always shown on the Q bus. Words
+ * are laid out the same way as in a Ram, so a binary image holds each word in 1, 2, 4, or 8 little endian bytes, and it is memory mapped
+ * with FileChannel.map so that the image is never copied onto the heap. Files ending in .hex, .ihex, .ihx, .txt, or .mem are read as text
+ * in a single streaming pass into a direct ByteBuffer: lines starting with a colon are Intel HEX records giving the bytes of the image,
+ * and any other lines hold plain hexadecimal words separated by whitespace (a word written as count*word is repeated, # starts a comment,
+ * and a "v2.0 raw" header line is skipped).
+ * <p>
+ * Only the path of the image and a SHA-256 hash of its contents are saved with the circuit. The image is opened the first time the ROM is
+ * read, and if the file no longer matches the hash, the new contents are used and the change is reported by getImageDescription(). Since
+ * the contents can never be written, copies of a Rom share the same image
+ * @author toddstennes
+ *
+ */
+public class Rom extends SequentialComponent implements Memory {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The number of address bits
+	 */
+	private int addressWidth;
+
+	/**
+	 * The number of data bits
+	 */
+	private int dataWidth;
+
+	/**
+	 * The absolute path of the image file, or null if no image has been chosen
+	 */
+	private String imagePath;
+
+	/**
+	 * The SHA-256 hash of the image file when it was chosen, in hexadecimal
+	 */
+	private String imageHash;
+
+	/**
+	 * The contents of the memory, which is null until the memory is first read
+	 */
+	private transient volatile ByteBuffer image;
+
+	/**
+	 * A description of a problem with the image file found when it was opened, or null if there was no problem
+	 */
+	private transient volatile String imageProblem;
+
+	/**
+	 * Constructs a new Rom with the default number of address and data bits
+	 * @param x The x position
+	 * @param y The y position
+	 */
+	public Rom(int x, int y) {
+		this(x, y, Ram.DEFAULT_ADDRESS_WIDTH, DEFAULT_WIDTH);
+	}
+
+	/**
+	 * Constructs a new Rom with no image file, which reads as all zeros
+	 * @param x The x position
+	 * @param y The y position
+	 * @param addressWidth The number of address bits, will be rounded to max / min if out of bounds
+	 * @param dataWidth The number of data bits, will be rounded to max / min if out of bounds
+	 */
+	public Rom(int x, int y, int addressWidth, int dataWidth) {
+		super(x, y, CompType.ROM, new String[] {"A"}, new String[] {"Q"});
+		if(addressWidth > Ram.MAX_ADDRESS_WIDTH) addressWidth = Ram.MAX_ADDRESS_WIDTH;
+		else if(addressWidth < Ram.MIN_ADDRESS_WIDTH) addressWidth = Ram.MIN_ADDRESS_WIDTH;
+		if(dataWidth > MAX_WIDTH) dataWidth = MAX_WIDTH;
+		else if(dataWidth < MIN_WIDTH) dataWidth = MIN_WIDTH;
+		this.addressWidth = addressWidth;
+		this.dataWidth = dataWidth;
+		io.connectionAt(0, Connection.INPUT).setWidth(addressWidth);
+		io.connectionAt(0, Connection.OUTPUT).setWidth(dataWidth);
+	}
+
+	/**
+	 * Shows the word at the address on the A bus on the Q bus. A ROM has no clock, so this is done on every update
+	 */
+	@Override
+	public void update(LogicEngine engine) {
+		updateOutputs(engine);
+	}
+
+	/**
+	 * Returns false, since a ROM has no clock and its outputs follow the A bus
+	 */
+	@Override
+	public boolean isEdgeTriggered() {
+		return false;
+	}
+
+	/**
+	 * Returns the current state, since a ROM has no clock
+	 */
+	@Override
+	protected long nextState() {
+		return state;
+	}
+
+	/**
+	 * Shows the word at the address on the A bus on the Q bus
+	 */
+	@Override
+	protected void updateOutputs(LogicEngine engine) {
+		state = read(io.getInputValue(0));
+		if(dataWidth == 1) io.setOutput(0, state != 0, engine);
+		else io.setOutputValue(0, state, engine);
+	}
+
+	/**
+	 * Returns the word stored at the given address. Words past the end of the image read as zero
+	 */
+	@Override
+	public long read(long address) {
+		ByteBuffer image = getImage();
+		int bytes = bytesOf(dataWidth);
+		int index = (int) (address & (getNumWords() - 1)) * bytes;
+		long word;
+		if(index + bytes > image.limit()) {
+			word = 0;
+			for(int i = 0; index + i < image.limit(); i++) word |= (image.get(index + i) & 0xFFL) << (i * 8);
+		}
+		else if(bytes == 1) word = image.get(index);
+		else if(bytes == 2) word = image.getShort(index);
+		else if(bytes == 4) word = image.getInt(index);
+		else word = image.getLong(index);
+		return word & maskOf(dataWidth);
+	}
+
+	/**
+	 * Makes the given file the image of this ROM and remembers its hash so that the file is referenced instead of copied when the circuit
+	 * is saved
+	 * @param path The path of the image file
+	 * @throws IOException If the file cannot be read or is not a valid image
+	 */
+	@Override
+	public void load(Path path) throws IOException {
+		path = path.toAbsolutePath();
+		MessageDigest digest = newDigest();
+		ByteBuffer newImage = openImage(path, digest);
+		synchronized(this) {
+			imagePath = path.toString();
+			imageHash = toHex(digest.digest());
+			imageProblem = null;
+			image = newImage;
+		}
+	}
+
+	/**
+	 * Writes the image to the given file as raw bytes, replacing the file if it exists. This converts a text image into a binary one
+	 * @param path The path of the file
+	 * @throws IOException If the file cannot be written
+	 */
+	@Override
+	public void dump(Path path) throws IOException {
+		ByteBuffer source = getImage().duplicate();
+		source.rewind();
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while(source.hasRemaining()) channel.write(source);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Returns the contents of the memory, opening the image file if this is the first time they are needed. If the file cannot be opened,
+	 * the memory reads as all zeros and the problem is kept for getImageDescription()
+	 * @return The ByteBuffer holding the image
+	 */
+	private ByteBuffer getImage() {
+		if(image == null) {
+			synchronized(this) {
+				if(image == null) {
+					ByteBuffer newImage = ByteBuffer.allocate(0);
+					if(imagePath != null) {
+						try {
+							MessageDigest digest = newDigest();
+							newImage = openImage(Paths.get(imagePath), digest);
+							if(!toHex(digest.digest()).equals(imageHash)) imageProblem = "changed since it was chosen";
+						} catch (NoSuchFileException e) {
+							imageProblem = "missing";
+						} catch (IOException e) {
+							imageProblem = "could not be read: " + e.getMessage();
+						}
+					}
+					image = newImage;
+				}
+			}
+		}
+		return image;
+	}
+
+	/**
+	 * Opens an image file and adds its contents to the given digest. Text files are parsed into a new direct ByteBuffer, and any other
+	 * file is memory mapped. The whole file is hashed so that the hash does not depend on the size of the memory, but only the part that
+	 * fits in the memory is used
+	 * @param path The path of the image file
+	 * @param digest The digest to hash the contents with
+	 * @return The ByteBuffer holding the image in little endian order
+	 * @throws IOException If the file cannot be read or is not a valid image
+	 */
+	private ByteBuffer openImage(Path path, MessageDigest digest) throws IOException {
+		String name = path.getFileName().toString().toLowerCase();
+		if(name.endsWith(".hex") || name.endsWith(".ihex") || name.endsWith(".ihx") || name.endsWith(".txt") || name.endsWith(".mem")) {
+			return parseText(path, digest);
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			if(channel.size() > Integer.MAX_VALUE) throw new IOException("The image is larger than 2 GB");
+			ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			digest.update(mapped.duplicate());
+			mapped.limit((int) Math.min(mapped.capacity(), (long) getNumWords() * bytesOf(dataWidth)));
+			return mapped.slice().order(ByteOrder.LITTLE_ENDIAN);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Reads a text image one line at a time into a new direct ByteBuffer. Lines starting with a colon are read as Intel HEX records and
+	 * any other lines as plain hexadecimal words, which fill the memory in order starting at address 0. Bytes and words that do not fit in
+	 * the memory are ignored
+	 * @param path The path of the image file
+	 * @param digest The digest to hash the file with as it is read
+	 * @return The ByteBuffer holding the image in little endian order
+	 * @throws IOException If the file cannot be read or contains an invalid line
+	 */
+	private ByteBuffer parseText(Path path, MessageDigest digest) throws IOException {
+		int bytes = bytesOf(dataWidth);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(getNumWords() * bytes).order(ByteOrder.LITTLE_ENDIAN);
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new DigestInputStream(Files.newInputStream(path), digest),
+				StandardCharsets.US_ASCII));
+		try {
+			long base = 0;
+			int nextWord = 0;
+			int lineNumber = 0;
+			String line;
+			while((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if(line.startsWith(":")) {
+					base = parseRecord(line, base, buffer, lineNumber);
+					if(base < 0) break;
+				}
+				else nextWord = parseWords(line, nextWord, buffer, lineNumber);
+			}
+			while(reader.read() >= 0);
+		} finally {
+			reader.close();
+		}
+		return buffer;
+	}
+
+	/**
+	 * Reads one Intel HEX record into the image. Data records are written at their address plus the current base address, extended
+	 * segment and extended linear address records change the base address, and other records are ignored
+	 * @param line The record, starting with a colon
+	 * @param base The current base address
+	 * @param buffer The image
+	 * @param lineNumber The line number of the record, used for error messages
+	 * @return The new base address, or -1 if this is the end of file record
+	 * @throws IOException If the record is not valid or its checksum does not match
+	 */
+	private static long parseRecord(String line, long base, ByteBuffer buffer, int lineNumber) throws IOException {
+		if(line.length() < 11 || line.length() % 2 == 0) throw new IOException("Line " + lineNumber + " is not a valid Intel HEX record");
+		byte[] record = new byte[(line.length() - 1) / 2];
+		int sum = 0;
+		for(int i = 0; i < record.length; i++) {
+			try {
+				record[i] = (byte) Integer.parseInt(line.substring(i * 2 + 1, i * 2 + 3), 16);
+			} catch (NumberFormatException e) {
+				throw new IOException("Line " + lineNumber + " is not a valid Intel HEX record");
+			}
+			sum += record[i];
+		}
+		int count = record[0] & 0xFF;
+		if(count != record.length - 5) throw new IOException("Line " + lineNumber + " is not a valid Intel HEX record");
+		if((sum & 0xFF) != 0) throw new IOException("Line " + lineNumber + " has the wrong checksum");
+		int offset = (record[1] & 0xFF) << 8 | (record[2] & 0xFF);
+		int type = record[3] & 0xFF;
+		if(type == 0) {
+			for(int i = 0; i < count; i++) {
+				long address = base + offset + i;
+				if(address < buffer.capacity()) buffer.put((int) address, record[i + 4]);
+			}
+		}
+		else if(type == 1) return -1;
+		else if(type == 2 && count == 2) return (long) ((record[4] & 0xFF) << 8 | (record[5] & 0xFF)) << 4;
+		else if(type == 4 && count == 2) return (long) ((record[4] & 0xFF) << 8 | (record[5] & 0xFF)) << 16;
+		return base;
+	}
+
+	/**
+	 * Reads one line of plain hexadecimal words into the image
+	 * @param line The line
+	 * @param nextWord The address of the next word to be written
+	 * @param buffer The image
+	 * @param lineNumber The line number, used for error messages
+	 * @return The address of the word after the last one on this line
+	 * @throws IOException If the line contains something that is not a word
+	 */
+	private int parseWords(String line, int nextWord, ByteBuffer buffer, int lineNumber) throws IOException {
+		if(line.startsWith("v2.0")) return nextWord;
+		int comment = line.indexOf('#');
+		if(comment >= 0) line = line.substring(0, comment).trim();
+		if(line.isEmpty()) return nextWord;
+		int bytes = bytesOf(dataWidth);
+		String[] tokens = line.split("\\s+");
+		for(int t = 0; t < tokens.length; t++) {
+			String token = tokens[t];
+			int count = 1;
+			long word;
+			try {
+				int star = token.indexOf('*');
+				if(star >= 0) {
+					count = Integer.parseInt(token.substring(0, star));
+					token = token.substring(star + 1);
+				}
+				word = Long.parseUnsignedLong(token, 16) & maskOf(dataWidth);
+			} catch (NumberFormatException e) {
+				throw new IOException("Line " + lineNumber + " contains \"" + tokens[t] + "\", which is not a hexadecimal word");
+			}
+			for(int c = 0; c < count && nextWord < getNumWords(); c++, nextWord++) {
+				int index = nextWord * bytes;
+				if(bytes == 1) buffer.put(index, (byte) word);
+				else if(bytes == 2) buffer.putShort(index, (short) word);
+				else if(bytes == 4) buffer.putInt(index, (int) word);
+				else buffer.putLong(index, word);
+			}
+		}
+		return nextWord;
+	}
+
+	/**
+	 * Creates a new SHA-256 digest
+	 * @return The digest
+	 */
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Converts a hash to hexadecimal
+	 * @param hash The bytes of the hash
+	 * @return The hash in hexadecimal
+	 */
+	private static String toHex(byte[] hash) {
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < hash.length; i++) sb.append(String.format("%02x", hash[i]));
+		return sb.toString();
+	}
+
+	/**
+	 * Returns a description of the image file for display, which includes any problem found when it was opened
+	 * @return The path of the image file and its problem, or "No image file" if no image has been chosen
+	 */
+	public String getImageDescription() {
+		if(imagePath == null) return "No image file";
+		getImage();
+		String problem = imageProblem;
+		return problem == null ? imagePath : imagePath + " (" + problem + ")";
+	}
+
+	/**
+	 * Returns the path of the image file
+	 * @return The absolute path, or null if no image has been chosen
+	 */
+	public String getImagePath() {
+		return imagePath;
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the image file when it was chosen
+	 * @return The hash in hexadecimal, or null if no image has been chosen
+	 */
+	public String getImageHash() {
+		return imageHash;
+	}
+
+	@Override
+	public int getNumWords() {
+		return 1 << addressWidth;
+	}
+
+	@Override
+	protected String getLabel() {
+		return NameConverter.nameFromMemorySize(addressWidth, dataWidth) + " ROM";
+	}
+
+	/**
+	 * Returns the number of data bits
+	 * @return The width of each word
+	 */
+	@Override
+	public int getWidth() {
+		return dataWidth;
+	}
+
+	@Override
+	public boolean isResizable() {
+		return true;
+	}
+
+	/**
+	 * Sets the number of data bits. The wires on the Q bus are deleted, since they no longer have the same width as the connection, and
+	 * the image is opened again with the new layout the next time it is read. Unlike the constructor, the method will do nothing and exit
+	 * if the width is out of bounds
+	 * @param width The number of data bits
+	 */
+	@Override
+	public synchronized void setWidth(int width) {
+		if(width < MIN_WIDTH || width > MAX_WIDTH || width == dataWidth) return;
+		dataWidth = width;
+		io.connectionAt(0, Connection.OUTPUT).setWidth(width);
+		image = null;
+		imageProblem = null;
+	}
+
+	@Override
+	public int getAddressWidth() {
+		return addressWidth;
+	}
+
+	/**
+	 * Sets the number of address bits. The wires on the A bus are deleted, since they no longer have the same width as the connection,
+	 * and the image is opened again with the new size the next time it is read. The method will do nothing and exit if the width is out of
+	 * bounds
+	 * @param addressWidth The number of address bits
+	 */
+	@Override
+	public synchronized void setAddressWidth(int addressWidth) {
+		if(addressWidth < Ram.MIN_ADDRESS_WIDTH || addressWidth > Ram.MAX_ADDRESS_WIDTH || addressWidth == this.addressWidth) return;
+		this.addressWidth = addressWidth;
+		io.connectionAt(0, Connection.INPUT).setWidth(addressWidth);
+		image = null;
+		imageProblem = null;
+	}
+
+	@Override
+	public LComponent makeCopy() {
+		Rom result = new Rom(x, y, addressWidth, dataWidth);
+		result.getRotator().setRotation(rotator.getRotation());
+		result.setName(getName());
+		result.imagePath = imagePath;
+		result.imageHash = imageHash;
+		result.imageProblem = imageProblem;
+		result.image = image;
+		return result;
+	}
+}
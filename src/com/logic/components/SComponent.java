@@ -58,4 +58,12 @@ public abstract class SComponent extends LComponent {
 		this.custom = custom;
 	}
 	
+	/**
+	 * Returns the custom component that this SComponent is contained within
+	 * @return The custom component, or null if this component is not inside of a custom component
+	 */
+	public Custom getCustom() {
+		return custom;
+	}
+	
 }
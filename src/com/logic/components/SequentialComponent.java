@@ -0,0 +1,324 @@
+package com.logic.components;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+
+import com.logic.engine.LogicEngine;
+import com.logic.ui.CircuitPanel;
+import com.logic.ui.CompRotator;
+
+/**
+ * The superclass for built in components that keep a state and change it on the rising edge of a clock (flip-flops, registers,
+ * counters, and memories). The clock is always the last input (latches, which are level-sensitive, use it as their enable instead). Each time the component is updated, the clock is compared to its value from the last
+ * update, and the new state is computed in a single step if it has gone from low to high, so a component with many bits of state still
+ * takes one evaluation per clock edge. An edge is handled in two phases: the new state is sampled from the inputs as they were before the
+ * edge, and the outputs only change when the component is updated again on the next iteration (see LogicEngine.defer). Every component
+ * on the same clock samples before any of them changes its outputs, so a chain of flip-flops shifts by one place per edge instead of
+ * racing through. These components are drawn as a box with a label, with inputs on the left and outputs on the right
+ * @author toddstennes
+ *
+ */
+public abstract class SequentialComponent extends LComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The maximum, minimum, and default number of bits of registers and counters
+	 */
+	public static final int MIN_WIDTH = 1, MAX_WIDTH = 64, DEFAULT_WIDTH = 8;
+
+	/**
+	 * The distance in pixels between two connections on the same side of the box
+	 */
+	public static final int PIN_SPACING = 40;
+
+	/**
+	 * The width of the box in pixels
+	 */
+	public static final int BOX_WIDTH = 100;
+
+	/**
+	 * The distance in pixels from the box to each connection
+	 */
+	private static final int CONNECTION_LENGTH = 25;
+
+	/**
+	 * The font used to display the label of the component
+	 */
+	private final Font labelFont = new Font("Arial", Font.PLAIN, 15);
+
+	/**
+	 * The font used to display the names of the connections
+	 */
+	private final Font pinFont = new Font("Arial", Font.PLAIN, 11);
+
+	/**
+	 * The stored bits of the component, where bit i is the value of output bit i
+	 */
+	protected long state;
+
+	/**
+	 * The signal of the clock input the last time the component was updated
+	 */
+	private boolean lastClock;
+
+	/**
+	 * The state sampled on the last rising edge of the clock, which becomes the state of the component on its next update
+	 */
+	private transient long sampledState;
+
+	/**
+	 * Tells whether a state has been sampled on a rising edge of the clock and is waiting to be committed
+	 */
+	private transient boolean edgePending;
+
+	/**
+	 * The names of the input and output connections, which are drawn inside of the box
+	 */
+	private String[] inputNames, outputNames;
+
+	/**
+	 * The height of the box in pixels
+	 */
+	private int height;
+
+	/**
+	 * Constructs a new SequentialComponent with a connection for each of the given names
+	 * @param x The x position
+	 * @param y The y position
+	 * @param type The type of component
+	 * @param inputNames The names of the inputs, where the last input is the clock
+	 * @param outputNames The names of the outputs
+	 */
+	public SequentialComponent(int x, int y, CompType type, String[] inputNames, String[] outputNames) {
+		super(x, y, type);
+		this.inputNames = inputNames;
+		this.outputNames = outputNames;
+		height = Math.max(inputNames.length, outputNames.length) * PIN_SPACING + 20;
+		for(int i = 0; i < inputNames.length; i++) {
+			io.addConnection(-CONNECTION_LENGTH, pinY(i, inputNames.length), Connection.INPUT, CompRotator.LEFT);
+		}
+		for(int i = 0; i < outputNames.length; i++) {
+			io.addConnection(BOX_WIDTH + CONNECTION_LENGTH, pinY(i, outputNames.length), Connection.OUTPUT, CompRotator.RIGHT);
+		}
+	}
+
+	/**
+	 * Updates the component. If the clock has risen since the last update, the next state is sampled and the component is deferred to the
+	 * next iteration without changing its outputs. Otherwise any sampled state is committed and the outputs are set to match the state
+	 */
+	@Override
+	public void update(LogicEngine engine) {
+		if(edgePending) {
+			state = sampledState;
+			edgePending = false;
+		}
+		boolean clock = io.getInput(io.getNumInputs() - 1);
+		boolean rising = clock && !lastClock;
+		lastClock = clock;
+		if(rising) {
+			sampledState = nextState();
+			edgePending = true;
+			engine.defer(this);
+			return;
+		}
+		updateOutputs(engine);
+	}
+
+	/**
+	 * Tells whether an enable input is high. An enable input that is not connected counts as high, so the component is always enabled
+	 * unless something is wired to it
+	 * @param index The index of the enable input
+	 * @return True if the component is enabled
+	 */
+	protected boolean isEnabled(int index) {
+		return io.connectionAt(index, Connection.INPUT).numWires() == 0 || io.getInput(index);
+	}
+
+	/**
+	 * Returns a mask with the given number of low bits set
+	 * @param width The number of bits
+	 * @return The mask
+	 */
+	protected static long maskOf(int width) {
+		return width >= 64 ? -1L : (1L << width) - 1;
+	}
+
+	/**
+	 * Returns the number of bytes used to store a word with the given number of bits in a memory
+	 * @param width The number of bits
+	 * @return 1, 2, 4, or 8, whichever is the smallest that fits the bits
+	 */
+	protected static int bytesOf(int width) {
+		if(width <= 8) return 1;
+		else if(width <= 16) return 2;
+		else if(width <= 32) return 4;
+		return 8;
+	}
+
+	/**
+	 * Computes the state of the component after a rising edge of the clock from its current state and inputs
+	 * @return The new state
+	 */
+	protected abstract long nextState();
+
+	/**
+	 * Sets the outputs of the component to match its state
+	 * @param engine The LogicEngine instance that was passed to the update method
+	 */
+	protected abstract void updateOutputs(LogicEngine engine);
+
+	/**
+	 * Returns the label that is drawn in the middle of the box
+	 * @return The label
+	 */
+	protected abstract String getLabel();
+
+	/**
+	 * Renders this component by drawing a box of the appropriate size with its label and the names of its connections, and using
+	 * drawer.drawConnections to display connections
+	 */
+	@Override
+	public void render(Graphics g, CircuitPanel cp) {
+		drawer.drawConnections(g);
+		Rectangle bounds = getBounds();
+		Graphics2D g2d = (Graphics2D) g;
+		g2d.setColor(Color.WHITE);
+		g2d.fill(bounds);
+		g2d.setColor(Color.BLACK);
+		g2d.setStroke(new BasicStroke(4));
+		g2d.draw(bounds);
+		g2d.setColor(Color.BLUE);
+		g2d.setStroke(new BasicStroke(2));
+		if(selected) g2d.drawRect(bounds.x - 1, bounds.y - 1, bounds.width + 2, bounds.height + 2);
+		drawText(g2d);
+	}
+
+	/**
+	 * Draws the label and the names of the connections inside of the box. The text is drawn as if the component were facing right and is
+	 * then rotated around the center of the box to match the rotation of the component
+	 * @param g2d The Graphics object to use
+	 */
+	private void drawText(Graphics2D g2d) {
+		Rectangle bounds = getBounds();
+		int left = bounds.x + bounds.width / 2 - BOX_WIDTH / 2;
+		int top = bounds.y + bounds.height / 2 - height / 2;
+		AffineTransform orig = g2d.getTransform();
+		if(rotator.getRotation() == CompRotator.UP) g2d.rotate(Math.PI * 3 / 2, bounds.width / 2 + x, bounds.height / 2 + y);
+		else if(rotator.getRotation() == CompRotator.LEFT) g2d.rotate(Math.PI, bounds.width / 2 + x, bounds.height / 2 + y);
+		else if(rotator.getRotation() == CompRotator.DOWN) g2d.rotate(Math.PI / 2, bounds.width / 2 + x, bounds.height / 2 + y);
+
+		g2d.setColor(Color.BLACK);
+		g2d.setFont(labelFont);
+		FontMetrics metrics = g2d.getFontMetrics(labelFont);
+		String label = getLabel();
+		g2d.drawString(label, left + (BOX_WIDTH - metrics.stringWidth(label)) / 2, top + (height + metrics.getAscent()) / 2);
+
+		g2d.setFont(pinFont);
+		metrics = g2d.getFontMetrics(pinFont);
+		int offset = metrics.getAscent() / 2;
+		for(int i = 0; i < inputNames.length; i++) {
+			g2d.drawString(inputNames[i], left + 6, top + pinY(i, inputNames.length) + offset);
+		}
+		for(int i = 0; i < outputNames.length; i++) {
+			int stringWidth = metrics.stringWidth(outputNames[i]);
+			g2d.drawString(outputNames[i], left + BOX_WIDTH - stringWidth - 6, top + pinY(i, outputNames.length) + offset);
+		}
+		g2d.setTransform(orig);
+	}
+
+	/**
+	 * Calculates the y position of a connection so that the connections on each side are centered and equally spaced
+	 * @param index The index of the connection on its side
+	 * @param count The number of connections on the side
+	 * @return The y position of the connection in pixels
+	 */
+	private int pinY(int index, int count) {
+		return height / 2 - PIN_SPACING / 2 * (count - 1) + index * PIN_SPACING;
+	}
+
+	/**
+	 * Returns the number of bits of state that this component keeps
+	 * @return The width of the component, which is 1 for a flip-flop
+	 */
+	public int getWidth() {
+		return 1;
+	}
+
+	/**
+	 * Tells whether the outputs of this component only change on a rising edge of its clock. The netlist does not put these components
+	 * below the components they drive when it is levelized, so that every component on the same clock is in the same level
+	 * @return True for every component except a ROM, which has no clock, and a latch, which is level-sensitive
+	 */
+	public boolean isEdgeTriggered() {
+		return true;
+	}
+
+	/**
+	 * Tells whether the number of bits of this component can be changed with setWidth
+	 * @return True for registers and counters
+	 */
+	public boolean isResizable() {
+		return false;
+	}
+
+	/**
+	 * Sets the number of bits of state that this component keeps. This does nothing for components with a fixed width
+	 * @param width The number of bits
+	 */
+	public void setWidth(int width) { }
+
+	/**
+	 * Returns the stored bits of the component
+	 * @return The state
+	 */
+	public long getState() {
+		return state;
+	}
+
+	/**
+	 * Sets the stored bits of the component, discarding any state that was sampled on a clock edge but not yet committed. This does not
+	 * change the outputs until the component is updated
+	 * @param state The new state
+	 */
+	public void setState(long state) {
+		this.state = state;
+		edgePending = false;
+	}
+
+	/**
+	 * Returns the signal of the clock input the last time the component was updated
+	 * @return True if the clock was high
+	 */
+	public boolean getLastClock() {
+		return lastClock;
+	}
+
+	/**
+	 * Sets the signal that the clock input is compared to the next time the component is updated
+	 * @param lastClock True if the clock should be treated as having been high
+	 */
+	public void setLastClock(boolean lastClock) {
+		this.lastClock = lastClock;
+	}
+
+	/**
+	 * Returns a bounding box for this component based on the number of connections, which determines the height of the box
+	 * @return A bounding box for the component
+	 */
+	@Override
+	public Rectangle getBounds() {
+		int rotation = rotator.getRotation();
+		if(rotation == CompRotator.UP || rotation == CompRotator.DOWN) return new Rectangle(x, y, height, BOX_WIDTH);
+		else return new Rectangle(x, y, BOX_WIDTH, height);
+	}
+
+	/**
+	 * Returns a bounding box for this component when it is facing in a rightward direction
+	 * @return A bounding box for the component
+	 */
+	@Override
+	public Rectangle getBoundsRight() {
+		return new Rectangle(x, y, BOX_WIDTH, height);
+	}
+}
@@ -2,8 +2,8 @@ package com.logic.components;
 
 import java.awt.*;
 
+import com.logic.engine.GateKernels;
 import com.logic.engine.LogicEngine;
-import com.logic.engine.LogicFunctions;
 import com.logic.ui.CircuitPanel;
 import com.logic.ui.CompRotator;
 
@@ -16,11 +16,6 @@ public class SingleInputGate extends LComponent {
 	
 	private static final long serialVersionUID = 1L;
 	
-	/**
-	 * The index of the function that either inverts its input or returns its input unchanged depending on the type of component
-	 */
-	private int function;
-	
 	/**
 	 * Constructs a new SingleInputGate
 	 * @param x The x position
@@ -29,8 +24,6 @@ public class SingleInputGate extends LComponent {
 	 */
 	public SingleInputGate(int x, int y, CompType type) {
 		super(x, y, type);
-		if(type == CompType.BUFFER) function = 1;
-		else if(type == CompType.NOT) function = 0;
 		drawer.setImages(new int[] {0});
 
 		io.addConnection(-25, 40, Connection.INPUT, CompRotator.LEFT);
@@ -39,7 +32,7 @@ public class SingleInputGate extends LComponent {
 	
 	@Override
 	public void update(LogicEngine engine) {
-		io.setOutput(0, LogicFunctions.func1s.get(function).apply(io.getInput(0)), engine);
+		io.setOutput(0, GateKernels.evaluate(type, io.getInputBits(), 1), engine);
 	}
 
 	@Override
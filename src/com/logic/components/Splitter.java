@@ -0,0 +1,46 @@
+package com.logic.components;
+
+import com.logic.engine.LogicEngine;
+
+/**
+ * A component that splits a bus into its bits. The bus comes in on the left, and output i on the right carries bit i of the bus
+ * @author toddstennes
+ *
+ */
+public class Splitter extends BusComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs a new Splitter with the default number of bits
+	 * @param x The x position
+	 * @param y The y position
+	 */
+	public Splitter(int x, int y) {
+		this(x, y, DEFAULT_WIDTH);
+	}
+
+	/**
+	 * Constructs a new Splitter
+	 * @param x The x position
+	 * @param y The y position
+	 * @param width The number of bits in the bus, will be rounded to max / min if out of bounds
+	 */
+	public Splitter(int x, int y, int width) {
+		super(x, y, CompType.SPLITTER, Connection.INPUT, width);
+	}
+
+	@Override
+	public void update(LogicEngine engine) {
+		long value = io.getInputValue(0);
+		for(int i = 0; i < width; i++) io.setOutput(i, ((value >>> i) & 1) == 1, engine);
+	}
+
+	@Override
+	public LComponent makeCopy() {
+		Splitter result = new Splitter(x, y, width);
+		result.getRotator().setRotation(rotator.getRotation());
+		result.setName(getName());
+		return result;
+	}
+}
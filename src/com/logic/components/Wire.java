@@ -14,7 +14,8 @@ import com.logic.ui.CompRotator;
 import com.logic.util.Deletable;
 
 /**
- * A CircuitElement that holds a boolean signal and connects an output connection to an input connection
+ * A CircuitElement that holds a boolean signal and connects an output connection to an input connection. A wire between two bus
+ * connections also holds the bits of the bus packed into a long, and its boolean signal is high whenever any of those bits are high
  * @author toddstennes
  *
  */
@@ -29,9 +30,17 @@ public class Wire extends CircuitElement implements Deletable, Serializable {
 	private final int curveFactor = 6;
 	
 	/**
-	 * The boolean state of the wire
+	 * The boolean state of the wire. This is only written by the thread that is running logic for the circuit, but it is read on the event
+	 * dispatch thread whenever a wire is painted without a frame (such as a wire that is still being built, or a component drawn outside
+	 * of a CircuitPanel), so it is volatile to make sure those reads see the latest signal
 	 */
-	private boolean signal;
+	private volatile boolean signal;
+	
+	/**
+	 * The bits carried by the wire, where bit i is the signal of line i of the bus. For a single bit wire this is 1 when the signal is high
+	 * and 0 when it is low. Like signal, this is volatile because it can be read on the event dispatch thread
+	 */
+	private volatile long value;
 	
 	/**
 	 * The path that the wire follows in the CircuitPanel
@@ -67,7 +76,7 @@ public class Wire extends CircuitElement implements Deletable, Serializable {
 			Point p3;
 			if(connectTwo == null) p3 = cp.getEditor().getWireBuilder().getMousePoint();
 			else p3 = offsetInDirection(p4, offset, connectTwo.getAbsoluteDirection());
-			drawCurve(g, p1, p2, p3, p4);
+			drawCurve(g, p1, p2, p3, p4, cp.getSignal(this));
 		}
 	}
 	
@@ -78,23 +87,24 @@ public class Wire extends CircuitElement implements Deletable, Serializable {
 	 * @param p2 The second control point (changes shape)
 	 * @param p3 The third control point (changes shape)
 	 * @param p4 The fourth control point (end of curve)
+	 * @param lit True if the wire should be drawn with a high signal
 	 */
-	private void drawCurve(Graphics g, Point p1, Point p2, Point p3, Point p4) {
+	private void drawCurve(Graphics g, Point p1, Point p2, Point p3, Point p4, boolean lit) {
 		curve = new CubicCurve2D.Double(p1.x, p1.y, p2.x, p2.y, p3.x, p3.y, p4.x, p4.y);
 		Graphics2D g2d = (Graphics2D) g;
 		if(selected) {
 			g2d.setColor(Selection.SELECT_COLOR);
-			g2d.setStroke(new BasicStroke(10));
+			g2d.setStroke(new BasicStroke(isBus() ? 14 : 10));
 		}
 		else {
 			g2d.setColor(Color.BLACK);
-			g2d.setStroke(new BasicStroke(7));
+			g2d.setStroke(new BasicStroke(isBus() ? 11 : 7));
 		}
 		
 		g2d.draw(curve);
-		if(signal) g2d.setColor(Color.ORANGE);
+		if(lit) g2d.setColor(Color.ORANGE);
 		else g2d.setColor(Color.WHITE);
-		g2d.setStroke(new BasicStroke(3));
+		g2d.setStroke(new BasicStroke(isBus() ? 7 : 3));
 		g2d.draw(curve);
 		g2d.setStroke(new BasicStroke(1));
 	}
@@ -131,16 +141,46 @@ public class Wire extends CircuitElement implements Deletable, Serializable {
 	 * Returns the wire's signal
 	 * @return The wire's signal
 	 */
-	public synchronized boolean getSignal() {
+	public boolean getSignal() {
 		return signal;
 	}
 	
 	/**
-	 * Changes the wire's signal. This method is safe to call from the EDT and LogicWorker thread
+	 * Changes the wire's signal. This should only be called by the thread that is running logic for the circuit, or on the event dispatch
+	 * thread before the wire's circuit is handed to a LogicWorker
 	 * @param signal The new boolean signal
 	 */
-	public synchronized void setSignal(boolean signal) {
+	public void setSignal(boolean signal) {
 		this.signal = signal;
+		value = signal ? 1 : 0;
+	}
+	
+	/**
+	 * Returns the bits carried by the wire
+	 * @return The bits of the bus, or 1 or 0 for a single bit wire
+	 */
+	public long getValue() {
+		if(value == 0 && signal) return 1;
+		return value;
+	}
+	
+	/**
+	 * Changes the bits carried by the wire, which also sets its signal to high if any of the bits are high. Like setSignal, this should only
+	 * be called by the thread that is running logic for the circuit
+	 * @param value The new bits
+	 */
+	public void setValue(long value) {
+		this.value = value;
+		signal = value != 0;
+	}
+	
+	/**
+	 * Tells whether the wire is attached to a bus connection
+	 * @return True if the wire carries more than one bit
+	 */
+	public boolean isBus() {
+		Connection connection = source != null ? source : dest;
+		return connection != null && connection.getWidth() > 1;
 	}
 	
 	/**
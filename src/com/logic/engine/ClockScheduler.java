@@ -0,0 +1,369 @@
+package com.logic.engine;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import javax.swing.Timer;
+
+import com.logic.components.Clock;
+import com.logic.components.LComponent;
+import com.logic.components.SComponent;
+
+/**
+ * Runs every clock in a circuit from one swing timer. The scheduler keeps a virtual time in milliseconds and a queue of clocks ordered by
+ * the time of their next edge. Each time the timer fires, every edge that is due is handled in order, and all clocks with an edge at the
+ * same instant are toggled together and updated by a single logic process. The clocks are not toggled on the timer's thread: each instant
+ * is sent to the LogicWorker as a request whose action toggles its clocks, so every instant is settled before the clocks of the next one
+ * are toggled. Even when the timer fires late and several instants are caught up at once, flip-flops and other sequential components see
+ * every edge. If the instants sent the last time the timer fired have not all been handled yet, the circuit is slower than its clocks, so
+ * the edges that are due are skipped and counted as dropped instead of piling up on the worker's queue. The timer is then set to fire at
+ * the next edge, so there are no timer events between edges no matter how many clocks there are. Clocks inside of custom components are scheduled in the same way,
+ * and their logic starts with the custom component at the top level of the circuit that contains them. The circuit is repainted by the
+ * LogicWorker once each process finishes, so clocks do not repaint it themselves.
+ * <p>
+ * In turbo mode the timer is stopped and virtual time no longer follows the wall clock. Instead, step() is called repeatedly (usually by a
+ * TurboRunner) to jump straight to the next edge and update the circuit on the calling thread, so the clocks keep their relative periods
+ * but run as fast as the engine can go
+ * @author toddstennes
+ *
+ */
+public class ClockScheduler implements ActionListener {
+
+	/**
+	 * The longest amount of time, in milliseconds, that the scheduler will catch up on when the timer fires late. If the timer is later than
+	 * this (for example, because the computer was asleep), virtual time skips forward instead of firing every missed edge
+	 */
+	public static final int MAX_LAG = 1000;
+
+	/**
+	 * The engine that runs the circuit
+	 */
+	private NetlistEngine netlistEngine;
+
+	/**
+	 * The clocks that are running, ordered by the time of their next edge
+	 */
+	private PriorityQueue<Clock> clocks;
+
+	/**
+	 * The timer that fires at the next edge
+	 */
+	private Timer timer;
+
+	/**
+	 * The value of System.nanoTime() at virtual time 0
+	 */
+	private long origin;
+
+	/**
+	 * The clocks with an edge at the current instant
+	 */
+	private ArrayList<Clock> fired;
+
+	/**
+	 * The components to start logic with for the current instant
+	 */
+	private ArrayList<LComponent> startingComps;
+
+	/**
+	 * The number of instants that have been handled and the number of edges that have been fired
+	 */
+	private long numSteps, numEdges;
+
+	/**
+	 * The virtual time of the last instant that was handled
+	 */
+	private long time;
+
+	/**
+	 * True if the scheduler is in turbo mode, where the timer is stopped and time only advances when step() is called
+	 */
+	private boolean turbo;
+
+	/**
+	 * The number of instants that have been sent to the LogicWorker but whose clocks have not been toggled yet. This is counted down by the
+	 * worker, which holds the lock of the NetlistEngine at the time, so it is atomic instead of guarded by the lock of the scheduler
+	 */
+	private AtomicInteger pendingInstants;
+
+	/**
+	 * Constructs a new ClockScheduler for the circuit run by the given engine
+	 * @param netlistEngine The NetlistEngine
+	 */
+	public ClockScheduler(NetlistEngine netlistEngine) {
+		this.netlistEngine = netlistEngine;
+		clocks = new PriorityQueue<Clock>((a, b) -> Long.compare(a.getNextEdge(), b.getNextEdge()));
+		timer = new Timer(0, this);
+		timer.setRepeats(false);
+		origin = System.nanoTime();
+		fired = new ArrayList<Clock>();
+		startingComps = new ArrayList<LComponent>();
+		pendingInstants = new AtomicInteger();
+	}
+
+	/**
+	 * Starts running the given clock. The edges of a clock fall on multiples of its delay in virtual time, so clocks with the same delay
+	 * share their edges no matter when they were started, and a clock's first edge comes at most one delay from now. If the clock is
+	 * already running, it is restarted
+	 * @param clock The clock
+	 */
+	public synchronized void add(Clock clock) {
+		clocks.remove(clock);
+		long delay = Math.max(1, clock.getDelay());
+		clock.setNextEdge(((turbo ? time : getTime()) / delay + 1) * delay);
+		clocks.add(clock);
+		schedule();
+	}
+
+	/**
+	 * Stops running the given clock
+	 * @param clock The clock
+	 */
+	public synchronized void remove(Clock clock) {
+		if(clocks.remove(clock)) schedule();
+	}
+
+	/**
+	 * Handles every edge that is due when the timer fires
+	 */
+	@Override
+	public synchronized void actionPerformed(ActionEvent e) {
+		if(turbo) return;
+		long now = getTime();
+		if(!clocks.isEmpty() && now - clocks.peek().getNextEdge() > MAX_LAG) {
+			long lag = now - clocks.peek().getNextEdge();
+			long dropped = 0;
+			for(Clock clock : clocks) dropped += lag / Math.max(1, clock.getDelay());
+			netlistEngine.getStats().recordDroppedEdges(dropped);
+			origin += lag * 1000000;
+			now = getTime();
+		}
+		advanceTo(now);
+		schedule();
+	}
+
+	/**
+	 * Fires every edge up to and including the given time, one instant at a time. The clocks with an edge at each instant are toggled by
+	 * the LogicWorker and then updated together by one logic process, which finishes before the clocks of the next instant are toggled.
+	 * Nothing here takes the lock of the NetlistEngine (the worker compiles the netlist itself), so the timer never waits for a logic
+	 * process that is already running. If an instant sent by an earlier call is still waiting for the worker, every edge up to the given
+	 * time is skipped and counted as dropped, so a circuit that cannot keep up with its clocks never has more than one call's worth of
+	 * instants queued
+	 * @param time The virtual time in milliseconds
+	 */
+	public synchronized void advanceTo(long time) {
+		boolean behind = pendingInstants.get() > 0;
+		while(!clocks.isEmpty() && clocks.peek().getNextEdge() <= time) {
+			nextInstant();
+			if(behind) {
+				netlistEngine.getStats().recordDroppedEdges(fired.size());
+				continue;
+			}
+			count();
+			ArrayList<Clock> edge = new ArrayList<Clock>(fired);
+			pendingInstants.incrementAndGet();
+			netlistEngine.getWorker().submit(new LogicRequest(() -> {
+				pendingInstants.decrementAndGet();
+				toggle(edge);
+			}, startingComps));
+		}
+	}
+
+	/**
+	 * Jumps to the next edge, toggles every clock with an edge at that instant, and updates the circuit on the calling thread. This is
+	 * how time advances in turbo mode. The instant is picked while holding the lock of the scheduler, which is released before the circuit
+	 * is updated, so the event dispatch thread can add and remove clocks without waiting for the logic process. The lock of the
+	 * NetlistEngine is held from the toggle until the circuit settles, so the LogicWorker never handles a request while the clocks are
+	 * toggled but not yet settled. Steps taken by different threads may settle out of order, so only one thread should step at a time
+	 * @return The result of the logic process, or null if there are no clocks
+	 */
+	public SettleResult step() {
+		ArrayList<Clock> edge;
+		ArrayList<LComponent> starts;
+		synchronized(this) {
+			if(clocks.isEmpty()) return null;
+			nextInstant();
+			count();
+			edge = new ArrayList<Clock>(fired);
+			starts = new ArrayList<LComponent>(startingComps);
+		}
+		synchronized(netlistEngine) {
+			toggle(edge);
+			netlistEngine.compile();
+			return netlistEngine.run(starts, false);
+		}
+	}
+
+	/**
+	 * Steps until the given number of cycles of the fastest clock have passed in virtual time
+	 * @param cycles The number of cycles
+	 * @return The number of steps that were taken
+	 */
+	public long runCycles(long cycles) {
+		long start = getVirtualTime();
+		long end = start + cycles * getCycleLength();
+		long steps = 0;
+		while(getNextEdge() <= end && step() != null) steps++;
+		return steps;
+	}
+
+	/**
+	 * Steps until the given condition is true or the given number of cycles of the fastest clock have passed in virtual time. The
+	 * condition is checked once before the first step and again after every step, on the thread that calls this method
+	 * @param condition The condition (for example, a check of the state of a light)
+	 * @param maxCycles The most cycles to run before giving up
+	 * @return True if the condition became true, false if the limit was reached or there are no clocks
+	 */
+	public boolean runUntil(BooleanSupplier condition, long maxCycles) {
+		long end = getVirtualTime() + maxCycles * getCycleLength();
+		if(condition.getAsBoolean()) return true;
+		while(getNextEdge() <= end && step() != null) {
+			if(condition.getAsBoolean()) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes every clock with an edge at the next instant from the queue and puts them back with their following edge. The clocks are
+	 * left in fired, without being toggled, and the components that logic should start with are left in startingComps. The instant is not
+	 * counted until count() is called, since its edges may be dropped
+	 */
+	private void nextInstant() {
+		long edge = clocks.peek().getNextEdge();
+		fired.clear();
+		startingComps.clear();
+		while(!clocks.isEmpty() && clocks.peek().getNextEdge() == edge) {
+			Clock clock = clocks.poll();
+			fired.add(clock);
+			LComponent top = getTopLevelComp(clock);
+			if(!startingComps.contains(top)) startingComps.add(top);
+		}
+		for(int i = 0; i < fired.size(); i++) {
+			Clock clock = fired.get(i);
+			clock.setNextEdge(edge + Math.max(1, clock.getDelay()));
+			clocks.add(clock);
+		}
+		time = edge;
+	}
+
+	/**
+	 * Counts the instant in fired as handled
+	 */
+	private void count() {
+		numSteps++;
+		numEdges += fired.size();
+		netlistEngine.getStats().recordClockEdges(fired.size());
+	}
+
+	/**
+	 * Toggles the given clocks. This is run on the thread that runs logic, right before the logic process for their instant
+	 * @param edge The clocks with an edge at the instant
+	 */
+	private static void toggle(ArrayList<Clock> edge) {
+		for(int i = 0; i < edge.size(); i++) edge.get(i).toggle();
+	}
+
+	/**
+	 * Turns turbo mode on or off. When turbo mode is turned off, the wall clock picks up from the virtual time that turbo mode reached, so
+	 * the clocks continue without a pause or a burst of edges
+	 * @param turbo True to turn on turbo mode
+	 */
+	public synchronized void setTurbo(boolean turbo) {
+		if(this.turbo == turbo) return;
+		if(turbo) time = getTime();
+		else origin = System.nanoTime() - time * 1000000;
+		this.turbo = turbo;
+		schedule();
+	}
+
+	/**
+	 * Tells whether the scheduler is in turbo mode
+	 * @return True if turbo mode is on
+	 */
+	public synchronized boolean isTurbo() {
+		return turbo;
+	}
+
+	/**
+	 * Sets the timer to fire at the next edge, or stops it if there are no clocks or the scheduler is in turbo mode
+	 */
+	private void schedule() {
+		timer.stop();
+		if(clocks.isEmpty() || turbo) return;
+		timer.setInitialDelay((int) Math.max(0, clocks.peek().getNextEdge() - getTime()));
+		timer.start();
+	}
+
+	/**
+	 * Returns the component at the top level of the circuit that contains the given component
+	 * @param scomp The component
+	 * @return The outermost custom component containing the component, or the component itself if it is not inside of a custom component
+	 */
+	private static LComponent getTopLevelComp(SComponent scomp) {
+		while(scomp.getCustom() != null) scomp = scomp.getCustom();
+		return scomp;
+	}
+
+	/**
+	 * Returns the virtual time according to the wall clock, which is the time that the timer works toward outside of turbo mode
+	 * @return The number of milliseconds since the scheduler was created, not counting time skipped because the timer was too late
+	 */
+	public long getTime() {
+		return (System.nanoTime() - origin) / 1000000;
+	}
+
+	/**
+	 * Returns the virtual time of the last instant that was handled
+	 * @return The time in milliseconds
+	 */
+	public synchronized long getVirtualTime() {
+		return time;
+	}
+
+	/**
+	 * Returns the virtual time of the next edge
+	 * @return The time in milliseconds, or Long.MAX_VALUE if there are no clocks
+	 */
+	public synchronized long getNextEdge() {
+		if(clocks.isEmpty()) return Long.MAX_VALUE;
+		return clocks.peek().getNextEdge();
+	}
+
+	/**
+	 * Returns the length of one cycle of the fastest clock, which is two of its delays since a clock toggles once per delay
+	 * @return The length in milliseconds, or 0 if there are no clocks
+	 */
+	public synchronized long getCycleLength() {
+		long shortest = Long.MAX_VALUE;
+		for(Clock clock : clocks) shortest = Math.min(shortest, Math.max(1, clock.getDelay()));
+		return clocks.isEmpty() ? 0 : 2 * shortest;
+	}
+
+	/**
+	 * Returns the number of clocks that are running
+	 * @return The number of clocks
+	 */
+	public synchronized int getNumClocks() {
+		return clocks.size();
+	}
+
+	/**
+	 * Returns the number of instants that have been handled, each of which started one logic process
+	 * @return The number of steps
+	 */
+	public synchronized long getNumSteps() {
+		return numSteps;
+	}
+
+	/**
+	 * Returns the number of clock edges that have been fired
+	 * @return The number of edges
+	 */
+	public synchronized long getNumEdges() {
+		return numEdges;
+	}
+}
@@ -0,0 +1,298 @@
+package com.logic.engine;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Collects metrics for one NetlistEngine and exposes them as an MBean so that a running simulation can be watched in a JMX console. The
+ * counters are LongAdders, so recording a metric is cheap even when it happens on several threads at once. The engine counts component
+ * updates and wire toggles in plain fields during a logic process and adds them here once the process finishes. Settle latencies are kept
+ * in a histogram with four buckets for every power of two nanoseconds, so percentiles are accurate to within about 12%
+ * @author toddstennes
+ *
+ */
+public class EngineStats implements EngineStatsMBean {
+
+	/**
+	 * The number of buckets in the latency histogram, which covers every possible long value
+	 */
+	private static final int NUM_BUCKETS = 256;
+
+	/**
+	 * The engine that the metrics are for
+	 */
+	private NetlistEngine netlistEngine;
+
+	/**
+	 * Counters for logic processes, component updates, wire toggles, iterations, and processes that did not settle
+	 */
+	private LongAdder propagations, updates, toggles, iterations, unsettled;
+
+	/**
+	 * Counters for clock edges that were fired and clock edges that were skipped
+	 */
+	private LongAdder clockEdges, clockEdgesDropped;
+
+	/**
+	 * Counters for paints and the total time spent painting in nanoseconds
+	 */
+	private LongAdder paints, paintNanos;
+
+	/**
+	 * The time the last paint took in nanoseconds
+	 */
+	private volatile long lastPaintNanos;
+
+	/**
+	 * The number of logic processes whose latency falls in each bucket
+	 */
+	private LongAdder[] latencies;
+
+	/**
+	 * The number of coalesced requests that the worker had counted when the metrics were last reset
+	 */
+	private long coalescedOffset;
+
+	/**
+	 * The name that this MBean is registered under, or null if it is not registered
+	 */
+	private ObjectName name;
+
+	/**
+	 * Constructs a new EngineStats for the given engine
+	 * @param netlistEngine The NetlistEngine
+	 */
+	public EngineStats(NetlistEngine netlistEngine) {
+		this.netlistEngine = netlistEngine;
+		propagations = new LongAdder();
+		updates = new LongAdder();
+		toggles = new LongAdder();
+		iterations = new LongAdder();
+		unsettled = new LongAdder();
+		clockEdges = new LongAdder();
+		clockEdgesDropped = new LongAdder();
+		paints = new LongAdder();
+		paintNanos = new LongAdder();
+		latencies = new LongAdder[NUM_BUCKETS];
+		for(int i = 0; i < NUM_BUCKETS; i++) latencies[i] = new LongAdder();
+	}
+
+	/**
+	 * Registers this MBean with the platform MBean server so that it appears in JMX consoles. If the MBean cannot be registered, the
+	 * error is printed and the program continues without it
+	 * @param circuitName The name of the circuit, which is used in the name of the MBean
+	 */
+	public void register(String circuitName) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			name = new ObjectName("com.logic:type=Engine,name=" + ObjectName.quote(circuitName));
+			server.registerMBean(this, name);
+		} catch (JMException e) {
+			e.printStackTrace();
+			name = null;
+		}
+	}
+
+	/**
+	 * Removes this MBean from the platform MBean server, if it is registered
+	 */
+	public void unregister() {
+		if(name == null) return;
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+		name = null;
+	}
+
+	/**
+	 * Records a finished logic process
+	 * @param result The result of the process
+	 * @param wireToggles The number of times a net changed during the process
+	 * @param nanos How long the process took in nanoseconds
+	 */
+	void recordSettle(SettleResult result, long wireToggles, long nanos) {
+		propagations.increment();
+		updates.add(result.getEvaluations());
+		iterations.add(result.getIterations());
+		toggles.add(wireToggles);
+		if(!result.isSettled()) unsettled.increment();
+		latencies[bucket(nanos)].increment();
+	}
+
+	/**
+	 * Records clock edges that were fired at the same instant
+	 * @param edges The number of edges
+	 */
+	void recordClockEdges(int edges) {
+		clockEdges.add(edges);
+	}
+
+	/**
+	 * Records clock edges that were skipped
+	 * @param edges The number of edges
+	 */
+	void recordDroppedEdges(long edges) {
+		clockEdgesDropped.add(edges);
+	}
+
+	/**
+	 * Records the time it took to paint the circuit
+	 * @param nanos The time in nanoseconds
+	 */
+	public void recordPaint(long nanos) {
+		paints.increment();
+		paintNanos.add(nanos);
+		lastPaintNanos = nanos;
+	}
+
+	@Override
+	public long getPropagations() {
+		return propagations.sum();
+	}
+
+	@Override
+	public long getComponentUpdates() {
+		return updates.sum();
+	}
+
+	@Override
+	public long getWireToggles() {
+		return toggles.sum();
+	}
+
+	@Override
+	public long getIterations() {
+		return iterations.sum();
+	}
+
+	@Override
+	public double getIterationsPerSettle() {
+		long count = propagations.sum();
+		return count == 0 ? 0 : (double) iterations.sum() / count;
+	}
+
+	@Override
+	public long getUnsettledPropagations() {
+		return unsettled.sum();
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return netlistEngine.getWorker().getQueueDepth();
+	}
+
+	@Override
+	public int getFoldedGates() {
+		return netlistEngine.getFoldedGates();
+	}
+
+	@Override
+	public double getSettleLatencyP50Micros() {
+		return percentile(0.5) / 1e3;
+	}
+
+	@Override
+	public double getSettleLatencyP99Micros() {
+		return percentile(0.99) / 1e3;
+	}
+
+	@Override
+	public long getClockEdges() {
+		return clockEdges.sum();
+	}
+
+	@Override
+	public long getClockEdgesDropped() {
+		return clockEdgesDropped.sum();
+	}
+
+	@Override
+	public long getRequestsCoalesced() {
+		return netlistEngine.getWorker().getFoldedRequests() - coalescedOffset;
+	}
+
+	@Override
+	public long getPaints() {
+		return paints.sum();
+	}
+
+	@Override
+	public double getLastPaintMillis() {
+		return lastPaintNanos / 1e6;
+	}
+
+	@Override
+	public double getMeanPaintMillis() {
+		long count = paints.sum();
+		return count == 0 ? 0 : paintNanos.sum() / 1e6 / count;
+	}
+
+	@Override
+	public void reset() {
+		propagations.reset();
+		updates.reset();
+		toggles.reset();
+		iterations.reset();
+		unsettled.reset();
+		clockEdges.reset();
+		clockEdgesDropped.reset();
+		paints.reset();
+		paintNanos.reset();
+		lastPaintNanos = 0;
+		for(int i = 0; i < NUM_BUCKETS; i++) latencies[i].reset();
+		coalescedOffset = netlistEngine.getWorker().getFoldedRequests();
+	}
+
+	/**
+	 * Estimates a percentile of the settle latency from the histogram
+	 * @param fraction The percentile as a fraction (for example, 0.99 for the 99th percentile)
+	 * @return The latency in nanoseconds, which is the middle of the bucket that contains the percentile, or 0 if nothing has been recorded
+	 */
+	private double percentile(double fraction) {
+		long[] counts = new long[NUM_BUCKETS];
+		long total = 0;
+		for(int i = 0; i < NUM_BUCKETS; i++) {
+			counts[i] = latencies[i].sum();
+			total += counts[i];
+		}
+		if(total == 0) return 0;
+		long rank = (long) Math.ceil(fraction * total);
+		long seen = 0;
+		for(int i = 0; i < NUM_BUCKETS; i++) {
+			seen += counts[i];
+			if(seen >= rank) return (lowerBound(i) + (double) lowerBound(i + 1)) / 2;
+		}
+		return lowerBound(NUM_BUCKETS - 1);
+	}
+
+	/**
+	 * Returns the histogram bucket for a latency. Latencies below 4 have their own buckets, and every power of two above that is split
+	 * into four buckets
+	 * @param nanos The latency in nanoseconds
+	 * @return The index of the bucket
+	 */
+	private static int bucket(long nanos) {
+		if(nanos < 4) return (int) Math.max(0, nanos);
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int sub = (int) (nanos >>> (exponent - 2)) & 3;
+		return 4 * (exponent - 1) + sub;
+	}
+
+	/**
+	 * Returns the smallest latency that falls in a bucket
+	 * @param bucket The index of the bucket
+	 * @return The latency in nanoseconds
+	 */
+	private static long lowerBound(int bucket) {
+		if(bucket < 4) return bucket;
+		int exponent = bucket / 4 + 1;
+		if(exponent >= 62) return Long.MAX_VALUE;
+		return (4L + bucket % 4) << (exponent - 2);
+	}
+}
@@ -0,0 +1,111 @@
+package com.logic.engine;
+
+/**
+ * The management interface of EngineStats, which is shown in JMX consoles such as JConsole and VisualVM under com.logic:type=Engine
+ * @author toddstennes
+ *
+ */
+public interface EngineStatsMBean {
+
+	/**
+	 * Returns the number of logic processes that have been run
+	 * @return The number of processes
+	 */
+	public long getPropagations();
+
+	/**
+	 * Returns the number of times a component has been updated
+	 * @return The number of component updates
+	 */
+	public long getComponentUpdates();
+
+	/**
+	 * Returns the number of times the signal of a net (and so every wire connected to it) has changed
+	 * @return The number of wire toggles
+	 */
+	public long getWireToggles();
+
+	/**
+	 * Returns the total number of iterations of every logic process
+	 * @return The number of iterations
+	 */
+	public long getIterations();
+
+	/**
+	 * Returns the average number of iterations that a logic process took to settle
+	 * @return The number of iterations per settle
+	 */
+	public double getIterationsPerSettle();
+
+	/**
+	 * Returns the number of logic processes that were stopped because they were oscillating
+	 * @return The number of unsettled processes
+	 */
+	public long getUnsettledPropagations();
+
+	/**
+	 * Returns the number of requests waiting for the logic thread
+	 * @return The queue depth
+	 */
+	public int getQueueDepth();
+
+	/**
+	 * Returns the number of gates in the current netlist that were folded into constants and are never evaluated
+	 * @return The number of folded gates
+	 */
+	public int getFoldedGates();
+
+	/**
+	 * Returns the median time that a logic process took
+	 * @return The time in microseconds
+	 */
+	public double getSettleLatencyP50Micros();
+
+	/**
+	 * Returns the 99th percentile of the time that a logic process took
+	 * @return The time in microseconds
+	 */
+	public double getSettleLatencyP99Micros();
+
+	/**
+	 * Returns the number of clock edges that have been fired
+	 * @return The number of edges
+	 */
+	public long getClockEdges();
+
+	/**
+	 * Returns the number of clock edges that were skipped because the clock timer fell too far behind or the circuit could not settle as
+	 * fast as its clocks
+	 * @return The number of dropped edges
+	 */
+	public long getClockEdgesDropped();
+
+	/**
+	 * Returns the number of requests that were folded into another request's logic process
+	 * @return The number of coalesced requests
+	 */
+	public long getRequestsCoalesced();
+
+	/**
+	 * Returns the number of times the circuit has been painted
+	 * @return The number of paints
+	 */
+	public long getPaints();
+
+	/**
+	 * Returns how long the last paint took
+	 * @return The time in milliseconds
+	 */
+	public double getLastPaintMillis();
+
+	/**
+	 * Returns how long a paint took on average
+	 * @return The time in milliseconds
+	 */
+	public double getMeanPaintMillis();
+
+	/**
+	 * Sets every counter back to 0
+	 */
+	public void reset();
+}
@@ -0,0 +1,73 @@
+package com.logic.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands SignalFrames from the thread running logic to the thread painting the circuit without locks, using three frames. The writer fills
+ * its back frame and swaps it into the middle slot, and the reader swaps the middle slot with its front frame whenever a newer frame is
+ * waiting. Each swap is a single atomic exchange, so the writer never waits for a paint to finish and the frame being painted is never
+ * written to. Only one thread may publish and only one thread (the event dispatch thread) may acquire frames
+ * @author toddstennes
+ *
+ */
+public class FrameBuffer {
+
+	/**
+	 * The bit set in the middle slot when it holds a frame that the reader has not taken yet
+	 */
+	private static final int FRESH = 4;
+
+	/**
+	 * The three frames
+	 */
+	private SignalFrame[] frames;
+
+	/**
+	 * The index of the frame owned by the writer
+	 */
+	private int back;
+
+	/**
+	 * The index of the frame in the middle slot, with the FRESH bit if it is newer than the reader's frame
+	 */
+	private AtomicInteger middle;
+
+	/**
+	 * The index of the frame owned by the reader
+	 */
+	private int front;
+
+	/**
+	 * The number of frames that have been published
+	 */
+	private long numPublished;
+
+	/**
+	 * Constructs a new FrameBuffer with three empty frames
+	 */
+	public FrameBuffer() {
+		frames = new SignalFrame[] {new SignalFrame(), new SignalFrame(), new SignalFrame()};
+		back = 0;
+		middle = new AtomicInteger(1);
+		front = 2;
+	}
+
+	/**
+	 * Publishes the current signals of a netlist as the newest frame. This is called by the NetlistEngine at the end of every logic process
+	 * @param netlist The netlist
+	 */
+	void publish(Netlist netlist) {
+		frames[back].copy(netlist, ++numPublished);
+		back = middle.getAndSet(back | FRESH) & ~FRESH;
+	}
+
+	/**
+	 * Returns the newest frame that has been published. The frame is not changed until the next call to this method, so it can be used for
+	 * an entire paint. This must only be called on one thread
+	 * @return The newest frame, which has a null netlist if nothing has been published yet
+	 */
+	public SignalFrame acquire() {
+		if((middle.get() & FRESH) != 0) front = middle.getAndSet(front) & ~FRESH;
+		return frames[front];
+	}
+}
@@ -0,0 +1,207 @@
+package com.logic.engine;
+
+import com.logic.components.CompType;
+
+/**
+ * Primitive logic kernels for the basic gates. Unlike the functions in LogicFunctions, these methods work directly on boolean, int, and
+ * long values, so they never box their inputs or allocate and are small enough to be inlined by the JIT compiler. Multi-input kernels take
+ * the inputs of a gate packed into the bits of an int or long, where bit i is the signal of input i (see IOManager.getInputBits()). Every
+ * engine evaluates gates with these kernels, so there is only one implementation of each gate to keep correct.
+ * @author toddstennes
+ *
+ */
+public final class GateKernels {
+
+	/**
+	 * This class only contains static methods and cannot be instantiated
+	 */
+	private GateKernels() { }
+
+	/**
+	 * Evaluates the output of a gate of the given type
+	 * @param type The type of gate (CompType.AND, NAND, OR, NOR, XOR, XNOR, BUFFER, or NOT)
+	 * @param bits The inputs of the gate packed into an int
+	 * @param numInputs The number of inputs (at most 32)
+	 * @return The output of the gate, which is always false for types that are not gates
+	 */
+	public static boolean evaluate(CompType type, int bits, int numInputs) {
+		if(type == CompType.AND) return and(bits, numInputs);
+		else if(type == CompType.NAND) return !and(bits, numInputs);
+		else if(type == CompType.OR) return or(bits);
+		else if(type == CompType.NOR) return !or(bits);
+		else if(type == CompType.XOR) return xor(bits);
+		else if(type == CompType.XNOR) return !xor(bits);
+		else if(type == CompType.BUFFER) return buffer(bits);
+		else if(type == CompType.NOT) return !buffer(bits);
+		return false;
+	}
+
+	/**
+	 * Evaluates the output of a gate of the given type
+	 * @param type The type of gate (CompType.AND, NAND, OR, NOR, XOR, XNOR, BUFFER, or NOT)
+	 * @param bits The inputs of the gate packed into a long
+	 * @param numInputs The number of inputs (at most 64)
+	 * @return The output of the gate, which is always false for types that are not gates
+	 */
+	public static boolean evaluate(CompType type, long bits, int numInputs) {
+		if(type == CompType.AND) return and(bits, numInputs);
+		else if(type == CompType.NAND) return !and(bits, numInputs);
+		else if(type == CompType.OR) return or(bits);
+		else if(type == CompType.NOR) return !or(bits);
+		else if(type == CompType.XOR) return xor(bits);
+		else if(type == CompType.XNOR) return !xor(bits);
+		else if(type == CompType.BUFFER) return buffer(bits);
+		else if(type == CompType.NOT) return !buffer(bits);
+		return false;
+	}
+
+	/**
+	 * Evaluates the output of a gate from its opcode in a Netlist, which is how the NetlistEngine evaluates gates
+	 * @param op The opcode of the gate (Netlist.OP_AND through Netlist.OP_NOT), where an odd opcode means the output is inverted
+	 * @param bits The inputs of the gate packed into an int
+	 * @param numInputs The number of inputs (at most 32)
+	 * @return The output of the gate
+	 */
+	public static boolean evaluateOpcode(int op, int bits, int numInputs) {
+		boolean value;
+		int base = op & ~1;
+		if(base == Netlist.OP_AND) value = and(bits, numInputs);
+		else if(base == Netlist.OP_OR) value = or(bits);
+		else if(base == Netlist.OP_XOR) value = xor(bits);
+		else value = buffer(bits);
+		return value != ((op & 1) == 1);
+	}
+
+	/**
+	 * Combines one more input into the output of a gate for 64 input patterns at once, where bit i of each value belongs to pattern i.
+	 * This is how the VectorEngine evaluates gates: the first input is taken as is, every other input is combined with this method, and
+	 * the result is passed to finishLanes
+	 * @param op The opcode of the gate (Netlist.OP_AND through Netlist.OP_NOT)
+	 * @param lanes The inputs that have been combined so far
+	 * @param input The next input
+	 * @return The combined inputs
+	 */
+	public static long combineLanes(int op, long lanes, long input) {
+		int base = op & ~1;
+		if(base == Netlist.OP_AND) return lanes & input;
+		else if(base == Netlist.OP_OR) return lanes | input;
+		else if(base == Netlist.OP_XOR) return lanes ^ input;
+		return lanes;
+	}
+
+	/**
+	 * Turns the combined inputs of a gate for 64 input patterns into its output by inverting them if the gate is inverted
+	 * @param op The opcode of the gate (Netlist.OP_AND through Netlist.OP_NOT)
+	 * @param lanes The combined inputs
+	 * @return The output of the gate for each pattern
+	 */
+	public static long finishLanes(int op, long lanes) {
+		return (op & 1) == 1 ? ~lanes : lanes;
+	}
+
+	/**
+	 * Returns true if all of the inputs are high
+	 * @param bits The inputs packed into an int
+	 * @param numInputs The number of inputs (at most 32)
+	 * @return The AND of the inputs
+	 */
+	public static boolean and(int bits, int numInputs) {
+		int mask = numInputs >= 32 ? -1 : (1 << numInputs) - 1;
+		return (bits & mask) == mask;
+	}
+
+	/**
+	 * Returns true if all of the inputs are high
+	 * @param bits The inputs packed into a long
+	 * @param numInputs The number of inputs (at most 64)
+	 * @return The AND of the inputs
+	 */
+	public static boolean and(long bits, int numInputs) {
+		long mask = numInputs >= 64 ? -1L : (1L << numInputs) - 1;
+		return (bits & mask) == mask;
+	}
+
+	/**
+	 * Returns true if both inputs are high
+	 * @param a The first input
+	 * @param b The second input
+	 * @return a AND b
+	 */
+	public static boolean and(boolean a, boolean b) {
+		return a & b;
+	}
+
+	/**
+	 * Returns true if at least one input is high
+	 * @param bits The inputs packed into an int
+	 * @return The OR of the inputs
+	 */
+	public static boolean or(int bits) {
+		return bits != 0;
+	}
+
+	/**
+	 * Returns true if at least one input is high
+	 * @param bits The inputs packed into a long
+	 * @return The OR of the inputs
+	 */
+	public static boolean or(long bits) {
+		return bits != 0;
+	}
+
+	/**
+	 * Returns true if at least one input is high
+	 * @param a The first input
+	 * @param b The second input
+	 * @return a OR b
+	 */
+	public static boolean or(boolean a, boolean b) {
+		return a | b;
+	}
+
+	/**
+	 * Returns true if an odd number of inputs are high
+	 * @param bits The inputs packed into an int
+	 * @return The XOR of the inputs
+	 */
+	public static boolean xor(int bits) {
+		return (Integer.bitCount(bits) & 1) == 1;
+	}
+
+	/**
+	 * Returns true if an odd number of inputs are high
+	 * @param bits The inputs packed into a long
+	 * @return The XOR of the inputs
+	 */
+	public static boolean xor(long bits) {
+		return (Long.bitCount(bits) & 1) == 1;
+	}
+
+	/**
+	 * Returns true if exactly one input is high
+	 * @param a The first input
+	 * @param b The second input
+	 * @return a XOR b
+	 */
+	public static boolean xor(boolean a, boolean b) {
+		return a ^ b;
+	}
+
+	/**
+	 * Returns the first input unchanged
+	 * @param bits The inputs packed into an int
+	 * @return The signal of input 0
+	 */
+	public static boolean buffer(int bits) {
+		return (bits & 1) != 0;
+	}
+
+	/**
+	 * Returns the first input unchanged
+	 * @param bits The inputs packed into a long
+	 * @return The signal of input 0
+	 */
+	public static boolean buffer(long bits) {
+		return (bits & 1) != 0;
+	}
+}
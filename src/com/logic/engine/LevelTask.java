@@ -0,0 +1,61 @@
+package com.logic.engine;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A ForkJoin task that computes the outputs of one level of components for a levelized NetlistEngine. The range of components is split in
+ * half until it is no larger than CHUNK_SIZE, and each chunk is computed on its own thread. The outputs are only computed here, and the
+ * NetlistEngine applies them on its own thread once every chunk is finished
+ * @author toddstennes
+ *
+ */
+public class LevelTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The largest number of components that is computed by a single task without being split
+	 */
+	public static final int CHUNK_SIZE = 256;
+
+	/**
+	 * The NetlistEngine that the components belong to
+	 */
+	private NetlistEngine engine;
+
+	/**
+	 * The indexes of the components in the level
+	 */
+	private int[] comps;
+
+	/**
+	 * The range of positions in the comps array that this task computes, from inclusive to exclusive
+	 */
+	private int from, to;
+
+	/**
+	 * Constructs a new LevelTask
+	 * @param engine The NetlistEngine
+	 * @param comps The indexes of the components in the level
+	 * @param from The first position in the comps array to compute
+	 * @param to The position after the last position in the comps array to compute
+	 */
+	public LevelTask(NetlistEngine engine, int[] comps, int from, int to) {
+		this.engine = engine;
+		this.comps = comps;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Computes the range of components if it is small enough, otherwise splits it in half and computes both halves in parallel
+	 */
+	@Override
+	protected void compute() {
+		if(to - from <= CHUNK_SIZE) engine.computeRange(comps, from, to);
+		else {
+			int middle = (from + to) >>> 1;
+			invokeAll(new LevelTask(engine, comps, from, middle), new LevelTask(engine, comps, middle, to));
+		}
+	}
+}
@@ -1,54 +1,261 @@
 package com.logic.engine;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 
+import com.logic.components.Connection;
+import com.logic.components.IOManager;
 import com.logic.components.LComponent;
+import com.logic.util.CycleFinder;
 
 /**
- * This class uses an iterative algorithm to sequentially update all components that are influenced by the list of starting components
+ * This class uses an iterative algorithm to sequentially update all components that are influenced by the list of starting components. A
+ * circuit with a combinational loop may never settle, so every time the process goes over its iteration or evaluation budget, the engine
+ * traces the components that are still being updated. If they form a loop, the process is stopped and the loop is reported as oscillating.
+ * Otherwise the process is only deep, not stuck, so it is given a new budget and carries on.
  * @author toddstennes
  *
  */
 public class LogicEngine {
 
+	/**
+	 * The default number of iterations and evaluations that a logic process can run for before it is checked for oscillation
+	 */
+	public static final int DEFAULT_MAX_ITERATIONS = 10000, DEFAULT_MAX_EVALUATIONS = 10000000;
+	
+	/**
+	 * The number of iterations that are run the first time the budget is exceeded to record which components are still changing. Only
+	 * the second half of these iterations is recorded, so a loop that the process has already left behind is not reported. The trace
+	 * doubles in length every time the process goes over budget again, so a loop that is longer than the trace is found eventually
+	 */
+	public static final int TRACE_ITERATIONS = 64;
+
 	/**
 	 * The list of components that must be updated on the next iteration
 	 */
 	private ArrayList<LComponent> activeComps;
 	
+	/**
+	 * The list of components being updated on the current iteration. This list and activeComps are swapped after every iteration so that
+	 * the same two lists are reused for the entire logic process
+	 */
+	private ArrayList<LComponent> currentComps;
+	
+	/**
+	 * Every component this engine has seen, where comps[i] is the component given index i. Components keep their index in
+	 * LComponent.engineIndex, so looking one up takes no hashing
+	 */
+	private LComponent[] comps;
+	
+	/**
+	 * The number of components this engine has seen
+	 */
+	private int numComps;
+	
+	/**
+	 * The iteration that each component was last marked for, by index. A component is marked for the next iteration if its entry equals
+	 * epoch, so moving on to the next iteration only increments epoch instead of clearing a set. The marks belong to this engine alone, so
+	 * engines that run at the same time (such as the nested engines of Custom components) never share any state
+	 */
+	private int[] markEpochs;
+	
+	/**
+	 * The iteration that components are currently being marked for
+	 */
+	private int epoch = 1;
+	
+	/**
+	 * The number of times a component was marked when it was already marked for the next iteration
+	 */
+	private int redundantMarks;
+	
+	/**
+	 * The number of iterations a logic process can run for before it is checked for oscillation
+	 */
+	private int maxIterations = DEFAULT_MAX_ITERATIONS;
+	
+	/**
+	 * The number of component evaluations a logic process can perform before it is checked for oscillation
+	 */
+	private long maxEvaluations = DEFAULT_MAX_EVALUATIONS;
+	
+	/**
+	 * The number of iterations the current logic process has run for
+	 */
+	private int iterations;
+	
+	/**
+	 * The number of component evaluations the current logic process has performed
+	 */
+	private long evaluations;
+	
 	/**
 	 * Constructs a new LogicEngine
 	 * @param startingComps The list of LComponents that start out as marked
 	 */
 	public LogicEngine(ArrayList<LComponent> startingComps) {
-		activeComps = startingComps;
+		activeComps = new ArrayList<LComponent>(startingComps.size());
+		currentComps = new ArrayList<LComponent>(startingComps.size());
+		int capacity = Math.max(16, startingComps.size());
+		comps = new LComponent[capacity];
+		markEpochs = new int[capacity];
+		for(int i = 0; i < startingComps.size(); i++) mark(startingComps.get(i));
 	}
 	
 	/**
-	 * Performs the logic based on the activeComps list and terminates when the list is empty
-	 * @Return The number of iterations it took to complete the logic
+	 * Performs the logic based on the activeComps list and terminates when the list is empty, or when the process is found to be
+	 * oscillating after going over budget
+	 * @return The result of the logic process
 	 */
-	public int doLogic() {
-		int iterations = 0;
+	public SettleResult doLogic() {
+		iterations = 0;
+		evaluations = 0;
+		int iterationLimit = maxIterations;
+		long evaluationLimit = maxEvaluations;
+		int traceLength = TRACE_ITERATIONS;
 		while(activeComps.size() > 0) {
-			ArrayList<LComponent> lcomps = activeComps;
-			activeComps = new ArrayList<LComponent>();
-			for(int i = 0; i < lcomps.size(); i++) {
-				lcomps.get(i).update(this);
+			if(iterations >= iterationLimit || evaluations >= evaluationLimit) {
+				SettleResult result = check(traceLength);
+				if(result != null) return result;
+				iterationLimit = iterations + maxIterations;
+				evaluationLimit = evaluations + maxEvaluations;
+				traceLength = Math.min(traceLength * 2, 1 << 30);
+				continue;
 			}
-			iterations++;
+			step(null, null);
 		}
-		return iterations;
+		return new SettleResult(iterations, evaluations);
+	}
+	
+	/**
+	 * Runs one iteration by swapping the lists and updating every component that was marked
+	 * @param traced If this is not null, every component that is updated is added to this list the first time it is updated
+	 * @param index The position of each component in traced, or null if traced is null
+	 */
+	private void step(ArrayList<LComponent> traced, HashMap<LComponent, Integer> index) {
+		ArrayList<LComponent> lcomps = activeComps;
+		activeComps = currentComps;
+		currentComps = lcomps;
+		epoch++;
+		for(int i = 0; i < lcomps.size(); i++) {
+			LComponent lcomp = lcomps.get(i);
+			if(traced != null && !index.containsKey(lcomp)) {
+				index.put(lcomp, traced.size());
+				traced.add(lcomp);
+			}
+			lcomp.update(this);
+		}
+		evaluations += lcomps.size();
+		lcomps.clear();
+		iterations++;
+	}
+	
+	/**
+	 * Checks a logic process that has gone over budget. The process is run for up to traceLength more iterations, and the components that
+	 * are updated during the second half of them are recorded. If some of them form a loop, the loop is still changing, so the process is
+	 * stopped and the loop is reported as oscillating. Otherwise the process is deep rather than stuck, since a loop that the change only
+	 * passed through on its way settles before the second half of the trace
+	 * @param traceLength The number of iterations to trace for
+	 * @return The result of the logic process if it settled or was stopped, or null if it should carry on
+	 */
+	private SettleResult check(int traceLength) {
+		HashMap<LComponent, Integer> index = new HashMap<LComponent, Integer>();
+		ArrayList<LComponent> traced = new ArrayList<LComponent>();
+		for(int t = 0; t < traceLength && activeComps.size() > 0; t++) {
+			if(t < traceLength / 2) step(null, null);
+			else step(traced, index);
+		}
+		if(activeComps.size() == 0) return new SettleResult(iterations, evaluations);
+		
+		int[][] successors = new int[traced.size()][];
+		for(int i = 0; i < traced.size(); i++) {
+			IOManager io = traced.get(i).getIO();
+			ArrayList<Integer> dests = new ArrayList<Integer>();
+			for(int c = 0; c < io.getNumOutputs(); c++) {
+				Connection output = io.connectionAt(c, Connection.OUTPUT);
+				for(int w = 0; w < output.numWires(); w++) {
+					Connection dest = output.getWire(w).getDestConnection();
+					if(dest == null) continue;
+					Integer d = index.get(dest.getLcomp());
+					if(d != null) dests.add(d);
+				}
+			}
+			successors[i] = new int[dests.size()];
+			for(int d = 0; d < dests.size(); d++) successors[i][d] = dests.get(d);
+		}
+		boolean[] cyclic = CycleFinder.findCycles(successors);
+		ArrayList<LComponent> oscillatingComps = new ArrayList<LComponent>();
+		for(int i = 0; i < traced.size(); i++) {
+			if(cyclic[i]) oscillatingComps.add(traced.get(i));
+		}
+		if(oscillatingComps.isEmpty()) return null;
+		activeComps.clear();
+		return new SettleResult(iterations, evaluations, false, oscillatingComps);
+	}
+	
+	/**
+	 * Sets the budget for logic processes run by this engine
+	 * @param maxIterations The number of iterations a process runs for between checks for oscillation
+	 * @param maxEvaluations The number of component evaluations a process performs between checks for oscillation
+	 */
+	public void setBudget(int maxIterations, long maxEvaluations) {
+		this.maxIterations = maxIterations;
+		this.maxEvaluations = maxEvaluations;
 	}
 	
 	/**
 	 * Marks a component to be updated on the next cycle of the doInBackground method. The call to this method should only be written in one
 	 * place in the entire program - the IOManager.setOutput method, which is responsible for changing the output of a component (it then 
-	 * marks the next component(s))
+	 * marks the next component(s)). A component that is already marked for the next cycle is not added again
 	 * @param lcomp The LComponent to mark
 	 */
 	public void mark(LComponent lcomp) {
+		int index = indexOf(lcomp);
+		if(markEpochs[index] == epoch) {
+			redundantMarks++;
+			return;
+		}
+		markEpochs[index] = epoch;
 		activeComps.add(lcomp);
 	}
 	
+	/**
+	 * Returns the index of a component in this engine, giving it the next index if this engine has not seen it yet. The index stored in the
+	 * component is only used if this engine gave that index to the same component, since another engine may have given the component an
+	 * index since then. In that case the component gets a second index here, which can only cause a redundant evaluation
+	 * @param lcomp The component
+	 * @return The index
+	 */
+	private int indexOf(LComponent lcomp) {
+		int index = lcomp.getEngineIndex();
+		if(index < numComps && comps[index] == lcomp) return index;
+		if(numComps == comps.length) {
+			comps = Arrays.copyOf(comps, numComps * 2);
+			markEpochs = Arrays.copyOf(markEpochs, numComps * 2);
+		}
+		index = numComps++;
+		comps[index] = lcomp;
+		lcomp.setEngineIndex(index);
+		return index;
+	}
+	
+	/**
+	 * Marks a component to be updated again on the next iteration, so that it can finish a change in two steps. This is used by
+	 * SequentialComponents, which sample their inputs on a clock edge and only change their outputs on the next iteration, once every
+	 * other component on the same clock has sampled its inputs too
+	 * @param lcomp The LComponent that is being updated
+	 */
+	public void defer(LComponent lcomp) {
+		mark(lcomp);
+	}
+	
+	/**
+	 * Returns the number of redundant evaluations that were avoided because a component was marked more than once in the same iteration
+	 * @return The number of redundant marks
+	 */
+	public int getRedundantMarks() {
+		return redundantMarks;
+	}
+	
 }
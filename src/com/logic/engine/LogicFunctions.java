@@ -5,7 +5,8 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
- * Defines all Functions that can be used by LComponents in their update() methods. 
+ * Defines all Functions that can be used by LComponents in their update() methods. The basic gates no longer use these functions (see
+ * GateKernels), but the lists are still loaded for compatibility.
  * @author toddstennes
  *
  */
@@ -0,0 +1,105 @@
+package com.logic.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.logic.components.LComponent;
+
+/**
+ * A request for a logic process that is placed on the queue of a LogicWorker
+ * @author toddstennes
+ *
+ */
+public class LogicRequest {
+
+	/**
+	 * A constant that represents a logic process that originates from a given component
+	 */
+	public static final int SINGULAR_PROCESS = 0;
+
+	/**
+	 * A constant that represents a logic process that originates from all components that either have no input connections or have at least
+	 * one empty input connection, meaning that the entire circuit will be brought to a logically consistent state
+	 */
+	public static final int FULL_PROCESS = 1;
+
+	/**
+	 * The type of logic process (SINGULAR_PROCESS or FULL_PROCESS)
+	 */
+	private int type;
+
+	/**
+	 * The components to start with, which is empty for a full process
+	 */
+	private ArrayList<LComponent> startingComps;
+
+	/**
+	 * The change to make to the circuit on the worker's thread before the logic process, or null if there is none
+	 */
+	private Runnable action;
+
+	/**
+	 * Constructs a new request for a singular logic process that starts with the given component
+	 * @param startingComp The component to start with
+	 */
+	public LogicRequest(LComponent startingComp) {
+		type = SINGULAR_PROCESS;
+		startingComps = new ArrayList<LComponent>();
+		startingComps.add(startingComp);
+	}
+
+	/**
+	 * Constructs a new request for a singular logic process that starts with all of the given components at once, so that changes that
+	 * happen at the same instant (such as clocks with the same edge) are handled by one process
+	 * @param startingComps The components to start with
+	 */
+	public LogicRequest(List<LComponent> startingComps) {
+		type = SINGULAR_PROCESS;
+		this.startingComps = new ArrayList<LComponent>(startingComps);
+	}
+
+	/**
+	 * Constructs a new request that makes a change to the circuit on the worker's thread and then runs a singular logic process that starts
+	 * with the given components. The action runs while the worker holds the lock of the circuit's NetlistEngine, and a request with an
+	 * action is never folded into the same process as the requests before it, so every change made by an action is settled before the next
+	 * action runs
+	 * @param action The change to make (for example, toggling the clocks that have an edge at the same instant)
+	 * @param startingComps The components to start with, which can be empty if the action does not need a logic process
+	 */
+	public LogicRequest(Runnable action, List<LComponent> startingComps) {
+		this(startingComps);
+		this.action = action;
+	}
+
+	/**
+	 * Constructs a new request for a full logic process
+	 */
+	public LogicRequest() {
+		type = FULL_PROCESS;
+		startingComps = new ArrayList<LComponent>();
+	}
+
+	/**
+	 * Returns the type of logic process
+	 * @return SINGULAR_PROCESS or FULL_PROCESS
+	 */
+	public int getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the change to make to the circuit before the logic process
+	 * @return The action, or null if there is none
+	 */
+	public Runnable getAction() {
+		return action;
+	}
+
+	/**
+	 * Returns the components to start with
+	 * @return The starting components, which is empty if this is a request for a full process
+	 */
+	public ArrayList<LComponent> getStartingComps() {
+		return startingComps;
+	}
+}
@@ -1,129 +1,374 @@
 package com.logic.engine;
 
 import java.util.ArrayList;
-import java.util.concurrent.ExecutionException;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
 
-import javax.swing.SwingWorker;
+import javax.swing.SwingUtilities;
 
-import com.logic.components.Connection;
-import com.logic.components.IOManager;
 import com.logic.components.LComponent;
 import com.logic.ui.CircuitPanel;
+import com.logic.ui.UserMessage;
 
 /**
- * A SwingWorker subclass for running a LogicEngine on its own thread
+ * A long-lived thread that runs all logic processes for one circuit. Logic processes are requested by placing LogicRequests on the
+ * worker's queue. Every request that arrives within the coalescing window of the first waiting request is folded into the same logic
+ * process, so bursts of requests (such as many clocks ticking at once) only settle the circuit once. Other changes to the signals of the
+ * circuit, such as restoring a saved state, are sent to the worker as requests with an action (see startTask), so they are ordered with
+ * the logic processes instead of racing them.
+ * <p>
+ * Every batch of requests is handled while holding the lock of the circuit's NetlistEngine, and the signals of the circuit's wires are
+ * only ever written while that lock is held. The worker does almost all of this writing. The one exception is turbo mode, where the thread
+ * of a TurboRunner steps the ClockScheduler directly and holds the lock for each whole step, so its steps and the worker's batches never
+ * overlap. The event dispatch thread never writes signals; it only reads them, through the published SignalFrames. It never takes the
+ * lock either: the netlist is compiled by the worker at the start of each batch, so submitting a request never waits for a long logic
+ * process to finish.
  * @author toddstennes
  *
  */
-public class LogicWorker extends SwingWorker<Integer, Void>{
-	
+public class LogicWorker implements Runnable {
+
+	/**
+	 * The NetlistEngine that this worker runs, or null if this is the worker for components that have not been added to a circuit
+	 */
+	private NetlistEngine netlistEngine;
+
+	/**
+	 * The queue of logic processes that have been requested but not started
+	 */
+	private LinkedBlockingQueue<LogicRequest> requests;
+
+	/**
+	 * The requests that are being handled by the current logic process
+	 */
+	private ArrayList<LogicRequest> batch;
+
+	/**
+	 * The components that the current logic process starts with
+	 */
+	private ArrayList<LComponent> startingComps;
+
+	/**
+	 * The number of milliseconds to wait for more requests after a request arrives before starting a logic process
+	 */
+	private volatile int coalesceWindow = DEFAULT_COALESCE_WINDOW;
+
 	/**
-	 * A constant that represents a logic process that originates from a given component
+	 * The number of logic processes that have been run and the number of requests that were folded into another request's process
 	 */
-	private final int singularProcess = 0;
-	
+	private volatile long numProcesses, foldedRequests;
+
 	/**
-	 * A constant that represents a logic process that originates from all components that either have no input connections or have at least
-	 * one empty input connection, meaning that the entire circuit will be brought to a logically consistent state
+	 * The default coalescing window in milliseconds
 	 */
-	private final int fullProcess = 1;
-	
+	public static final int DEFAULT_COALESCE_WINDOW = 1;
+
+	/**
+	 * The number of requests that have been submitted but whose logic process has not finished
+	 */
+	private int pending;
+
 	/**
-	 * The type of logic process (singular process or full process)
+	 * The thread that this worker runs on, which is started by the first request
 	 */
-	private int processType;
-	
+	private Thread thread;
+
 	/**
-	 * The name of the thread that this LogicWorker is running on
+	 * The number of workers that have been created, used for naming their threads
 	 */
-	private String threadName;
-	
+	private static int numWorkers;
+
 	/**
-	 * The LogicEngine to run on the SwingWorker thread
+	 * The worker that runs a regular LogicEngine for components that have not been added to a circuit
 	 */
-	private LogicEngine engine;
-	
+	private static LogicWorker detachedWorker;
+
 	/**
-	 * Constructs a new LogicWorker that starts its LogicEngine with the given component
-	 * @param circuitPanel The CircuitPanel
-	 * @param startingComp The Component to start with in the activeComps list
+	 * Constructs a new LogicWorker for the given NetlistEngine. The thread is not started until the first logic process is requested
+	 * @param netlistEngine The NetlistEngine, or null to run a regular LogicEngine for each request
 	 */
-	private LogicWorker(LComponent startingComp) {
-		//Currently used by Button.clickAction, Button.notification, Clock.actionPerformed, Switch.clickAction, WireBuilder.startWire, 
-		//WireBuilder.endWire, WireEditor.deleteWire, Custom.start()
-		processType = singularProcess;
-		ArrayList<LComponent> startingComps = new ArrayList<LComponent>();
-		startingComps.add(startingComp);
-		engine = new LogicEngine(startingComps);
+	public LogicWorker(NetlistEngine netlistEngine) {
+		this.netlistEngine = netlistEngine;
+		requests = new LinkedBlockingQueue<LogicRequest>();
+		batch = new ArrayList<LogicRequest>();
+		startingComps = new ArrayList<LComponent>();
 	}
-	
+
 	/**
-	 * Constructs a new LogicWorker that is guaranteed to bring the circuit to a logically consistent state. This is done by starting 
-	 * the LogicEngine with all components that either have open input connections or 0 input connections
-	 * @param circuitPanel The CircuitPanel
+	 * Places a request on the queue and starts the thread if it has not been started yet
+	 * @param request The request
 	 */
-	private LogicWorker(CircuitPanel cp) {
-		//Currently used by Selection.deleteSelection, Clipboard.paste, CircuitState.editState
-		processType = fullProcess;
-		ArrayList<LComponent> startingComps = new ArrayList<LComponent>();
-		for(int i = 0; i < cp.lcomps.size(); i++) {
-			LComponent lcomp = cp.lcomps.get(i);
-			IOManager io = lcomp.getIO();
-		
-			//add component to active components if it has any open input connections or it has no input connections
-			if(io.getNumInputs() == 0) startingComps.add(lcomp);
-			else {
-				for(int c = 0; c < io.getNumInputs(); c++) {
-					if(io.connectionAt(c, Connection.INPUT).numWires() == 0) {
-						startingComps.add(lcomp);
-						break;
-					}
+	public synchronized void submit(LogicRequest request) {
+		pending++;
+		requests.add(request);
+		if(thread == null) startThread();
+	}
+
+	/**
+	 * Starts a new thread for this worker
+	 */
+	private void startThread() {
+		thread = new Thread(this, "Logic-" + numWorkers++);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Handles requests until the thread is interrupted. Each time a request arrives, the worker waits for the coalescing window and then
+	 * runs one logic process for every request in the queue. Once the queue is empty, the circuit is repainted so that the new signals are
+	 * displayed. A logic process that throws anything, including an Error such as a StackOverflowError from deeply nested custom
+	 * components, is abandoned and its requests are still counted as handled, so the worker keeps running and awaitIdle() never hangs
+	 */
+	@Override
+	public void run() {
+		try {
+			while(true) {
+				try {
+					batch.add(requests.take());
+					if(coalesceWindow > 0) Thread.sleep(coalesceWindow);
+				} catch (InterruptedException e) {
+					return;
 				}
+				requests.drainTo(batch);
+				numProcesses++;
+				foldedRequests += batch.size() - 1;
+				try {
+					report(process());
+				} catch (Throwable e) {
+					e.printStackTrace();
+				} finally {
+					finish(batch.size());
+					batch.clear();
+				}
+				CircuitPanel cp = getCircuitPanel();
+				if(requests.isEmpty() && cp != null) SwingUtilities.invokeLater(() -> cp.repaint());
 			}
+		} finally {
+			exit();
 		}
-		engine = new LogicEngine(startingComps);
 	}
-	
+
 	/**
-	 * Prints a message to indicate that this LogicWorker has started and runs the LogicEngine.doLogic() method
+	 * Records that the logic process for some requests has finished and wakes up any threads waiting for the worker to become idle
+	 * @param numRequests The number of requests that were handled
 	 */
-	@Override
-	protected Integer doInBackground() throws Exception {
-		threadName = Thread.currentThread().getName();
-		if(processType == singularProcess) System.out.println("Starting singular logic process on thread " + threadName);
-		else System.out.println("Starting full logic process on thread " + threadName);
-		return engine.doLogic();
+	private synchronized void finish(int numRequests) {
+		pending -= numRequests;
+		notifyAll();
 	}
-	
+
 	/**
-	 * Runs when the logic process is complete and prints a message to the console. 
+	 * Cleans up after the thread stops. The requests it was holding are counted as handled, and the thread is forgotten so that the next
+	 * request starts a new one, which then handles any requests that are still in the queue
 	 */
-	@Override
-	public void done() {
-		try {
-			if(processType == singularProcess) System.out.println("Completed singular logic process on thread " + threadName + 
-					" in " + get() + " itertations");
-			else System.out.println("Completed full logic process on thread " + threadName + " in " + get() + " iterations");
-		} catch (InterruptedException | ExecutionException e) {
-			e.printStackTrace();
+	private synchronized void exit() {
+		pending -= batch.size();
+		batch.clear();
+		thread = null;
+		notifyAll();
+		if(!requests.isEmpty()) startThread();
+	}
+
+	/**
+	 * Blocks until every request that has been submitted has been handled. This is meant for code that drives a circuit without a window,
+	 * such as tests and benchmarks, and must not be called on the event dispatch thread
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	public synchronized void awaitIdle() throws InterruptedException {
+		while(pending > 0) wait();
+	}
+
+	/**
+	 * Handles all of the requests in the current batch while holding the lock of the NetlistEngine. The netlist is compiled first if it is
+	 * out of date, so the actions of the requests always see the current netlist. The starting components of all singular requests are
+	 * marked together, so components that are influenced by more than one of them are only updated once per iteration. The only exception
+	 * is a request with an action: the requests before it are settled first, then its action runs, and its starting components begin a new
+	 * logic process, so the change made by each action is settled on its own
+	 * @return The combined result of the logic processes, or null if no process was needed
+	 */
+	private SettleResult process() {
+		if(netlistEngine == null) return processBatch();
+		synchronized(netlistEngine) {
+			netlistEngine.compile();
+			return processBatch();
 		}
 	}
-	
+
 	/**
-	 * Creates a new logic worker as specified by new LogicWorker(LComponent) and executes it
-	 * @param lcomp The LComponent to pass to the constructor
+	 * Handles all of the requests in the current batch (see process())
+	 * @return The combined result of the logic processes, or null if no process was needed
+	 */
+	private SettleResult processBatch() {
+		SettleResult result = null;
+		boolean full = false;
+		startingComps.clear();
+		for(int i = 0; i < batch.size(); i++) {
+			LogicRequest request = batch.get(i);
+			if(request.getAction() != null) {
+				if(full || !startingComps.isEmpty()) result = combine(result, settle(full));
+				full = false;
+				startingComps.clear();
+				request.getAction().run();
+			}
+			if(request.getType() == LogicRequest.FULL_PROCESS) full = true;
+			else startingComps.addAll(request.getStartingComps());
+		}
+		if(full || !startingComps.isEmpty()) result = combine(result, settle(full));
+		return result;
+	}
+
+	/**
+	 * Runs one logic process that starts with the components in startingComps
+	 * @param full True to start with every source of the circuit as well
+	 * @return The result of the logic process
+	 */
+	private SettleResult settle(boolean full) {
+		if(netlistEngine == null) return new LogicEngine(startingComps).doLogic();
+		return netlistEngine.run(startingComps, full);
+	}
+
+	/**
+	 * Combines the results of two logic processes that were run for the same batch
+	 * @param result The result so far, or null if no process has been run
+	 * @param next The result of the next process
+	 * @return The combined result
+	 */
+	private static SettleResult combine(SettleResult result, SettleResult next) {
+		return result == null ? next : result.combine(next);
+	}
+
+	/**
+	 * Shows the result of a logic process in the CircuitPanel. If the process was stopped, its oscillating components are highlighted and a
+	 * message is displayed. The highlight is cleared once a full process settles
+	 * @param result The result of the logic process, or null if the batch did not need one
+	 */
+	private void report(SettleResult result) {
+		CircuitPanel cp = getCircuitPanel();
+		if(cp == null || result == null) return;
+		if(!result.isSettled()) {
+			SwingUtilities.invokeLater(() -> {
+				cp.setOscillatingComps(result.getOscillatingComps());
+				cp.dispMessage(new UserMessage(cp, "Oscillation detected, the highlighted components never settle", 5000));
+			});
+		}
+		else {
+			for(int i = 0; i < batch.size(); i++) {
+				if(batch.get(i).getType() == LogicRequest.FULL_PROCESS) {
+					SwingUtilities.invokeLater(() -> cp.setOscillatingComps(null));
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the CircuitPanel that displays the circuit this worker runs logic for
+	 * @return The CircuitPanel, or null if there is none
+	 */
+	private CircuitPanel getCircuitPanel() {
+		if(netlistEngine == null) return null;
+		return netlistEngine.getCircuitPanel();
+	}
+
+	/**
+	 * Sets the number of milliseconds to wait for more requests after a request arrives before starting a logic process. A longer window
+	 * folds more requests together but delays every process, and a window of 0 only folds requests that are already waiting
+	 * @param coalesceWindow The coalescing window in milliseconds
+	 */
+	public void setCoalesceWindow(int coalesceWindow) {
+		this.coalesceWindow = Math.max(0, coalesceWindow);
+	}
+
+	/**
+	 * Returns the number of requests that are waiting for a logic process
+	 * @return The number of waiting requests
+	 */
+	public int getQueueDepth() {
+		return requests.size();
+	}
+
+	/**
+	 * Returns the number of logic processes this worker has run
+	 * @return The number of processes
+	 */
+	public long getNumProcesses() {
+		return numProcesses;
+	}
+
+	/**
+	 * Returns the number of requests that were folded into a logic process started by another request
+	 * @return The number of folded requests
+	 */
+	public long getFoldedRequests() {
+		return foldedRequests;
+	}
+
+	/**
+	 * Requests a logic process that updates all components influenced by the given component
+	 * @param lcomp The component to start with
 	 */
 	public static void startLogic(LComponent lcomp) {
-		LogicWorker worker = new LogicWorker(lcomp);
-		worker.execute();
+		//Currently used by Button.clickAction, Button.notification, Switch.clickAction, WireBuilder.startWire,
+		//WireBuilder.endWire, WireEditor.deleteWire, Custom.start(), MemoryViewer.load()
+		NetlistEngine netlistEngine = lcomp.getNetlistEngine();
+		if(netlistEngine == null) getDetachedWorker().submit(new LogicRequest(lcomp));
+		else netlistEngine.getWorker().submit(new LogicRequest(lcomp));
 	}
-	
+
 	/**
-	 * Creates a new logic worker as specified by new LogicWorker(CircuitPanel)
-	 * @param cp The CircuitPanel to pass to the constructor
+	 * Requests a logic process that is guaranteed to bring the circuit to a logically consistent state. This is done by starting with all
+	 * components that either have open input connections or 0 input connections
+	 * @param cp The CircuitPanel
 	 */
 	public static void startLogic(CircuitPanel cp) {
-		LogicWorker worker = new LogicWorker(cp);
-		worker.execute();
+		//Currently used by CircuitState.revertState, LMenuBar
+		cp.getNetlistEngine().getWorker().submit(new LogicRequest());
+	}
+
+	/**
+	 * Requests a logic process that brings the region of the circuit affected by an edit to a logically consistent state. The process starts
+	 * with only the given components, so the rest of the circuit, which the edit did not change, is not visited
+	 * @param cp The CircuitPanel
+	 * @param region The components affected by the edit, such as components that were added or components that lost an input
+	 */
+	public static void startLogic(CircuitPanel cp, List<LComponent> region) {
+		//Currently used by Selection.deleteComponents, Clipboard.paste
+		if(region.isEmpty()) return;
+		cp.getNetlistEngine().getWorker().submit(new LogicRequest(region));
+	}
+
+	/**
+	 * Runs a change to the signals of a circuit on the circuit's worker, in order with its logic processes. Anything that writes signals
+	 * outside of a logic process (such as restoring a saved state) should be sent through here instead of being run on the event dispatch
+	 * thread. The worker compiles the netlist before the task runs, so the task sees the current netlist
+	 * @param cp The CircuitPanel
+	 * @param task The change to make
+	 */
+	public static void startTask(CircuitPanel cp, Runnable task) {
+		//Currently used by LMenuBar.stepBack, LMenuBar.setRecording, LMenuBar.exportTiming, LMenuBar (Gate delays, Iterative, Levelized, Keep history)
+		cp.getNetlistEngine().getWorker().submit(new LogicRequest(task, new ArrayList<LComponent>()));
+	}
+
+	/**
+	 * Runs a change to the signals of the circuit that contains the given component on that circuit's worker, or on the worker for
+	 * detached components if the component has not been added to a circuit. A detached component has no netlist, so the task must not
+	 * depend on one (for example, a task that only updates the inner components of a Custom component)
+	 * @param lcomp The component
+	 * @param task The change to make
+	 */
+	public static void startTask(LComponent lcomp, Runnable task) {
+		//Currently used by CustomViewer.view, MemoryViewer.load
+		NetlistEngine netlistEngine = lcomp.getNetlistEngine();
+		LogicWorker worker = netlistEngine == null ? getDetachedWorker() : netlistEngine.getWorker();
+		worker.submit(new LogicRequest(task, new ArrayList<LComponent>()));
+	}
+
+	/**
+	 * Returns the worker for components that have not been added to a circuit, creating it if necessary
+	 * @return The detached worker
+	 */
+	private static synchronized LogicWorker getDetachedWorker() {
+		if(detachedWorker == null) detachedWorker = new LogicWorker(null);
+		return detachedWorker;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,867 @@
+package com.logic.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import com.logic.components.BasicGate;
+import com.logic.components.Clock;
+import com.logic.components.CompType;
+import com.logic.components.Connection;
+import com.logic.components.Constant;
+import com.logic.components.Custom;
+import com.logic.components.Display;
+import com.logic.components.IComponent;
+import com.logic.components.IOManager;
+import com.logic.components.LComponent;
+import com.logic.components.Light;
+import com.logic.components.Merger;
+import com.logic.components.Ram;
+import com.logic.components.SComponent;
+import com.logic.components.SequentialComponent;
+import com.logic.components.SingleInputGate;
+import com.logic.components.Splitter;
+import com.logic.util.CustomInput;
+import com.logic.util.CycleFinder;
+
+/**
+ * A flat, integer indexed version of a circuit that is compiled from a list of LComponents. Every component is given an index and an
+ * opcode, and every output connection becomes a net. The inputs of each component and the components that read each net are stored as
+ * compressed (CSR style) arrays, so the NetlistEngine can move through the circuit with array reads instead of following references
+ * through IOManagers, Connections, and Wires. The signal of every net is packed into a long array. A net that is a bus also keeps all of its
+ * bits in a long of its own, and its packed signal is high whenever any of those bits are high, so a change to any number of the bits of a
+ * bus is a single change to a single net.
+ * <p>
+ * Before the fan-out of the nets is built, constants are folded through the gates that read them, so any gate whose output is decided by
+ * constants and open inputs alone (such as an AND gate tied low, or a chain of NOT gates after a constant) becomes a constant itself and
+ * drops out of the event graph.
+ * <p>
+ * A netlist can optionally be flattened, in which case the inner components of every Custom component are compiled into the netlist
+ * alongside the outer components instead of being run by a nested LogicEngine. The Switch behind each input of a flattened Custom
+ * component and the Custom component itself become pass nodes that copy the outer net into the inner circuit and the inner Lights back
+ * out to the outer circuit. The inner wires are still updated when signals are published, so the inside of the component displays
+ * correctly, and the parent of every component is kept so that inner components can be traced back to the top level of the circuit.
+ * @author toddstennes
+ *
+ */
+public class Netlist {
+
+	/**
+	 * Opcodes for the basic gates. Every inverted variant of a gate is given the next opcode, so an odd opcode means the output of the
+	 * gate is inverted
+	 */
+	public static final int OP_AND = 0, OP_NAND = 1, OP_OR = 2, OP_NOR = 3, OP_XOR = 4, OP_XNOR = 5, OP_BUFFER = 6, OP_NOT = 7;
+
+	/**
+	 * Opcodes for components that produce a signal without reading any inputs (switches and buttons, clocks, and constants)
+	 */
+	public static final int OP_INPUT = 8, OP_CLOCK = 9, OP_ZERO = 10, OP_ONE = 11;
+
+	/**
+	 * The opcode for components that only display their inputs (lights and displays). These components are never evaluated
+	 */
+	public static final int OP_SINK = 12;
+
+	/**
+	 * The opcode for any other component (such as a Custom component), which is evaluated by calling its update method
+	 */
+	public static final int OP_COMPONENT = 13;
+
+	/**
+	 * The opcode for the boundaries of a flattened Custom component, which copy the signal of each input to the output with the same
+	 * index
+	 */
+	public static final int OP_PASS = 14;
+
+	/**
+	 * Opcodes for splitters, which copy each bit of a bus to a single bit net, and mergers, which pack single bit nets into a bus
+	 */
+	public static final int OP_SPLIT = 15, OP_MERGE = 16;
+
+	/**
+	 * The value stored in inNets for an input that is not connected to a net (these inputs always read as low)
+	 */
+	public static final int OPEN = -1;
+
+	/**
+	 * The values used while folding constants for a net whose signal is always low or always high
+	 */
+	private static final byte FIXED_LOW = 1, FIXED_HIGH = 2;
+
+	/**
+	 * The components in the netlist, where the index of a component in this array is its index in the netlist
+	 */
+	final LComponent[] comps;
+
+	/**
+	 * The opcode of each component
+	 */
+	final int[] opcodes;
+
+	/**
+	 * The propagation delay of each component, which is used when gate delays are enabled
+	 */
+	final int[] delays;
+
+	/**
+	 * The fan-in of each component. The nets read by component i are inNets[inStart[i]] through inNets[inStart[i + 1] - 1], in the same
+	 * order as the component's input connections
+	 */
+	final int[] inStart, inNets;
+
+	/**
+	 * The outputs of each component. The nets driven by component i are outNets[outStart[i]] through outNets[outStart[i + 1] - 1], in
+	 * the same order as the component's output connections
+	 */
+	final int[] outStart, outNets;
+
+	/**
+	 * The fan-out of each net. The components that read net n are sinks[sinkStart[n]] through sinks[sinkStart[n + 1] - 1]. Components
+	 * with the OP_SINK opcode and constants (including gates that were folded into constants) are left out of this list because they never
+	 * need to be evaluated
+	 */
+	final int[] sinkStart, sinks;
+
+	/**
+	 * The components inside of flattened Custom components that a full settle starts with, which are the components with no inputs or at
+	 * least one open input (see isSource), in order of their index. The sources at the top level of the circuit are kept by a SourceIndex
+	 * instead, since they change with every edit while the inside of a Custom component never changes
+	 */
+	final int[] innerSources;
+
+	/**
+	 * The number of gates that were turned into constants because their outputs can never change (see foldConstants)
+	 */
+	private final int numFolded;
+
+	/**
+	 * The output connection that corresponds to each net, which is used to copy signals back to the wires
+	 */
+	final Connection[] netConnections;
+
+	/**
+	 * The signal of each net, packed 64 nets to a long
+	 */
+	final long[] signals;
+
+	/**
+	 * The bits of each net, where entry n holds the bits of net n if it is a bus. This is null if there are no buses in the circuit
+	 */
+	final long[] busValues;
+
+	/**
+	 * The number of bits carried by each net, or null if there are no buses in the circuit
+	 */
+	final int[] netWidths;
+
+	/**
+	 * The index of the flattened Custom component that contains each component, or -1 for components at the top level of the circuit
+	 */
+	final int[] parents;
+
+	/**
+	 * The components to mark whenever a flattened Custom component is started, which are the SComponents inside of it (at any depth).
+	 * This is null for every other component
+	 */
+	final int[][] seeds;
+
+	/**
+	 * The CustomInput that corresponds to each pass node for the input of a flattened Custom component, or null for every other component
+	 */
+	final CustomInput[] customInputs;
+
+	/**
+	 * Tells whether Custom components were flattened into this netlist
+	 */
+	private boolean flattened;
+
+	/**
+	 * The level of each component, which is null until levelize() is called. Every component reads only from components at lower levels,
+	 * except for components in a loop, which all share the same level
+	 */
+	private int[] levels;
+
+	/**
+	 * The number of levels, which is 0 until levelize() is called
+	 */
+	private int numLevels;
+
+	/**
+	 * Tells whether levelize() found any loops in the circuit
+	 */
+	private boolean loops;
+
+	/**
+	 * Maps each component to its index in the netlist
+	 */
+	private HashMap<LComponent, Integer> index;
+
+	/**
+	 * The output connections inside of Custom components that were not flattened into the netlist (at any depth). Their signals are part
+	 * of the state of the circuit even though they are not nets of the netlist. This is null until buildStateLayout() is called
+	 */
+	private Connection[] hiddenConnections;
+
+	/**
+	 * The switches, buttons, and clocks in the circuit (at any depth), whose internal state is part of the state of the circuit. This is
+	 * null until buildStateLayout() is called
+	 */
+	private LComponent[] statefulComps;
+
+	/**
+	 * The flip-flops, registers, and counters in the circuit (at any depth), whose stored bits and last clock signal are part of the state
+	 * of the circuit. This is null until buildStateLayout() is called
+	 */
+	private SequentialComponent[] sequentialComps;
+
+	/**
+	 * The RAMs in the circuit (at any depth), whose contents are part of the state of the circuit. This is null until buildStateLayout() is
+	 * called
+	 */
+	private Ram[] rams;
+
+	/**
+	 * Compiles the given components into a new Netlist without flattening Custom components
+	 * @param lcomps The components to compile
+	 */
+	public Netlist(List<LComponent> lcomps) {
+		this(lcomps, false);
+	}
+
+	/**
+	 * Compiles the given components into a new Netlist. The initial signal of each net is read from the wires of its connection, so the
+	 * netlist starts out in the same state as the circuit.
+	 * @param lcomps The components to compile
+	 * @param flatten True to compile the inner components of every Custom component into the netlist
+	 */
+	public Netlist(List<LComponent> lcomps, boolean flatten) {
+		flattened = flatten;
+		ArrayList<LComponent> nodes = new ArrayList<LComponent>(lcomps.size());
+		ArrayList<Integer> parentList = new ArrayList<Integer>(lcomps.size());
+		for(int i = 0; i < lcomps.size(); i++) expand(lcomps.get(i), -1, nodes, parentList);
+
+		int numComps = nodes.size();
+		comps = nodes.toArray(new LComponent[0]);
+		opcodes = new int[numComps];
+		delays = new int[numComps];
+		parents = new int[numComps];
+		seeds = new int[numComps][];
+		customInputs = new CustomInput[numComps];
+		index = new HashMap<LComponent, Integer>(numComps * 2);
+		for(int i = 0; i < numComps; i++) {
+			parents[i] = parentList.get(i);
+			index.put(comps[i], i);
+		}
+
+		inStart = new int[numComps + 1];
+		outStart = new int[numComps + 1];
+		for(int i = 0; i < numComps; i++) {
+			LComponent lcomp = comps[i];
+			IOManager io = lcomp.getIO();
+			if(isFlattened(i)) {
+				opcodes[i] = OP_PASS;
+				inStart[i + 1] = inStart[i] + io.getNumOutputs();
+			}
+			else if(isBoundary(i)) {
+				opcodes[i] = OP_PASS;
+				inStart[i + 1] = inStart[i] + 1;
+			}
+			else {
+				opcodes[i] = opcodeOf(lcomp);
+				delays[i] = lcomp.getPropagationDelay();
+				inStart[i + 1] = inStart[i] + io.getNumInputs();
+			}
+			outStart[i + 1] = outStart[i] + io.getNumOutputs();
+		}
+
+		int numNets = outStart[numComps];
+		outNets = new int[numNets];
+		netConnections = new Connection[numNets];
+		signals = new long[(numNets + 63) >> 6];
+		boolean buses = false;
+		for(int i = 0; i < numComps && !buses; i++) {
+			IOManager io = comps[i].getIO();
+			for(int c = 0; c < io.getNumOutputs(); c++) {
+				if(io.connectionAt(c, Connection.OUTPUT).getWidth() > 1) buses = true;
+			}
+		}
+		busValues = buses ? new long[numNets] : null;
+		netWidths = buses ? new int[numNets] : null;
+		for(int i = 0; i < numComps; i++) {
+			IOManager io = comps[i].getIO();
+			for(int c = 0; c < io.getNumOutputs(); c++) {
+				int net = outStart[i] + c;
+				Connection connection = io.connectionAt(c, Connection.OUTPUT);
+				outNets[net] = net;
+				netConnections[net] = connection;
+				if(connection.numWires() > 0 && connection.getWire(0).getSignal()) signals[net >> 6] |= 1L << net;
+				if(buses) {
+					netWidths[net] = connection.getWidth();
+					if(connection.numWires() > 0 && netWidths[net] > 1) busValues[net] = connection.getWire(0).getValue();
+				}
+			}
+		}
+
+		inNets = new int[inStart[numComps]];
+		for(int i = 0; i < numComps; i++) {
+			for(int k = inStart[i]; k < inStart[i + 1]; k++) inNets[k] = findInput(i, k - inStart[i]);
+		}
+		numFolded = foldConstants(numNets);
+
+		int[] sinkCounts = new int[numNets];
+		int[] sourceList = new int[numComps];
+		int numSources = 0;
+		for(int i = 0; i < numComps; i++) {
+			if(parents[i] >= 0 && isSource(i)) sourceList[numSources++] = i;
+			if(opcodes[i] == OP_SINK || isConstant(i)) continue;
+			for(int k = inStart[i]; k < inStart[i + 1]; k++) {
+				if(inNets[k] != OPEN) sinkCounts[inNets[k]]++;
+			}
+		}
+		innerSources = Arrays.copyOf(sourceList, numSources);
+
+		sinkStart = new int[numNets + 1];
+		for(int n = 0; n < numNets; n++) sinkStart[n + 1] = sinkStart[n] + sinkCounts[n];
+		sinks = new int[sinkStart[numNets]];
+		for(int i = 0; i < numComps; i++) {
+			if(opcodes[i] == OP_SINK || isConstant(i)) continue;
+			for(int k = inStart[i]; k < inStart[i + 1]; k++) {
+				int net = inNets[k];
+				if(net != OPEN) sinks[sinkStart[net + 1] - sinkCounts[net]--] = i;
+			}
+		}
+
+		for(int i = 0; i < numComps; i++) {
+			if(isFlattened(i)) seeds[i] = findSeeds(i);
+		}
+	}
+
+	/**
+	 * Finds the gates whose output can never change because of constants and open inputs, and turns them into constants. A Constant
+	 * drives a fixed signal, and an open input always reads as low, so starting from these, every gate whose inputs are all fixed, or that
+	 * has a fixed input that decides its output on its own (a low input to an AND or NAND gate or a high input to an OR or NOR gate), is
+	 * given the opcode OP_ZERO or OP_ONE and its output net becomes fixed as well. This repeats through the circuit one net at a time
+	 * until no more gates can be folded. Only gates are folded, since every other kind of component has state or is evaluated by its own
+	 * update method. Folded gates are left out of the fan-out of the nets they read and out of the sources, so they are never evaluated
+	 * again. When the netlist is compiled, the NetlistEngine finds every constant whose net does not have its signal yet and starts it at
+	 * the beginning of the next logic process, so each of these nets is set once
+	 * @param numNets The number of nets
+	 * @return The number of gates that were folded
+	 */
+	private int foldConstants(int numNets) {
+		int numComps = comps.length;
+		int[] readerStart = new int[numNets + 1];
+		for(int i = 0; i < numComps; i++) {
+			if(opcodes[i] > OP_NOT) continue;
+			for(int k = inStart[i]; k < inStart[i + 1]; k++) {
+				if(inNets[k] != OPEN) readerStart[inNets[k] + 1]++;
+			}
+		}
+		for(int n = 0; n < numNets; n++) readerStart[n + 1] += readerStart[n];
+		int[] readers = new int[readerStart[numNets]];
+		int[] fill = readerStart.clone();
+		for(int i = 0; i < numComps; i++) {
+			if(opcodes[i] > OP_NOT) continue;
+			for(int k = inStart[i]; k < inStart[i + 1]; k++) {
+				if(inNets[k] != OPEN) readers[fill[inNets[k]]++] = i;
+			}
+		}
+
+		byte[] fixed = new byte[numNets];
+		int[] queue = new int[numNets];
+		int head = 0;
+		int tail = 0;
+		int folded = 0;
+		for(int i = 0; i < numComps; i++) {
+			if(isConstant(i) && outStart[i] < outStart[i + 1]) {
+				fixed[outNets[outStart[i]]] = opcodes[i] == OP_ONE ? FIXED_HIGH : FIXED_LOW;
+				queue[tail++] = outNets[outStart[i]];
+			}
+		}
+		for(int i = 0; i < numComps; i++) {
+			if(opcodes[i] <= OP_NOT && fold(i, fixed)) {
+				queue[tail++] = outNets[outStart[i]];
+				folded++;
+			}
+		}
+		while(head < tail) {
+			int net = queue[head++];
+			for(int r = readerStart[net]; r < readerStart[net + 1]; r++) {
+				int gate = readers[r];
+				if(opcodes[gate] <= OP_NOT && fold(gate, fixed)) {
+					queue[tail++] = outNets[outStart[gate]];
+					folded++;
+				}
+			}
+		}
+		return folded;
+	}
+
+	/**
+	 * Turns a gate into a constant if its output is decided by the inputs that are already fixed
+	 * @param gate The index of the gate
+	 * @param fixed The fixed signal of each net (FIXED_LOW or FIXED_HIGH), or 0 if the net is not fixed
+	 * @return True if the gate was folded
+	 */
+	private boolean fold(int gate, byte[] fixed) {
+		int op = opcodes[gate];
+		int base = op & ~1;
+		boolean inverted = (op & 1) == 1;
+		boolean parity = false;
+		boolean allFixed = true;
+		for(int k = inStart[gate]; k < inStart[gate + 1]; k++) {
+			byte input = inNets[k] == OPEN ? FIXED_LOW : fixed[inNets[k]];
+			if(input == 0) {
+				allFixed = false;
+				continue;
+			}
+			boolean high = input == FIXED_HIGH;
+			if(base == OP_AND && !high) return setConstant(gate, inverted, fixed);
+			else if(base == OP_OR && high) return setConstant(gate, !inverted, fixed);
+			parity ^= high;
+		}
+		if(!allFixed) return false;
+		boolean value;
+		if(base == OP_AND) value = true;
+		else if(base == OP_OR) value = false;
+		else value = parity;
+		return setConstant(gate, value != inverted, fixed);
+	}
+
+	/**
+	 * Gives a gate the opcode of a constant and fixes the signal of its output net
+	 * @param gate The index of the gate
+	 * @param value The signal that the gate always outputs
+	 * @param fixed The fixed signal of each net
+	 * @return True
+	 */
+	private boolean setConstant(int gate, boolean value, byte[] fixed) {
+		opcodes[gate] = value ? OP_ONE : OP_ZERO;
+		fixed[outNets[outStart[gate]]] = value ? FIXED_HIGH : FIXED_LOW;
+		return true;
+	}
+
+	/**
+	 * Adds the given component to the list of nodes, followed by all of its inner components if it is a Custom component and the netlist
+	 * is being flattened
+	 * @param lcomp The component
+	 * @param parent The index of the flattened Custom component that contains the component, or -1 if it is at the top level
+	 * @param nodes The list of nodes
+	 * @param parentList The parent of each node in the list of nodes
+	 */
+	private void expand(LComponent lcomp, int parent, ArrayList<LComponent> nodes, ArrayList<Integer> parentList) {
+		int i = nodes.size();
+		nodes.add(lcomp);
+		parentList.add(parent);
+		if(flattened && lcomp instanceof Custom) {
+			ArrayList<LComponent> innerComps = ((Custom) lcomp).getInnerComps();
+			for(int c = 0; c < innerComps.size(); c++) expand(innerComps.get(c), i, nodes, parentList);
+		}
+	}
+
+	/**
+	 * Tells whether the component at the given index is a Custom component whose inner components were flattened into this netlist
+	 * @param comp The index of the component
+	 * @return True if the component is a flattened Custom component
+	 */
+	private boolean isFlattened(int comp) {
+		return flattened && comps[comp] instanceof Custom;
+	}
+
+	/**
+	 * Tells whether the component at the given index is the Switch behind an input of a flattened Custom component, and saves the
+	 * CustomInput for the Switch if it is
+	 * @param comp The index of the component
+	 * @return True if the component is an input boundary of a flattened Custom component
+	 */
+	private boolean isBoundary(int comp) {
+		if(parents[comp] < 0) return false;
+		Custom custom = (Custom) comps[parents[comp]];
+		for(int c = 0; c < custom.getIO().getNumInputs(); c++) {
+			CustomInput input = custom.getInputNode(c);
+			if(input.getSwitch() == comps[comp]) {
+				customInputs[comp] = input;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Finds the net that is read by an input of a component. The inputs of a flattened Custom component are the nets read by the Lights
+	 * behind its outputs, and the input of a boundary Switch is the net connected to the matching input of its Custom component
+	 * @param comp The index of the component
+	 * @param c The index of the input
+	 * @return The index of the net, or OPEN if the input is not connected to a net
+	 */
+	private int findInput(int comp, int c) {
+		if(isFlattened(comp)) {
+			Light light = ((Custom) comps[comp]).getOutputNode(c).getLight();
+			return findDriver(light.getIO().connectionAt(0, Connection.INPUT));
+		}
+		else if(customInputs[comp] != null) {
+			Custom custom = (Custom) comps[parents[comp]];
+			for(int i = 0; i < custom.getIO().getNumInputs(); i++) {
+				if(custom.getInputNode(i) == customInputs[comp]) return findDriver(custom.getIO().connectionAt(i, Connection.INPUT));
+			}
+			return OPEN;
+		}
+		return findDriver(comps[comp].getIO().connectionAt(c, Connection.INPUT));
+	}
+
+	/**
+	 * Finds the SComponents inside of a flattened Custom component, at any depth, that are not Custom components themselves
+	 * @param comp The index of the Custom component
+	 * @return The indexes of the SComponents
+	 */
+	private int[] findSeeds(int comp) {
+		int numSeeds = 0;
+		int[] found = new int[comps.length];
+		for(int i = comp + 1; i < comps.length && isInside(i, comp); i++) {
+			if(comps[i] instanceof SComponent && !(comps[i] instanceof Custom)) found[numSeeds++] = i;
+		}
+		int[] result = new int[numSeeds];
+		System.arraycopy(found, 0, result, 0, numSeeds);
+		return result;
+	}
+
+	/**
+	 * Tells whether a component is contained within a flattened Custom component, at any depth
+	 * @param comp The index of the component
+	 * @param custom The index of the Custom component
+	 * @return True if the component is inside of the Custom component
+	 */
+	private boolean isInside(int comp, int custom) {
+		for(int p = parents[comp]; p >= 0; p = parents[p]) {
+			if(p == custom) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Finds the net that drives the given input connection
+	 * @param input The input connection
+	 * @return The index of the net, or OPEN if the input is open (see Connection.isOpen) or is driven by a component outside of the netlist
+	 */
+	private int findDriver(Connection input) {
+		if(input.isOpen()) return OPEN;
+		Connection source = input.getWire().getSourceConnection();
+		Integer driver = index.get(source.getLcomp());
+		if(driver == null) return OPEN;
+		return outStart[driver] + source.getIndex();
+	}
+
+	/**
+	 * Chooses the opcode for the given component
+	 * @param lcomp The component
+	 * @return The opcode that the NetlistEngine should use to evaluate the component
+	 */
+	private static int opcodeOf(LComponent lcomp) {
+		CompType type = lcomp.getType();
+		if(lcomp instanceof BasicGate || lcomp instanceof SingleInputGate) {
+			if(type == CompType.AND) return OP_AND;
+			else if(type == CompType.NAND) return OP_NAND;
+			else if(type == CompType.OR) return OP_OR;
+			else if(type == CompType.NOR) return OP_NOR;
+			else if(type == CompType.XOR) return OP_XOR;
+			else if(type == CompType.XNOR) return OP_XNOR;
+			else if(type == CompType.BUFFER) return OP_BUFFER;
+			else if(type == CompType.NOT) return OP_NOT;
+		}
+		else if(lcomp instanceof IComponent) return OP_INPUT;
+		else if(lcomp instanceof Clock) return OP_CLOCK;
+		else if(lcomp instanceof Constant) return type == CompType.ONE ? OP_ONE : OP_ZERO;
+		else if(lcomp instanceof Light || lcomp instanceof Display) return OP_SINK;
+		else if(lcomp instanceof Splitter) return OP_SPLIT;
+		else if(lcomp instanceof Merger) return OP_MERGE;
+		return OP_COMPONENT;
+	}
+
+	/**
+	 * Returns the index of the given component in this netlist
+	 * @param lcomp The component
+	 * @return The index of the component, or -1 if the component was not part of the list this netlist was compiled from
+	 */
+	public int indexOf(LComponent lcomp) {
+		Integer i = index.get(lcomp);
+		if(i == null) return -1;
+		return i;
+	}
+
+	/**
+	 * Tells whether the given component should be used as a starting point for a full settle, which is true when the component has no
+	 * inputs or at least one open input. Constants are never sources, since the NetlistEngine starts every constant whose net is out of date
+	 * at the beginning of the first logic process after the netlist is compiled, and the net of a constant never changes after that
+	 * @param comp The index of the component
+	 * @return True if the component is a source
+	 */
+	public boolean isSource(int comp) {
+		if(isConstant(comp)) return false;
+		if(inStart[comp] == inStart[comp + 1]) return true;
+		for(int k = inStart[comp]; k < inStart[comp + 1]; k++) {
+			if(inNets[k] == OPEN) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Tells whether the given component always outputs the same signal, which is true for constants and for gates that were folded into
+	 * constants
+	 * @param comp The index of the component
+	 * @return True if the component has the opcode OP_ZERO or OP_ONE
+	 */
+	public boolean isConstant(int comp) {
+		return opcodes[comp] == OP_ZERO || opcodes[comp] == OP_ONE;
+	}
+
+	/**
+	 * Returns the number of gates that were turned into constants because their outputs can never change
+	 * @return The number of folded gates
+	 */
+	public int getNumFolded() {
+		return numFolded;
+	}
+
+	/**
+	 * Finds the parts of the state of the circuit that are not nets, if they have not been found already. This is done the first time a
+	 * SimulationState is made for this netlist
+	 */
+	synchronized void buildStateLayout() {
+		if(statefulComps != null) return;
+		ArrayList<Connection> hidden = new ArrayList<Connection>();
+		ArrayList<LComponent> stateful = new ArrayList<LComponent>();
+		ArrayList<SequentialComponent> sequential = new ArrayList<SequentialComponent>();
+		for(int i = 0; i < comps.length; i++) {
+			LComponent lcomp = comps[i];
+			if(lcomp instanceof IComponent || lcomp instanceof Clock) stateful.add(lcomp);
+			else if(lcomp instanceof SequentialComponent) sequential.add((SequentialComponent) lcomp);
+			else if(lcomp instanceof Custom && !isFlattened(i)) addInnerState((Custom) lcomp, hidden, stateful, sequential);
+		}
+		hiddenConnections = hidden.toArray(new Connection[0]);
+		sequentialComps = sequential.toArray(new SequentialComponent[0]);
+		statefulComps = stateful.toArray(new LComponent[0]);
+		ArrayList<Ram> ramList = new ArrayList<Ram>();
+		for(int i = 0; i < sequentialComps.length; i++) {
+			if(sequentialComps[i] instanceof Ram) ramList.add((Ram) sequentialComps[i]);
+		}
+		rams = ramList.toArray(new Ram[0]);
+	}
+
+	/**
+	 * Adds the output connections and the stateful components inside of a Custom component that was not flattened to the state layout,
+	 * including those inside of any Custom components that it contains
+	 * @param custom The Custom component
+	 * @param hidden The list of hidden connections
+	 * @param stateful The list of stateful components
+	 * @param sequential The list of flip-flops, registers, and counters
+	 */
+	private static void addInnerState(Custom custom, ArrayList<Connection> hidden, ArrayList<LComponent> stateful,
+			ArrayList<SequentialComponent> sequential) {
+		ArrayList<LComponent> innerComps = custom.getInnerComps();
+		for(int i = 0; i < innerComps.size(); i++) {
+			LComponent lcomp = innerComps.get(i);
+			IOManager io = lcomp.getIO();
+			for(int c = 0; c < io.getNumOutputs(); c++) hidden.add(io.connectionAt(c, Connection.OUTPUT));
+			if(lcomp instanceof IComponent || lcomp instanceof Clock) stateful.add(lcomp);
+			else if(lcomp instanceof SequentialComponent) sequential.add((SequentialComponent) lcomp);
+			else if(lcomp instanceof Custom) addInnerState((Custom) lcomp, hidden, stateful, sequential);
+		}
+	}
+
+	/**
+	 * Returns the output connections inside of Custom components that were not flattened. buildStateLayout() must be called first
+	 * @return The hidden connections
+	 */
+	Connection[] getHiddenConnections() {
+		return hiddenConnections;
+	}
+
+	/**
+	 * Returns the switches, buttons, and clocks in the circuit. buildStateLayout() must be called first
+	 * @return The stateful components
+	 */
+	LComponent[] getStatefulComps() {
+		return statefulComps;
+	}
+
+	/**
+	 * Returns the flip-flops, registers, and counters in the circuit. buildStateLayout() must be called first
+	 * @return The sequential components
+	 */
+	SequentialComponent[] getSequentialComps() {
+		return sequentialComps;
+	}
+
+	/**
+	 * Returns the RAMs in the circuit. buildStateLayout() must be called first
+	 * @return The RAMs
+	 */
+	Ram[] getRams() {
+		return rams;
+	}
+
+	/**
+	 * Returns the signal of the given net
+	 * @param net The index of the net
+	 * @return The signal of the net
+	 */
+	public boolean getSignal(int net) {
+		return (signals[net >> 6] & (1L << net)) != 0;
+	}
+
+	/**
+	 * Tells whether the given net is a bus
+	 * @param net The index of the net
+	 * @return True if the net carries more than one bit
+	 */
+	public boolean isBus(int net) {
+		return netWidths != null && netWidths[net] > 1;
+	}
+
+	/**
+	 * Returns the number of bits carried by the given net
+	 * @param net The index of the net
+	 * @return The width of the net, which is 1 for a single bit net
+	 */
+	public int getNetWidth(int net) {
+		return netWidths != null && netWidths[net] > 1 ? netWidths[net] : 1;
+	}
+
+	/**
+	 * Returns the bits of the given net
+	 * @param net The index of the net
+	 * @return The bits of the net if it is a bus, or 1 or 0 for a single bit net
+	 */
+	public long getValue(int net) {
+		if(isBus(net)) return busValues[net];
+		return getSignal(net) ? 1 : 0;
+	}
+
+	/**
+	 * Assigns a level to every component so that a component is at a higher level than every component it reads from. The loops in the
+	 * circuit are found with CycleFinder and each loop is treated as a single node, so all of the components in a loop share a level and
+	 * the rest of the circuit is levelized around them. The outputs of edge-triggered components (see SequentialComponent.isEdgeTriggered)
+	 * are left out, since they only change after every component on the same clock has sampled its inputs, so flip-flops that feed each
+	 * other share the level of their clock instead of being evaluated one after another. The levels are only computed the first time this
+	 * method is called
+	 * @return The level of each component
+	 */
+	public int[] levelize() {
+		if(levels != null) return levels;
+		int numComps = comps.length;
+		int[][] successors = new int[numComps][];
+		int[] dests = new int[sinks.length];
+		for(int i = 0; i < numComps; i++) {
+			int numDests = 0;
+			if(comps[i] instanceof SequentialComponent && ((SequentialComponent) comps[i]).isEdgeTriggered()) {
+				successors[i] = new int[0];
+				continue;
+			}
+			for(int k = outStart[i]; k < outStart[i + 1]; k++) {
+				int net = outNets[k];
+				for(int s = sinkStart[net]; s < sinkStart[net + 1]; s++) dests[numDests++] = sinks[s];
+			}
+			successors[i] = new int[numDests];
+			System.arraycopy(dests, 0, successors[i], 0, numDests);
+		}
+		int[] components = CycleFinder.findComponents(successors);
+
+		int numComponents = 0;
+		for(int i = 0; i < numComps; i++) numComponents = Math.max(numComponents, components[i] + 1);
+		int[] order = new int[numComps];
+		int[] componentStart = new int[numComponents + 1];
+		for(int i = 0; i < numComps; i++) componentStart[components[i] + 1]++;
+		for(int c = 0; c < numComponents; c++) componentStart[c + 1] += componentStart[c];
+		int[] fill = componentStart.clone();
+		for(int i = 0; i < numComps; i++) order[fill[components[i]]++] = i;
+
+		int[] componentLevels = new int[numComponents];
+		for(int c = numComponents - 1; c >= 0; c--) {
+			for(int o = componentStart[c]; o < componentStart[c + 1]; o++) {
+				int i = order[o];
+				for(int d = 0; d < successors[i].length; d++) {
+					int dest = components[successors[i][d]];
+					if(dest != c) componentLevels[dest] = Math.max(componentLevels[dest], componentLevels[c] + 1);
+					else loops = true;
+				}
+			}
+		}
+		levels = new int[numComps];
+		for(int i = 0; i < numComps; i++) {
+			levels[i] = componentLevels[components[i]];
+			numLevels = Math.max(numLevels, levels[i] + 1);
+		}
+		return levels;
+	}
+
+	/**
+	 * Tells whether the circuit contains any loops. A circuit without loops is fully evaluated by evaluating each component once in order
+	 * of level
+	 * @return True if levelize() found a loop, false if the circuit has no loops or levelize() has not been called
+	 */
+	public boolean hasLoops() {
+		return loops;
+	}
+
+	/**
+	 * Returns the number of levels in this netlist
+	 * @return The number of levels, which is 0 if levelize() has not been called
+	 */
+	public int getNumLevels() {
+		return numLevels;
+	}
+
+	/**
+	 * Returns the index of the flattened Custom component that directly contains the given component
+	 * @param comp The index of the component
+	 * @return The index of the Custom component, or -1 if the component is at the top level of the circuit
+	 */
+	public int getParent(int comp) {
+		return parents[comp];
+	}
+
+	/**
+	 * Returns the component at the top level of the circuit that the given component belongs to, which is the outermost flattened Custom
+	 * component containing it, or the component itself if it is at the top level
+	 * @param comp The index of the component
+	 * @return The top level component
+	 */
+	public LComponent getTopLevelComp(int comp) {
+		while(parents[comp] >= 0) comp = parents[comp];
+		return comps[comp];
+	}
+
+	/**
+	 * Tells whether Custom components were flattened into this netlist
+	 * @return True if the netlist is flattened
+	 */
+	public boolean isFlattened() {
+		return flattened;
+	}
+
+	/**
+	 * Returns the number of components in this netlist
+	 * @return The number of components
+	 */
+	public int getNumComps() {
+		return comps.length;
+	}
+
+	/**
+	 * Returns the number of nets in this netlist
+	 * @return The number of nets
+	 */
+	public int getNumNets() {
+		return netConnections.length;
+	}
+
+	/**
+	 * Returns the component at the given index
+	 * @param comp The index of the component
+	 * @return The component
+	 */
+	public LComponent getComp(int comp) {
+		return comps[comp];
+	}
+}
@@ -0,0 +1,1249 @@
+package com.logic.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import com.logic.components.Clock;
+import com.logic.components.Connection;
+import com.logic.components.IComponent;
+import com.logic.components.IOManager;
+import com.logic.components.LComponent;
+import com.logic.ui.CircuitPanel;
+import com.logic.util.CycleFinder;
+
+/**
+ * An engine that performs the same iterative algorithm as the LogicEngine, but on a compiled Netlist instead of on the LComponents
+ * themselves. There is one NetlistEngine for each circuit, and all of its logic processes are run by its LogicWorker. The netlist is
+ * compiled by the worker the first time it is needed and is recompiled after invalidate() is called, which must happen whenever components
+ * or wires are added or removed. Signals are only copied back to the wires once the circuit has settled, since the wires are only needed for displaying
+ * the circuit. Like the LogicEngine, a process that goes over the iteration or evaluation budget is stopped and its oscillating components
+ * are reported.
+ * <p>
+ * By default the engine is zero-delay, like the LogicEngine. When gate delays are enabled, each change to an output is scheduled on a
+ * TimingWheel for the current simulated time plus the propagation delay of the component, and components are evaluated in order of
+ * simulated time. This shows races and the real settle time of circuits such as ripple-carry adders.
+ * <p>
+ * When flattening is enabled, Custom components are compiled into the netlist along with their inner components (see Netlist), so a
+ * change to an input of a Custom component is propagated through its inner gates directly instead of through a nested LogicEngine.
+ * <p>
+ * When levelizing is enabled, the netlist is levelized (see Netlist.levelize()) and marked components are evaluated one level at a time,
+ * so a component in the acyclic part of the circuit is evaluated at most once per process. The outputs of a level with at least
+ * PARALLEL_THRESHOLD components are computed in parallel on a ForkJoinPool. Loops share a level, which is repeated until it stops changing,
+ * and a process that goes over budget falls back to the iterative scheme so that oscillations are still found.
+ * @author toddstennes
+ *
+ */
+public class NetlistEngine {
+
+	/**
+	 * The list of components that the netlist is compiled from
+	 */
+	private ArrayList<LComponent> lcomps;
+
+	/**
+	 * The CircuitPanel that displays the circuit, which is null if the circuit is not being displayed
+	 */
+	private CircuitPanel cp;
+
+	/**
+	 * The LogicWorker that runs all logic processes for this engine
+	 */
+	private LogicWorker worker;
+
+	/**
+	 * The current netlist, which is null until it is first compiled
+	 */
+	private Netlist netlist;
+
+	/**
+	 * Tells whether the circuit has been edited since the netlist was compiled. This is set without taking the lock of the engine, so the
+	 * event dispatch thread never waits for a logic process to mark the netlist as out of date
+	 */
+	private volatile boolean outOfDate = true;
+
+	/**
+	 * The source components of the circuit, which the CircuitPanel keeps up to date as the circuit is edited
+	 */
+	private SourceIndex sourceIndex = new SourceIndex();
+
+	/**
+	 * The indices of the components that a full settle starts with in the current netlist (see SourceIndex.resolve)
+	 */
+	private int[] sources;
+
+	/**
+	 * The constants in the current netlist whose nets did not have the constant's signal when it was compiled, which are started at the
+	 * beginning of the next logic process (see findStaleConstants)
+	 */
+	private int[] staleConstants;
+
+	/**
+	 * The number of stale constants that have not been started yet
+	 */
+	private int numStaleConstants;
+
+	/**
+	 * The components that will be evaluated on the current iteration and on the next iteration
+	 */
+	private int[] active, next;
+
+	/**
+	 * The number of components in the active and next arrays
+	 */
+	private int activeSize, nextSize;
+
+	/**
+	 * The epoch that each component was last marked for. A component is already marked for the next iteration if its entry is equal to
+	 * the current epoch
+	 */
+	private int[] markEpochs;
+	
+	/**
+	 * The epoch of the next iteration, which is advanced every time the active and next arrays are swapped
+	 */
+	private int epoch;
+	
+	/**
+	 * The number of iterations a logic process can run for before it is checked for oscillation (see LogicEngine)
+	 */
+	private int maxIterations = LogicEngine.DEFAULT_MAX_ITERATIONS;
+
+	/**
+	 * The number of component evaluations a logic process can perform before it is checked for oscillation
+	 */
+	private long maxEvaluations = LogicEngine.DEFAULT_MAX_EVALUATIONS;
+
+	/**
+	 * The number of iterations run during the current logic process
+	 */
+	private int iterations;
+
+	/**
+	 * The number of component evaluations performed during the current logic process
+	 */
+	private long evaluations;
+
+	/**
+	 * The number of redundant evaluations that were avoided during the last logic process
+	 */
+	private int redundantMarks;
+	
+	/**
+	 * Tells whether gate delays are enabled
+	 */
+	private boolean gateDelays;
+
+	/**
+	 * Tells whether Custom components are flattened into the netlist
+	 */
+	private volatile boolean flatten;
+
+	/**
+	 * Tells whether components are evaluated one level at a time
+	 */
+	private boolean levelized;
+
+	/**
+	 * The number of threads used to compute the outputs of a level
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The pool that computes the outputs of large levels, which is created the first time it is needed
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * The components that are waiting to be evaluated at each level when levelizing is enabled
+	 */
+	private int[][] buckets;
+
+	/**
+	 * The number of components in each bucket
+	 */
+	private int[] bucketSizes;
+
+	/**
+	 * Marks each component that is in a bucket so that it is not added twice
+	 */
+	private boolean[] queued;
+
+	/**
+	 * The outputs computed for each component of the current level when it is computed in parallel
+	 */
+	private boolean[] results;
+
+	/**
+	 * The smallest level that is computed in parallel. Smaller levels are evaluated on the worker thread, since splitting them up would
+	 * cost more than it saves
+	 */
+	public static final int PARALLEL_THRESHOLD = 1024;
+
+	/**
+	 * The event queue used when gate delays are enabled. Each event is the index of a net shifted left by one, plus 1 if the new signal is
+	 * high
+	 */
+	private TimingWheel wheel = new TimingWheel(WHEEL_SLOTS);
+
+	/**
+	 * The signal that each net will have once all of the events on the wheel have been applied, packed like Netlist.signals
+	 */
+	private long[] projected;
+
+	/**
+	 * The simulated time it took for the last logic process to settle when gate delays were enabled
+	 */
+	private long lastSettleTime;
+
+	/**
+	 * The metrics for this engine
+	 */
+	private EngineStats stats;
+
+	/**
+	 * The number of times a net has changed during the current logic process
+	 */
+	private long wireToggles;
+
+	/**
+	 * The recorder that changes to the nets are reported to, or null if signals are not being recorded
+	 */
+	private SignalRecorder recorder;
+
+	/**
+	 * The time given to the recorder for each change. With gate delays enabled, this moves forward with simulated time, and otherwise it
+	 * moves forward by one for every iteration
+	 */
+	private long recordTime;
+
+	/**
+	 * Hands the signals of the nets to the CircuitPanel after every logic process
+	 */
+	private FrameBuffer frames = new FrameBuffer();
+
+	/**
+	 * The states of the circuit after its last few logic processes, or null if they are not being kept
+	 */
+	private RewindBuffer rewind;
+
+	/**
+	 * The number of slots in the timing wheel
+	 */
+	public static final int WHEEL_SLOTS = 1024;
+
+	/**
+	 * The nets that have changed since the wires were last updated
+	 */
+	private int[] dirtyNets;
+
+	/**
+	 * The number of nets in the dirtyNets array
+	 */
+	private int dirtySize;
+
+	/**
+	 * Marks each net that is in the dirtyNets array so that it is not added twice
+	 */
+	private boolean[] dirty;
+
+	/**
+	 * The index of the component whose update method is being called by evaluateComponent
+	 */
+	private int evaluating;
+
+	/**
+	 * The LogicEngine passed to the update method of components that do not have a dedicated opcode. Changes made by these components
+	 * are read back from their output wires, so marks made through this engine can be ignored. A component that defers itself is marked
+	 * for the next iteration of this engine
+	 */
+	private LogicEngine bridge = new LogicEngine(new ArrayList<LComponent>()) {
+		@Override
+		public void mark(LComponent lcomp) { }
+
+		@Override
+		public void defer(LComponent lcomp) {
+			if(netlist.comps[evaluating] == lcomp) NetlistEngine.this.mark(evaluating);
+		}
+	};
+
+	/**
+	 * Constructs a new NetlistEngine for the circuit in the given CircuitPanel
+	 * @param cp The CircuitPanel
+	 */
+	public NetlistEngine(CircuitPanel cp) {
+		this(cp.lcomps);
+		this.cp = cp;
+	}
+
+	/**
+	 * Constructs a new NetlistEngine for a circuit that is not being displayed
+	 * @param lcomps The list of components in the circuit. This list is read again every time the netlist is recompiled
+	 */
+	public NetlistEngine(ArrayList<LComponent> lcomps) {
+		this.lcomps = lcomps;
+		worker = new LogicWorker(this);
+		stats = new EngineStats(this);
+	}
+
+	/**
+	 * Marks the netlist as out of date so that it is recompiled before the next logic process. Call this whenever a component or wire is
+	 * added or removed. This never waits for the lock of the engine, so it is safe to call on the event dispatch thread while a logic
+	 * process is running
+	 */
+	public void invalidate() {
+		outOfDate = true;
+	}
+
+	/**
+	 * Compiles the netlist if it is out of date. The LogicWorker calls this at the start of every batch while holding the lock of the
+	 * engine, so the event dispatch thread never has to wait for a logic process to finish to get the circuit compiled. An edit that is
+	 * made while the netlist is being compiled invalidates it again, and since every edit is followed by a logic request, the netlist is
+	 * compiled again from the finished edit before that request is handled
+	 * @return The current netlist
+	 */
+	public synchronized Netlist compile() {
+		if(netlist == null || outOfDate) {
+			outOfDate = false;
+			netlist = new Netlist(lcomps, flatten);
+			if(cp == null) sourceIndex.rebuild(lcomps);
+			sources = sourceIndex.resolve(netlist);
+			int numComps = netlist.getNumComps();
+			int numNets = netlist.getNumNets();
+			active = new int[Math.max(16, numComps)];
+			next = new int[Math.max(16, numComps)];
+			markEpochs = new int[numComps];
+			epoch = 1;
+			dirtyNets = new int[numNets];
+			dirty = new boolean[numNets];
+			wheel.clear();
+			buckets = null;
+			activeSize = 0;
+			nextSize = 0;
+			dirtySize = 0;
+			findStaleConstants();
+			projected = netlist.signals.clone();
+			if(recorder != null) recorder.attach(netlist);
+		}
+		return netlist;
+	}
+
+	/**
+	 * Finds every constant in the netlist, including the gates that were folded into constants, whose net does not already have the
+	 * constant's signal. Constants are never marked by the nets they read, so these are started at the beginning of the next logic process
+	 * instead. This way compiling never changes a net outside of a logic process (compile is also reached from saveState, restoreState, and
+	 * setRewindDepth), and with gate delays enabled the new signal takes the constant's propagation delay like any other change
+	 */
+	private void findStaleConstants() {
+		int[] stale = new int[netlist.getNumComps()];
+		int numStale = 0;
+		for(int i = 0; i < netlist.getNumComps(); i++) {
+			if(netlist.isConstant(i) && netlist.outStart[i] < netlist.outStart[i + 1]) {
+				boolean signal = netlist.getSignal(netlist.outNets[netlist.outStart[i]]);
+				if(signal != (netlist.opcodes[i] == Netlist.OP_ONE)) stale[numStale++] = i;
+			}
+		}
+		staleConstants = Arrays.copyOf(stale, numStale);
+		numStaleConstants = numStale;
+	}
+
+	/**
+	 * Updates all components that are influenced by the given component. If the component is not part of the netlist (for example, if it
+	 * has been deleted), a regular LogicEngine is run on the component instead
+	 * @param lcomp The component to start with
+	 * @return The result of the logic process
+	 */
+	public SettleResult propagate(LComponent lcomp) {
+		ArrayList<LComponent> startingComps = new ArrayList<LComponent>();
+		startingComps.add(lcomp);
+		return run(startingComps, false);
+	}
+
+	/**
+	 * Brings the entire circuit to a logically consistent state by starting with every component that has no inputs or at least one open
+	 * input
+	 * @return The result of the logic process
+	 */
+	public SettleResult settleAll() {
+		return run(new ArrayList<LComponent>(), true);
+	}
+
+	/**
+	 * Runs a single logic process that starts with all of the given components, and with every source component if full is true. Components
+	 * that are not part of the netlist are run on a regular LogicEngine once the netlist has settled
+	 * @param startingComps The components to start with
+	 * @param full True to bring the entire circuit to a logically consistent state
+	 * @return The result of the logic process
+	 */
+	public synchronized SettleResult run(ArrayList<LComponent> startingComps, boolean full) {
+		long startTime = System.nanoTime();
+		compile();
+		redundantMarks = 0;
+		wireToggles = 0;
+		for(int i = 0; i < numStaleConstants; i++) mark(staleConstants[i]);
+		numStaleConstants = 0;
+		if(full) {
+			for(int i = 0; i < sources.length; i++) mark(sources[i]);
+		}
+		ArrayList<LComponent> detachedComps = new ArrayList<LComponent>();
+		for(int i = 0; i < startingComps.size(); i++) {
+			int comp = netlist.indexOf(startingComps.get(i));
+			if(comp < 0) detachedComps.add(startingComps.get(i));
+			else start(comp);
+		}
+		SettleResult result = settle();
+		if(detachedComps.size() > 0) {
+			LogicEngine engine = new LogicEngine(detachedComps);
+			engine.setBudget(maxIterations, maxEvaluations);
+			result = result.combine(engine.doLogic());
+			redundantMarks += engine.getRedundantMarks();
+		}
+		if(rewind != null) rewind.capture(netlist);
+		stats.recordSettle(result, wireToggles, System.nanoTime() - startTime);
+		return result;
+	}
+
+	/**
+	 * Marks a starting component. Starting a flattened Custom component also marks the SComponents inside of it, in the same way that
+	 * Custom.update starts them in a nested LogicEngine
+	 * @param comp The index of the component
+	 */
+	private void start(int comp) {
+		mark(comp);
+		int[] seeds = netlist.seeds[comp];
+		if(seeds != null) {
+			for(int i = 0; i < seeds.length; i++) mark(seeds[i]);
+		}
+	}
+
+	/**
+	 * Evaluates marked components until no more components are marked or the process is found to be oscillating after going over budget,
+	 * then copies the changed signals to the wires
+	 * @return The result of the logic process
+	 */
+	private SettleResult settle() {
+		if(gateDelays) return settleTimed();
+		if(levelized) return settleLevelized();
+		iterations = 0;
+		evaluations = 0;
+		int iterationLimit = maxIterations;
+		long evaluationLimit = maxEvaluations;
+		int traceLength = LogicEngine.TRACE_ITERATIONS;
+		while(nextSize > 0) {
+			if(iterations >= iterationLimit || evaluations >= evaluationLimit) {
+				SettleResult result = check(traceLength);
+				if(result != null) {
+					publish();
+					return result;
+				}
+				iterationLimit = iterations + maxIterations;
+				evaluationLimit = evaluations + maxEvaluations;
+				traceLength = Math.min(traceLength * 2, 1 << 30);
+				continue;
+			}
+			step(null);
+			iterations++;
+		}
+		publish();
+		return new SettleResult(iterations, evaluations);
+	}
+
+	/**
+	 * Evaluates marked components in order of simulated time until there are no more events on the timing wheel or the process is found to
+	 * be oscillating, then copies the changed signals to the wires. Each iteration applies the events for the current time and evaluates the
+	 * components they mark. The time only moves forward once no more events are scheduled for the current time
+	 * @return The result of the logic process
+	 */
+	private SettleResult settleTimed() {
+		iterations = 0;
+		evaluations = 0;
+		int iterationLimit = maxIterations;
+		long evaluationLimit = maxEvaluations;
+		int traceLength = LogicEngine.TRACE_ITERATIONS;
+		long startTime = wheel.getTime();
+		while(nextSize > 0 || !wheel.isEmpty()) {
+			if(iterations >= iterationLimit || evaluations >= evaluationLimit) {
+				SettleResult result = checkTimed(traceLength);
+				if(result != null) {
+					publish();
+					return result;
+				}
+				iterationLimit = iterations + maxIterations;
+				evaluationLimit = evaluations + maxEvaluations;
+				traceLength = Math.min(traceLength * 2, 1 << 30);
+				continue;
+			}
+			if(!wheel.hasCurrent() && nextSize == 0) advanceWheel();
+			stepTimed(null);
+			iterations++;
+		}
+		lastSettleTime = wheel.getTime() - startTime;
+		publish();
+		return new SettleResult(iterations, evaluations);
+	}
+
+	/**
+	 * Evaluates marked components one level at a time, starting from the lowest level with a marked component, until no more components
+	 * are marked. Each level is one iteration, and a level that contains a loop is repeated until it stops changing. Only the repeated levels
+	 * count against the budget, since moving up to a higher level is always progress however deep the circuit is. If the process goes over
+	 * budget, the remaining components are handed to the iterative scheme to be checked for oscillation, and if they are not oscillating,
+	 * they are handed back
+	 * @return The result of the logic process
+	 */
+	private SettleResult settleLevelized() {
+		int[] levels = netlist.levelize();
+		int numLevels = netlist.getNumLevels();
+		if(buckets == null) {
+			buckets = new int[numLevels][16];
+			bucketSizes = new int[numLevels];
+			queued = new boolean[netlist.getNumComps()];
+		}
+		iterations = 0;
+		evaluations = 0;
+		int repeats = 0, lastLevel = -1;
+		long repeatedEvaluations = 0;
+		int traceLength = LogicEngine.TRACE_ITERATIONS;
+		int level = drain(levels, numLevels);
+		while(level < numLevels) {
+			if(bucketSizes[level] == 0) {
+				level++;
+				continue;
+			}
+			if(repeats >= maxIterations || repeatedEvaluations >= maxEvaluations) {
+				for(int l = level; l < numLevels; l++) {
+					for(int i = 0; i < bucketSizes[l]; i++) {
+						queued[buckets[l][i]] = false;
+						mark(buckets[l][i]);
+					}
+					bucketSizes[l] = 0;
+				}
+				SettleResult result = check(traceLength);
+				if(result != null) {
+					publish();
+					return result;
+				}
+				repeats = 0;
+				repeatedEvaluations = 0;
+				lastLevel = -1;
+				traceLength = Math.min(traceLength * 2, 1 << 30);
+				level = drain(levels, numLevels);
+				continue;
+			}
+			if(level <= lastLevel) {
+				repeats++;
+				repeatedEvaluations += bucketSizes[level];
+			}
+			lastLevel = level;
+			int[] temp = active;
+			active = buckets[level];
+			buckets[level] = temp;
+			activeSize = bucketSizes[level];
+			bucketSizes[level] = 0;
+			for(int i = 0; i < activeSize; i++) queued[active[i]] = false;
+			recordTime++;
+			evaluateLevel();
+			evaluations += activeSize;
+			iterations++;
+			level = Math.min(level, drain(levels, numLevels));
+		}
+		publish();
+		return new SettleResult(iterations, evaluations);
+	}
+
+	/**
+	 * Moves every component that has been marked into the bucket for its level
+	 * @param levels The level of each component
+	 * @param numLevels The number of levels
+	 * @return The lowest level that a component was moved to, or numLevels if no components were marked
+	 */
+	private int drain(int[] levels, int numLevels) {
+		int lowest = numLevels;
+		for(int i = 0; i < nextSize; i++) {
+			int comp = next[i];
+			if(queued[comp]) continue;
+			queued[comp] = true;
+			int level = levels[comp];
+			if(bucketSizes[level] == buckets[level].length) buckets[level] = Arrays.copyOf(buckets[level], bucketSizes[level] * 2);
+			buckets[level][bucketSizes[level]++] = comp;
+			lowest = Math.min(lowest, level);
+		}
+		nextSize = 0;
+		advanceEpoch();
+		return lowest;
+	}
+
+	/**
+	 * Evaluates every component in the active array, which all belong to the same level. If there are enough of them, the outputs of the
+	 * gates, inputs, and constants are computed in parallel first and then applied in order, while other components are evaluated on this
+	 * thread. The components in a level never read each other's outputs unless they are part of a loop, in which case the level is
+	 * repeated
+	 */
+	private void evaluateLevel() {
+		if(activeSize < PARALLEL_THRESHOLD || parallelism == 1) {
+			for(int i = 0; i < activeSize; i++) evaluate(active[i]);
+			return;
+		}
+		if(results == null || results.length < activeSize) results = new boolean[active.length];
+		getPool().invoke(new LevelTask(this, active, 0, activeSize));
+		for(int i = 0; i < activeSize; i++) {
+			int comp = active[i];
+			if(netlist.opcodes[comp] < Netlist.OP_SINK) setNet(netlist.outNets[netlist.outStart[comp]], results[i]);
+			else evaluate(comp);
+		}
+	}
+
+	/**
+	 * Computes the outputs of the gates, inputs, and constants in part of a level and stores them in the results array. This is called by
+	 * LevelTasks on the threads of the ForkJoinPool, so it only reads signals
+	 * @param comps The indexes of the components in the level
+	 * @param from The first position in the comps array to compute
+	 * @param to The position after the last position in the comps array to compute
+	 */
+	void computeRange(int[] comps, int from, int to) {
+		for(int i = from; i < to; i++) {
+			int op = netlist.opcodes[comps[i]];
+			if(op < Netlist.OP_SINK) results[i] = compute(comps[i], op);
+		}
+	}
+
+	/**
+	 * Returns the pool used to compute large levels, creating it if necessary
+	 * @return The ForkJoinPool
+	 */
+	private ForkJoinPool getPool() {
+		if(pool == null) pool = new ForkJoinPool(parallelism);
+		return pool;
+	}
+
+	/**
+	 * Runs one iteration in simulated time by applying every event for the current time and then evaluating every marked component
+	 * @param traced If this is not null, every component that is evaluated is recorded in this array
+	 */
+	private void stepTimed(boolean[] traced) {
+		while(wheel.hasCurrent()) {
+			int event = wheel.pop();
+			setNet(event >>> 1, (event & 1) == 1);
+		}
+		step(traced);
+	}
+
+	/**
+	 * Moves the timing wheel to the time of its next event, moving the time given to the recorder forward by the same amount
+	 */
+	private void advanceWheel() {
+		long before = wheel.getTime();
+		wheel.advance();
+		recordTime += wheel.getTime() - before;
+	}
+
+	/**
+	 * Schedules a change to the signal of a net on the timing wheel, unless the net is already going to have that signal
+	 * @param comp The index of the component driving the net
+	 * @param net The index of the net
+	 * @param value The new signal
+	 */
+	private void schedule(int comp, int net, boolean value) {
+		long bit = 1L << net;
+		long word = projected[net >> 6];
+		if(((word & bit) != 0) == value) return;
+		projected[net >> 6] = word ^ bit;
+		wheel.schedule(wheel.getTime() + netlist.delays[comp], value ? (net << 1) | 1 : net << 1);
+	}
+
+	/**
+	 * Runs one iteration by swapping the active and next arrays and evaluating every active component
+	 * @param traced If this is not null, every component that is evaluated is recorded in this array
+	 */
+	private void step(boolean[] traced) {
+		int[] temp = active;
+		active = next;
+		next = temp;
+		activeSize = nextSize;
+		nextSize = 0;
+		advanceEpoch();
+		if(!gateDelays) recordTime++;
+		for(int i = 0; i < activeSize; i++) {
+			if(traced != null) traced[active[i]] = true;
+			evaluate(active[i]);
+		}
+		evaluations += activeSize;
+	}
+
+	/**
+	 * Checks a logic process that has gone over budget. The process is run for up to traceLength more iterations, and the components that
+	 * are evaluated during the second half of them are recorded. If some of them form a loop, the process is stopped and the loop is
+	 * reported as oscillating. Otherwise the process is deep rather than stuck, and it carries on (see LogicEngine.check)
+	 * @param traceLength The number of iterations to trace for
+	 * @return The result of the logic process if it settled or was stopped, or null if it should carry on
+	 */
+	private SettleResult check(int traceLength) {
+		boolean[] traced = new boolean[netlist.getNumComps()];
+		for(int t = 0; t < traceLength && nextSize > 0; t++) {
+			step(t < traceLength / 2 ? null : traced);
+			iterations++;
+		}
+		if(nextSize == 0) return new SettleResult(iterations, evaluations);
+		SettleResult result = findOscillating(traced);
+		if(result == null) return null;
+		nextSize = 0;
+		advanceEpoch();
+		return result;
+	}
+
+	/**
+	 * Checks a logic process that has gone over budget while gate delays are enabled. This works like check(), except that the iterations
+	 * are run in simulated time and any events left on the timing wheel are discarded if the process is stopped
+	 * @param traceLength The number of iterations to trace for
+	 * @return The result of the logic process if it settled or was stopped, or null if it should carry on
+	 */
+	private SettleResult checkTimed(int traceLength) {
+		boolean[] traced = new boolean[netlist.getNumComps()];
+		for(int t = 0; t < traceLength && (nextSize > 0 || !wheel.isEmpty()); t++) {
+			if(!wheel.hasCurrent() && nextSize == 0) advanceWheel();
+			stepTimed(t < traceLength / 2 ? null : traced);
+			iterations++;
+		}
+		if(nextSize == 0 && wheel.isEmpty()) return new SettleResult(iterations, evaluations);
+		SettleResult result = findOscillating(traced);
+		if(result == null) return null;
+		nextSize = 0;
+		advanceEpoch();
+		wheel.clear();
+		System.arraycopy(netlist.signals, 0, projected, 0, projected.length);
+		return result;
+	}
+
+	/**
+	 * Finds the components that form a loop among the components that were evaluated at the end of a trace
+	 * @param traced The components that were evaluated during the second half of the trace
+	 * @return The result of the stopped logic process, or null if none of the components form a loop
+	 */
+	private SettleResult findOscillating(boolean[] traced) {
+		int[] index = new int[traced.length];
+		int numTraced = 0;
+		for(int i = 0; i < traced.length; i++) index[i] = traced[i] ? numTraced++ : -1;
+		int[][] successors = new int[numTraced][];
+		int[] comps = new int[numTraced];
+		int[] dests = new int[netlist.sinks.length];
+		for(int i = 0; i < traced.length; i++) {
+			if(!traced[i]) continue;
+			int numDests = 0;
+			for(int k = netlist.outStart[i]; k < netlist.outStart[i + 1]; k++) {
+				int net = netlist.outNets[k];
+				for(int s = netlist.sinkStart[net]; s < netlist.sinkStart[net + 1]; s++) {
+					int d = index[netlist.sinks[s]];
+					if(d >= 0) dests[numDests++] = d;
+				}
+			}
+			comps[index[i]] = i;
+			successors[index[i]] = Arrays.copyOf(dests, numDests);
+		}
+		boolean[] cyclic = CycleFinder.findCycles(successors);
+		ArrayList<LComponent> oscillatingComps = new ArrayList<LComponent>();
+		for(int i = 0; i < numTraced; i++) {
+			if(!cyclic[i]) continue;
+			LComponent lcomp = netlist.getTopLevelComp(comps[i]);
+			if(!oscillatingComps.contains(lcomp)) oscillatingComps.add(lcomp);
+		}
+		if(oscillatingComps.isEmpty()) return null;
+		return new SettleResult(iterations, evaluations, false, oscillatingComps);
+	}
+
+	/**
+	 * Moves on to the next epoch, which unmarks every component that was marked for the previous epoch
+	 */
+	private void advanceEpoch() {
+		if(++epoch == 0) {
+			Arrays.fill(markEpochs, 0);
+			epoch = 1;
+		}
+	}
+
+	/**
+	 * Marks the given component to be evaluated on the next iteration, unless it has already been marked for the next iteration
+	 * @param comp The index of the component
+	 */
+	private void mark(int comp) {
+		if(markEpochs[comp] == epoch) {
+			redundantMarks++;
+			return;
+		}
+		markEpochs[comp] = epoch;
+		if(nextSize == next.length) next = Arrays.copyOf(next, next.length * 2);
+		next[nextSize++] = comp;
+	}
+
+	/**
+	 * Evaluates the component at the given index and updates its output nets
+	 * @param comp The index of the component
+	 */
+	private void evaluate(int comp) {
+		int op = netlist.opcodes[comp];
+		if(op < Netlist.OP_SINK) drive(comp, netlist.outNets[netlist.outStart[comp]], compute(comp, op));
+		else if(op == Netlist.OP_COMPONENT) evaluateComponent(comp);
+		else if(op == Netlist.OP_PASS) evaluatePass(comp);
+		else if(op == Netlist.OP_SPLIT) evaluateSplit(comp);
+		else if(op == Netlist.OP_MERGE) evaluateMerge(comp);
+	}
+
+	/**
+	 * Computes the output of a gate, input, or constant without changing any signals
+	 * @param comp The index of the component
+	 * @param op The opcode of the component, which must be less than Netlist.OP_SINK
+	 * @return The output of the component
+	 */
+	private boolean compute(int comp, int op) {
+		boolean value;
+		if(op <= Netlist.OP_NOT) {
+			int start = netlist.inStart[comp];
+			int end = netlist.inStart[comp + 1];
+			int bits = 0;
+			for(int k = start; k < end; k++) {
+				if(readInput(k)) bits |= 1 << (k - start);
+			}
+			value = GateKernels.evaluateOpcode(op, bits, end - start);
+		}
+		else if(op == Netlist.OP_INPUT) value = ((IComponent) netlist.comps[comp]).getState();
+		else if(op == Netlist.OP_CLOCK) value = ((Clock) netlist.comps[comp]).isOn();
+		else value = op == Netlist.OP_ONE;
+		return value;
+	}
+
+	/**
+	 * Changes the signal of a net driven by the given component. With gate delays enabled, the change is scheduled for after the
+	 * component's propagation delay, otherwise it happens immediately
+	 * @param comp The index of the component
+	 * @param net The index of the net
+	 * @param value The new signal
+	 */
+	private void drive(int comp, int net, boolean value) {
+		if(gateDelays) schedule(comp, net, value);
+		else setNet(net, value);
+	}
+
+	/**
+	 * Evaluates a component that has no dedicated opcode by copying its input signals to its input wires, calling its update method, and
+	 * reading the results back from its output wires
+	 * @param comp The index of the component
+	 */
+	private void evaluateComponent(int comp) {
+		LComponent lcomp = netlist.comps[comp];
+		IOManager io = lcomp.getIO();
+		int start = netlist.inStart[comp];
+		for(int c = 0; c < netlist.inStart[comp + 1] - start; c++) {
+			int net = netlist.inNets[start + c];
+			Connection input = io.connectionAt(c, Connection.INPUT);
+			if(net == Netlist.OPEN || input.numWires() == 0) continue;
+			if(netlist.isBus(net)) input.getWire().setValue(netlist.busValues[net]);
+			else input.getWire().setSignal(netlist.getSignal(net));
+		}
+		evaluating = comp;
+		lcomp.update(bridge);
+		start = netlist.outStart[comp];
+		for(int c = 0; c < netlist.outStart[comp + 1] - start; c++) {
+			Connection output = io.connectionAt(c, Connection.OUTPUT);
+			if(output.numWires() == 0) continue;
+			int net = netlist.outNets[start + c];
+			if(netlist.isBus(net)) setBus(net, output.getWire(0).getValue());
+			else drive(comp, net, output.getWire(0).getSignal());
+		}
+	}
+
+	/**
+	 * Evaluates a splitter by driving each of its outputs with the bit of the bus at the same index
+	 * @param comp The index of the component
+	 */
+	private void evaluateSplit(int comp) {
+		long value = readBus(netlist.inStart[comp]);
+		int out = netlist.outStart[comp];
+		int numOutputs = netlist.outStart[comp + 1] - out;
+		for(int c = 0; c < numOutputs; c++) drive(comp, netlist.outNets[out + c], ((value >>> c) & 1) == 1);
+	}
+
+	/**
+	 * Evaluates a merger by packing its inputs into the bits of its bus. The whole bus is changed at once, so it is a single change no
+	 * matter how many of its bits are different. Buses are not put on the timing wheel, so a merger has no propagation delay
+	 * @param comp The index of the component
+	 */
+	private void evaluateMerge(int comp) {
+		int start = netlist.inStart[comp];
+		long value = 0;
+		for(int k = start; k < netlist.inStart[comp + 1]; k++) {
+			if(readInput(k)) value |= 1L << (k - start);
+		}
+		setBus(netlist.outNets[netlist.outStart[comp]], value);
+	}
+
+	/**
+	 * Evaluates the boundary of a flattened Custom component by driving each output with the input at the same index. If the boundary is
+	 * the Switch behind an input of the Custom component, the Switch is also given the new state so that it displays correctly
+	 * @param comp The index of the component
+	 */
+	private void evaluatePass(int comp) {
+		int in = netlist.inStart[comp];
+		int out = netlist.outStart[comp];
+		int numOutputs = netlist.outStart[comp + 1] - out;
+		for(int c = 0; c < numOutputs && in + c < netlist.inStart[comp + 1]; c++) {
+			drive(comp, netlist.outNets[out + c], readInput(in + c));
+		}
+		if(netlist.customInputs[comp] != null) netlist.customInputs[comp].setState(readInput(in));
+	}
+
+	/**
+	 * Reads the signal of the net connected to an input
+	 * @param k The position of the input in the inNets array
+	 * @return The signal of the input, which is low if the input is open
+	 */
+	private boolean readInput(int k) {
+		int net = netlist.inNets[k];
+		return net != Netlist.OPEN && (netlist.signals[net >> 6] & (1L << net)) != 0;
+	}
+
+	/**
+	 * Reads the bits of the bus connected to an input
+	 * @param k The position of the input in the inNets array
+	 * @return The bits of the input, which are all low if the input is open
+	 */
+	private long readBus(int k) {
+		int net = netlist.inNets[k];
+		if(net == Netlist.OPEN) return 0;
+		return netlist.busValues[net];
+	}
+
+	/**
+	 * Sets the signal of a net and marks every component that reads the net if the signal has changed
+	 * @param net The index of the net
+	 * @param value The new signal
+	 */
+	private void setNet(int net, boolean value) {
+		long bit = 1L << net;
+		long word = netlist.signals[net >> 6];
+		if(((word & bit) != 0) == value) return;
+		netlist.signals[net >> 6] = word ^ bit;
+		wireToggles++;
+		if(recorder != null) recorder.record(recordTime, net, value);
+		if(!dirty[net]) {
+			dirty[net] = true;
+			dirtyNets[dirtySize++] = net;
+		}
+		for(int s = netlist.sinkStart[net]; s < netlist.sinkStart[net + 1]; s++) mark(netlist.sinks[s]);
+	}
+
+	/**
+	 * Sets the bits of a bus and marks every component that reads the bus if any of the bits have changed. This counts as one change to
+	 * one net, however many bits are different, and is reported to the recorder with all of the bits. The packed signal of the net follows
+	 * the bits
+	 * @param net The index of the net
+	 * @param value The new bits
+	 */
+	private void setBus(int net, long value) {
+		if(netlist.busValues[net] == value) return;
+		netlist.busValues[net] = value;
+		wireToggles++;
+		long bit = 1L << net;
+		long word = netlist.signals[net >> 6];
+		boolean signal = value != 0;
+		if(((word & bit) != 0) != signal) {
+			netlist.signals[net >> 6] = word ^ bit;
+			if(signal) projected[net >> 6] |= bit;
+			else projected[net >> 6] &= ~bit;
+		}
+		if(recorder != null) recorder.recordBus(recordTime, net, value);
+		if(!dirty[net]) {
+			dirty[net] = true;
+			dirtyNets[dirtySize++] = net;
+		}
+		for(int s = netlist.sinkStart[net]; s < netlist.sinkStart[net + 1]; s++) mark(netlist.sinks[s]);
+	}
+
+	/**
+	 * Copies the signals of all nets that have changed to the wires of their connections, and publishes the signals of every net as a new
+	 * frame for the CircuitPanel to paint from
+	 */
+	private void publish() {
+		for(int i = 0; i < dirtySize; i++) {
+			int net = dirtyNets[i];
+			dirty[net] = false;
+			writeWires(net);
+		}
+		dirtySize = 0;
+		frames.publish(netlist);
+	}
+
+	/**
+	 * Copies the signal of a net, or the bits of a bus, to the wires of its connection
+	 * @param net The index of the net
+	 */
+	private void writeWires(int net) {
+		Connection c = netlist.netConnections[net];
+		if(netlist.isBus(net)) {
+			long value = netlist.busValues[net];
+			for(int w = 0; w < c.numWires(); w++) c.getWire(w).setValue(value);
+		}
+		else {
+			boolean signal = netlist.getSignal(net);
+			for(int w = 0; w < c.numWires(); w++) c.getWire(w).setSignal(signal);
+		}
+	}
+
+	/**
+	 * Returns the number of gates in the current netlist that were folded into constants
+	 * @return The number of folded gates, or 0 if the netlist has not been compiled
+	 */
+	public synchronized int getFoldedGates() {
+		return netlist == null ? 0 : netlist.getNumFolded();
+	}
+
+	/**
+	 * Returns the number of redundant evaluations that were avoided during the last logic process because a component was marked more
+	 * than once in the same iteration
+	 * @return The number of redundant marks
+	 */
+	public synchronized int getRedundantMarks() {
+		return redundantMarks;
+	}
+	
+	/**
+	 * Starts reporting every change to the nets to the given recorder. The recorder is attached to every netlist that is compiled from then
+	 * on, so recording carries on through edits. This should be run on the LogicWorker (see LogicWorker.startTask)
+	 * @param recorder The recorder, or null to stop recording
+	 */
+	public synchronized void setRecorder(SignalRecorder recorder) {
+		this.recorder = recorder;
+		if(recorder != null) recorder.attach(compile());
+	}
+
+	/**
+	 * Returns the recorder that changes to the nets are reported to
+	 * @return The recorder, or null if signals are not being recorded
+	 */
+	public synchronized SignalRecorder getRecorder() {
+		return recorder;
+	}
+
+	/**
+	 * Copies the current state of the circuit into the given snapshot
+	 * @param state The snapshot, which must have been made for the current netlist
+	 * @return True if the state was captured, false if the snapshot was made for an older netlist
+	 */
+	public synchronized boolean saveState(SimulationState state) {
+		if(state.getNetlist() != compile()) return false;
+		state.capture();
+		return true;
+	}
+
+	/**
+	 * Puts the circuit back into the state saved in the given snapshot. Only the wires of nets that differ from the snapshot are written,
+	 * and nothing is allocated, so this is linear in the size of the circuit. Restored nets are reported to the recorder as changes. Since
+	 * this writes signals outside of a logic process, it should be run on the LogicWorker (see LogicWorker.startTask)
+	 * @param state The snapshot
+	 * @return True if the state was restored, false if the snapshot is empty or was made for an older netlist
+	 */
+	public synchronized boolean restoreState(SimulationState state) {
+		if(state.getNetlist() != compile() || !state.isCaptured()) return false;
+		long[] signals = netlist.signals;
+		long[] bits = state.bits;
+		recordTime++;
+		if(state.buses != null) {
+			long[] busValues = netlist.busValues;
+			for(int net = 0; net < busValues.length; net++) {
+				if(busValues[net] == state.buses[net]) continue;
+				busValues[net] = state.buses[net];
+				writeWires(net);
+				if(recorder != null) recorder.recordBus(recordTime, net, busValues[net]);
+			}
+		}
+		for(int w = 0; w < signals.length; w++) {
+			long changed = signals[w] ^ bits[w];
+			signals[w] = bits[w];
+			while(changed != 0) {
+				int net = (w << 6) + Long.numberOfTrailingZeros(changed);
+				changed &= changed - 1;
+				if(netlist.isBus(net)) continue;
+				boolean signal = (bits[w] & (1L << net)) != 0;
+				writeWires(net);
+				if(recorder != null) recorder.record(recordTime, net, signal);
+			}
+		}
+		System.arraycopy(signals, 0, projected, 0, signals.length);
+		state.restoreComponents();
+		frames.publish(netlist);
+		return true;
+	}
+
+	/**
+	 * Starts or stops keeping the states of the circuit after each logic process so that they can be stepped back through. The current
+	 * state is kept as the first state. Like restoreState, this should be run on the LogicWorker, so that the event dispatch thread does not
+	 * wait for a logic process to finish
+	 * @param depth The number of states to keep, or 0 to stop keeping states
+	 */
+	public synchronized void setRewindDepth(int depth) {
+		if(depth <= 0) {
+			rewind = null;
+			return;
+		}
+		rewind = new RewindBuffer(depth);
+		rewind.capture(compile());
+	}
+
+	/**
+	 * Puts the circuit back into the state it was in before the last logic process. This can be repeated to step backward through as many
+	 * processes as the rewind depth allows. Like restoreState, this should be run on the LogicWorker
+	 * @return True if a step was taken, false if states are not being kept or there is no earlier state for the current netlist
+	 */
+	public synchronized boolean stepBack() {
+		if(rewind == null) return false;
+		SimulationState state = rewind.back(compile());
+		if(state == null) return false;
+		return restoreState(state);
+	}
+
+	/**
+	 * Returns the states that are kept for stepping backward
+	 * @return The RewindBuffer, or null if states are not being kept
+	 */
+	public synchronized RewindBuffer getRewindBuffer() {
+		return rewind;
+	}
+
+	/**
+	 * Returns the buffer that the signals of the nets are published to after every logic process
+	 * @return The FrameBuffer
+	 */
+	public FrameBuffer getFrames() {
+		return frames;
+	}
+
+	/**
+	 * Returns the metrics for this engine
+	 * @return The EngineStats
+	 */
+	public EngineStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Returns the LogicWorker that runs all logic processes for this engine
+	 * @return The LogicWorker
+	 */
+	public LogicWorker getWorker() {
+		return worker;
+	}
+	
+	/**
+	 * Sets the budget for logic processes run by this engine
+	 * @param maxIterations The number of iterations a process runs for between checks for oscillation
+	 * @param maxEvaluations The number of component evaluations a process performs between checks for oscillation
+	 */
+	public synchronized void setBudget(int maxIterations, long maxEvaluations) {
+		this.maxIterations = maxIterations;
+		this.maxEvaluations = maxEvaluations;
+	}
+
+	/**
+	 * Enables or disables levelized evaluation. This waits for the logic process that is running, so the user interface should run it on
+	 * the LogicWorker (see LogicWorker.startTask)
+	 * @param levelized True to evaluate components one level at a time, false to use the iterative scheme
+	 */
+	public synchronized void setLevelized(boolean levelized) {
+		this.levelized = levelized;
+	}
+
+	/**
+	 * Tells whether levelized evaluation is enabled
+	 * @return True if components are evaluated one level at a time
+	 */
+	public boolean isLevelized() {
+		return levelized;
+	}
+
+	/**
+	 * Sets the number of threads used to compute large levels when levelized evaluation is enabled
+	 * @param parallelism The number of threads, where 1 evaluates every level on the worker thread
+	 */
+	public synchronized void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+		if(pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Returns the number of threads used to compute large levels
+	 * @return The number of threads
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Enables or disables gate delays. Any events that are still scheduled are discarded. This waits for the logic process that is running,
+	 * so the user interface should run it on the LogicWorker (see LogicWorker.startTask)
+	 * @param gateDelays True to schedule output changes after each component's propagation delay, false for zero-delay simulation
+	 */
+	public synchronized void setGateDelays(boolean gateDelays) {
+		this.gateDelays = gateDelays;
+		wheel.clear();
+		if(netlist != null) System.arraycopy(netlist.signals, 0, projected, 0, projected.length);
+	}
+
+	/**
+	 * Enables or disables flattening of Custom components. The netlist is recompiled before the next logic process
+	 * @param flatten True to compile the inner components of Custom components into the netlist
+	 */
+	public void setFlatten(boolean flatten) {
+		this.flatten = flatten;
+		invalidate();
+	}
+
+	/**
+	 * Tells whether Custom components are flattened into the netlist
+	 * @return True if flattening is enabled
+	 */
+	public boolean isFlattening() {
+		return flatten;
+	}
+
+	/**
+	 * Tells whether gate delays are enabled
+	 * @return True if gate delays are enabled
+	 */
+	public boolean hasGateDelays() {
+		return gateDelays;
+	}
+
+	/**
+	 * Returns the current simulated time, which only moves forward while gate delays are enabled
+	 * @return The simulated time
+	 */
+	public synchronized long getTime() {
+		return wheel.getTime();
+	}
+
+	/**
+	 * Returns the simulated time it took for the last logic process to settle while gate delays were enabled
+	 * @return The settle time
+	 */
+	public synchronized long getLastSettleTime() {
+		return lastSettleTime;
+	}
+
+	/**
+	 * Returns the CircuitPanel that displays the circuit
+	 * @return The CircuitPanel, which is null if the circuit is not being displayed
+	 */
+	public CircuitPanel getCircuitPanel() {
+		return cp;
+	}
+
+	/**
+	 * Returns the index of the source components of the circuit. A CircuitPanel keeps this up to date as components and wires are added
+	 * and removed. For a circuit that is not being displayed, the index is rebuilt from the list of components every time the netlist is
+	 * recompiled, since the list may have been edited directly
+	 * @return The source index
+	 */
+	public SourceIndex getSourceIndex() {
+		return sourceIndex;
+	}
+}
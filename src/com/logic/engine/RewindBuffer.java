@@ -0,0 +1,99 @@
+package com.logic.engine;
+
+/**
+ * Keeps the states of a circuit after its last few logic processes so that a sequential run can be stepped backward. The states are kept
+ * in a ring of SimulationStates that are reused once the ring is full, so capturing a state does not allocate memory after the first
+ * time around the ring, apart from copies of the RAM pages that were written. The ring is emptied whenever the circuit is recompiled, since the old states no longer match its netlist
+ * @author toddstennes
+ *
+ */
+public class RewindBuffer {
+
+	/**
+	 * The number of states that are kept by default
+	 */
+	public static final int DEFAULT_DEPTH = 256;
+
+	/**
+	 * The ring of states, where slots that have not been used yet are null
+	 */
+	private SimulationState[] states;
+
+	/**
+	 * The position of the oldest state in the ring and the number of states in the ring
+	 */
+	private int head, size;
+
+	/**
+	 * Constructs a new, empty RewindBuffer
+	 * @param depth The number of states to keep
+	 */
+	public RewindBuffer(int depth) {
+		states = new SimulationState[Math.max(2, depth)];
+	}
+
+	/**
+	 * Captures the current state of the circuit as the newest state in the ring, replacing the oldest state if the ring is full. This is
+	 * called by the NetlistEngine after every logic process
+	 * @param netlist The current netlist of the engine
+	 */
+	void capture(Netlist netlist) {
+		if(size > 0 && newest().getNetlist() != netlist) clear();
+		int slot;
+		if(size == states.length) {
+			slot = head;
+			head = (head + 1) % states.length;
+		}
+		else {
+			slot = (head + size) % states.length;
+			size++;
+		}
+		if(states[slot] == null || states[slot].getNetlist() != netlist) states[slot] = new SimulationState(netlist);
+		states[slot].capture();
+	}
+
+	/**
+	 * Throws away the newest state and returns the state before it, which becomes the newest state. The returned state is left in the
+	 * ring, since it is the state the circuit will be in once it is restored
+	 * @param netlist The current netlist of the engine
+	 * @return The state to restore, or null if there is no earlier state for this netlist
+	 */
+	SimulationState back(Netlist netlist) {
+		if(size < 2 || newest().getNetlist() != netlist) return null;
+		size--;
+		return newest();
+	}
+
+	/**
+	 * Returns the newest state in the ring
+	 * @return The newest state
+	 */
+	private SimulationState newest() {
+		return states[(head + size - 1) % states.length];
+	}
+
+	/**
+	 * Removes every state from the ring. The snapshots are dropped as well, since they belong to a netlist that is no longer in use
+	 */
+	public void clear() {
+		for(int i = 0; i < states.length; i++) states[i] = null;
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of steps that can be taken backward
+	 * @return The number of states before the newest state
+	 */
+	public int getNumSteps() {
+		return Math.max(0, size - 1);
+	}
+
+	/**
+	 * Returns the number of states that are kept
+	 * @return The depth of the ring
+	 */
+	public int getDepth() {
+		return states.length;
+	}
+}
@@ -0,0 +1,101 @@
+package com.logic.engine;
+
+import java.util.ArrayList;
+
+import com.logic.components.LComponent;
+
+/**
+ * The result of a logic process. A process either settles, meaning that no more components need to be updated, or it is stopped because
+ * it went over the iteration or evaluation budget of its engine and was then found to be oscillating. A stopped process names the components
+ * that were oscillating.
+ * @author toddstennes
+ *
+ */
+public class SettleResult {
+
+	/**
+	 * The number of iterations the process ran for
+	 */
+	private int iterations;
+
+	/**
+	 * The number of times a component was evaluated during the process
+	 */
+	private long evaluations;
+
+	/**
+	 * Tells whether the process settled (as opposed to being stopped)
+	 */
+	private boolean settled;
+
+	/**
+	 * The components that are part of a loop that kept changing when the process was stopped
+	 */
+	private ArrayList<LComponent> oscillatingComps;
+
+	/**
+	 * Constructs a new SettleResult for a process that settled
+	 * @param iterations The number of iterations
+	 * @param evaluations The number of evaluations
+	 */
+	public SettleResult(int iterations, long evaluations) {
+		this(iterations, evaluations, true, new ArrayList<LComponent>());
+	}
+
+	/**
+	 * Constructs a new SettleResult
+	 * @param iterations The number of iterations
+	 * @param evaluations The number of evaluations
+	 * @param settled True if the process settled, false if it was stopped
+	 * @param oscillatingComps The components that were found to be oscillating
+	 */
+	public SettleResult(int iterations, long evaluations, boolean settled, ArrayList<LComponent> oscillatingComps) {
+		this.iterations = iterations;
+		this.evaluations = evaluations;
+		this.settled = settled;
+		this.oscillatingComps = oscillatingComps;
+	}
+
+	/**
+	 * Combines this result with the result of another process that was run at the same time
+	 * @param other The other result
+	 * @return A result that has settled only if both processes settled
+	 */
+	public SettleResult combine(SettleResult other) {
+		ArrayList<LComponent> comps = new ArrayList<LComponent>(oscillatingComps);
+		comps.addAll(other.oscillatingComps);
+		return new SettleResult(Math.max(iterations, other.iterations), evaluations + other.evaluations, settled && other.settled, comps);
+	}
+
+	/**
+	 * Returns the number of iterations the process ran for
+	 * @return The number of iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Returns the number of times a component was evaluated during the process
+	 * @return The number of evaluations
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Tells whether the process settled
+	 * @return True if the process settled, false if it was stopped because it was oscillating
+	 */
+	public boolean isSettled() {
+		return settled;
+	}
+
+	/**
+	 * Returns the components that were found to be oscillating
+	 * @return The oscillating components, which is empty if the process settled
+	 */
+	public ArrayList<LComponent> getOscillatingComps() {
+		return oscillatingComps;
+	}
+}
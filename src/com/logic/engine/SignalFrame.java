@@ -0,0 +1,78 @@
+package com.logic.engine;
+
+import com.logic.components.Connection;
+
+/**
+ * A copy of the signals of every net in a netlist, taken at the end of a logic process. Frames are handed from the thread running logic
+ * to the event dispatch thread by a FrameBuffer, so the circuit can be painted from a frame while the next process is running without
+ * either thread taking a lock. Every frame shows the wires of the circuit as they were between two processes, never part of the way
+ * through one.
+ * <p>
+ * A frame only holds the packed signal of each net, which is all that is needed to paint the wires (a bus is painted as high when any of
+ * its bits are high). The bits of buses and the state kept by components, such as whether a clock or switch is on and the stored bits
+ * and contents of flip-flops, registers, counters, and memories, are not part of a frame. Components paint that state from their own
+ * fields, so it can be up to one logic process ahead of the wires around them
+ * @author toddstennes
+ *
+ */
+public class SignalFrame {
+
+	/**
+	 * The netlist that the signals are from, or null if nothing has been published to this frame yet
+	 */
+	private Netlist netlist;
+
+	/**
+	 * The signal of each net, packed like Netlist.signals
+	 */
+	private long[] signals = new long[0];
+
+	/**
+	 * The number of the process that this frame was published after
+	 */
+	private long epoch;
+
+	/**
+	 * Copies the signals of a netlist into this frame. A new array is only allocated when the number of nets changes
+	 * @param netlist The netlist
+	 * @param epoch The number of the process that just finished
+	 */
+	void copy(Netlist netlist, long epoch) {
+		if(signals.length != netlist.signals.length) signals = new long[netlist.signals.length];
+		System.arraycopy(netlist.signals, 0, signals, 0, signals.length);
+		this.netlist = netlist;
+		this.epoch = epoch;
+	}
+
+	/**
+	 * Returns the signal that an output connection had when this frame was published
+	 * @param output The output connection
+	 * @param fallback The value to return if the connection is not a net of the frame's netlist (for example, if it was added after the
+	 * frame was published)
+	 * @return The signal
+	 */
+	public boolean getSignal(Connection output, boolean fallback) {
+		if(netlist == null || output.getType() != Connection.OUTPUT) return fallback;
+		int comp = netlist.indexOf(output.getLcomp());
+		if(comp < 0) return fallback;
+		int net = netlist.outStart[comp] + output.getIndex();
+		if(net >= netlist.outStart[comp + 1]) return fallback;
+		return (signals[net >> 6] & (1L << net)) != 0;
+	}
+
+	/**
+	 * Returns the netlist that the signals are from
+	 * @return The netlist, or null if nothing has been published to this frame
+	 */
+	public Netlist getNetlist() {
+		return netlist;
+	}
+
+	/**
+	 * Returns the number of the process that this frame was published after
+	 * @return The epoch
+	 */
+	public long getEpoch() {
+		return epoch;
+	}
+}
@@ -0,0 +1,534 @@
+package com.logic.engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import com.logic.components.LComponent;
+
+/**
+ * Records every change to the signals of a netlist's nets while it is attached to a NetlistEngine. Each change is stored as a time, a net,
+ * and a value in a ring buffer made of primitive arrays, so recording never allocates memory. The bits of a bus are kept with each change
+ * to it when the netlist has buses. The size of the buffer is chosen from a memory cap, and once the buffer is full the oldest changes are
+ * overwritten. The value of every net just before the oldest change in the buffer is kept so that the buffer can always be exported as a
+ * complete timing diagram.
+ * <p>
+ * When the engine compiles a new netlist (after an edit, or when flattening or gate delays are turned on or off), the recorder is attached
+ * to the new netlist. The nets of the new netlist are numbered differently, so the buffer is cleared and the selection is carried over by
+ * component. Only nets are recorded, so the signals inside a Custom component are recorded only when the netlist is flattened, and
+ * components that are not part of the netlist are never recorded.
+ * <p>
+ * A recording can also be streamed to a VCD file, in which case the buffer is handed to a VcdStream every time it fills up instead of being
+ * overwritten, and recording carries on in a second buffer while the first is written on the stream's thread. This allows recordings that
+ * are much larger than the buffer without doing any file IO while the engine is waiting to record a change. The engine holds its lock
+ * while it records, so if the stream is still writing the other buffer when this one fills up, the changes in this buffer are dropped and
+ * counted instead of waiting for the stream. A stream ends when the recorder is attached to a new netlist, since the header of the file
+ * names the nets of the old one.
+ * <p>
+ * With gate delays enabled, times are in the engine's simulated time. Otherwise, each iteration of the engine is one unit of time.
+ * @author toddstennes
+ *
+ */
+public class SignalRecorder {
+
+	/**
+	 * The number of bytes used to store each change in a netlist without buses
+	 */
+	public static final int BYTES_PER_CHANGE = 12;
+
+	/**
+	 * The number of bytes used to store each change in a netlist with buses
+	 */
+	public static final int BYTES_PER_BUS_CHANGE = 20;
+
+	/**
+	 * The default memory cap in bytes
+	 */
+	public static final long DEFAULT_MEMORY_CAP = 16 << 20;
+
+	/**
+	 * The netlist being recorded
+	 */
+	private Netlist netlist;
+
+	/**
+	 * The largest number of bytes to use for the buffer
+	 */
+	private long memoryCap;
+
+	/**
+	 * The time of each change in the buffer
+	 */
+	private long[] times;
+
+	/**
+	 * The net and signal of each change in the buffer, stored as (net << 1) | signal
+	 */
+	private int[] changes;
+
+	/**
+	 * The value of each change in the buffer, which is the bits of the net for a bus and 1 or 0 for a single bit net. This is null if the
+	 * netlist has no buses
+	 */
+	private long[] values;
+
+	/**
+	 * The arrays of the second buffer, which is being written by the stream while the first is filled. These are null if the recording is
+	 * not being streamed
+	 */
+	private long[] otherTimes, otherValues;
+
+	/**
+	 * The nets and signals of the second buffer
+	 */
+	private int[] otherChanges;
+
+	/**
+	 * The position of the oldest change in the buffer and the number of changes in the buffer
+	 */
+	private int head, size;
+
+	/**
+	 * The value of each net before the oldest change in the buffer, packed 64 nets to a long
+	 */
+	private long[] initial;
+
+	/**
+	 * The bits of each bus before the oldest change in the buffer, or null if the netlist has no buses
+	 */
+	private long[] initialBuses;
+
+	/**
+	 * The nets to record, packed 64 nets to a long, or null to record every net
+	 */
+	private long[] recorded;
+
+	/**
+	 * The components whose nets are recorded, which are used to select the same nets again when the recorder is attached to a new
+	 * netlist. This is null if every net is recorded
+	 */
+	private ArrayList<LComponent> selection;
+
+	/**
+	 * The stream that the buffer is handed to, or null if the buffer is overwritten when it fills up
+	 */
+	private VcdStream stream;
+
+	/**
+	 * The error that stopped the stream, if there was one
+	 */
+	private IOException streamError;
+
+	/**
+	 * The total number of changes that have been recorded, including changes that were overwritten or streamed
+	 */
+	private long numRecorded;
+
+	/**
+	 * The number of changes that were dropped since the stream was started because the stream was still writing the other buffer
+	 */
+	private long numDropped;
+
+	/**
+	 * Constructs a new SignalRecorder for the given netlist that records every net. The current signals of the netlist are taken as the
+	 * values at the start of the recording
+	 * @param netlist The netlist
+	 * @param memoryCap The largest number of bytes to use for the buffer
+	 */
+	public SignalRecorder(Netlist netlist, long memoryCap) {
+		this.memoryCap = memoryCap;
+		allocate(netlist);
+	}
+
+	/**
+	 * Makes an empty buffer for the given netlist and takes its current signals as the values at the start of the recording
+	 * @param netlist The netlist
+	 */
+	private void allocate(Netlist netlist) {
+		this.netlist = netlist;
+		initial = netlist.signals.clone();
+		initialBuses = netlist.busValues != null ? netlist.busValues.clone() : null;
+		resize(getFullCapacity());
+	}
+
+	/**
+	 * Replaces the buffer with an empty buffer of the given capacity
+	 * @param capacity The number of changes the buffer can hold
+	 */
+	private void resize(int capacity) {
+		times = new long[capacity];
+		changes = new int[capacity];
+		values = netlist.busValues != null ? new long[capacity] : null;
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of changes that fit in the memory cap, which is the capacity of the buffer unless the recording is being streamed
+	 * @return The number of changes
+	 */
+	private int getFullCapacity() {
+		int bytes = netlist.busValues != null ? BYTES_PER_BUS_CHANGE : BYTES_PER_CHANGE;
+		return (int) Math.max(2, Math.min(Integer.MAX_VALUE - 8, memoryCap / bytes));
+	}
+
+	/**
+	 * Starts recording the given netlist instead of the one being recorded. This is called by the NetlistEngine every time it compiles a
+	 * new netlist. The buffer is cleared, since its changes are numbered by the old netlist, and the nets driven by the selected components
+	 * are selected again. If the recording is being streamed, the rest of the buffer is handed to the stream without waiting and the stream
+	 * is ended
+	 * @param netlist The new netlist
+	 */
+	synchronized void attach(Netlist netlist) {
+		if(netlist == this.netlist) return;
+		if(stream != null) {
+			flush();
+			if(stream != null) {
+				stream.finish();
+				stream = null;
+				otherTimes = null;
+				otherChanges = null;
+				otherValues = null;
+				if(streamError == null) streamError = new IOException("The circuit was changed while streaming, so the file ends at the change");
+			}
+		}
+		allocate(netlist);
+		numRecorded = 0;
+		if(selection != null) mask();
+	}
+
+	/**
+	 * Records only the nets driven by the given components from now on. Changes to other nets that are already in the buffer are kept
+	 * @param lcomps The components
+	 */
+	public synchronized void select(Iterable<LComponent> lcomps) {
+		selection = new ArrayList<LComponent>();
+		for(LComponent lcomp : lcomps) selection.add(lcomp);
+		mask();
+	}
+
+	/**
+	 * Sets the nets to record to the nets driven by the selected components. Selected components that are not part of the netlist are
+	 * skipped
+	 */
+	private void mask() {
+		recorded = new long[initial.length];
+		for(int i = 0; i < selection.size(); i++) {
+			int comp = netlist.indexOf(selection.get(i));
+			if(comp < 0) continue;
+			for(int k = netlist.outStart[comp]; k < netlist.outStart[comp + 1]; k++) {
+				int net = netlist.outNets[k];
+				recorded[net >> 6] |= 1L << net;
+			}
+		}
+	}
+
+	/**
+	 * Records every net from now on
+	 */
+	public synchronized void selectAll() {
+		recorded = null;
+		selection = null;
+	}
+
+	/**
+	 * Records a change to the signal of a single bit net if the net is being recorded. This is called by the NetlistEngine every time a net
+	 * changes
+	 * @param time The time of the change
+	 * @param net The index of the net
+	 * @param value The new signal
+	 */
+	synchronized void record(long time, int net, boolean value) {
+		add(time, net, value ? 1 : 0);
+	}
+
+	/**
+	 * Records a change to the bits of a bus if the bus is being recorded. This is called by the NetlistEngine every time a bus changes
+	 * @param time The time of the change
+	 * @param net The index of the bus
+	 * @param value The new bits
+	 */
+	synchronized void recordBus(long time, int net, long value) {
+		add(time, net, value);
+	}
+
+	/**
+	 * Adds a change to the end of the buffer if the net is being recorded. If the buffer is full, it is handed to the stream, or its oldest
+	 * change is overwritten if the recording is not being streamed
+	 * @param time The time of the change
+	 * @param net The index of the net
+	 * @param value The bits of the net if it is a bus, or 1 or 0 for a single bit net
+	 */
+	private void add(long time, int net, long value) {
+		if(recorded != null && (recorded[net >> 6] & (1L << net)) == 0) return;
+		if(size == times.length && stream != null) flush();
+		if(size == times.length) {
+			apply(head);
+			head = (head + 1) % times.length;
+			size--;
+		}
+		int tail = (head + size) % times.length;
+		times[tail] = time;
+		changes[tail] = value != 0 ? (net << 1) | 1 : net << 1;
+		if(values != null) values[tail] = value;
+		size++;
+		numRecorded++;
+	}
+
+	/**
+	 * Applies a change in the buffer to the values at the start of the recording, once the change is no longer kept in the buffer
+	 * @param k The index of the change in the buffer arrays
+	 */
+	private void apply(int k) {
+		int change = changes[k];
+		int net = change >>> 1;
+		if((change & 1) == 1) initial[net >> 6] |= 1L << net;
+		else initial[net >> 6] &= ~(1L << net);
+		if(initialBuses != null) initialBuses[net] = values[k];
+	}
+
+	/**
+	 * Starts streaming the recording to a VCD file. Everything in the buffer is written to the file, and from then on the buffer is written
+	 * to the file whenever it fills up. The memory cap is split between the two buffers, so while the buffer that was full when the stream
+	 * started is being written, the recording briefly takes up to one and a half times the cap
+	 * @param path The path of the file
+	 * @param timescale The length of one unit of time (for example, "1ns")
+	 * @throws IOException If the file cannot be written
+	 */
+	public synchronized void startStream(String path, String timescale) throws IOException {
+		if(stream != null) return;
+		stream = new VcdStream(new VcdWriter(path, netlist, recorded, initial, initialBuses, timescale));
+		int half = getFullCapacity() / 2;
+		otherTimes = new long[half];
+		otherChanges = new int[half];
+		if(values != null) otherValues = new long[half];
+		streamError = null;
+		numDropped = 0;
+		flush();
+		if(stream != null) {
+			otherTimes = new long[half];
+			otherChanges = new int[half];
+			if(values != null) otherValues = new long[half];
+		}
+	}
+
+	/**
+	 * Tells whether the recording is being streamed to a file
+	 * @return True if there is a stream
+	 */
+	public synchronized boolean isStreaming() {
+		return stream != null;
+	}
+
+	/**
+	 * Hands the buffer to the stream and carries on in the second buffer. This never waits, since the engine may be holding its lock. If
+	 * the stream has not finished writing the buffer that was handed to it before, the changes in this buffer are dropped and counted. If
+	 * the file cannot be written, the stream is ended and the recording goes back to overwriting the buffer
+	 */
+	private void flush() {
+		boolean accepted;
+		try {
+			accepted = stream.offer(times, changes, values, head, size);
+		} catch (IOException e) {
+			streamError = e;
+			stream.finish();
+			stream = null;
+			otherTimes = null;
+			otherChanges = null;
+			otherValues = null;
+			return;
+		}
+		for(int i = 0; i < size; i++) apply((head + i) % times.length);
+		if(!accepted) {
+			numDropped += size;
+			head = 0;
+			size = 0;
+			return;
+		}
+		long[] swapTimes = times;
+		times = otherTimes;
+		otherTimes = swapTimes;
+		int[] swapChanges = changes;
+		changes = otherChanges;
+		otherChanges = swapChanges;
+		long[] swapValues = values;
+		values = otherValues;
+		otherValues = swapValues;
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Writes the rest of the buffer to the stream and closes the file. The rest of the buffer is copied so that this can wait for the
+	 * stream's thread to finish writing without stopping the engine from recording into the emptied buffer in the meantime, and the buffer
+	 * goes back to taking the whole memory cap. This does file IO, so it should not be called on the event dispatch thread
+	 * @throws IOException If the file could not be written at any point since the stream was started, or if changes were dropped
+	 */
+	public void stopStream() throws IOException {
+		VcdStream closing;
+		long[] restTimes = null, restValues = null;
+		int[] restChanges = null;
+		long dropped;
+		synchronized(this) {
+			closing = stream;
+			if(closing != null) {
+				restTimes = new long[size];
+				restChanges = new int[size];
+				if(values != null) restValues = new long[size];
+				for(int i = 0; i < size; i++) {
+					int k = (head + i) % times.length;
+					restTimes[i] = times[k];
+					restChanges[i] = changes[k];
+					if(values != null) restValues[i] = values[k];
+					apply(k);
+				}
+				resize(getFullCapacity());
+			}
+			stream = null;
+			otherTimes = null;
+			otherChanges = null;
+			otherValues = null;
+			dropped = numDropped;
+			numDropped = 0;
+		}
+		IOException error = null;
+		if(closing != null) {
+			try {
+				closing.write(restTimes, restChanges, restValues, 0, restTimes.length);
+				closing.close();
+			} catch (IOException e) {
+				error = e;
+				closing.finish();
+			}
+		}
+		synchronized(this) {
+			if(error == null) error = streamError;
+			streamError = null;
+		}
+		if(error == null && dropped > 0) error = new IOException(dropped + " changes were left out because the file could not be written fast enough");
+		if(error != null) throw error;
+	}
+
+	/**
+	 * Writes the changes in the buffer to a VCD file, without emptying the buffer. The buffer is copied first so that the engine can keep
+	 * recording while the file is written
+	 * @param path The path of the file
+	 * @param timescale The length of one unit of time (for example, "1ns")
+	 * @throws IOException If the file cannot be written
+	 */
+	public void exportVcd(String path, String timescale) throws IOException {
+		long[] copyTimes, copyValues = null, copyInitial, copyBuses = null, copyRecorded;
+		int[] copyChanges;
+		Netlist copyNetlist;
+		synchronized(this) {
+			copyNetlist = netlist;
+			copyTimes = new long[size];
+			copyChanges = new int[size];
+			if(values != null) copyValues = new long[size];
+			for(int i = 0; i < size; i++) {
+				int k = (head + i) % times.length;
+				copyTimes[i] = times[k];
+				copyChanges[i] = changes[k];
+				if(values != null) copyValues[i] = values[k];
+			}
+			copyInitial = initial.clone();
+			if(initialBuses != null) copyBuses = initialBuses.clone();
+			copyRecorded = recorded;
+		}
+		VcdWriter writer = new VcdWriter(path, copyNetlist, copyRecorded, copyInitial, copyBuses, timescale);
+		try {
+			for(int i = 0; i < copyTimes.length; i++) {
+				writer.write(copyTimes[i], copyChanges[i] >>> 1, copyValues != null ? copyValues[i] : copyChanges[i] & 1);
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Removes every change from the buffer and takes the current signals of the netlist as the values at the start of the recording
+	 */
+	public synchronized void clear() {
+		head = 0;
+		size = 0;
+		numRecorded = 0;
+		System.arraycopy(netlist.signals, 0, initial, 0, initial.length);
+		if(initialBuses != null) System.arraycopy(netlist.busValues, 0, initialBuses, 0, initialBuses.length);
+	}
+
+	/**
+	 * Returns the netlist being recorded, which changes whenever the engine compiles a new netlist
+	 * @return The netlist
+	 */
+	public synchronized Netlist getNetlist() {
+		return netlist;
+	}
+
+	/**
+	 * Returns the number of changes that were dropped since the stream was started because the stream could not keep up
+	 * @return The number of dropped changes
+	 */
+	public synchronized long getNumDropped() {
+		return numDropped;
+	}
+
+	/**
+	 * Returns the number of changes in the buffer
+	 * @return The number of changes
+	 */
+	public synchronized int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of changes that the buffer can hold
+	 * @return The capacity of the buffer
+	 */
+	public synchronized int getCapacity() {
+		return times.length;
+	}
+
+	/**
+	 * Returns the total number of changes that have been recorded since the recorder was created or cleared
+	 * @return The number of changes, including changes that were overwritten or streamed
+	 */
+	public synchronized long getNumRecorded() {
+		return numRecorded;
+	}
+
+	/**
+	 * Returns the time of a change in the buffer
+	 * @param i The position of the change, where 0 is the oldest
+	 * @return The time
+	 */
+	public synchronized long getTime(int i) {
+		return times[(head + i) % times.length];
+	}
+
+	/**
+	 * Returns the net of a change in the buffer
+	 * @param i The position of the change, where 0 is the oldest
+	 * @return The index of the net
+	 */
+	public synchronized int getNet(int i) {
+		return changes[(head + i) % times.length] >>> 1;
+	}
+
+	/**
+	 * Returns the new signal of a change in the buffer
+	 * @param i The position of the change, where 0 is the oldest
+	 * @return The signal, which is true for a bus if any of its bits are set
+	 */
+	public synchronized boolean getValue(int i) {
+		return (changes[(head + i) % times.length] & 1) == 1;
+	}
+
+	/**
+	 * Returns the new bits of a change in the buffer
+	 * @param i The position of the change, where 0 is the oldest
+	 * @return The bits of the net if it is a bus, or 1 or 0 for a single bit net
+	 */
+	public synchronized long getBits(int i) {
+		int k = (head + i) % times.length;
+		return values != null ? values[k] : changes[k] & 1;
+	}
+}
@@ -0,0 +1,226 @@
+package com.logic.engine;
+
+import com.logic.components.Clock;
+import com.logic.components.Connection;
+import com.logic.components.IComponent;
+import com.logic.components.LComponent;
+import com.logic.components.Ram;
+import com.logic.components.SequentialComponent;
+
+/**
+ * A snapshot of the state of a circuit that is packed into a single long array. Every part of the state is given a stable id by the
+ * netlist it was taken from: ids 0 through getNumNets() - 1 are the nets of the netlist, followed by the output connections inside of
+ * Custom components that were not flattened, followed by the internal bit of every switch, button, and clock. Since the nets come first
+ * and are packed the same way as Netlist.signals, they are captured and restored with a single array copy. The bits of buses do not fit
+ * in a single id, so they are kept in separate arrays alongside the packed state, as are the stored bits of flip-flops, registers, and
+ * counters. The contents of every RAM are kept as pages that are shared with the RAM's other snapshots (see Ram.savePage), so only the
+ * pages written since the last capture are copied.
+ * <p>
+ * A SimulationState is made once for a netlist and can then be captured and restored any number of times. Restoring never allocates
+ * memory, and capturing only allocates the copies of the RAM pages that have been written. A snapshot only belongs to the netlist it was
+ * made for, since its ids are the indices of that netlist, so it can no longer be restored once the circuit is edited and recompiled
+ * @author toddstennes
+ *
+ */
+public class SimulationState {
+
+	/**
+	 * The netlist that the ids of this snapshot refer to
+	 */
+	private Netlist netlist;
+
+	/**
+	 * The state of the circuit, packed 64 ids to a long
+	 */
+	final long[] bits;
+
+	/**
+	 * The bits of each bus net, in the same order as Netlist.busValues, or null if the netlist has no buses
+	 */
+	final long[] buses;
+
+	/**
+	 * The bits of each hidden connection that is a bus, in the same order as the hidden connections, or null if none of them are buses
+	 */
+	private long[] hiddenBuses;
+
+	/**
+	 * The stored bits of each flip-flop, register, and counter, in the same order as Netlist.getSequentialComps()
+	 */
+	private long[] registers;
+
+	/**
+	 * The signal of the clock of each flip-flop, register, and counter the last time it was updated
+	 */
+	private boolean[] lastClocks;
+
+	/**
+	 * The RAMs in the circuit (at any depth)
+	 */
+	private Ram[] rams;
+
+	/**
+	 * The saved pages of the contents of each RAM, in the same order as rams
+	 */
+	private byte[][][] pages;
+
+	/**
+	 * The id of the first hidden connection and the id of the first stateful component
+	 */
+	private int hiddenStart, statefulStart;
+
+	/**
+	 * Tells whether a state has been captured into this snapshot
+	 */
+	private boolean captured;
+
+	/**
+	 * Constructs a new, empty SimulationState for the given netlist
+	 * @param netlist The netlist
+	 */
+	public SimulationState(Netlist netlist) {
+		this.netlist = netlist;
+		netlist.buildStateLayout();
+		hiddenStart = netlist.signals.length << 6;
+		statefulStart = hiddenStart + netlist.getHiddenConnections().length;
+		int size = statefulStart + netlist.getStatefulComps().length;
+		bits = new long[(size + 63) >> 6];
+		buses = netlist.busValues == null ? null : new long[netlist.busValues.length];
+		Connection[] hidden = netlist.getHiddenConnections();
+		boolean hasBuses = false;
+		for(int i = 0; i < hidden.length; i++) {
+			if(hidden[i].getWidth() > 1) hasBuses = true;
+		}
+		if(hasBuses) hiddenBuses = new long[hidden.length];
+		registers = new long[netlist.getSequentialComps().length];
+		lastClocks = new boolean[registers.length];
+		rams = netlist.getRams();
+		pages = new byte[rams.length][][];
+		for(int i = 0; i < rams.length; i++) pages[i] = new byte[rams[i].getNumPages()][];
+	}
+
+	/**
+	 * Captures the current state of the circuit. This is called by the NetlistEngine between logic processes, so the wires are not
+	 * changing while they are read
+	 */
+	void capture() {
+		System.arraycopy(netlist.signals, 0, bits, 0, netlist.signals.length);
+		if(buses != null) System.arraycopy(netlist.busValues, 0, buses, 0, buses.length);
+		Connection[] hidden = netlist.getHiddenConnections();
+		for(int i = 0; i < hidden.length; i++) {
+			Connection connection = hidden[i];
+			set(hiddenStart + i, connection.numWires() > 0 && connection.getWire(0).getSignal());
+			if(connection.getWidth() > 1) hiddenBuses[i] = connection.numWires() > 0 ? connection.getWire(0).getValue() : 0;
+		}
+		LComponent[] stateful = netlist.getStatefulComps();
+		for(int i = 0; i < stateful.length; i++) {
+			LComponent lcomp = stateful[i];
+			if(lcomp instanceof Clock) set(statefulStart + i, ((Clock) lcomp).isOn());
+			else set(statefulStart + i, ((IComponent) lcomp).getState());
+		}
+		SequentialComponent[] sequential = netlist.getSequentialComps();
+		for(int i = 0; i < sequential.length; i++) {
+			registers[i] = sequential[i].getState();
+			lastClocks[i] = sequential[i].getLastClock();
+		}
+		for(int i = 0; i < rams.length; i++) {
+			for(int p = 0; p < pages[i].length; p++) pages[i][p] = rams[i].savePage(p);
+		}
+		captured = true;
+	}
+
+	/**
+	 * Restores the hidden connections, the stateful components, the flip-flops, registers, and counters, and the contents of the RAMs of
+	 * the circuit. The nets are restored by the NetlistEngine, which also has to update its own copies of their signals
+	 */
+	void restoreComponents() {
+		Connection[] hidden = netlist.getHiddenConnections();
+		for(int i = 0; i < hidden.length; i++) {
+			Connection connection = hidden[i];
+			boolean signal = get(hiddenStart + i);
+			for(int w = 0; w < connection.numWires(); w++) {
+				if(connection.getWidth() > 1) connection.getWire(w).setValue(hiddenBuses[i]);
+				else connection.getWire(w).setSignal(signal);
+			}
+		}
+		LComponent[] stateful = netlist.getStatefulComps();
+		for(int i = 0; i < stateful.length; i++) {
+			LComponent lcomp = stateful[i];
+			if(lcomp instanceof Clock) ((Clock) lcomp).setOn(get(statefulStart + i));
+			else ((IComponent) lcomp).setState(get(statefulStart + i));
+		}
+		SequentialComponent[] sequential = netlist.getSequentialComps();
+		for(int i = 0; i < sequential.length; i++) {
+			sequential[i].setState(registers[i]);
+			sequential[i].setLastClock(lastClocks[i]);
+		}
+		for(int i = 0; i < rams.length; i++) {
+			for(int p = 0; p < pages[i].length; p++) rams[i].restorePage(p, pages[i][p]);
+		}
+	}
+
+	/**
+	 * Sets the bit with the given id
+	 * @param id The id
+	 * @param value The new value of the bit
+	 */
+	private void set(int id, boolean value) {
+		if(value) bits[id >> 6] |= 1L << id;
+		else bits[id >> 6] &= ~(1L << id);
+	}
+
+	/**
+	 * Returns the bit with the given id
+	 * @param id The id
+	 * @return The value of the bit
+	 */
+	public boolean get(int id) {
+		return (bits[id >> 6] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Returns the saved signal of a net
+	 * @param net The index of the net in the netlist
+	 * @return The signal
+	 */
+	public boolean getSignal(int net) {
+		return get(net);
+	}
+
+	/**
+	 * Returns the id of the internal bit of a switch, button, or clock
+	 * @param lcomp The component
+	 * @return The id, or -1 if the component is not part of the state
+	 */
+	public int idOf(LComponent lcomp) {
+		LComponent[] stateful = netlist.getStatefulComps();
+		for(int i = 0; i < stateful.length; i++) {
+			if(stateful[i] == lcomp) return statefulStart + i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the netlist that this snapshot was made for
+	 * @return The netlist
+	 */
+	public Netlist getNetlist() {
+		return netlist;
+	}
+
+	/**
+	 * Tells whether a state has been captured into this snapshot
+	 * @return True if the snapshot can be restored
+	 */
+	public boolean isCaptured() {
+		return captured;
+	}
+
+	/**
+	 * Returns the number of bits in the snapshot
+	 * @return The number of ids, including the unused ids after the last net
+	 */
+	public int getSize() {
+		return statefulStart + netlist.getStatefulComps().length;
+	}
+}
@@ -0,0 +1,117 @@
+package com.logic.engine;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import com.logic.components.Connection;
+import com.logic.components.IOManager;
+import com.logic.components.LComponent;
+
+/**
+ * Keeps track of the source components of a circuit, which are the components at the top level of the circuit that have no inputs or at
+ * least one open input. A full settle starts with these components. The index is kept up to date as components are added and removed and
+ * as wires are connected to and disconnected from inputs, so finding the sources never requires a scan of the whole circuit
+ * @author toddstennes
+ *
+ */
+public class SourceIndex {
+
+	/**
+	 * The components at the top level of the circuit
+	 */
+	private HashSet<LComponent> comps = new HashSet<LComponent>();
+
+	/**
+	 * The components at the top level of the circuit that are sources
+	 */
+	private HashSet<LComponent> sources = new HashSet<LComponent>();
+
+	/**
+	 * Adds a component to the top level of the circuit
+	 * @param lcomp The component
+	 */
+	public synchronized void add(LComponent lcomp) {
+		comps.add(lcomp);
+		if(isSource(lcomp)) sources.add(lcomp);
+	}
+
+	/**
+	 * Removes a component from the top level of the circuit
+	 * @param lcomp The component
+	 */
+	public synchronized void remove(LComponent lcomp) {
+		comps.remove(lcomp);
+		sources.remove(lcomp);
+	}
+
+	/**
+	 * Checks again whether a component is a source, after a wire has been connected to or disconnected from one of its inputs. Components
+	 * that are not at the top level of the circuit are ignored
+	 * @param lcomp The component
+	 */
+	public synchronized void update(LComponent lcomp) {
+		//Currently used by Connection.initWire, Connection.removeWire
+		if(!comps.contains(lcomp)) return;
+		if(isSource(lcomp)) sources.add(lcomp);
+		else sources.remove(lcomp);
+	}
+
+	/**
+	 * Removes every component from the index
+	 */
+	public synchronized void clear() {
+		comps.clear();
+		sources.clear();
+	}
+
+	/**
+	 * Replaces the contents of the index with the given components. This is only needed for circuits whose list of components is edited
+	 * directly instead of through a CircuitPanel
+	 * @param lcomps The components at the top level of the circuit
+	 */
+	public synchronized void rebuild(List<LComponent> lcomps) {
+		clear();
+		for(int i = 0; i < lcomps.size(); i++) add(lcomps.get(i));
+	}
+
+	/**
+	 * Returns the indices in the given netlist of the components that a full settle starts with. These are the sources in this index that
+	 * are not constants, followed by the sources inside of flattened Custom components, which the netlist finds when it is compiled
+	 * @param netlist The netlist
+	 * @return The indices of the components
+	 */
+	public synchronized int[] resolve(Netlist netlist) {
+		ArrayList<Integer> found = new ArrayList<Integer>(sources.size());
+		for(LComponent lcomp : sources) {
+			int comp = netlist.indexOf(lcomp);
+			if(comp >= 0 && !netlist.isConstant(comp)) found.add(comp);
+		}
+		int[] resolved = new int[found.size() + netlist.innerSources.length];
+		for(int i = 0; i < found.size(); i++) resolved[i] = found.get(i);
+		System.arraycopy(netlist.innerSources, 0, resolved, found.size(), netlist.innerSources.length);
+		return resolved;
+	}
+
+	/**
+	 * Returns the number of sources at the top level of the circuit
+	 * @return The number of sources
+	 */
+	public synchronized int size() {
+		return sources.size();
+	}
+
+	/**
+	 * Tells whether a component has no inputs or at least one open input (see Connection.isOpen)
+	 * @param lcomp The component
+	 * @return True if the component is a source
+	 */
+	public static boolean isSource(LComponent lcomp) {
+		IOManager io = lcomp.getIO();
+		if(io.getNumInputs() == 0) return true;
+		for(int i = 0; i < io.getNumInputs(); i++) {
+			if(io.connectionAt(i, Connection.INPUT).isOpen()) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,192 @@
+package com.logic.engine;
+
+import java.util.Arrays;
+
+/**
+ * An event queue keyed by simulated time, used by the NetlistEngine when gate delays are enabled. The wheel has one slot for each time
+ * in the window [time, time + number of slots), and each slot holds the events for its time in the order they were scheduled, so
+ * scheduling and popping an event are both O(1). Events that are too far in the future for the wheel are kept in an overflow list and
+ * moved into the wheel once the window reaches them. An event is an int chosen by the caller (the NetlistEngine uses the index of a net
+ * and its new signal).
+ * @author toddstennes
+ *
+ */
+public class TimingWheel {
+
+	/**
+	 * The events in each slot. The slot for time t is slots[t & mask]
+	 */
+	private int[][] slots;
+
+	/**
+	 * The number of events in each slot
+	 */
+	private int[] sizes;
+
+	/**
+	 * The number of slots minus one, used to find the slot for a time (the number of slots is always a power of two)
+	 */
+	private int mask;
+
+	/**
+	 * The current simulated time, which is the time of the current slot
+	 */
+	private long time;
+
+	/**
+	 * The index of the next event to pop from the current slot
+	 */
+	private int readIndex;
+
+	/**
+	 * The number of events in the wheel (not including the overflow list)
+	 */
+	private int numEvents;
+
+	/**
+	 * The times and events that are too far in the future to fit in the wheel
+	 */
+	private long[] overflowTimes;
+	private int[] overflowEvents;
+
+	/**
+	 * The number of events in the overflow list
+	 */
+	private int overflowSize;
+
+	/**
+	 * The earliest time in the overflow list, or Long.MAX_VALUE if the list is empty
+	 */
+	private long overflowMin = Long.MAX_VALUE;
+
+	/**
+	 * Constructs a new TimingWheel
+	 * @param numSlots The number of slots, which is rounded up to a power of two. Delays shorter than this never use the overflow list
+	 */
+	public TimingWheel(int numSlots) {
+		int size = Integer.highestOneBit(Math.max(numSlots - 1, 1)) << 1;
+		slots = new int[size][4];
+		sizes = new int[size];
+		mask = size - 1;
+		overflowTimes = new long[16];
+		overflowEvents = new int[16];
+	}
+
+	/**
+	 * Schedules an event. Events scheduled for the current time are popped after the events that are already in the current slot
+	 * @param eventTime The time of the event, which is moved up to the current time if it is in the past
+	 * @param event The event
+	 */
+	public void schedule(long eventTime, int event) {
+		if(eventTime < time) eventTime = time;
+		if(eventTime - time > mask) {
+			if(overflowSize == overflowTimes.length) {
+				overflowTimes = Arrays.copyOf(overflowTimes, overflowSize * 2);
+				overflowEvents = Arrays.copyOf(overflowEvents, overflowSize * 2);
+			}
+			overflowTimes[overflowSize] = eventTime;
+			overflowEvents[overflowSize++] = event;
+			overflowMin = Math.min(overflowMin, eventTime);
+		}
+		else add(eventTime, event);
+	}
+
+	/**
+	 * Adds an event to the slot for its time
+	 * @param eventTime The time of the event, which must be inside the window of the wheel
+	 * @param event The event
+	 */
+	private void add(long eventTime, int event) {
+		int slot = (int) eventTime & mask;
+		int[] events = slots[slot];
+		if(sizes[slot] == events.length) slots[slot] = events = Arrays.copyOf(events, events.length * 2);
+		events[sizes[slot]++] = event;
+		numEvents++;
+	}
+
+	/**
+	 * Tells whether there are events left in the current slot
+	 * @return True if pop() can be called
+	 */
+	public boolean hasCurrent() {
+		return readIndex < sizes[(int) time & mask];
+	}
+
+	/**
+	 * Removes the next event from the current slot
+	 * @return The event
+	 */
+	public int pop() {
+		int slot = (int) time & mask;
+		int event = slots[slot][readIndex++];
+		numEvents--;
+		if(readIndex == sizes[slot]) {
+			sizes[slot] = 0;
+			readIndex = 0;
+		}
+		return event;
+	}
+
+	/**
+	 * Moves the current time forward to the next time that has events. This should only be called once the current slot is empty
+	 * @return The new current time, which is unchanged if there are no more events
+	 */
+	public long advance() {
+		if(numEvents == 0) {
+			if(overflowSize == 0) return time;
+			time = overflowMin;
+			migrate();
+			return time;
+		}
+		do {
+			time++;
+			if(time + mask >= overflowMin) migrate();
+		}
+		while(sizes[(int) time & mask] == 0);
+		return time;
+	}
+
+	/**
+	 * Moves every event in the overflow list that is now inside the window of the wheel into the wheel
+	 */
+	private void migrate() {
+		int kept = 0;
+		overflowMin = Long.MAX_VALUE;
+		for(int i = 0; i < overflowSize; i++) {
+			if(overflowTimes[i] - time <= mask) add(overflowTimes[i], overflowEvents[i]);
+			else {
+				overflowTimes[kept] = overflowTimes[i];
+				overflowEvents[kept++] = overflowEvents[i];
+				overflowMin = Math.min(overflowMin, overflowTimes[i]);
+			}
+		}
+		overflowSize = kept;
+	}
+
+	/**
+	 * Tells whether there are no events left
+	 * @return True if the wheel and the overflow list are both empty
+	 */
+	public boolean isEmpty() {
+		return numEvents == 0 && overflowSize == 0;
+	}
+
+	/**
+	 * Removes all events without changing the current time
+	 */
+	public void clear() {
+		Arrays.fill(sizes, 0);
+		readIndex = 0;
+		numEvents = 0;
+		overflowSize = 0;
+		overflowMin = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the current simulated time
+	 * @return The current time
+	 */
+	public long getTime() {
+		return time;
+	}
+}
@@ -0,0 +1,203 @@
+package com.logic.engine;
+
+import java.lang.reflect.InvocationTargetException;
+
+import javax.swing.SwingUtilities;
+
+import com.logic.ui.CircuitPanel;
+import com.logic.ui.UserMessage;
+
+/**
+ * Runs a circuit's clocks as fast as the engine can go by putting its ClockScheduler in turbo mode and stepping it on a background thread.
+ * The panel is repainted at most FRAME_RATE times per second. Each frame is painted while the thread waits between two steps, so the
+ * frame always shows the circuit as it was at a single instant. The number of cycles of the fastest clock that are simulated per second is
+ * shown in a message at the top of the panel
+ * @author toddstennes
+ *
+ */
+public class TurboRunner implements Runnable {
+
+	/**
+	 * The most times per second that the panel is repainted while running
+	 */
+	public static final int FRAME_RATE = 30;
+
+	/**
+	 * The CircuitPanel that contains the circuit
+	 */
+	private CircuitPanel cp;
+
+	/**
+	 * The scheduler that runs the circuit's clocks
+	 */
+	private ClockScheduler scheduler;
+
+	/**
+	 * The thread that steps the scheduler, or null if the runner is stopped. Each run has its own thread, and a thread only keeps stepping
+	 * while it is still the current one, so a thread left over from a run that was stopped never steps alongside the next run
+	 */
+	private volatile Thread thread;
+
+	/**
+	 * Held by a thread for each step, so a thread left over from a run that was stopped finishes its last step before the next run's
+	 * thread takes its first
+	 */
+	private final Object stepLock = new Object();
+
+	/**
+	 * The virtual time at which to stop, or Long.MAX_VALUE to run until stop() is called
+	 */
+	private long endTime;
+
+	/**
+	 * The message that shows the speed of the simulation
+	 */
+	private UserMessage message;
+
+	/**
+	 * The number of cycles per second that were reached in the last second
+	 */
+	private volatile double cyclesPerSecond;
+
+	/**
+	 * Run on the event dispatch thread every time the runner stops, whether stop() was called or the runner reached its end time, or null
+	 */
+	private Runnable stopListener;
+
+	/**
+	 * Constructs a new TurboRunner for the circuit in the given CircuitPanel
+	 * @param cp The CircuitPanel
+	 */
+	public TurboRunner(CircuitPanel cp) {
+		this.cp = cp;
+		scheduler = cp.getClockScheduler();
+	}
+
+	/**
+	 * Starts running the circuit in turbo mode until stop() is called. This should be called on the event dispatch thread
+	 */
+	public void start() {
+		start(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Starts running the circuit in turbo mode for the given number of cycles of the fastest clock, after which turbo mode is turned off.
+	 * This should be called on the event dispatch thread
+	 * @param cycles The number of cycles
+	 */
+	public void runCycles(long cycles) {
+		start(scheduler.getVirtualTime() + cycles * scheduler.getCycleLength());
+	}
+
+	/**
+	 * Starts the thread if it is not already running
+	 * @param endTime The virtual time at which to stop
+	 */
+	private void start(long endTime) {
+		if(thread != null) return;
+		this.endTime = endTime;
+		scheduler.setTurbo(true);
+		message = new UserMessage(cp, "Turbo");
+		cp.dispMessage(message);
+		Thread started = new Thread(this, "Turbo");
+		started.setDaemon(true);
+		thread = started;
+		started.start();
+	}
+
+	/**
+	 * Stops running the circuit in turbo mode and returns the clocks to the wall clock. This should be called on the event dispatch thread
+	 */
+	public void stop() {
+		Thread stopped = thread;
+		thread = null;
+		if(stopped != null) stopped.interrupt();
+		scheduler.setTurbo(false);
+		cp.clearMessage();
+		cp.repaint();
+		if(stopListener != null) stopListener.run();
+	}
+
+	/**
+	 * Sets what to do every time the runner stops, such as unchecking the menu item that started it. This is run on the event dispatch
+	 * thread, including when the runner stops itself after running for a number of cycles
+	 * @param stopListener The action to run, or null for none
+	 */
+	public void setStopListener(Runnable stopListener) {
+		this.stopListener = stopListener;
+	}
+
+	/**
+	 * Tells whether the circuit is being run in turbo mode
+	 * @return True if the runner is running
+	 */
+	public boolean isRunning() {
+		return thread != null;
+	}
+
+	/**
+	 * Returns the speed of the simulation
+	 * @return The number of cycles of the fastest clock that were simulated in the last second
+	 */
+	public double getCyclesPerSecond() {
+		return cyclesPerSecond;
+	}
+
+	/**
+	 * Steps the scheduler until the end time is reached or stop() is called, painting a frame whenever enough time has passed and updating
+	 * the speed once per second. The thread checks that its run is still the current one before every step
+	 */
+	@Override
+	public void run() {
+		Thread current = Thread.currentThread();
+		long frameLength = 1000000000L / FRAME_RATE;
+		long lastFrame = System.nanoTime(), lastSecond = lastFrame;
+		long startTime = scheduler.getVirtualTime();
+		while(thread == current) {
+			if(scheduler.getNextEdge() > endTime) break;
+			SettleResult result;
+			synchronized(stepLock) {
+				if(thread != current) return;
+				result = scheduler.step();
+			}
+			if(result == null) {
+				try {
+					Thread.sleep(1000 / FRAME_RATE);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+			long now = System.nanoTime();
+			if(now - lastSecond >= 1000000000L) {
+				long cycleLength = scheduler.getCycleLength();
+				long time = scheduler.getVirtualTime();
+				cyclesPerSecond = cycleLength == 0 ? 0 : (double) (time - startTime) / cycleLength * 1e9 / (now - lastSecond);
+				message.setText(String.format("Turbo: %,.0f cycles per second", cyclesPerSecond));
+				startTime = time;
+				lastSecond = now;
+			}
+			if(now - lastFrame >= frameLength) {
+				if(!paintFrame()) return;
+				lastFrame = System.nanoTime();
+			}
+		}
+		SwingUtilities.invokeLater(() -> {
+			if(thread == current) stop();
+		});
+	}
+
+	/**
+	 * Paints the panel on the event dispatch thread and waits for it to finish, so the circuit does not change while it is painted
+	 * @return False if the thread was interrupted while waiting
+	 */
+	private boolean paintFrame() {
+		try {
+			SwingUtilities.invokeAndWait(() -> cp.paintImmediately(cp.getVisibleRect()));
+		} catch (InterruptedException e) {
+			return false;
+		} catch (InvocationTargetException e) {
+			e.getCause().printStackTrace();
+		}
+		return true;
+	}
+}
@@ -0,0 +1,184 @@
+package com.logic.engine;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * Writes the buffers of a SignalRecorder to a VcdWriter on a background thread, so the thread running logic never waits for the file.
+ * The recorder hands over a full buffer and keeps recording into a second one while the first is written. If the recorder fills the
+ * second buffer before the first has been written, the offer is refused rather than making the thread running logic wait for the file
+ * @author toddstennes
+ *
+ */
+public class VcdStream implements Runnable {
+
+	/**
+	 * The writer for the file
+	 */
+	private VcdWriter writer;
+
+	/**
+	 * The thread that writes the buffers
+	 */
+	private Thread thread;
+
+	/**
+	 * The times, nets and signals, and values of the buffer being written (see SignalRecorder)
+	 */
+	private long[] times, values;
+
+	/**
+	 * The nets and signals of the buffer being written
+	 */
+	private int[] changes;
+
+	/**
+	 * The position of the oldest change in the buffer being written and the number of changes in it
+	 */
+	private int head, size;
+
+	/**
+	 * True while a buffer has been handed over and has not been written yet
+	 */
+	private boolean pending;
+
+	/**
+	 * True once close() has been called, and true once the thread has closed the file
+	 */
+	private boolean closing, finished;
+
+	/**
+	 * The error that stopped the writer, if there was one
+	 */
+	private IOException error;
+
+	/**
+	 * Constructs a new VcdStream and starts its thread
+	 * @param writer The writer for the file, whose header has already been written
+	 */
+	public VcdStream(VcdWriter writer) {
+		this.writer = writer;
+		thread = new Thread(this, "VCD writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Hands over a buffer of changes to be written. This waits until the buffer that was handed over before it has been written, so once
+	 * this returns, that earlier buffer can be filled again. The given buffer must not be changed until the next call returns
+	 * @param times The time of each change
+	 * @param changes The net and signal of each change, stored as (net << 1) | signal
+	 * @param values The value of each change, or null if the netlist has no buses
+	 * @param head The position of the oldest change
+	 * @param size The number of changes
+	 * @throws IOException If the file could not be written
+	 */
+	public synchronized void write(long[] times, int[] changes, long[] values, int head, int size) throws IOException {
+		try {
+			while(pending && error == null) wait();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException();
+		}
+		if(error != null) throw error;
+		this.times = times;
+		this.changes = changes;
+		this.values = values;
+		this.head = head;
+		this.size = size;
+		pending = true;
+		notifyAll();
+	}
+
+	/**
+	 * Hands over a buffer of changes to be written if the buffer that was handed over before it has been written, without waiting. The
+	 * given buffer must not be changed until a later offer is accepted
+	 * @param times The time of each change
+	 * @param changes The net and signal of each change, stored as (net << 1) | signal
+	 * @param values The value of each change, or null if the netlist has no buses
+	 * @param head The position of the oldest change
+	 * @param size The number of changes
+	 * @return True if the buffer was handed over, false if the earlier buffer is still being written
+	 * @throws IOException If the file could not be written
+	 */
+	public synchronized boolean offer(long[] times, int[] changes, long[] values, int head, int size) throws IOException {
+		if(error != null) throw error;
+		if(pending) return false;
+		this.times = times;
+		this.changes = changes;
+		this.values = values;
+		this.head = head;
+		this.size = size;
+		pending = true;
+		notifyAll();
+		return true;
+	}
+
+	/**
+	 * Writes each buffer as it is handed over, until the stream is closed and every buffer has been written, and then closes the file
+	 */
+	@Override
+	public void run() {
+		while(true) {
+			synchronized(this) {
+				try {
+					while(!pending && !closing) wait();
+				} catch (InterruptedException e) {
+					break;
+				}
+				if(!pending) break;
+			}
+			try {
+				for(int i = 0; i < size; i++) {
+					int k = (head + i) % times.length;
+					writer.write(times[k], changes[k] >>> 1, values != null ? values[k] : changes[k] & 1);
+				}
+			} catch (IOException e) {
+				fail(e);
+			}
+			synchronized(this) {
+				pending = false;
+				notifyAll();
+			}
+		}
+		try {
+			writer.close();
+		} catch (IOException e) {
+			fail(e);
+		}
+		synchronized(this) {
+			finished = true;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Records the first error that stopped the writer
+	 * @param e The error
+	 */
+	private synchronized void fail(IOException e) {
+		if(error == null) error = e;
+	}
+
+	/**
+	 * Tells the thread to close the file once every buffer that has been handed over is written, without waiting for it
+	 */
+	public synchronized void finish() {
+		closing = true;
+		notifyAll();
+	}
+
+	/**
+	 * Waits for every buffer that has been handed over to be written, and closes the file
+	 * @throws IOException If the file could not be written at any point
+	 */
+	public synchronized void close() throws IOException {
+		closing = true;
+		notifyAll();
+		try {
+			while(!finished) wait();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException();
+		}
+		if(error != null) throw error;
+	}
+}
@@ -0,0 +1,171 @@
+package com.logic.engine;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.HashSet;
+
+import com.logic.components.Connection;
+import com.logic.components.LComponent;
+import com.logic.util.NameConverter;
+
+/**
+ * Writes signal changes to a file in the Value Change Dump (VCD) format, which can be opened by waveform viewers such as GTKWave. Every
+ * net is declared as a wire as wide as the net, named after the component and output that drive it, so a bus is dumped as a vector
+ * with all of its bits. Changes are written as they arrive through a buffered writer, so a recording never has to fit in memory to be
+ * exported
+ * @author toddstennes
+ *
+ */
+public class VcdWriter {
+
+	/**
+	 * The first and last characters that can be used in a VCD identifier code
+	 */
+	private static final char FIRST_CODE = '!', LAST_CODE = '~';
+
+	/**
+	 * The writer for the file
+	 */
+	private BufferedWriter writer;
+
+	/**
+	 * The identifier code of each net, or null for nets that are not recorded
+	 */
+	private String[] codes;
+
+	/**
+	 * The number of bits carried by each net
+	 */
+	private int[] widths;
+
+	/**
+	 * The time of the last change that was written, or -1 if no changes have been written
+	 */
+	private long lastTime = -1;
+
+	/**
+	 * Opens a VCD file and writes its header, which declares the recorded nets of the netlist and gives their values at the start of the
+	 * recording
+	 * @param path The path of the file
+	 * @param netlist The netlist that the recording is from
+	 * @param recorded The nets to declare, packed 64 nets to a long, or null to declare every net
+	 * @param initial The value of each net at the start of the recording, packed 64 nets to a long
+	 * @param initialBuses The bits of each bus at the start of the recording, or null if the netlist has no buses
+	 * @param timescale The length of one unit of time (for example, "1ns")
+	 * @throws IOException If the file cannot be written
+	 */
+	public VcdWriter(String path, Netlist netlist, long[] recorded, long[] initial, long[] initialBuses, String timescale) throws IOException {
+		writer = new BufferedWriter(new FileWriter(path), 1 << 16);
+		int numNets = netlist.getNumNets();
+		codes = new String[numNets];
+		widths = new int[numNets];
+		writer.write("$version Gateway $end\n");
+		writer.write("$timescale " + timescale + " $end\n");
+		writer.write("$scope module circuit $end\n");
+		int numCodes = 0;
+		HashSet<String> names = new HashSet<String>();
+		for(int net = 0; net < numNets; net++) {
+			if(recorded != null && (recorded[net >> 6] & (1L << net)) == 0) continue;
+			codes[net] = code(numCodes++);
+			widths[net] = netlist.getNetWidth(net);
+			String name = netName(netlist, net);
+			if(!names.add(name)) {
+				name += "_" + net;
+				names.add(name);
+			}
+			writer.write("$var wire " + widths[net] + " " + codes[net] + " " + name + " $end\n");
+		}
+		writer.write("$upscope $end\n");
+		writer.write("$enddefinitions $end\n");
+		writer.write("$dumpvars\n");
+		for(int net = 0; net < numNets; net++) {
+			if(codes[net] == null) continue;
+			if(widths[net] > 1) writeValue(net, initialBuses[net]);
+			else writeValue(net, (initial[net >> 6] & (1L << net)) != 0 ? 1 : 0);
+		}
+		writer.write("$end\n");
+	}
+
+	/**
+	 * Writes a change to a net. Changes must be written in order of time
+	 * @param time The time of the change
+	 * @param net The index of the net
+	 * @param value The new bits of the net if it is a bus, or 1 or 0 for a single bit net
+	 * @throws IOException If the file cannot be written
+	 */
+	public void write(long time, int net, long value) throws IOException {
+		if(codes[net] == null) return;
+		if(time != lastTime) {
+			writer.write('#');
+			writer.write(Long.toString(time));
+			writer.write('\n');
+			lastTime = time;
+		}
+		writeValue(net, value);
+	}
+
+	/**
+	 * Writes the value of a net without a time. A bus is written in binary, without the bits above its width
+	 * @param net The index of the net
+	 * @param value The bits of the net if it is a bus, or 1 or 0 for a single bit net
+	 * @throws IOException If the file cannot be written
+	 */
+	private void writeValue(int net, long value) throws IOException {
+		int width = widths[net];
+		if(width > 1) {
+			if(width < 64) value &= (1L << width) - 1;
+			writer.write('b');
+			writer.write(Long.toBinaryString(value));
+			writer.write(' ');
+		}
+		else writer.write(value != 0 ? '1' : '0');
+		writer.write(codes[net]);
+		writer.write('\n');
+	}
+
+	/**
+	 * Finishes the file and closes it
+	 * @throws IOException If the file cannot be written
+	 */
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	/**
+	 * Returns the identifier code for the given number, which is written in base 94 using the printable ASCII characters
+	 * @param n The number
+	 * @return The identifier code
+	 */
+	private static String code(int n) {
+		int base = LAST_CODE - FIRST_CODE + 1;
+		StringBuilder code = new StringBuilder();
+		do {
+			code.append((char) (FIRST_CODE + n % base));
+			n /= base;
+		} while(n > 0);
+		return code.toString();
+	}
+
+	/**
+	 * Returns a name for a net that can be used as a VCD identifier. The name is the name of the component that drives the net (or its
+	 * type and index if it has no name), followed by the index of the output if the component has more than one output. Names are not
+	 * necessarily unique
+	 * @param netlist The netlist
+	 * @param net The index of the net
+	 * @return The name
+	 */
+	private static String netName(Netlist netlist, int net) {
+		LComponent lcomp = netlist.netConnections[net].getLcomp();
+		String name = lcomp.getName();
+		if(name == null || name.trim().isEmpty()) name = NameConverter.nameFromType(lcomp.getType()) + "_" + netlist.indexOf(lcomp);
+		name = name.trim().replaceAll("[^A-Za-z0-9_]", "_");
+		int numOutputs = lcomp.getIO().getNumOutputs();
+		if(numOutputs > 1) {
+			for(int c = 0; c < numOutputs; c++) {
+				if(lcomp.getIO().connectionAt(c, Connection.OUTPUT) == netlist.netConnections[net]) return name + "_" + c;
+			}
+		}
+		return name;
+	}
+}
@@ -0,0 +1,266 @@
+package com.logic.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import com.logic.components.Clock;
+import com.logic.components.Display;
+import com.logic.components.IComponent;
+import com.logic.components.LComponent;
+import com.logic.components.Light;
+
+/**
+ * A bit-parallel engine for testing circuits against many input patterns at once. Every net holds a long instead of a single signal, and
+ * bit l of each long is the signal of the net in lane l, so one pass through the circuit evaluates 64 independent sets of inputs. Gates
+ * are evaluated with bitwise AND, OR, XOR, and NOT on the whole long.
+ * <p>
+ * The engine is compiled from the same components as a circuit, with Custom components flattened (see Netlist), but it never changes the
+ * state of the components or their wires. The lanes of each Switch and Button are set with setInput(...), and any input that is not set
+ * uses its current state in every lane, as do clocks. After run() is called, the lanes of every Light and Display can be read.
+ * @author toddstennes
+ *
+ */
+public class VectorEngine {
+
+	/**
+	 * The number of lanes, which is the number of bits in a long
+	 */
+	public static final int LANES = 64;
+
+	/**
+	 * The largest number of passes run() makes through a circuit that has loops before giving up
+	 */
+	public static final int MAX_PASSES = 1000;
+
+	/**
+	 * The compiled circuit
+	 */
+	private Netlist netlist;
+
+	/**
+	 * The components in the order they are evaluated, which is in order of level
+	 */
+	private int[] order;
+
+	/**
+	 * The lanes of each net
+	 */
+	private long[] values;
+
+	/**
+	 * The lanes of each input component, which override the component's state. An input that has not been given lanes is not in this map
+	 */
+	private HashMap<Integer, Long> inputLanes;
+
+	/**
+	 * The components that display their inputs (Lights and Displays)
+	 */
+	private ArrayList<LComponent> outputComps;
+
+	/**
+	 * Compiles a new VectorEngine from the components of a circuit
+	 * @param lcomps The components of the circuit
+	 * @throws IllegalArgumentException If the circuit contains a component that has no bitwise equivalent
+	 */
+	public VectorEngine(List<LComponent> lcomps) {
+		netlist = new Netlist(lcomps, true);
+		int[] levels = netlist.levelize();
+		int numComps = netlist.getNumComps();
+		int[] levelStart = new int[netlist.getNumLevels() + 1];
+		for(int i = 0; i < numComps; i++) levelStart[levels[i] + 1]++;
+		for(int l = 0; l < netlist.getNumLevels(); l++) levelStart[l + 1] += levelStart[l];
+		order = new int[numComps];
+		outputComps = new ArrayList<LComponent>();
+		for(int i = 0; i < numComps; i++) {
+			int op = netlist.opcodes[i];
+			if(op == Netlist.OP_COMPONENT || op == Netlist.OP_SPLIT || op == Netlist.OP_MERGE) {
+				throw new IllegalArgumentException(netlist.comps[i] + " cannot be simulated by a VectorEngine");
+			}
+			order[levelStart[levels[i]]++] = i;
+			LComponent lcomp = netlist.comps[i];
+			if(netlist.opcodes[i] == Netlist.OP_SINK && (lcomp instanceof Light || lcomp instanceof Display)) outputComps.add(lcomp);
+		}
+		values = new long[netlist.getNumNets()];
+		inputLanes = new HashMap<Integer, Long>();
+	}
+
+	/**
+	 * Sets the lanes of an input component, where bit l is the state of the input in lane l
+	 * @param input The Switch or Button
+	 * @param lanes The lanes of the input
+	 * @throws IllegalArgumentException If the component is not an input of this engine's circuit
+	 */
+	public void setInput(LComponent input, long lanes) {
+		int comp = netlist.indexOf(input);
+		if(comp < 0 || netlist.opcodes[comp] != Netlist.OP_INPUT) throw new IllegalArgumentException(input + " is not an input of the circuit");
+		inputLanes.put(comp, lanes);
+	}
+
+	/**
+	 * Sets the lanes of the given inputs so that the lanes hold 64 consecutive combinations of the inputs, starting with the given
+	 * combination. In lane l, input i has the value of bit i of (first + l). Calling this with first = 0, 64, 128, and so on covers every
+	 * combination of the inputs
+	 * @param inputs The Switches or Buttons, from the least significant to the most significant
+	 * @param first The combination for lane 0
+	 */
+	public void setCombinations(List<? extends LComponent> inputs, long first) {
+		for(int i = 0; i < inputs.size(); i++) {
+			long lanes = 0;
+			for(int l = 0; l < LANES; l++) {
+				if((((first + l) >>> i) & 1) == 1) lanes |= 1L << l;
+			}
+			setInput(inputs.get(i), lanes);
+		}
+	}
+
+	/**
+	 * Removes the lanes given to every input, so that all inputs use their current state again
+	 */
+	public void clearInputs() {
+		inputLanes.clear();
+	}
+
+	/**
+	 * Evaluates every lane of the circuit. A circuit without loops is evaluated in a single pass in order of level. A circuit with loops is
+	 * evaluated until a pass makes no changes
+	 * @return True if the circuit settled, false if it was still changing after MAX_PASSES passes
+	 */
+	public boolean run() {
+		Arrays.fill(values, 0);
+		for(int pass = 0; pass < MAX_PASSES; pass++) {
+			boolean changed = false;
+			for(int i = 0; i < order.length; i++) changed |= evaluate(order[i]);
+			if(!netlist.hasLoops() || !changed) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Evaluates every lane of the component at the given index and updates its output nets
+	 * @param comp The index of the component
+	 * @return True if any of the component's output nets changed
+	 */
+	private boolean evaluate(int comp) {
+		int op = netlist.opcodes[comp];
+		int out = netlist.outStart[comp];
+		if(op <= Netlist.OP_NOT) {
+			int start = netlist.inStart[comp];
+			int end = netlist.inStart[comp + 1];
+			long lanes = read(start);
+			for(int k = start + 1; k < end; k++) lanes = GateKernels.combineLanes(op, lanes, read(k));
+			return write(netlist.outNets[out], GateKernels.finishLanes(op, lanes));
+		}
+		else if(op == Netlist.OP_INPUT) {
+			Long lanes = inputLanes.get(comp);
+			if(lanes == null) return write(netlist.outNets[out], broadcast(((IComponent) netlist.comps[comp]).getState()));
+			return write(netlist.outNets[out], lanes);
+		}
+		else if(op == Netlist.OP_CLOCK) return write(netlist.outNets[out], broadcast(((Clock) netlist.comps[comp]).isOn()));
+		else if(op == Netlist.OP_ZERO) return write(netlist.outNets[out], 0);
+		else if(op == Netlist.OP_ONE) return write(netlist.outNets[out], -1L);
+		else if(op == Netlist.OP_PASS) {
+			boolean changed = false;
+			int in = netlist.inStart[comp];
+			for(int c = 0; c < netlist.outStart[comp + 1] - out && in + c < netlist.inStart[comp + 1]; c++) {
+				changed |= write(netlist.outNets[out + c], read(in + c));
+			}
+			return changed;
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the lanes of the net connected to an input
+	 * @param k The position of the input in the inNets array
+	 * @return The lanes of the input, which are all low if the input is open
+	 */
+	private long read(int k) {
+		int net = netlist.inNets[k];
+		if(net == Netlist.OPEN) return 0;
+		return values[net];
+	}
+
+	/**
+	 * Sets the lanes of a net
+	 * @param net The index of the net
+	 * @param lanes The new lanes
+	 * @return True if the lanes changed
+	 */
+	private boolean write(int net, long lanes) {
+		if(values[net] == lanes) return false;
+		values[net] = lanes;
+		return true;
+	}
+
+	/**
+	 * Returns a long with the given signal in every lane
+	 * @param signal The signal
+	 * @return -1 if the signal is high, 0 if it is low
+	 */
+	private static long broadcast(boolean signal) {
+		return signal ? -1L : 0;
+	}
+
+	/**
+	 * Returns the lanes read by an input of a Light or Display after run() has been called
+	 * @param output The Light or Display
+	 * @param input The index of the input (always 0 for a Light)
+	 * @return The lanes of the input
+	 * @throws IllegalArgumentException If the component is not part of this engine's circuit
+	 */
+	public long getLanes(LComponent output, int input) {
+		int comp = netlist.indexOf(output);
+		if(comp < 0) throw new IllegalArgumentException(output + " is not part of the circuit");
+		return read(netlist.inStart[comp] + input);
+	}
+
+	/**
+	 * Returns the lanes read by a Light after run() has been called
+	 * @param light The Light
+	 * @return The lanes of the Light, where bit l is high if the Light is on in lane l
+	 */
+	public long getLanes(Light light) {
+		return getLanes(light, 0);
+	}
+
+	/**
+	 * Returns the value shown by a Display in one lane after run() has been called
+	 * @param display The Display
+	 * @param lane The lane
+	 * @return The value shown by the Display, from 0 to 15
+	 */
+	public int getValue(Display display, int lane) {
+		int value = 0;
+		for(int i = 0; i < 4; i++) {
+			if(((getLanes(display, i) >>> lane) & 1) == 1) value |= 1 << i;
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the lanes of every Light and Display after run() has been called. Each component is mapped to an array with the lanes of each
+	 * of its inputs
+	 * @return The lanes of every output component
+	 */
+	public HashMap<LComponent, long[]> getOutputs() {
+		HashMap<LComponent, long[]> outputs = new HashMap<LComponent, long[]>();
+		for(int i = 0; i < outputComps.size(); i++) {
+			LComponent lcomp = outputComps.get(i);
+			long[] lanes = new long[lcomp.getIO().getNumInputs()];
+			for(int c = 0; c < lanes.length; c++) lanes[c] = getLanes(lcomp, c);
+			outputs.put(lcomp, lanes);
+		}
+		return outputs;
+	}
+
+	/**
+	 * Returns the lights and displays of the circuit, in the order they were given to the constructor (inner components of Custom
+	 * components are included after the Custom component that contains them)
+	 * @return The output components
+	 */
+	public ArrayList<LComponent> getOutputComps() {
+		return outputComps;
+	}
+}
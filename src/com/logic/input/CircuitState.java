@@ -38,8 +38,7 @@ public class CircuitState {
 	 */
 	public void revertState() { 
 		for(int i = 0; i < cp.lcomps.size(); i++) cp.lcomps.get(i).delete();
-		cp.lcomps.clear();
-		cp.wires.clear(); 
+		cp.clearLComps();
 		cp.getEditor().getSelection().clear();
 		cp.addLComps(CompUtils.duplicate(lcomps));
 		LogicWorker.startLogic(cp);
@@ -68,9 +68,9 @@ public class Clipboard {
 			ArrayList<LComponent> compsToPaste = CompUtils.duplicate(copy, new Point(COPY_OFFSET, COPY_OFFSET));
 			cp.addLComps(compsToPaste);
 			editor.getSelection().select(compsToPaste);
+			LogicWorker.startLogic(cp, compsToPaste);
 		}
 		revision.saveState(new CircuitState(cp));
-		LogicWorker.startLogic(cp);
 	}
 	
 }
@@ -9,9 +9,17 @@ import com.logic.components.Button;
 import com.logic.components.Clock;
 import com.logic.components.CompType;
 import com.logic.components.Constant;
+import com.logic.components.Counter;
 import com.logic.components.Display;
+import com.logic.components.FlipFlop;
+import com.logic.components.Latch;
 import com.logic.components.Light;
+import com.logic.components.Merger;
+import com.logic.components.Ram;
+import com.logic.components.Rom;
+import com.logic.components.Register;
 import com.logic.components.SingleInputGate;
+import com.logic.components.Splitter;
 import com.logic.components.Switch;
 import com.logic.ui.CircuitPanel;
 import com.logic.ui.CompDrawer;
@@ -89,6 +97,18 @@ public class Inserter {
 		offsets.put("One", new Point((int) (4.5 * scale), (int) (4.5 * scale)));
 		offsets.put("Button", new Point((int) (4.5 * scale), (int) (5.5 * scale)));
 		offsets.put("Display", new Point((int) (8.5 * scale), (int) (5.5 * scale)));
+		offsets.put("Splitter", new Point((int) (1.5 * scale), (int) (6.5 * scale)));
+		offsets.put("Merger", new Point((int) (1.5 * scale), (int) (6.5 * scale)));
+		offsets.put("SR flip-flop", new Point((int) (5.5 * scale), (int) (3.5 * scale)));
+		offsets.put("D flip-flop", new Point((int) (5.5 * scale), (int) (2.5 * scale)));
+		offsets.put("JK flip-flop", new Point((int) (5.5 * scale), (int) (3.5 * scale)));
+		offsets.put("T flip-flop", new Point((int) (5.5 * scale), (int) (2.5 * scale)));
+		offsets.put("Register", new Point((int) (5.5 * scale), (int) (3.5 * scale)));
+		offsets.put("Counter", new Point((int) (5.5 * scale), (int) (3.5 * scale)));
+		offsets.put("RAM", new Point((int) (5.5 * scale), (int) (4.5 * scale)));
+		offsets.put("ROM", new Point((int) (5.5 * scale), (int) (1.5 * scale)));
+		offsets.put("SR latch", new Point((int) (5.5 * scale), (int) (3.5 * scale)));
+		offsets.put("D latch", new Point((int) (5.5 * scale), (int) (2.5 * scale)));
 		//TODO fix this offset system (used to place center of components at cursor)
 	}
 	
@@ -154,6 +174,18 @@ public class Inserter {
 		else if(name.equals("One")) cp.addLComp(new Constant(x, y, CompType.ONE));
 		else if(name.equals("Button")) cp.addLComp(new Button(x, y));
 		else if(name.equals("Display")) cp.addLComp(new Display(x, y));
+		else if(name.equals("Splitter")) cp.addLComp(new Splitter(x, y));
+		else if(name.equals("Merger")) cp.addLComp(new Merger(x, y));
+		else if(name.equals("SR flip-flop")) cp.addLComp(new FlipFlop(x, y, CompType.SR_FLIPFLOP));
+		else if(name.equals("D flip-flop")) cp.addLComp(new FlipFlop(x, y, CompType.D_FLIPFLOP));
+		else if(name.equals("JK flip-flop")) cp.addLComp(new FlipFlop(x, y, CompType.JK_FLIPFLOP));
+		else if(name.equals("T flip-flop")) cp.addLComp(new FlipFlop(x, y, CompType.T_FLIPFLOP));
+		else if(name.equals("Register")) cp.addLComp(new Register(x, y));
+		else if(name.equals("Counter")) cp.addLComp(new Counter(x, y));
+		else if(name.equals("RAM")) cp.addLComp(new Ram(x, y));
+		else if(name.equals("ROM")) cp.addLComp(new Rom(x, y));
+		else if(name.equals("SR latch")) cp.addLComp(new Latch(x, y, CompType.SR_LATCH));
+		else if(name.equals("D latch")) cp.addLComp(new Latch(x, y, CompType.D_LATCH));
 		revision.saveState(new CircuitState(cp));
 	}
 }
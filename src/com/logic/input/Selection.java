@@ -149,6 +149,7 @@ public class Selection extends ArrayList<LComponent> {
 	 * Deletes all of the LComponents that are selected
 	 */
 	public void deleteComponents() {
+		ArrayList<LComponent> affected = CompUtils.getDestinations(this);
 		for(int i = 0; i < size(); i++) {
 			LComponent lcomp = get(i);
 			get(i).delete();
@@ -156,7 +157,7 @@ public class Selection extends ArrayList<LComponent> {
 		}
 		clear();
 		revision.saveState(new CircuitState(cp));
-		LogicWorker.startLogic(cp);
+		LogicWorker.startLogic(cp, affected);
 		cp.cleanWires();
 		cp.repaint();
 	}
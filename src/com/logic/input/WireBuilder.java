@@ -69,7 +69,8 @@ public class WireBuilder {
 	 */
 	public void endWire(Connection connection) {
 		if(workingWire != null && prevConnectionType != connection.getType()) {
-			connection.addWire(workingWire);
+			if(!connection.addWire(workingWire)) cp.removeWire(workingWire);
+			cp.getNetlistEngine().invalidate();
 			LogicWorker.startLogic(connection.getLcomp());
 			workingWire = null;
 			revision.saveState(new CircuitState(cp));
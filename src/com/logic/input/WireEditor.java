@@ -44,12 +44,12 @@ public class WireEditor {
 	 * Deletes the selected wire, if there is one, and updates the logic of the circuit accordingly
 	 */
 	public void deleteWire() {
-		Connection dest = selectedWire.getDestConnection();
-		if(dest != null) LogicWorker.startLogic(dest.getLcomp());
 		if(selectedWire != null) {
+			Connection dest = selectedWire.getDestConnection();
 			selectedWire.delete();
 			cp.removeWire(selectedWire);
 			selectedWire = null;
+			if(dest != null) LogicWorker.startLogic(dest.getLcomp());
 		}
 		cp.repaint();
 	}
@@ -1,11 +1,9 @@
 package com.logic.main;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 
 import javax.swing.JFileChooser;
@@ -135,16 +133,12 @@ public class FileManager {
 		else {
 			cp.getWindow().setTitle(path);
 			try {
-				FileInputStream fis = new FileInputStream(path);
-				ObjectInputStream ois = new ObjectInputStream(fis); 
-				GatewayFile gatewayFile = (GatewayFile) ois.readObject();
+				GatewayFile gatewayFile = GatewayFile.load(path);
 				gatewayFile.setupCircuitPanel(cp);
 				gatewayFile.setupCamera(cp.getCamera());
 				RevisionManager revision = cp.getEditor().getRevision();
 				revision.clearStates();
 				revision.saveState(new CircuitState(cp));
-				ois.close();
-				fis.close();
 			} catch (FileNotFoundException e) {
 				e.printStackTrace();
 			} catch (IOException e) {
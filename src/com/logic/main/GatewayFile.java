@@ -1,5 +1,8 @@
 package com.logic.main;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -46,14 +49,48 @@ public class GatewayFile implements Serializable {
 		camY = camera.getY();
 	}
 	
+	/**
+	 * Constructs a new GatewayFile for a circuit that is not being displayed, which will open with the camera at its default position
+	 * @param lcomps The LComponents to save
+	 */
+	public GatewayFile(ArrayList<LComponent> lcomps) {
+		this.lcomps = lcomps.toArray(new LComponent[0]);
+		camZoom = 1;
+	}
+	
+	/**
+	 * Reads a GatewayFile from the given path
+	 * @param path The path of the .gtw file
+	 * @return The GatewayFile
+	 * @throws IOException If the file cannot be read
+	 * @throws ClassNotFoundException If the file contains a class that does not exist in this version of the program
+	 */
+	public static GatewayFile load(String path) throws IOException, ClassNotFoundException {
+		FileInputStream fis = new FileInputStream(path);
+		ObjectInputStream ois = new ObjectInputStream(fis);
+		try {
+			return (GatewayFile) ois.readObject();
+		} finally {
+			ois.close();
+			fis.close();
+		}
+	}
+	
+	/**
+	 * Returns the components that were saved in this file
+	 * @return A new list of the components
+	 */
+	public ArrayList<LComponent> getLComps() {
+		return new ArrayList<LComponent>(Arrays.asList(lcomps));
+	}
+	
 	/**
 	 * Clears the given CircuitPanel and adds the components that were in the CircuitPanel from the constructor
 	 * @param cp The CircuitPanel to edit
 	 */
 	public void setupCircuitPanel(CircuitPanel cp) {
 		List<LComponent> list = Arrays.asList(lcomps);
-		cp.lcomps.clear();
-		cp.wires.clear();
+		cp.clearLComps();
 		cp.addLComps(list);
 		cp.repaint();
 	}
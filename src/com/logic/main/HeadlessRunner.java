@@ -0,0 +1,347 @@
+package com.logic.main;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import com.logic.components.Clock;
+import com.logic.components.Custom;
+import com.logic.components.Display;
+import com.logic.components.IComponent;
+import com.logic.components.LComponent;
+import com.logic.components.Light;
+import com.logic.engine.ClockScheduler;
+import com.logic.engine.LogicFunctions;
+import com.logic.engine.NetlistEngine;
+import com.logic.engine.SettleResult;
+import com.logic.engine.SignalRecorder;
+
+/**
+ * Runs a saved circuit from the command line without a window. The circuit is loaded from a .gtw file and run on a NetlistEngine on the
+ * main thread, so no images are loaded and nothing is rendered. Switches and buttons are set by name, the clocks are run for a given number
+ * of ticks or cycles, and the values of the lights and displays are printed along with how long the circuit took to run and how many
+ * components were evaluated.
+ * <p>
+ * Usage: HeadlessRunner file.gtw [--set name=0|1]... [--inputs file] [--ticks n] [--cycles n] [--no-flatten] [--levelized]
+ * [--gate-delays] [--vcd file]
+ * <p>
+ * An inputs file has one name=0|1 pair on each line, and lines starting with # are ignored. The clocks are run by a ClockScheduler in
+ * turbo mode, so every clock toggles at the exact multiples of its delay in virtual time. Each tick jumps to the next instant at which any
+ * clock has an edge and toggles every clock with an edge at that instant, and a cycle is two delays of the fastest clock. With --vcd,
+ * every signal is recorded from the initial settle on and streamed to the given file as a timing diagram, so a long run never has to fit
+ * in memory.
+ * @author toddstennes
+ *
+ */
+public class HeadlessRunner {
+
+	/**
+	 * The components of the circuit
+	 */
+	private ArrayList<LComponent> lcomps;
+
+	/**
+	 * The engine that runs the circuit
+	 */
+	private NetlistEngine engine;
+
+	/**
+	 * Every clock in the circuit, including the clocks inside of Custom components
+	 */
+	private ArrayList<Clock> clocks;
+
+	/**
+	 * The scheduler that runs the clocks, which is kept in turbo mode so that time only advances when it is stepped
+	 */
+	private ClockScheduler scheduler;
+
+	/**
+	 * The total number of iterations and component evaluations since the circuit was loaded
+	 */
+	private long iterations, evaluations;
+
+	/**
+	 * Loads a circuit and prepares it to be run
+	 * @param path The path of the .gtw file
+	 * @param flatten True to flatten Custom components into the netlist
+	 * @throws IOException If the file cannot be read
+	 * @throws ClassNotFoundException If the file contains a class that does not exist in this version of the program
+	 */
+	public HeadlessRunner(String path, boolean flatten) throws IOException, ClassNotFoundException {
+		lcomps = GatewayFile.load(path).getLComps();
+		engine = new NetlistEngine(lcomps);
+		engine.setFlatten(flatten);
+		for(int i = 0; i < lcomps.size(); i++) lcomps.get(i).setNetlistEngine(engine);
+		clocks = new ArrayList<Clock>();
+		for(int i = 0; i < lcomps.size(); i++) findClocks(lcomps.get(i));
+		scheduler = new ClockScheduler(engine);
+		scheduler.setTurbo(true);
+		for(int i = 0; i < clocks.size(); i++) scheduler.add(clocks.get(i));
+	}
+
+	/**
+	 * Adds the given component to the list of clocks if it is a clock, or searches its inner components if it is a Custom component
+	 * @param lcomp The component
+	 */
+	private void findClocks(LComponent lcomp) {
+		if(lcomp instanceof Clock) clocks.add((Clock) lcomp);
+		else if(lcomp instanceof Custom) {
+			ArrayList<LComponent> innerComps = ((Custom) lcomp).getInnerComps();
+			for(int i = 0; i < innerComps.size(); i++) findClocks(innerComps.get(i));
+		}
+	}
+
+	/**
+	 * Brings the entire circuit to a logically consistent state
+	 * @return The result of the logic process
+	 */
+	public SettleResult settle() {
+		return count(engine.settleAll());
+	}
+
+	/**
+	 * Sets the state of every switch or button at the top level of the circuit with the given name, and updates the circuit
+	 * @param name The name of the component
+	 * @param state The new state
+	 * @return The number of components that were set
+	 */
+	public int setInput(String name, boolean state) {
+		ArrayList<LComponent> changed = new ArrayList<LComponent>();
+		for(int i = 0; i < lcomps.size(); i++) {
+			LComponent lcomp = lcomps.get(i);
+			if(lcomp instanceof IComponent && lcomp.getName().equals(name)) {
+				((IComponent) lcomp).setState(state);
+				changed.add(lcomp);
+			}
+		}
+		if(changed.size() > 0) count(engine.run(changed, false));
+		return changed.size();
+	}
+
+	/**
+	 * Runs one tick by jumping to the next instant at which any clock has an edge, toggling every clock with an edge at that instant, and
+	 * updating the circuit
+	 * @return The result of the logic process, or null if there are no clocks
+	 */
+	public SettleResult tick() {
+		SettleResult result = scheduler.step();
+		return result == null ? null : count(result);
+	}
+
+	/**
+	 * Runs ticks until the given number of cycles of the fastest clock have passed in virtual time
+	 * @param cycles The number of cycles
+	 * @return The number of ticks that were run
+	 */
+	public long runCycles(long cycles) {
+		long end = scheduler.getVirtualTime() + cycles * scheduler.getCycleLength();
+		long ticks = 0;
+		while(scheduler.getNextEdge() <= end && tick() != null) ticks++;
+		return ticks;
+	}
+
+	/**
+	 * Returns the virtual time that the clocks have reached
+	 * @return The time in milliseconds of the last instant that was run
+	 */
+	public long getVirtualTime() {
+		return scheduler.getVirtualTime();
+	}
+
+	/**
+	 * Adds the iterations and evaluations of a logic process to the totals and warns if the process did not settle
+	 * @param result The result of the logic process
+	 * @return The same result
+	 */
+	private SettleResult count(SettleResult result) {
+		iterations += result.getIterations();
+		evaluations += result.getEvaluations();
+		if(!result.isSettled()) {
+			System.err.println("Logic process stopped after " + result.getIterations() + " iterations, " +
+					result.getOscillatingComps().size() + " components are oscillating");
+		}
+		return result;
+	}
+
+	/**
+	 * Prints the value of every light and display at the top level of the circuit
+	 */
+	public void printOutputs() {
+		for(int i = 0; i < lcomps.size(); i++) {
+			LComponent lcomp = lcomps.get(i);
+			if(lcomp instanceof Light) System.out.println("light " + lcomp.getName() + ": " + (lcomp.getIO().getInput(0) ? 1 : 0));
+			else if(lcomp instanceof Display) {
+				int value = 0;
+				for(int c = 0; c < 4; c++) {
+					if(lcomp.getIO().getInput(c)) value |= 1 << c;
+				}
+				System.out.println("display " + lcomp.getName() + ": " + Integer.toHexString(value).toUpperCase());
+			}
+		}
+	}
+
+	/**
+	 * Returns the engine that runs the circuit
+	 * @return The NetlistEngine
+	 */
+	public NetlistEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Returns the number of clocks in the circuit
+	 * @return The number of clocks, including clocks inside of Custom components
+	 */
+	public int getNumClocks() {
+		return clocks.size();
+	}
+
+	/**
+	 * Returns the total number of component evaluations since the circuit was loaded
+	 * @return The number of evaluations
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Returns the total number of iterations since the circuit was loaded
+	 * @return The number of iterations
+	 */
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Sets inputs from a file where each line is a name=0|1 pair
+	 * @param path The path of the file
+	 * @throws IOException If the file cannot be read
+	 */
+	public void readInputs(String path) throws IOException {
+		BufferedReader reader = new BufferedReader(new FileReader(path));
+		try {
+			String line;
+			while((line = reader.readLine()) != null) {
+				line = line.trim();
+				if(line.length() > 0 && !line.startsWith("#")) applyInput(line);
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Sets an input from a name=0|1 pair
+	 * @param pair The pair
+	 */
+	public void applyInput(String pair) {
+		int split = pair.lastIndexOf('=');
+		if(split < 0) throw new IllegalArgumentException("Expected name=0 or name=1 but found \"" + pair + "\"");
+		String name = pair.substring(0, split).trim();
+		String value = pair.substring(split + 1).trim();
+		boolean state;
+		if(value.equals("1") || value.equalsIgnoreCase("true")) state = true;
+		else if(value.equals("0") || value.equalsIgnoreCase("false")) state = false;
+		else throw new IllegalArgumentException("Expected 0 or 1 for \"" + name + "\" but found \"" + value + "\"");
+		if(setInput(name, state) == 0) System.err.println("No switch or button is named \"" + name + "\"");
+	}
+
+	/**
+	 * Formats a number of nanoseconds as milliseconds
+	 * @param nanos The number of nanoseconds
+	 * @return The formatted time
+	 */
+	private static String millis(long nanos) {
+		return String.format("%.3f ms", nanos / 1e6);
+	}
+
+	/**
+	 * Prints how to use the runner and exits
+	 */
+	private static void usage() {
+		System.err.println("Usage: HeadlessRunner file.gtw [--set name=0|1]... [--inputs file] [--ticks n] [--cycles n] [--no-flatten] " +
+				"[--levelized] [--gate-delays] [--vcd file]");
+		System.exit(1);
+	}
+
+	/**
+	 * Loads the circuit given in the arguments, runs it, and prints the results
+	 * @param args The arguments (see the class description)
+	 */
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		if(args.length == 0) usage();
+		String path = args[0];
+		ArrayList<String> sets = new ArrayList<String>();
+		String inputsPath = null, vcdPath = null;
+		long ticks = 0, cycles = 0;
+		boolean flatten = true, levelized = false, gateDelays = false;
+		for(int i = 1; i < args.length; i++) {
+			String arg = args[i];
+			if(arg.equals("--set") && i + 1 < args.length) sets.add(args[++i]);
+			else if(arg.equals("--inputs") && i + 1 < args.length) inputsPath = args[++i];
+			else if(arg.equals("--ticks") && i + 1 < args.length) ticks = Long.parseLong(args[++i]);
+			else if(arg.equals("--cycles") && i + 1 < args.length) cycles = Long.parseLong(args[++i]);
+			else if(arg.equals("--no-flatten")) flatten = false;
+			else if(arg.equals("--levelized")) levelized = true;
+			else if(arg.equals("--gate-delays")) gateDelays = true;
+			else if(arg.equals("--vcd") && i + 1 < args.length) vcdPath = args[++i];
+			else usage();
+		}
+
+		LogicFunctions.setFunctions();
+		try {
+			long start = System.nanoTime();
+			HeadlessRunner runner = new HeadlessRunner(path, flatten);
+			NetlistEngine engine = runner.getEngine();
+			engine.setLevelized(levelized);
+			engine.setGateDelays(gateDelays);
+			long loaded = System.nanoTime();
+			System.out.println("Loaded " + path + " (" + engine.compile().getNumComps() + " components, " + engine.compile().getNumNets() +
+					" nets, " + runner.getNumClocks() + " clocks) in " + millis(loaded - start));
+			SignalRecorder recorder = null;
+			if(vcdPath != null) {
+				recorder = new SignalRecorder(engine.compile(), SignalRecorder.DEFAULT_MEMORY_CAP);
+				engine.setRecorder(recorder);
+				recorder.startStream(vcdPath, "1ns");
+			}
+
+			SettleResult result = runner.settle();
+			long settled = System.nanoTime();
+			System.out.println("Initial settle: " + result.getIterations() + " iterations, " + result.getEvaluations() + " evaluations in " +
+					millis(settled - loaded));
+
+			if(inputsPath != null) runner.readInputs(inputsPath);
+			for(int i = 0; i < sets.size(); i++) runner.applyInput(sets.get(i));
+			long evaluationsBefore = runner.getEvaluations();
+			long inputsSet = System.nanoTime();
+			if(sets.size() > 0 || inputsPath != null) System.out.println("Inputs set in " + millis(inputsSet - settled));
+
+			if(cycles > 0) ticks = runner.runCycles(cycles);
+			else {
+				for(long t = 0; t < ticks; t++) {
+					if(runner.tick() == null) {
+						ticks = t;
+						break;
+					}
+				}
+			}
+			if(ticks > 0) {
+				long ticked = System.nanoTime();
+				System.out.println(ticks + " ticks to " + runner.getVirtualTime() + " ms: " + (runner.getEvaluations() - evaluationsBefore) +
+						" evaluations in " + millis(ticked - inputsSet) + String.format(" (%.2f us per tick)", (ticked - inputsSet) / 1e3 / ticks));
+			}
+			System.out.println("Total: " + runner.getIterations() + " iterations, " + runner.getEvaluations() + " evaluations");
+			if(gateDelays) System.out.println("Simulated time: " + engine.getTime());
+			if(recorder != null) {
+				recorder.stopStream();
+				System.out.println("Timing diagram saved to " + vcdPath);
+			}
+			runner.printOutputs();
+		} catch (IOException | ClassNotFoundException | IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+}
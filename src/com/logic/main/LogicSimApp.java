@@ -98,7 +98,9 @@ public class LogicSimApp {
 		 * Add undo and redo functions *
 		 * Add ability to save and load files *
 		 * Add ability to create ICs *
-		 * Add built in latches, flip flops, and random generator
+		 * Add built in flip flops, registers, and counters *
+		 * Add built in latches *
+		 * Add built in random generator
 		 * Make all menu items functional *
 		 * Text labels (implemented through CompProperties)
 		 * Keyboard shortcuts (such as press A for and, O for or)
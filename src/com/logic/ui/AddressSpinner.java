@@ -0,0 +1,86 @@
+package com.logic.ui;
+
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+
+import javax.swing.SpinnerNumberModel;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import com.logic.components.LComponent;
+import com.logic.components.Memory;
+import com.logic.components.Ram;
+import com.logic.input.CircuitState;
+import com.logic.input.Selection;
+
+/**
+ * A LabeledSpinner subclass for editing the number of address bits of a memory
+ * @author toddstennes
+ *
+ */
+public class AddressSpinner extends LabeledSpinner implements ChangeListener {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The selection
+	 */
+	private Selection selection;
+
+	/**
+	 * The CircuitPanel
+	 */
+	private CircuitPanel cp;
+
+	/**
+	 * Constructs a new AddressSpinner with built in padding so that it looks nice with other JComponents
+	 */
+	public AddressSpinner() {
+		super("Address bits: ");
+		FlowLayout layout = new FlowLayout(FlowLayout.LEFT);
+		layout.setHgap(0);
+		layout.setVgap(10);
+		setLayout(layout);
+		SpinnerNumberModel model = new SpinnerNumberModel(Ram.DEFAULT_ADDRESS_WIDTH, Ram.MIN_ADDRESS_WIDTH, Ram.MAX_ADDRESS_WIDTH, 1);
+		spinner.setModel(model);
+		spinner.addChangeListener(this);
+		spinner.setPreferredSize(new Dimension(65, 20));
+	}
+
+	/**
+	 * Sets the number of address bits of the selected memory to the value currently shown by this spinner if a single memory is selected
+	 * and the value is different from its current number of address bits
+	 */
+	@Override
+	public void stateChanged(ChangeEvent e) {
+		if(selection.size() == 1) {
+			LComponent lcomp = selection.get(0);
+			int value = (int) spinner.getValue();
+			if(lcomp instanceof Memory && value != ((Memory) lcomp).getAddressWidth()) {
+				((Memory) lcomp).setAddressWidth(value);
+				cp.cleanWires();
+				cp.getNetlistEngine().invalidate();
+				cp.getEditor().getRevision().saveState(new CircuitState(cp));
+				cp.repaint();
+			}
+		}
+	}
+
+	/**
+	 * Sets the displayed value of this LabeledSpinner to the given value so that it matches a memory
+	 * @param val The value to display
+	 */
+	public void setAddressText(int val) {
+		spinner.setValue(val);
+	}
+
+	/**
+	 * Updates this AddressSpinner's reference to the CircuitPanel and selection
+	 * @param cp The CircuitPanel
+	 */
+	public void setCircuitPanel(CircuitPanel cp) {
+		this.cp = cp;
+		selection = cp.getEditor().getSelection();
+	}
+
+}
@@ -16,6 +16,9 @@ import com.logic.components.IComponent;
 import com.logic.components.LComponent;
 import com.logic.components.SComponent;
 import com.logic.components.Wire;
+import com.logic.engine.ClockScheduler;
+import com.logic.engine.NetlistEngine;
+import com.logic.engine.SignalFrame;
 import com.logic.input.Camera;
 import com.logic.input.CircuitEditor;
 import com.logic.main.LogicSimApp;
@@ -61,6 +64,37 @@ public class CircuitPanel extends JPanel {
 	 */
 	public ArrayList<Wire> wires = new ArrayList<Wire>();
 
+	/**
+	 * The components that were oscillating when the last logic process was stopped, which are highlighted until a full logic process
+	 * settles
+	 */
+	private ArrayList<LComponent> oscillatingComps = new ArrayList<LComponent>();
+
+	/**
+	 * The color used to highlight oscillating components
+	 */
+	public static final Color OSCILLATION_COLOR = new Color(255, 0, 0, 100);
+
+	/**
+	 * The NetlistEngine that runs the logic for the circuit
+	 */
+	private NetlistEngine netlistEngine;
+
+	/**
+	 * The frame of signals that is being painted, which is taken from the engine at the start of every paint
+	 */
+	private SignalFrame frame;
+
+	/**
+	 * The number of circuits whose metrics have been registered, which is used to give each circuit's MBean a unique name
+	 */
+	private static int numCircuits;
+
+	/**
+	 * The scheduler that runs every clock in the circuit
+	 */
+	private ClockScheduler clockScheduler;
+
 	/**
 	 * The camera, which is used for panning and zooming to see all of the circuit
 	 */
@@ -94,6 +128,8 @@ public class CircuitPanel extends JPanel {
 	 */
 	public CircuitPanel(Window window, CompProperties compProperties, LToolBar toolbar, InsertPanel insertPanel) {
 		this.window = window;
+		netlistEngine = new NetlistEngine(this);
+		clockScheduler = new ClockScheduler(netlistEngine);
 		cam = new Camera(this, toolbar);
 		editor = new CircuitEditor(this, compProperties, toolbar, insertPanel);
 		properties = compProperties;
@@ -124,7 +160,8 @@ public class CircuitPanel extends JPanel {
 	@Override
 	public void paintComponent(Graphics g) {
 		super.paintComponent(g);
-		long time = System.currentTimeMillis();
+		long time = System.nanoTime();
+		frame = netlistEngine.getFrames().acquire();
 		Graphics2D g2d = (Graphics2D) g;
 		if(LogicSimApp.AA) g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 		double zoom = cam.getZoom();
@@ -151,21 +188,84 @@ public class CircuitPanel extends JPanel {
 			if(view.intersects(lcomp.getBounds())) lcomp.render(g, this);
 		}
 		
+		g.setColor(OSCILLATION_COLOR);
+		for(int i = 0; i < oscillatingComps.size(); i++) {
+			Rectangle bounds = oscillatingComps.get(i).getBounds();
+			g.fillRect(bounds.x - 5, bounds.y - 5, bounds.width + 10, bounds.height + 10);
+		}
+		
 		editor.getHighlight().render(g);
 		editor.getCustomCreator().render(g);
 		g2d.translate(cam.getX(), cam.getY());
 		g2d.scale((1 / zoom), (1 / zoom));
 		if(message != null) message.render(g);
-
-		System.out.println("Frametime: " + (System.currentTimeMillis() - time));
+		netlistEngine.getStats().recordPaint(System.nanoTime() - time);
+	}
+	
+	/**
+	 * Registers the metrics for this circuit's engine as an MBean once the panel is shown, so that they can be watched in a JMX console
+	 */
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		netlistEngine.getStats().register("Circuit " + numCircuits++);
+	}
+	
+	/**
+	 * Unregisters the metrics for this circuit's engine when the panel's window is closed
+	 */
+	@Override
+	public void removeNotify() {
+		netlistEngine.getStats().unregister();
+		super.removeNotify();
 	}
 	
+	/**
+	 * Returns the signal of a wire as it should be painted, which is its signal in the frame being painted. Wires that are not part of the
+	 * frame (such as wires that are still being built) are painted with their own signal
+	 * @param wire The wire
+	 * @return The signal
+	 */
+	public boolean getSignal(Wire wire) {
+		Connection source = wire.getSourceConnection();
+		if(frame == null || source == null) return wire.getSignal();
+		return frame.getSignal(source, wire.getSignal());
+	}
+
+	/**
+	 * Returns the signal of an input of a component as it should be painted. Components are sometimes rendered without a CircuitPanel
+	 * (for example, to make the icons of the InsertPanel), in which case the input is read from the wire
+	 * @param cp The CircuitPanel that is painting the component, or null
+	 * @param lcomp The component
+	 * @param index The index of the input connection
+	 * @return The signal of the wire connected to the input in the frame being painted, or false if the input is not connected
+	 */
+	public static boolean getInput(CircuitPanel cp, LComponent lcomp, int index) {
+		if(cp == null) return lcomp.getIO().getInput(index);
+		return cp.getInput(lcomp, index);
+	}
+
+	/**
+	 * Returns the signal of an input of a component as it should be painted
+	 * @param lcomp The component
+	 * @param index The index of the input connection
+	 * @return The signal of the wire connected to the input in the frame being painted, or false if the input is not connected
+	 */
+	public boolean getInput(LComponent lcomp, int index) {
+		Connection input = lcomp.getIO().connectionAt(index, Connection.INPUT);
+		if(input.numWires() == 0) return false;
+		return getSignal(input.getWire(0));
+	}
+
 	/**
 	 * Adds the given LComponent to the circuit
 	 * @param lcomp The LComponent to add
 	 */
 	public void addLComp(LComponent lcomp) {
 		lcomps.add(lcomp);
+		lcomp.setNetlistEngine(netlistEngine);
+		netlistEngine.getSourceIndex().add(lcomp);
+		netlistEngine.invalidate();
 		if(lcomp instanceof SComponent) ((SComponent) lcomp).start(this);
 		if(lcomp instanceof IComponent) addMouseListener((IComponent) lcomp);
 	}
@@ -191,6 +291,19 @@ public class CircuitPanel extends JPanel {
 	 */
 	public void removeLComp(LComponent lcomp) {
 		lcomps.remove(lcomp);
+		netlistEngine.getSourceIndex().remove(lcomp);
+		netlistEngine.invalidate();
+	}
+
+	/**
+	 * Removes every LComponent and wire from the circuit without deleting them, so that they can be added back later
+	 */
+	public void clearLComps() {
+		//Currently used by CircuitState.revertState, CustomViewer, GatewayFile.setupCircuitPanel
+		lcomps.clear();
+		wires.clear();
+		netlistEngine.getSourceIndex().clear();
+		netlistEngine.invalidate();
 	}
 
 	/**
@@ -199,6 +312,7 @@ public class CircuitPanel extends JPanel {
 	 */
 	public void addWire(Wire wire) {
 		wires.add(wire);
+		netlistEngine.invalidate();
 	}
 
 	/**
@@ -207,6 +321,7 @@ public class CircuitPanel extends JPanel {
 	 */
 	public void removeWire(Wire wire) {
 		wires.remove(wire);
+		netlistEngine.invalidate();
 	}
 
 	/**
@@ -259,6 +374,32 @@ public class CircuitPanel extends JPanel {
 		return window;
 	}
 	
+	/**
+	 * Sets the components to highlight as oscillating. This should be called on the event dispatch thread
+	 * @param oscillatingComps The oscillating components, or null to clear the highlight
+	 */
+	public void setOscillatingComps(ArrayList<LComponent> oscillatingComps) {
+		if(oscillatingComps == null) this.oscillatingComps = new ArrayList<LComponent>();
+		else this.oscillatingComps = oscillatingComps;
+		repaint();
+	}
+	
+	/**
+	 * Returns the NetlistEngine that runs the logic for this circuit
+	 * @return The NetlistEngine
+	 */
+	public NetlistEngine getNetlistEngine() {
+		return netlistEngine;
+	}
+	
+	/**
+	 * Returns the ClockScheduler that runs every clock in the circuit
+	 * @return The ClockScheduler
+	 */
+	public ClockScheduler getClockScheduler() {
+		return clockScheduler;
+	}
+	
 	/**
 	 * Returns the Camera instance
 	 * @return The Camera instance
@@ -72,6 +72,26 @@ public class CompProperties extends JPanel {
 	 */
 	private DelaySpinner delay;
 	
+	/**
+	 * The spinner to edit the propagation delay of a component
+	 */
+	private PropagationDelaySpinner propagationDelay;
+	
+	/**
+	 * The spinner to edit the number of bits of splitters, mergers, registers, and counters
+	 */
+	private WidthSpinner busWidth;
+	
+	/**
+	 * The spinner to edit the number of address bits of memories
+	 */
+	private AddressSpinner addressWidth;
+	
+	/**
+	 * The button that opens a window showing the contents of a memory
+	 */
+	private MemoryButton memoryButton;
+	
 	/**
 	 * The list of components when multiple components are selected
 	 */
@@ -172,6 +192,25 @@ public class CompProperties extends JPanel {
 		singlePanel.add(delay);
 		delay.setVisible(false);
 		
+		busWidth = new WidthSpinner();
+		busWidth.setAlignmentX(alignmentX);
+		singlePanel.add(busWidth);
+		busWidth.setVisible(false);
+		
+		addressWidth = new AddressSpinner();
+		addressWidth.setAlignmentX(alignmentX);
+		singlePanel.add(addressWidth);
+		addressWidth.setVisible(false);
+		
+		memoryButton = new MemoryButton();
+		memoryButton.setAlignmentX(alignmentX);
+		singlePanel.add(memoryButton);
+		memoryButton.setVisible(false);
+		
+		propagationDelay = new PropagationDelaySpinner();
+		propagationDelay.setAlignmentX(alignmentX);
+		singlePanel.add(propagationDelay);
+		
 		singlePanel.setVisible(false);
 		add(singlePanel);
 		
@@ -218,6 +257,18 @@ public class CompProperties extends JPanel {
 				delay.setDelayText(((Clock) lcomp).getDelay());
 			}
 			else delay.setVisible(false);
+			if(WidthSpinner.widthOf(lcomp) > 0) {
+				busWidth.setVisible(true);
+				busWidth.setWidthText(WidthSpinner.widthOf(lcomp));
+			}
+			else busWidth.setVisible(false);
+			if(lcomp instanceof Memory) {
+				addressWidth.setVisible(true);
+				addressWidth.setAddressText(((Memory) lcomp).getAddressWidth());
+			}
+			else addressWidth.setVisible(false);
+			memoryButton.setVisible(lcomp instanceof Memory);
+			propagationDelay.setDelayText(lcomp.getPropagationDelay());
 			nameField.setText(lcomp.getName());
 			location.setPoint(new Point(lcomp.getX(), lcomp.getY()));
 			inputSpinner.getSpinner().setValue(lcomp.getIO().getNumInputs());
@@ -299,7 +350,7 @@ public class CompProperties extends JPanel {
 		for(int i = 0; i < io.getNumInputs(); i++) {
 			Connection c = io.connectionAt(i, Connection.INPUT);
 			s = s + "Input " + c.getIndex() + ":";
-			if(c.numWires() == 0 || c.getWire(0).getSourceConnection() == null) s = s + " Empty<br>";
+			if(c.isOpen()) s = s + " Empty<br>";
 			else {
 				Wire wire = c.getWire(0);
 				Connection connect = wire.getSourceConnection();
@@ -354,6 +405,10 @@ public class CompProperties extends JPanel {
 		inputSpinner.setCircuitPanel(cp);
 		rotationSpinner.setCircuitPanel(cp);
 		delay.setCircuitPanel(cp);
+		propagationDelay.setCircuitPanel(cp);
+		busWidth.setCircuitPanel(cp);
+		addressWidth.setCircuitPanel(cp);
+		memoryButton.setCircuitPanel(cp);
 		selection = cp.getEditor().getSelection();
 	}
 
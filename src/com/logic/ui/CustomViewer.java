@@ -5,6 +5,7 @@ import java.util.ArrayList;
 
 import com.logic.components.Custom;
 import com.logic.components.LComponent;
+import com.logic.engine.LogicWorker;
 import com.logic.input.Camera;
 import com.logic.util.CompUtils;
 
@@ -58,9 +59,9 @@ public class CustomViewer {
 	 */
 	public void view(Custom c) {
 		ArrayList<LComponent> dispComps = c.getInnerComps();
+		if(c.isInnerStale()) LogicWorker.startTask(c, () -> c.refreshInner());
 		for(int i = 0; i < cp.lcomps.size(); i++) oldComps.add(cp.lcomps.get(i));
-		cp.lcomps.clear();
-		cp.wires.clear();
+		cp.clearLComps();
 		cp.getEditor().getSelection().clear();
 		cp.getEditor().setEnabled(false);
 		cp.addLComps(dispComps);
@@ -84,8 +85,7 @@ public class CustomViewer {
 	 * the CircuitEditor, and repositioning the camera.
 	 */
 	public void exit() {
-		cp.lcomps.clear();
-		cp.wires.clear();
+		cp.clearLComps();
 		cp.addLComps(oldComps);
 		cp.getEditor().setEnabled(true);
 		
@@ -137,6 +137,18 @@ public class IconLoader {
 		logicIcons[27] = new ImageIcon(renderLogicIcon(new Constant(0, 0, CompType.ONE)));
 		logicIcons[28] = new ImageIcon(renderLogicIcon(new Button(0, 0)));
 		logicIcons[30] = new ImageIcon(renderLogicIcon(new Display(0, 0)));
+		logicIcons[31] = new ImageIcon(renderLogicIcon(new Splitter(0, 0, 4)));
+		logicIcons[32] = new ImageIcon(renderLogicIcon(new Merger(0, 0, 4)));
+		logicIcons[33] = new ImageIcon(renderLogicIcon(new FlipFlop(0, 0, CompType.SR_FLIPFLOP)));
+		logicIcons[34] = new ImageIcon(renderLogicIcon(new FlipFlop(0, 0, CompType.D_FLIPFLOP)));
+		logicIcons[35] = new ImageIcon(renderLogicIcon(new FlipFlop(0, 0, CompType.JK_FLIPFLOP)));
+		logicIcons[36] = new ImageIcon(renderLogicIcon(new FlipFlop(0, 0, CompType.T_FLIPFLOP)));
+		logicIcons[37] = new ImageIcon(renderLogicIcon(new Register(0, 0)));
+		logicIcons[38] = new ImageIcon(renderLogicIcon(new Counter(0, 0)));
+		logicIcons[39] = new ImageIcon(renderLogicIcon(new Ram(0, 0)));
+		logicIcons[40] = new ImageIcon(renderLogicIcon(new Rom(0, 0)));
+		logicIcons[41] = new ImageIcon(renderLogicIcon(new Latch(0, 0, CompType.SR_LATCH)));
+		logicIcons[42] = new ImageIcon(renderLogicIcon(new Latch(0, 0, CompType.D_LATCH)));
 	}
 	
 	/**
@@ -50,6 +50,7 @@ public class InputSpinner extends LabeledSpinner implements ChangeListener {
 				else if(value < BasicGate.MIN_INPUTS) value = BasicGate.MIN_INPUTS;
 				spinner.setValue(value);
 				gate.setNumInputs(value);
+				cp.getNetlistEngine().invalidate();
 				cp.getEditor().getRevision().saveState(new CircuitState(cp));
 				cp.repaint();
 			}
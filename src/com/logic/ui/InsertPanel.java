@@ -34,7 +34,8 @@ public class InsertPanel extends JPanel implements ActionListener {
 	 * The names of the components in the InsertPanel, which are used for showing tool tips and by the Inserter
 	 */
 	private String[] logicNames = new String[] {"Buffer", "Not", "And", "Nand", "Or", "Nor", "Xor", "Xnor", "Clock", "Light", "Switch", 
-			"Zero", "One", "Button", "Display"};
+			"Zero", "One", "Button", "Display", "Splitter", "Merger", "SR flip-flop", "D flip-flop", "JK flip-flop", "T flip-flop", "Register", 
+			"Counter", "RAM", "ROM", "SR latch", "D latch"};
 	//TODO re-enable display component by adding "Display" to the array
 
 	/**
@@ -4,16 +4,28 @@ import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.util.ArrayList;
 
 import javax.swing.AbstractButton;
 import javax.swing.ButtonGroup;
 import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JFileChooser;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
 import javax.swing.JRadioButtonMenuItem;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
+import com.logic.components.LComponent;
+import com.logic.engine.LogicWorker;
+import com.logic.engine.NetlistEngine;
+import com.logic.engine.RewindBuffer;
+import com.logic.engine.SignalRecorder;
+import com.logic.engine.TurboRunner;
 import com.logic.main.FileManager;
 import com.logic.main.LogicSimApp;
 
@@ -36,6 +48,16 @@ public class LMenuBar extends JMenuBar implements ActionListener {
 	 */
 	private JCheckBoxMenuItem snap, showGrid;
 	
+	/**
+	 * The check box buttons in the simulation menu
+	 */
+	private JCheckBoxMenuItem gateDelays, flatten, turbo, record, history;
+	
+	/**
+	 * The radio buttons in the simulation menu
+	 */
+	private JRadioButtonMenuItem iterative, levelized;
+	
 	/**
 	 * The CircuitPanel
 	 */
@@ -51,6 +73,22 @@ public class LMenuBar extends JMenuBar implements ActionListener {
 	 */
 	private FileManager fileManager;
 	
+	/**
+	 * Runs the circuit's clocks as fast as possible when turbo mode is chosen
+	 */
+	private TurboRunner turboRunner;
+	
+	/**
+	 * The JFileChooser that is used to choose where to export timing diagrams, which is created the first time it is needed
+	 */
+	private JFileChooser vcdChooser;
+	
+	/**
+	 * The recorder that is recording signals, or null if Record signals is off. This is only set and used on the LogicWorker, so starting
+	 * and stopping an export always happens in the same order as turning recording on and off
+	 */
+	private volatile SignalRecorder recorder;
+	
 	/**
 	 * Constructs a new LMenuBar
 	 */
@@ -58,6 +96,8 @@ public class LMenuBar extends JMenuBar implements ActionListener {
 		this.cp = cp;
 		this.toolbar = toolbar;
 		this.fileManager = fileManager;
+		turboRunner = new TurboRunner(cp);
+		turboRunner.setStopListener(() -> turbo.setSelected(false));
 		createMenu();
 	}
 	
@@ -179,6 +219,67 @@ public class LMenuBar extends JMenuBar implements ActionListener {
 		addListener(menuItem, "Custom");
 		menu.add(menuItem);
 		add(menu);
+		
+		menu = new JMenu("Simulation");
+		cbMenuItem = new JCheckBoxMenuItem("Gate delays");
+		cbMenuItem.getAccessibleContext().setAccessibleDescription("Simulates the propagation delay of each component");
+		addListener(cbMenuItem, "Gate delays");
+		gateDelays = cbMenuItem;
+		menu.add(cbMenuItem);
+		cbMenuItem = new JCheckBoxMenuItem("Flatten custom components");
+		cbMenuItem.getAccessibleContext().setAccessibleDescription("Simulates the inside of custom components as part of the circuit");
+		addListener(cbMenuItem, "Flatten");
+		flatten = cbMenuItem;
+		menu.add(cbMenuItem);
+		menu.addSeparator();
+		group = new ButtonGroup();
+		rbMenuItem = new JRadioButtonMenuItem("Iterative evaluation");
+		rbMenuItem.setSelected(true);
+		rbMenuItem.getAccessibleContext().setAccessibleDescription("Updates components in the order their inputs change");
+		addListener(rbMenuItem, "Iterative");
+		group.add(rbMenuItem);
+		menu.add(rbMenuItem);
+		iterative = rbMenuItem;
+		rbMenuItem = new JRadioButtonMenuItem("Levelized parallel evaluation");
+		rbMenuItem.getAccessibleContext().setAccessibleDescription("Updates components one level at a time using multiple threads");
+		addListener(rbMenuItem, "Levelized");
+		group.add(rbMenuItem);
+		menu.add(rbMenuItem);
+		levelized = rbMenuItem;
+		menu.addSeparator();
+		cbMenuItem = new JCheckBoxMenuItem("Turbo");
+		cbMenuItem.getAccessibleContext().setAccessibleDescription("Runs the clocks as fast as possible instead of at their delays");
+		addListener(cbMenuItem, "Turbo");
+		turbo = cbMenuItem;
+		menu.add(cbMenuItem);
+		menuItem = new JMenuItem("Run cycles...");
+		menuItem.getAccessibleContext().setAccessibleDescription("Runs the clocks as fast as possible for a number of cycles");
+		addListener(menuItem, "Run cycles");
+		menu.add(menuItem);
+		menu.addSeparator();
+		cbMenuItem = new JCheckBoxMenuItem("Record signals");
+		cbMenuItem.getAccessibleContext().setAccessibleDescription("Records changes to the selected components, or to every component " + 
+				"if nothing is selected");
+		addListener(cbMenuItem, "Record");
+		record = cbMenuItem;
+		menu.add(cbMenuItem);
+		menuItem = new JMenuItem("Export timing diagram...");
+		menuItem.getAccessibleContext().setAccessibleDescription("Saves the recorded signals as a VCD file, which keeps growing until recording is turned off");
+		addListener(menuItem, "Export timing");
+		menu.add(menuItem);
+		menu.addSeparator();
+		cbMenuItem = new JCheckBoxMenuItem("Keep history");
+		cbMenuItem.getAccessibleContext().setAccessibleDescription("Saves the state of the circuit after every update so it can be " + 
+				"stepped back through");
+		addListener(cbMenuItem, "History");
+		history = cbMenuItem;
+		menu.add(cbMenuItem);
+		menuItem = new JMenuItem("Step back", KeyEvent.VK_B);
+		menuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_B, Toolkit.getDefaultToolkit().getMenuShortcutKeyMask()));
+		menuItem.getAccessibleContext().setAccessibleDescription("Puts the circuit back into the state it was in before the last update");
+		addListener(menuItem, "Step back");
+		menu.add(menuItem);
+		add(menu);
 	}
 	
 	/**
@@ -217,6 +318,143 @@ public class LMenuBar extends JMenuBar implements ActionListener {
 		else if(command.equals("Clockwise")) cp.getEditor().getSelection().rotate(CompRotator.CLOCKWISE);
 		else if(command.equals("Counter")) cp.getEditor().getSelection().rotate(CompRotator.COUNTER_CLOCKWISE);
 		else if(command.equals("Custom")) cp.getEditor().getCustomCreator().createCustom();
+		else if(command.equals("Gate delays")) {
+			NetlistEngine netlistEngine = cp.getNetlistEngine();
+			boolean delays = gateDelays.isSelected();
+			LogicWorker.startTask(cp, () -> netlistEngine.setGateDelays(delays));
+			LogicWorker.startLogic(cp);
+		}
+		else if(command.equals("Iterative") || command.equals("Levelized")) {
+			NetlistEngine netlistEngine = cp.getNetlistEngine();
+			boolean level = levelized.isSelected();
+			LogicWorker.startTask(cp, () -> netlistEngine.setLevelized(level));
+		}
+		else if(command.equals("Flatten")) {
+			cp.getNetlistEngine().setFlatten(flatten.isSelected());
+			LogicWorker.startLogic(cp);
+		}
+		else if(command.equals("Turbo")) {
+			if(turbo.isSelected()) turboRunner.start();
+			else turboRunner.stop();
+		}
+		else if(command.equals("Run cycles")) runCycles();
+		else if(command.equals("Record")) setRecording(record.isSelected());
+		else if(command.equals("Export timing")) exportTiming();
+		else if(command.equals("History")) {
+			NetlistEngine netlistEngine = cp.getNetlistEngine();
+			int depth = history.isSelected() ? RewindBuffer.DEFAULT_DEPTH : 0;
+			LogicWorker.startTask(cp, () -> netlistEngine.setRewindDepth(depth));
+		}
+		else if(command.equals("Step back")) stepBack();
+	}
+	
+	/**
+	 * Starts or stops recording signals. A new recording covers the components that are selected, or every component if nothing is selected.
+	 * The recorder is made on the LogicWorker, which has already compiled the netlist, so the event dispatch thread never waits for a compile.
+	 * If the recording is being exported, stopping it finishes the file on a thread of its own
+	 * @param recording True to start recording
+	 */
+	private void setRecording(boolean recording) {
+		NetlistEngine engine = cp.getNetlistEngine();
+		if(!recording) {
+			LogicWorker.startTask(cp, () -> {
+				SignalRecorder stopped = recorder;
+				recorder = null;
+				engine.setRecorder(null);
+				if(stopped != null && stopped.isStreaming()) new Thread(() -> finishExport(stopped)).start();
+			});
+			return;
+		}
+		ArrayList<LComponent> selection = new ArrayList<LComponent>(cp.getEditor().getSelection());
+		LogicWorker.startTask(cp, () -> {
+			SignalRecorder started = new SignalRecorder(engine.compile(), SignalRecorder.DEFAULT_MEMORY_CAP);
+			if(selection.size() > 0) started.select(selection);
+			engine.setRecorder(started);
+			recorder = started;
+		});
+	}
+	
+	/**
+	 * Asks for a file and starts exporting the recording to it as a timing diagram in the VCD format. The signals recorded so far are
+	 * written first, and the file keeps growing until Record signals is turned off, so a long recording never has to fit in memory
+	 */
+	private void exportTiming() {
+		if(!record.isSelected()) {
+			JOptionPane.showMessageDialog(null, "Turn on Record signals before exporting a timing diagram");
+			return;
+		}
+		if(vcdChooser == null) {
+			vcdChooser = new JFileChooser();
+			vcdChooser.setFileFilter(new FileNameExtensionFilter("Value change dump files", "vcd"));
+		}
+		if(vcdChooser.showSaveDialog(null) != JFileChooser.APPROVE_OPTION) return;
+		String path = vcdChooser.getSelectedFile().getAbsolutePath();
+		String vcdPath = path.endsWith(".vcd") ? path : path + ".vcd";
+		LogicWorker.startTask(cp, () -> startExport(vcdPath));
+	}
+	
+	/**
+	 * Starts streaming the recording to a file. This runs on the LogicWorker, so it does not wait for the engine's lock and is ordered
+	 * with turning recording on and off
+	 * @param path The path of the file
+	 */
+	private void startExport(String path) {
+		SignalRecorder exporting = recorder;
+		if(exporting == null) return;
+		if(exporting.isStreaming()) {
+			SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, 
+					"The timing diagram is already being exported. Turn off Record signals to finish it first"));
+			return;
+		}
+		try {
+			exporting.startStream(path, "1ns");
+			SwingUtilities.invokeLater(() -> cp.dispMessage(new UserMessage(cp, 
+					"Exporting the timing diagram until Record signals is turned off", 3000)));
+		} catch (IOException e) {
+			SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, "The timing diagram could not be saved: " + e.getMessage()));
+		}
+	}
+	
+	/**
+	 * Writes the rest of an export and closes the file. This waits for the file to be written, so it runs on a thread of its own
+	 * @param stopped The recorder that was being exported
+	 */
+	private void finishExport(SignalRecorder stopped) {
+		try {
+			stopped.stopStream();
+			SwingUtilities.invokeLater(() -> cp.dispMessage(new UserMessage(cp, "Timing diagram saved", 3000)));
+		} catch (IOException e) {
+			SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, "The timing diagram could not be saved: " + e.getMessage()));
+		}
+	}
+	
+	/**
+	 * Puts the circuit back into the state it was in before its last update, if history is being kept
+	 */
+	private void stepBack() {
+		if(!history.isSelected()) {
+			JOptionPane.showMessageDialog(null, "Turn on Keep history and run the circuit before stepping back");
+			return;
+		}
+		NetlistEngine netlistEngine = cp.getNetlistEngine();
+		LogicWorker.startTask(cp, () -> netlistEngine.stepBack());
+	}
+	
+	/**
+	 * Asks for a number of cycles and runs the circuit in turbo mode for that many cycles of its fastest clock
+	 */
+	private void runCycles() {
+		String input = JOptionPane.showInputDialog(null, "Number of cycles to run?");
+		if(input == null) return;
+		try {
+			long cycles = Long.parseLong(input.trim());
+			if(cycles > 0) {
+				turboRunner.runCycles(cycles);
+				turbo.setSelected(true);
+			}
+		} catch (NumberFormatException e) {
+			JOptionPane.showMessageDialog(null, "Please enter a whole number of cycles");
+		}
 	}
 	
 	/**
@@ -0,0 +1,59 @@
+package com.logic.ui;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JButton;
+
+import com.logic.components.LComponent;
+import com.logic.components.Memory;
+import com.logic.input.Selection;
+
+/**
+ * A button that opens a MemoryViewer for the selected memory
+ * @author toddstennes
+ *
+ */
+public class MemoryButton extends JButton implements ActionListener {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The selection
+	 */
+	private Selection selection;
+
+	/**
+	 * The CircuitPanel
+	 */
+	private CircuitPanel cp;
+
+	/**
+	 * Constructs a new MemoryButton
+	 */
+	public MemoryButton() {
+		super("View contents...");
+		addActionListener(this);
+	}
+
+	/**
+	 * Opens a MemoryViewer for the selected component if a single memory is selected
+	 */
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		if(selection.size() == 1) {
+			LComponent lcomp = selection.get(0);
+			if(lcomp instanceof Memory) new MemoryViewer(cp, (Memory) lcomp).setVisible(true);
+		}
+	}
+
+	/**
+	 * Updates this MemoryButton's reference to the CircuitPanel and selection
+	 * @param cp The CircuitPanel
+	 */
+	public void setCircuitPanel(CircuitPanel cp) {
+		this.cp = cp;
+		selection = cp.getEditor().getSelection();
+	}
+
+}
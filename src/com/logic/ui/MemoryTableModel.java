@@ -0,0 +1,92 @@
+package com.logic.ui;
+
+import javax.swing.table.AbstractTableModel;
+
+import com.logic.components.Memory;
+
+/**
+ * A table model that shows the contents of a memory in hexadecimal, with the address of the first word of each row in the first column
+ * followed by a fixed number of words. The words are read from the memory as the table asks for them, so only the rows that are on the
+ * screen are ever read no matter how large the memory is
+ * @author toddstennes
+ *
+ */
+public class MemoryTableModel extends AbstractTableModel {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The maximum number of words shown in each row
+	 */
+	public static final int WORDS_PER_ROW = 8;
+
+	/**
+	 * The memory
+	 */
+	private Memory memory;
+
+	/**
+	 * Constructs a new MemoryTableModel
+	 * @param memory The memory to show
+	 */
+	public MemoryTableModel(Memory memory) {
+		this.memory = memory;
+	}
+
+	/**
+	 * Returns the number of rows needed to show every word
+	 */
+	@Override
+	public int getRowCount() {
+		return memory.getNumWords() / getWordsPerRow();
+	}
+
+	/**
+	 * Returns the number of words in each row plus one for the address
+	 */
+	@Override
+	public int getColumnCount() {
+		return getWordsPerRow() + 1;
+	}
+
+	/**
+	 * Returns "Address" for the first column and the offset of the word from the start of the row for the others
+	 */
+	@Override
+	public String getColumnName(int column) {
+		if(column == 0) return "Address";
+		return "+" + Integer.toHexString(column - 1).toUpperCase();
+	}
+
+	/**
+	 * Returns the address of the row for the first column and the word at the address of the row plus the offset of the column for the
+	 * others, both in hexadecimal
+	 */
+	@Override
+	public Object getValueAt(int row, int column) {
+		int address = row * getWordsPerRow();
+		if(column == 0) return toHex(address, memory.getAddressWidth());
+		return toHex(memory.read(address + column - 1), memory.getWidth());
+	}
+
+	/**
+	 * Returns the number of words shown in each row, which is less than WORDS_PER_ROW for memories with fewer words
+	 * @return The number of words
+	 */
+	private int getWordsPerRow() {
+		return Math.min(WORDS_PER_ROW, memory.getNumWords());
+	}
+
+	/**
+	 * Converts a value to hexadecimal with enough leading zeros to show the given number of bits
+	 * @param value The value
+	 * @param bits The number of bits
+	 * @return The value in hexadecimal
+	 */
+	private static String toHex(long value, int bits) {
+		String hex = Long.toHexString(value).toUpperCase();
+		int digits = (bits + 3) / 4;
+		while(hex.length() < digits) hex = "0" + hex;
+		return hex;
+	}
+}
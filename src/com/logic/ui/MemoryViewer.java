@@ -0,0 +1,158 @@
+package com.logic.ui;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+
+import com.logic.components.LComponent;
+import com.logic.components.Memory;
+import com.logic.components.Rom;
+import com.logic.engine.LogicWorker;
+
+/**
+ * A window that shows the contents of a memory as a table of hexadecimal words and can load the contents from a file or dump them to a
+ * file. Dumped files hold the raw bytes of the memory in the layout described by Ram
+ * @author toddstennes
+ *
+ */
+public class MemoryViewer extends JDialog implements ActionListener {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The JFileChooser that is used to choose files to load and dump, which is shared by every MemoryViewer so that it remembers the last
+	 * directory that was used
+	 */
+	private static JFileChooser chooser;
+
+	/**
+	 * The memory being viewed
+	 */
+	private Memory memory;
+
+	/**
+	 * The label that describes the image file of a ROM
+	 */
+	private JLabel imageLabel;
+
+	/**
+	 * The table model that reads the contents of the memory
+	 */
+	private MemoryTableModel model;
+
+	/**
+	 * Constructs a new MemoryViewer
+	 * @param cp The CircuitPanel that the memory is in
+	 * @param memory The memory to view
+	 */
+	public MemoryViewer(CircuitPanel cp, Memory memory) {
+		super(cp.getWindow(), memory.toString() + " contents");
+		this.memory = memory;
+		model = new MemoryTableModel(memory);
+		if(memory instanceof Rom) {
+			imageLabel = new JLabel(((Rom) memory).getImageDescription());
+			imageLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+			add(imageLabel, BorderLayout.NORTH);
+		}
+		JTable table = new JTable(model);
+		table.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+		table.getTableHeader().setReorderingAllowed(false);
+		table.setCellSelectionEnabled(true);
+		JScrollPane scrollPane = new JScrollPane(table);
+		scrollPane.setPreferredSize(new Dimension(Math.min(900, 120 + model.getColumnCount() * (memory.getWidth() * 2 + 30)), 400));
+		add(scrollPane, BorderLayout.CENTER);
+
+		JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+		addButton(buttonPanel, "Load...", "Load");
+		addButton(buttonPanel, "Dump...", "Dump");
+		addButton(buttonPanel, "Refresh", "Refresh");
+		add(buttonPanel, BorderLayout.SOUTH);
+		pack();
+		setLocationRelativeTo(cp);
+	}
+
+	/**
+	 * Adds a button to the given panel with this MemoryViewer as its action listener
+	 * @param panel The panel to add the button to
+	 * @param text The text of the button
+	 * @param command The action command string
+	 */
+	private void addButton(JPanel panel, String text, String command) {
+		JButton button = new JButton(text);
+		button.setActionCommand(command);
+		button.addActionListener(this);
+		panel.add(button);
+	}
+
+	/**
+	 * Responds to one of the buttons at the bottom of the window
+	 */
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		String command = e.getActionCommand();
+		if(command.equals("Load")) load();
+		else if(command.equals("Dump")) dump();
+		else if(command.equals("Refresh")) model.fireTableDataChanged();
+	}
+
+	/**
+	 * Asks for a file and fills the memory from it (a RAM copies the file and a ROM uses it as its image), then updates the circuit since
+	 * the word on the Q bus may have changed. The file is read on the LogicWorker, in order with the logic processes that read the memory,
+	 * and the window is updated once it has been read
+	 */
+	private void load() {
+		if(getChooser().showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+		Path path = chooser.getSelectedFile().toPath();
+		LComponent lcomp = (LComponent) memory;
+		LogicWorker.startTask(lcomp, () -> {
+			try {
+				memory.load(path);
+			} catch (IOException e) {
+				SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, "The file could not be loaded: " + e.getMessage()));
+				return;
+			}
+			SwingUtilities.invokeLater(() -> {
+				if(imageLabel != null) imageLabel.setText(((Rom) memory).getImageDescription());
+				model.fireTableDataChanged();
+			});
+		});
+		LogicWorker.startLogic(lcomp);
+	}
+
+	/**
+	 * Asks for a file and saves the contents of the memory to it
+	 */
+	private void dump() {
+		if(getChooser().showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+		try {
+			memory.dump(chooser.getSelectedFile().toPath());
+		} catch (IOException e) {
+			JOptionPane.showMessageDialog(this, "The contents could not be saved: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the JFileChooser, creating it the first time it is needed
+	 * @return The JFileChooser
+	 */
+	private static JFileChooser getChooser() {
+		if(chooser == null) chooser = new JFileChooser();
+		return chooser;
+	}
+}
@@ -0,0 +1,85 @@
+package com.logic.ui;
+
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+
+import javax.swing.SpinnerNumberModel;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import com.logic.components.LComponent;
+import com.logic.input.Selection;
+
+/**
+ * A LabeledSpinner subclass for editing the propagation delay of a component, which is used when gate delays are enabled
+ * @author toddstennes
+ *
+ */
+public class PropagationDelaySpinner extends LabeledSpinner implements ChangeListener {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The maximum propagation delay that a component can be set to
+	 */
+	private final int max = 1000;
+	
+	/**
+	 * The selection
+	 */
+	private Selection selection;
+	
+	/**
+	 * The CircuitPanel
+	 */
+	private CircuitPanel cp;
+	
+	/**
+	 * Constructs a new PropagationDelaySpinner with built in padding so that it looks nice with other JComponents
+	 */
+	public PropagationDelaySpinner() {
+		super("Gate delay: ");
+		FlowLayout layout = new FlowLayout(FlowLayout.LEFT);
+		layout.setHgap(0);
+		layout.setVgap(10);
+		setLayout(layout);
+		SpinnerNumberModel model = new SpinnerNumberModel(0, 0, max, 1);
+		spinner.setModel(model);
+		spinner.addChangeListener(this);
+		spinner.setPreferredSize(new Dimension(65, 20));
+	}
+	
+	/**
+	 * Sets the propagation delay of the selected component to the value currently shown by this spinner if a single component is selected
+	 * and the value is different from its current delay
+	 */
+	@Override
+	public void stateChanged(ChangeEvent e) {
+		if(selection.size() == 1) {
+			LComponent lcomp = selection.get(0);
+			int value = (int) spinner.getValue();
+			if(value != lcomp.getPropagationDelay()) {
+				lcomp.setPropagationDelay(value);
+				cp.getNetlistEngine().invalidate();
+			}
+		}
+	}
+	
+	/**
+	 * Sets the displayed value of this LabeledSpinner to the given value so that it matches a component
+	 * @param val The value to display
+	 */
+	public void setDelayText(int val) {
+		spinner.setValue(val);
+	}
+	
+	/**
+	 * Updates this PropagationDelaySpinner's reference to the CircuitPanel and selection
+	 * @param cp The CircuitPanel
+	 */
+	public void setCircuitPanel(CircuitPanel cp) {
+		this.cp = cp;
+		selection = cp.getEditor().getSelection();
+	}
+	
+}
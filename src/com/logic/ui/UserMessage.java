@@ -44,7 +44,7 @@ public class UserMessage implements ActionListener {
 	/**
 	 * The text to display
 	 */
-	private String text;
+	private volatile String text;
 	
 	/**
 	 * The timer that is used to clear the message, if this message is timed
@@ -85,6 +85,14 @@ public class UserMessage implements ActionListener {
 		if(timer != null) timer.start();
 	}
 	
+	/**
+	 * Changes the text of this message. The new text is shown the next time the CircuitPanel is painted
+	 * @param text The text
+	 */
+	public void setText(String text) {
+		this.text = text;
+	}
+	
 	/**
 	 * Renders the message at the top center of the CircuitPanel
 	 * @param g The Graphics object to use
@@ -0,0 +1,104 @@
+package com.logic.ui;
+
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+
+import javax.swing.SpinnerNumberModel;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import com.logic.components.BusComponent;
+import com.logic.components.LComponent;
+import com.logic.components.SequentialComponent;
+import com.logic.input.CircuitState;
+import com.logic.input.Selection;
+
+/**
+ * A LabeledSpinner subclass for editing the number of bits of a splitter, merger, register, or counter, or the number of data bits of
+ * a RAM or ROM
+ * @author toddstennes
+ *
+ */
+public class WidthSpinner extends LabeledSpinner implements ChangeListener {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The selection
+	 */
+	private Selection selection;
+
+	/**
+	 * The CircuitPanel
+	 */
+	private CircuitPanel cp;
+
+	/**
+	 * Constructs a new WidthSpinner with built in padding so that it looks nice with other JComponents
+	 */
+	public WidthSpinner() {
+		super("Bits: ");
+		FlowLayout layout = new FlowLayout(FlowLayout.LEFT);
+		layout.setHgap(0);
+		layout.setVgap(10);
+		setLayout(layout);
+		SpinnerNumberModel model = new SpinnerNumberModel(BusComponent.DEFAULT_WIDTH, SequentialComponent.MIN_WIDTH, BusComponent.MAX_WIDTH, 1);
+		spinner.setModel(model);
+		spinner.addChangeListener(this);
+		spinner.setPreferredSize(new Dimension(65, 20));
+	}
+
+	/**
+	 * Sets the number of bits of the selected component to the value currently shown by this spinner if a single component with a width
+	 * is selected and the value is different from its current number of bits. If the component does not allow the value, the spinner is
+	 * set back to the component's width
+	 */
+	@Override
+	public void stateChanged(ChangeEvent e) {
+		if(selection.size() == 1) {
+			LComponent lcomp = selection.get(0);
+			int value = (int) spinner.getValue();
+			int width = widthOf(lcomp);
+			if(width > 0 && value != width) {
+				if(lcomp instanceof BusComponent) ((BusComponent) lcomp).setWidth(value);
+				else ((SequentialComponent) lcomp).setWidth(value);
+				spinner.setValue(widthOf(lcomp));
+				cp.cleanWires();
+				cp.getNetlistEngine().invalidate();
+				cp.getEditor().getRevision().saveState(new CircuitState(cp));
+				cp.repaint();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of bits of a component that can be edited with this spinner
+	 * @param lcomp The component
+	 * @return The width of a splitter, merger, register, or counter, or 0 for any other component
+	 */
+	public static int widthOf(LComponent lcomp) {
+		if(lcomp instanceof BusComponent) return ((BusComponent) lcomp).getWidth();
+		else if(lcomp instanceof SequentialComponent && ((SequentialComponent) lcomp).isResizable()) {
+			return ((SequentialComponent) lcomp).getWidth();
+		}
+		return 0;
+	}
+
+	/**
+	 * Sets the displayed value of this LabeledSpinner to the given value so that it matches a component
+	 * @param val The value to display
+	 */
+	public void setWidthText(int val) {
+		spinner.setValue(val);
+	}
+
+	/**
+	 * Updates this WidthSpinner's reference to the CircuitPanel and selection
+	 * @param cp The CircuitPanel
+	 */
+	public void setCircuitPanel(CircuitPanel cp) {
+		this.cp = cp;
+		selection = cp.getEditor().getSelection();
+	}
+
+}
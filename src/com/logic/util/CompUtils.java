@@ -5,6 +5,7 @@ import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 import com.logic.components.Connection;
@@ -50,6 +51,7 @@ public class CompUtils {
 			LComponent oldComp = lcomps.get(l);
 			IOManager oldIO = oldComp.getIO();
 			LComponent newComp = oldComp.makeCopy();
+			if(oldComp.hasPropagationDelay()) newComp.setPropagationDelay(oldComp.getPropagationDelay());
 			newComp.setX(oldComp.getX() + offset.x);
 			newComp.setY(oldComp.getY() + offset.y);
 			oldToNew.put(oldComp, newComp);
@@ -72,7 +74,7 @@ public class CompUtils {
 			Connection newSourceConnection = newSourceComp.getIO().connectionAt(oldSourceConnection.getIndex(), Connection.OUTPUT);
 			Connection newDestConnection = newDestComp.getIO().connectionAt(oldDestConnection.getIndex(), Connection.INPUT);
 			Wire newWire = new Wire();
-			newWire.setSignal(oldWire.getSignal());
+			newWire.setValue(oldWire.getValue());
 			newSourceConnection.addWire(newWire);
 			newDestConnection.addWire(newWire);
 		}
@@ -110,6 +112,7 @@ public class CompUtils {
 		Custom result = new Custom(custom.getX(), custom.getY(), custom.getLabel(), newContent, newInnerComps);
 		result.setName(custom.getName());
 		result.getRotator().setRotation(custom.getRotator().getRotation());
+		result.shareDefinition(custom);
 		return result;
 	}
 	
@@ -143,6 +146,31 @@ public class CompUtils {
 		}
 	}
 	
+	/**
+	 * Returns the components outside of the given list that read an output of a component in the list. These are the components whose
+	 * inputs become open when the components in the list are deleted
+	 * @param lcomps The list of LComponents
+	 * @return The components that are connected to the outputs of the list, each of which appears once
+	 */
+	public static ArrayList<LComponent> getDestinations(List<LComponent> lcomps) {
+		HashSet<LComponent> inList = new HashSet<LComponent>(lcomps);
+		HashSet<LComponent> found = new HashSet<LComponent>();
+		ArrayList<LComponent> destinations = new ArrayList<LComponent>();
+		for(int i = 0; i < lcomps.size(); i++) {
+			IOManager io = lcomps.get(i).getIO();
+			for(int c = 0; c < io.getNumOutputs(); c++) {
+				Connection connection = io.connectionAt(c, Connection.OUTPUT);
+				for(int w = 0; w < connection.numWires(); w++) {
+					Connection dest = connection.getWire(w).getDestConnection();
+					if(dest == null) continue;
+					LComponent lcomp = dest.getLcomp();
+					if(!inList.contains(lcomp) && found.add(lcomp)) destinations.add(lcomp);
+				}
+			}
+		}
+		return destinations;
+	}
+	
 	/**
 	 * Returns the smallest possible Rectangle that completely encloses all of the components 
 	 * @return The bounding Rectangle
@@ -47,4 +47,22 @@ public class CustomInput extends CustomNode {
 		}
 	}
 	
+	/**
+	 * Sets the state of the internal Switch without requesting a logic process. This is used when the custom component has been flattened
+	 * into a netlist, so that the Switch still shows the state of its input and addIfNecessary(...) stays consistent
+	 * @param state The state of the input that corresponds to this CustomInput
+	 */
+	public void setState(boolean state) {
+		sw.setState(state);
+		prevState = state;
+	}
+	
+	/**
+	 * Returns the internal Switch that corresponds to this CustomInput
+	 * @return The Switch
+	 */
+	public Switch getSwitch() {
+		return sw;
+	}
+	
 }
@@ -33,4 +33,12 @@ public class CustomOutput extends CustomNode {
 		return lt.getIO().getInput(0);
 	}
 	
+	/**
+	 * Returns the internal Light that corresponds to this CustomOutput
+	 * @return The Light
+	 */
+	public Light getLight() {
+		return lt;
+	}
+	
 }
@@ -0,0 +1,101 @@
+package com.logic.util;
+
+/**
+ * Finds the nodes of a directed graph that are part of a cycle, using an iterative version of Tarjan's strongly connected components
+ * algorithm so that long cycles cannot overflow the stack. This is used to find the components that are responsible for an oscillation,
+ * and to levelize a netlist.
+ * @author toddstennes
+ *
+ */
+public class CycleFinder {
+
+	/**
+	 * Finds every node that belongs to a strongly connected component with more than one node, or that has an edge to itself
+	 * @param successors The graph, where successors[v] lists the nodes that v has edges to
+	 * @return An array where entry v is true if node v is part of a cycle
+	 */
+	public static boolean[] findCycles(int[][] successors) {
+		int n = successors.length;
+		int[] components = findComponents(successors);
+		int[] sizes = new int[n];
+		for(int v = 0; v < n; v++) sizes[components[v]]++;
+		boolean[] cyclic = new boolean[n];
+		for(int v = 0; v < n; v++) cyclic[v] = sizes[components[v]] > 1 || hasSelfLoop(successors, v);
+		return cyclic;
+	}
+
+	/**
+	 * Finds the strongly connected components of a graph. Components are numbered in the order Tarjan's algorithm completes them, which is
+	 * a reverse topological order: every edge between two different components goes from a higher numbered component to a lower one
+	 * @param successors The graph, where successors[v] lists the nodes that v has edges to
+	 * @return An array where entry v is the number of the component that contains node v
+	 */
+	public static int[] findComponents(int[][] successors) {
+		int n = successors.length;
+		int[] index = new int[n];
+		int[] low = new int[n];
+		int[] edge = new int[n];
+		int[] stack = new int[n];
+		int[] callStack = new int[n];
+		boolean[] onStack = new boolean[n];
+		int[] components = new int[n];
+		for(int v = 0; v < n; v++) index[v] = -1;
+		int counter = 0;
+		int numComponents = 0;
+		int sp = 0;
+
+		for(int root = 0; root < n; root++) {
+			if(index[root] != -1) continue;
+			int csp = 0;
+			callStack[csp++] = root;
+			index[root] = low[root] = counter++;
+			stack[sp++] = root;
+			onStack[root] = true;
+			while(csp > 0) {
+				int v = callStack[csp - 1];
+				if(edge[v] < successors[v].length) {
+					int w = successors[v][edge[v]++];
+					if(index[w] == -1) {
+						index[w] = low[w] = counter++;
+						stack[sp++] = w;
+						onStack[w] = true;
+						callStack[csp++] = w;
+					}
+					else if(onStack[w]) low[v] = Math.min(low[v], index[w]);
+				}
+				else {
+					csp--;
+					if(csp > 0) {
+						int parent = callStack[csp - 1];
+						low[parent] = Math.min(low[parent], low[v]);
+					}
+					if(low[v] == index[v]) {
+						int start = sp;
+						do start--;
+						while(stack[start] != v);
+						for(int i = start; i < sp; i++) {
+							onStack[stack[i]] = false;
+							components[stack[i]] = numComponents;
+						}
+						numComponents++;
+						sp = start;
+					}
+				}
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * Tells whether the given node has an edge to itself
+	 * @param successors The graph
+	 * @param v The node
+	 * @return True if v is one of its own successors
+	 */
+	private static boolean hasSelfLoop(int[][] successors, int v) {
+		for(int i = 0; i < successors[v].length; i++) {
+			if(successors[v][i] == v) return true;
+		}
+		return false;
+	}
+}
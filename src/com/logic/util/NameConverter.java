@@ -32,6 +32,18 @@ public class NameConverter {
 		else if(type == CompType.ZERO) return "Zero constant";
 		else if(type == CompType.ONE) return "One constant";
 		else if(type == CompType.DISPLAY) return "4-bit display";
+		else if(type == CompType.SPLITTER) return "Bus splitter";
+		else if(type == CompType.MERGER) return "Bus merger";
+		else if(type == CompType.SR_FLIPFLOP) return "SR flip-flop";
+		else if(type == CompType.D_FLIPFLOP) return "D flip-flop";
+		else if(type == CompType.JK_FLIPFLOP) return "JK flip-flop";
+		else if(type == CompType.T_FLIPFLOP) return "T flip-flop";
+		else if(type == CompType.SR_LATCH) return "SR latch";
+		else if(type == CompType.D_LATCH) return "D latch";
+		else if(type == CompType.REGISTER) return "Register";
+		else if(type == CompType.COUNTER) return "Counter";
+		else if(type == CompType.RAM) return "RAM";
+		else if(type == CompType.ROM) return "ROM";
 		else if(type == CompType.CUSTOM) return "Custom component";
 		return "Unknown name";
 	}
@@ -72,4 +84,18 @@ public class NameConverter {
 		return "Low";
 	}
 	
+	/**
+	 * Converts from the number of address and data bits of a memory to the size of that memory (ex: 16, 8 -> "64Kx8")
+	 * @param addressWidth The number of address bits
+	 * @param dataWidth The number of data bits
+	 * @return The number of words and the number of bits in each word
+	 */
+	public static String nameFromMemorySize(int addressWidth, int dataWidth) {
+		String words;
+		if(addressWidth >= 20) words = (1 << (addressWidth - 20)) + "M";
+		else if(addressWidth >= 10) words = (1 << (addressWidth - 10)) + "K";
+		else words = String.valueOf(1 << addressWidth);
+		return words + "x" + dataWidth;
+	}
+	
 }